@@ -0,0 +1,49 @@
+//******************************************************************************
+//                          AccessLogsConfig.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core;
+
+import org.opensilex.config.ConfigDescription;
+import org.opensilex.core.logs.AccessLogWriter;
+import org.opensilex.service.ServiceConfig;
+
+/**
+ * User access logs writer configuration interface
+ *
+ * @see AccessLogWriter
+ */
+public interface AccessLogsConfig extends ServiceConfig {
+
+    @ConfigDescription(
+            value = "Maximum number of access logs waiting to be written",
+            defaultInt = 10000
+    )
+    int bufferSize();
+
+    @ConfigDescription(
+            value = "Maximum number of access logs written by one insert",
+            defaultInt = 500
+    )
+    int batchSize();
+
+    @ConfigDescription(
+            value = "Maximum delay in milliseconds before pending access logs are written",
+            defaultInt = 1000
+    )
+    int flushIntervalMs();
+
+    @ConfigDescription(
+            value = "Policy applied when logs are produced faster than written : DROP (drop logs once buffer is full) or SAMPLE (keep one log of sampleRate once buffer is half full)",
+            defaultString = "DROP"
+    )
+    String overflowPolicy();
+
+    @ConfigDescription(
+            value = "Keep one log of sampleRate with SAMPLE overflow policy",
+            defaultInt = 10
+    )
+    int sampleRate();
+}
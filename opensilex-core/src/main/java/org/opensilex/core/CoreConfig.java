@@ -19,6 +19,11 @@ public interface CoreConfig {
     )
     boolean enableLogs();
 
+    @ConfigDescription(
+            value = "Access logs writer options"
+    )
+    AccessLogsConfig accessLogs();
+
     @ConfigDescription(
             value = "Metrics options"
     )
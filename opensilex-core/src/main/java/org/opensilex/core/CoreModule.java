@@ -17,6 +17,8 @@ import java.util.List;
 
 import org.apache.jena.riot.Lang;
 import org.apache.jena.vocabulary.OA;
+import org.opensilex.core.logs.AccessLogWriter;
+import org.opensilex.core.logs.dal.LogsDAO;
 import org.opensilex.core.ontology.Oeso;
 import org.opensilex.core.ontology.Oeev;
 import org.opensilex.core.ontology.Time;
@@ -140,9 +142,31 @@ public class CoreModule extends OpenSilexModule implements APIExtension, SPARQLE
     }
 
 
+    private AccessLogWriter accessLogWriter;
+
     @Override
     public void startup() throws Exception {
+        CoreConfig config = getConfig(CoreConfig.class);
+        if (config.enableLogs()) {
+            MongoDBService nosql = getOpenSilex().getServiceInstance(MongoDBService.DEFAULT_SERVICE, MongoDBService.class);
+            accessLogWriter = new AccessLogWriter(new LogsDAO(nosql), config.accessLogs());
+            accessLogWriter.start();
+        }
+    }
+
+    @Override
+    public void shutdown() throws Exception {
+        if (accessLogWriter != null) {
+            accessLogWriter.close();
+            accessLogWriter = null;
+        }
+    }
 
+    /**
+     * @return writer of user access logs, or null if access logs are disabled
+     */
+    public AccessLogWriter getAccessLogWriter() {
+        return accessLogWriter;
     }
 
 
@@ -31,4 +31,10 @@ public interface MetricsConfig extends ServiceConfig {
             value = "Metrics configs about system"
     )
     SystemMetricsConfig system();
+
+    @ConfigDescription(
+            value = "Maximum number of metrics queries run in parallel when counters are rebuilt, limits triplestore and MongoDB load",
+            defaultInt = 2
+    )
+    int parallelism();
 }
@@ -309,7 +309,7 @@ public class AreaAPI {
         List<AreaGetDTO> dtoList = new ArrayList<>();
 
         // Get Area URI List
-        FindIterable<GeospatialModel> mapGeo = geoDAO.searchIntersectsArea(geoJsonToGeometry(geometry), currentUser, sparql);
+        FindIterable<GeospatialModel> mapGeo = geoDAO.searchIntersectsArea(geoJsonToGeometry(geometry));
 
         List<GeospatialModel> mapGeoTmp = new ArrayList<>();
         // search with date
@@ -14,6 +14,7 @@ import com.univocity.parsers.csv.CsvParser;
 import com.univocity.parsers.csv.CsvParserSettings;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.jena.arq.querybuilder.SelectBuilder;
+import org.apache.jena.graph.Node;
 import org.apache.jena.rdf.model.Property;
 import org.apache.jena.sparql.core.Var;
 import org.apache.jena.vocabulary.RDFS;
@@ -32,6 +33,7 @@ import org.opensilex.sparql.ontology.dal.OntologyDAO;
 import org.opensilex.sparql.ontology.dal.OwlRestrictionModel;
 import org.opensilex.sparql.service.SPARQLQueryHelper;
 import org.opensilex.sparql.service.SPARQLService;
+import org.opensilex.uri.generation.UniqueURIGenerator;
 import org.opensilex.utils.ClassUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -147,6 +149,10 @@ public abstract class AbstractCsvDao<T extends SPARQLNamedResourceModel> impleme
                 Map<URI, Map<URI, Boolean>> checkedClassObjectURIs = new HashMap<>();
                 Map<URI, Integer> checkedURIs = new HashMap<>();
 
+                // URIs read from the file and objects without URI, checked and generated for all rows at once
+                Map<String, CSVCell> uriCells = new LinkedHashMap<>();
+                List<SPARQLNamedResourceModel<T>> objectsToGenerate = new ArrayList<>();
+
                 OntologyDAO ontologyDAO = new OntologyDAO(sparql);
                 while ((values = csvReader.parseNext()) != null) {
                     try {
@@ -166,7 +172,7 @@ public abstract class AbstractCsvDao<T extends SPARQLNamedResourceModel> impleme
 
                         Map<String, OwlRestrictionModel> restrictionsByID = typeRestrictions.get(rdfType.toString());
 
-                        validateCSVRow(graph, typeModels.get(rdfType.toString()), values, rowIndex, csvValidation, uriIndex, typeIndex, nameIndex, restrictionsByID, headerByIndex, checkedClassObjectURIs, checkedURIs, customValidators, generateURI);
+                        validateCSVRow(graph, typeModels.get(rdfType.toString()), values, rowIndex, csvValidation, uriIndex, typeIndex, nameIndex, restrictionsByID, headerByIndex, checkedClassObjectURIs, checkedURIs, uriCells, objectsToGenerate, customValidators, generateURI);
 
                     } catch (Exception ex) {
                         CSVCell cell = new CSVCell(rowIndex, 0, "Unhandled error while parsing row: " + ex.getMessage(), "all");
@@ -176,6 +182,15 @@ public abstract class AbstractCsvDao<T extends SPARQLNamedResourceModel> impleme
                     rowIndex++;
                 }
 
+                try {
+                    checkExistingURIs(graph, uriCells, csvValidation);
+                    if (!csvValidation.hasErrors()) {
+                        generateURIs(graph, objectsToGenerate, checkedURIs.keySet());
+                    }
+                } catch (Exception ex) {
+                    CSVCell cell = new CSVCell(0, uriIndex, "Unhandled error while checking URIs: " + ex.getMessage(), CSV_URI_KEY);
+                    csvValidation.addInvalidValueError(cell);
+                }
             }
 
             return csvValidation;
@@ -195,6 +210,8 @@ public abstract class AbstractCsvDao<T extends SPARQLNamedResourceModel> impleme
             Map<Integer, String> headerByIndex,
             Map<URI, Map<URI, Boolean>> checkedClassObjectURIs,
             Map<URI, Integer> checkedURIs,
+            Map<String, CSVCell> uriCells,
+            List<SPARQLNamedResourceModel<T>> objectsToGenerate,
             Map<String, BiConsumer<CSVCell, CSVValidationModel>> customValidators,
             boolean generateURI
     ) throws Exception {
@@ -222,10 +239,10 @@ public abstract class AbstractCsvDao<T extends SPARQLNamedResourceModel> impleme
                         URI objectURI = new URI(value);
                         if (checkedURIs.containsKey(objectURI)) {
                             csvValidation.addDuplicateURIError(cell, checkedURIs.get(objectURI));
-                        } else if (!sparql.uriExists(SPARQLDeserializers.nodeURI(graph), objectURI)) {
-                            object.setUri(objectURI);
                         } else {
-                            csvValidation.addAlreadyExistingURIError(cell);
+                            // existence is checked once all rows are read
+                            object.setUri(objectURI);
+                            uriCells.put(SPARQLDeserializers.getExpandedURI(objectURI), cell);
                         }
                         checkedURIs.put(objectURI, rowIndex);
                     } else {
@@ -260,17 +277,8 @@ public abstract class AbstractCsvDao<T extends SPARQLNamedResourceModel> impleme
 
         if (!csvValidation.hasErrors()) {
             if (object.getUri() == null && generateURI) {
-                String generationUriPrefix = sparql.getDefaultGenerationURI(objectClass).toString();
-                int retry = 0;
-                URI objectURI = object.generateURI(generationUriPrefix, (T) object, retry);
-
-                // check if URI has not been locally used or if it not already exist into sparql repository
-                while (checkedURIs.containsKey(objectURI) || sparql.uriExists(SPARQLDeserializers.nodeURI(graph), objectURI)) {
-                    retry++;
-                    objectURI = object.generateURI(generationUriPrefix, (T) object, retry);
-                }
-                checkedURIs.put(objectURI, rowIndex);
-                object.setUri(objectURI);
+                // URI is generated once all rows are read
+                objectsToGenerate.add(object);
             }
 
             object.setType(model.getUri());
@@ -278,6 +286,51 @@ public abstract class AbstractCsvDao<T extends SPARQLNamedResourceModel> impleme
         }
     }
 
+    /**
+     * Add an error for each URI read from the file which already exists in graph, with one query by batch of URIs
+     *
+     * @param graph graph in which objects are imported
+     * @param uriCells cells of URIs read from the file, by expanded URI
+     * @param csvValidation validation model to update
+     */
+    private void checkExistingURIs(URI graph, Map<String, CSVCell> uriCells, CSVValidationModel csvValidation) throws SPARQLException {
+        List<URI> uris = new ArrayList<>(uriCells.size());
+        uriCells.keySet().forEach(uri -> uris.add(URI.create(uri)));
+
+        for (URI existingURI : sparql.getExistingURIs(SPARQLDeserializers.nodeURI(graph), uris)) {
+            CSVCell cell = uriCells.get(SPARQLDeserializers.getExpandedURI(existingURI));
+            if (cell != null) {
+                csvValidation.addAlreadyExistingURIError(cell);
+            }
+        }
+    }
+
+    /**
+     * Generate URIs which are not used in the file nor in graph, with one query by batch of URIs
+     *
+     * @param graph graph in which objects are imported
+     * @param objects objects without URI
+     * @param fileURIs URIs read from the file
+     */
+    @SuppressWarnings("unchecked")
+    private void generateURIs(URI graph, List<SPARQLNamedResourceModel<T>> objects, Collection<URI> fileURIs) throws Exception {
+        if (objects.isEmpty()) {
+            return;
+        }
+        Node graphNode = SPARQLDeserializers.nodeURI(graph);
+        String generationUriPrefix = sparql.getDefaultGenerationURI(objectClass).toString();
+
+        UniqueURIGenerator uriGenerator = new UniqueURIGenerator(
+                uris -> sparql.getExistingURIs(graphNode, uris),
+                SPARQLDeserializers::getExpandedURI,
+                SPARQLService.URI_EXISTS_BATCH_SIZE
+        );
+        uriGenerator.generate(objects,
+                (object, retry) -> object.generateURI(generationUriPrefix, (T) object, retry),
+                SPARQLResourceModel::setUri,
+                fileURIs);
+    }
+
     private void validateCSVSingleValue(
             URI graph,
             ClassModel model,
@@ -15,9 +15,7 @@ import com.univocity.parsers.csv.CsvParser;
 import com.univocity.parsers.csv.CsvParserSettings;
 import io.swagger.annotations.*;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.jena.arq.querybuilder.AskBuilder;
 import org.apache.jena.graph.Node;
-import org.apache.jena.vocabulary.RDFS;
 import org.bson.Document;
 import org.glassfish.jersey.media.multipart.FormDataContentDisposition;
 import org.glassfish.jersey.media.multipart.FormDataParam;
@@ -38,7 +36,6 @@ import org.opensilex.core.provenance.api.ProvenanceGetDTO;
 import org.opensilex.core.provenance.dal.AgentModel;
 import org.opensilex.core.provenance.dal.ProvenanceDAO;
 import org.opensilex.core.provenance.dal.ProvenanceModel;
-import org.opensilex.core.scientificObject.dal.ScientificObjectDAO;
 import org.opensilex.core.scientificObject.dal.ScientificObjectModel;
 import org.opensilex.core.variable.dal.VariableDAO;
 import org.opensilex.core.variable.dal.VariableModel;
@@ -65,11 +62,11 @@ import org.opensilex.sparql.model.SPARQLModelRelation;
 import org.opensilex.sparql.model.SPARQLNamedResourceModel;
 import org.opensilex.sparql.model.SPARQLTreeListModel;
 import org.opensilex.sparql.ontology.dal.ClassModel;
-import org.opensilex.sparql.ontology.dal.OntologyDAO;
 import org.opensilex.sparql.response.NamedResourceDTO;
 import org.opensilex.sparql.response.ResourceTreeDTO;
 import org.opensilex.sparql.service.SPARQLService;
 import org.opensilex.utils.ClassUtils;
+import org.opensilex.utils.CountMode;
 import org.opensilex.utils.ListWithPagination;
 import org.opensilex.utils.OrderBy;
 import org.slf4j.Logger;
@@ -90,6 +87,8 @@ import java.io.Reader;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.zone.ZoneRulesException;
@@ -275,7 +274,7 @@ public class DataAPI {
         if (targets == null) {
             targets = new ArrayList<>();
         }
-        return getDataList(startDate, endDate, timezone, experiments, targets, variables, devices, confidenceMin, confidenceMax, provenances, metadata, orderByList, page, pageSize);
+        return getDataList(startDate, endDate, timezone, experiments, targets, variables, devices, confidenceMin, confidenceMax, provenances, metadata, orderByList, page, pageSize, null, CountMode.EXACT);
     }
 
     @GET
@@ -300,9 +299,11 @@ public class DataAPI {
             @ApiParam(value = "Search by metadata", example = DATA_EXAMPLE_METADATA) @QueryParam("metadata") String metadata,
             @ApiParam(value = "List of fields to sort as an array of fieldName=asc|desc", example = "date=desc") @DefaultValue("date=desc") @QueryParam("order_by") List<OrderBy> orderByList,
             @ApiParam(value = "Page number", example = "0") @QueryParam("page") @DefaultValue("0") @Min(0) int page,
-            @ApiParam(value = "Page size", example = "20") @QueryParam("page_size") @DefaultValue("20") @Min(0) int pageSize
+            @ApiParam(value = "Page size", example = "20") @QueryParam("page_size") @DefaultValue("20") @Min(0) int pageSize,
+            @ApiParam(value = "Continuation token of the previous page, empty for the first page. Enables keyset pagination : page is only used for the response metadata") @QueryParam("page_token") String pageToken,
+            @ApiParam(value = "Total count computation : EXACT, ESTIMATED or NONE (total count is -1)", example = "EXACT") @QueryParam("count") @DefaultValue("EXACT") CountMode countMode
     ) throws Exception {
-        return getDataList(startDate, endDate, timezone, experiments, targets, variables, devices, confidenceMin, confidenceMax, provenances, metadata, orderByList, page, pageSize);
+        return getDataList(startDate, endDate, timezone, experiments, targets, variables, devices, confidenceMin, confidenceMax, provenances, metadata, orderByList, page, pageSize, pageToken, countMode);
     }
 
     private Response getDataList(
@@ -319,7 +320,9 @@ public class DataAPI {
             String metadata,
             List<OrderBy> orderByList,
             int page,
-            int pageSize) throws Exception{
+            int pageSize,
+            String pageToken,
+            CountMode countMode) throws Exception{
 
         DataDAO dao = new DataDAO(nosql, sparql, fs);
 
@@ -353,22 +356,32 @@ public class DataAPI {
             }
         }
 
-        ListWithPagination<DataModel> resultList = dao.search(
-                user,
-                experiments,
-                targets,
-                variables,
-                provenances,
-                devices,
-                startInstant,
-                endInstant,
-                confidenceMin,
-                confidenceMax,
-                metadataFilter,
-                orderByList,
-                page,
-                pageSize
-        );
+        ListWithPagination<DataModel> resultList;
+        try {
+            resultList = dao.search(
+                    user,
+                    experiments,
+                    targets,
+                    variables,
+                    provenances,
+                    devices,
+                    startInstant,
+                    endInstant,
+                    confidenceMin,
+                    confidenceMax,
+                    metadataFilter,
+                    orderByList,
+                    page,
+                    pageSize,
+                    pageToken,
+                    countMode
+            );
+        } catch (IllegalArgumentException e) {
+            if (pageToken == null) {
+                throw e;
+            }
+            return new ErrorResponse(Response.Status.BAD_REQUEST, "PAGE_TOKEN_PARAM_ERROR", e.getMessage()).getResponse();
+        }
 
         ListWithPagination<DataGetDTO> resultDTOList = dao.modelListToDTO(resultList);
         return new PaginatedListResponse<>(resultDTOList).getResponse();
@@ -976,24 +989,14 @@ public class DataAPI {
             }
         }
 
-        Instant start = Instant.now();
-        List<DataModel> resultList = dao.search(user, experiments, objects, variables, provenances, devices, startInstant, endInstant, confidenceMin, confidenceMax, metadataFilter, orderByList);
-        Instant data = Instant.now();
-        LOGGER.debug(resultList.size() + " observations retrieved " + Long.toString(Duration.between(start, data).toMillis()) + " milliseconds elapsed");
-
-        Response prepareCSVExport = null;
+        // filter is built before streaming, so access errors are returned as a regular error response
+        Document filter = dao.searchFilter(user, experiments, objects, variables, provenances, devices, startInstant, endInstant, confidenceMin, confidenceMax, metadataFilter);
 
         if (csvFormat.equals("long")) {
-            prepareCSVExport = dao.prepareCSVLongExportResponse(resultList, user, withRawData);
+            return dao.prepareCSVLongExportResponse(filter, orderByList, user, withRawData);
         } else {
-            prepareCSVExport = dao.prepareCSVWideExportResponse(resultList, user, withRawData);
+            return dao.prepareCSVWideExportResponse(filter, orderByList, user, withRawData);
         }
-
-        Instant finish = Instant.now();
-        long timeElapsed = Duration.between(start, finish).toMillis();
-        LOGGER.debug("Export data " + Long.toString(timeElapsed) + " milliseconds elapsed");
-
-        return prepareCSVExport;
     }
 
     @GET
@@ -1227,28 +1230,20 @@ public class DataAPI {
     private final String soHeader = "scientific_object";
     
     private DataCSVValidationModel validateWholeCSV(ProvenanceModel provenance, URI experiment, InputStream file, UserModel currentUser) throws Exception {
-        DataCSVValidationModel csvValidation = new DataCSVValidationModel();
-        OntologyDAO ontologyDAO = new OntologyDAO(sparql);
-        Map<String, SPARQLNamedResourceModel> nameURITargets = new HashMap<>();
-        List<String> notExistingTargets = new ArrayList<>();
-        List<String> duplicatedTargets = new ArrayList<>();
-        
-        ExperimentDAO xpDAO = new ExperimentDAO(sparql, nosql);
-        Map<String, ExperimentModel> nameURIExperiments = new HashMap<>();
-        List<String> notExistingExperiments = new ArrayList<>();
-        List<String> duplicatedExperiments = new ArrayList<>();
-
-
-        ScientificObjectDAO scientificObjectDAO = new ScientificObjectDAO(sparql, nosql);
-        Map<String, ScientificObjectModel> nameURIScientificObjectsInXp = new HashMap<>();
-        List<String> scientificObjectsNotInXp = new ArrayList<>();
+        // the file is read twice : once to resolve all referenced resources by batches, then to validate each row
+        java.nio.file.Path csvFile = Files.createTempFile("opensilex-data-import", ".csv");
+        try {
+            Files.copy(file, csvFile, StandardCopyOption.REPLACE_EXISTING);
+            return validateWholeCSV(provenance, experiment, csvFile, currentUser);
+        } finally {
+            Files.deleteIfExists(csvFile);
+        }
+    }
 
-        
+    private DataCSVValidationModel validateWholeCSV(ProvenanceModel provenance, URI experiment, java.nio.file.Path csvFile, UserModel currentUser) throws Exception {
+        DataCSVValidationModel csvValidation = new DataCSVValidationModel();
         DeviceDAO deviceDAO = new DeviceDAO(sparql, nosql, fs);
-        Map<String,DeviceModel> nameURIDevices = new HashMap<>();
-        List<String> notExistingDevices = new ArrayList<>();
-        List<String> duplicatedDevices = new ArrayList<>();
-        
+
         List<AgentModel> agents = provenance.getAgents();
         Boolean hasDevice = false;
         if (agents !=  null) {
@@ -1267,9 +1262,9 @@ public class DataAPI {
 
         Map<Integer, String> headerByIndex = new HashMap<>();
 
-        List<ImportDataIndex> duplicateDataByIndex = new ArrayList<>();
+        Set<ImportDataIndex> duplicateDataByIndex = new HashSet<>();
 
-        try (Reader inputReader = new InputStreamReader(file, StandardCharsets.UTF_8.name())) {
+        try (Reader inputReader = new InputStreamReader(Files.newInputStream(csvFile), StandardCharsets.UTF_8.name())) {
             CsvParserSettings csvParserSettings = ClassUtils.getCSVParserDefaultSettings();
             CsvParser csvReader = new CsvParser(csvParserSettings);
             csvReader.beginParsing(inputReader);
@@ -1336,6 +1331,12 @@ public class DataAPI {
 
                 // Line 3
                 csvReader.parseNext();
+
+                // 2. resolve experiments, targets, scientific objects and devices of the whole file
+                Instant start = Instant.now();
+                DataCSVImportResolver resolver = resolveCSVReferences(csvFile, headerByIndex, experiment, currentUser);
+                LOGGER.debug("Import data - references resolution " + Duration.between(start, Instant.now()).toMillis() + " milliseconds elapsed");
+
                 // Line 4
                 int nbError = 0;
                 boolean validateCSVRow = false;
@@ -1352,21 +1353,8 @@ public class DataAPI {
                                 rowIndex, 
                                 csvValidation, 
                                 headerByIndex, 
-                                xpDAO,
-                                notExistingExperiments,
-                                duplicatedExperiments,
-                                nameURIExperiments,                                
-                                ontologyDAO,
-                                notExistingTargets,
-                                duplicatedTargets,
-                                nameURITargets,
-                                scientificObjectDAO,
-                                nameURIScientificObjectsInXp,
-                                scientificObjectsNotInXp,
+                                resolver,
                                 deviceDAO,
-                                notExistingDevices,
-                                duplicatedDevices,
-                                nameURIDevices,
                                 mapVariableUriDataType, 
                                 duplicateDataByIndex);
                     } catch (CSVDataTypeException e) {
@@ -1390,6 +1378,46 @@ public class DataAPI {
         return csvValidation;
     }
 
+    /**
+     * First pass on the CSV : collect the distinct experiments, targets, scientific objects and devices of all rows
+     * and resolve them by batches.
+     */
+    private DataCSVImportResolver resolveCSVReferences(java.nio.file.Path csvFile, Map<Integer, String> headerByIndex, URI experiment, UserModel currentUser) throws Exception {
+        DataCSVImportResolver resolver = new DataCSVImportResolver(sparql, nosql, fs, currentUser, experiment);
+
+        try (Reader inputReader = new InputStreamReader(Files.newInputStream(csvFile), StandardCharsets.UTF_8.name())) {
+            CsvParser csvReader = new CsvParser(ClassUtils.getCSVParserDefaultSettings());
+            csvReader.beginParsing(inputReader);
+
+            // skip the three header lines
+            csvReader.parseNext();
+            csvReader.parseNext();
+            csvReader.parseNext();
+
+            String[] values;
+            while ((values = csvReader.parseNext()) != null) {
+                for (int colIndex = 0; colIndex < values.length; colIndex++) {
+                    String header = headerByIndex.get(colIndex);
+                    if (header == null) {
+                        continue;
+                    }
+                    if (header.equalsIgnoreCase(expHeader)) {
+                        resolver.addExperiment(values[colIndex]);
+                    } else if (header.equalsIgnoreCase(targetHeader)) {
+                        resolver.addTarget(values[colIndex]);
+                    } else if (header.equalsIgnoreCase(soHeader)) {
+                        resolver.addObject(values[colIndex]);
+                    } else if (header.equalsIgnoreCase(deviceHeader)) {
+                        resolver.addDevice(values[colIndex]);
+                    }
+                }
+            }
+        }
+
+        resolver.resolve();
+        return resolver;
+    }
+
     private boolean validateCSVRow(
             ProvenanceModel provenance,
             URI experiment,
@@ -1401,23 +1429,10 @@ public class DataAPI {
             int rowIndex, 
             DataCSVValidationModel csvValidation, 
             Map<Integer, String> headerByIndex, 
-            ExperimentDAO xpDAO,
-            List<String> notExistingExperiments,
-            List<String> duplicatedExperiments,
-            Map<String, ExperimentModel> nameURIExperiments,
-            OntologyDAO ontologyDAO, 
-            List<String> notExistingTargets,
-            List<String> duplicatedTargets,
-            Map<String, SPARQLNamedResourceModel> nameURITargets,
-            ScientificObjectDAO scientificObjectDAO,
-            Map<String, ScientificObjectModel> nameURIScientificObjects,
-            List<String> scientificObjectsNotInXp,
+            DataCSVImportResolver resolver,
             DeviceDAO deviceDAO, 
-            List<String> notExistingDevices,
-            List<String> duplicatedDevices,
-            Map<String, DeviceModel> nameURIDevices,
             HashMap<URI, URI> mapVariableUriDataType, 
-            List<ImportDataIndex> duplicateDataByIndex) 
+            Set<ImportDataIndex> duplicateDataByIndex) 
         throws CSVDataTypeException, TimezoneAmbiguityException, TimezoneException, URISyntaxException, Exception {
         
         boolean validRow = true;
@@ -1443,42 +1458,16 @@ public class DataAPI {
                 //check experiment column
                 ExperimentModel exp = null;
                 String expNameOrUri = values[colIndex];
-                // test in uri list
                 if (!StringUtils.isEmpty(expNameOrUri)) {
-                    if (nameURIExperiments.containsKey(expNameOrUri)) {
-                        exp = nameURIExperiments.get(expNameOrUri);
-                    } else {
-                        // test not in uri list
-                        if (duplicatedExperiments.contains(expNameOrUri)) {
-                            CSVCell cell = new CSVCell(rowIndex, colIndex, expNameOrUri, "EXPERIMENT_ID");
+                    exp = resolver.getExperiments().get(expNameOrUri);
+                    if (exp == null) {
+                        CSVCell cell = new CSVCell(rowIndex, colIndex, expNameOrUri, "EXPERIMENT_ID");
+                        if (resolver.getDuplicatedExperiments().contains(expNameOrUri)) {
                             csvValidation.addDuplicateExperimentError(cell);
-                            validRow = false;
-                        } else if (!notExistingExperiments.contains(expNameOrUri)) {
-                            try {
-                                exp = getExperimentByNameOrURI(xpDAO, expNameOrUri);
-                                if (exp == null) {
-                                    if (!notExistingExperiments.contains(expNameOrUri)) {
-                                        notExistingExperiments.add(expNameOrUri);
-                                    }
-
-                                    CSVCell cell = new CSVCell(rowIndex, colIndex, expNameOrUri, "EXPERIMENT_ID");
-                                    csvValidation.addInvalidExperimentError(cell);
-                                    validRow = false;
-                                } else {
-                                    nameURIExperiments.put(expNameOrUri, exp);
-                                }
-                            } catch (DuplicateNameException e) {
-                                CSVCell cell = new CSVCell(rowIndex, colIndex, expNameOrUri, "EXPERIMENT_ID");
-                                csvValidation.addDuplicateExperimentError(cell);
-                                duplicatedExperiments.add(expNameOrUri);
-                                validRow = false;
-                            }
                         } else {
-                            CSVCell cell = new CSVCell(rowIndex, colIndex, expNameOrUri, "EXPERIMENT_ID");
                             csvValidation.addInvalidExperimentError(cell);
-                            validRow = false;
-
                         }
+                        validRow = false;
                     }
                 }
                 if (exp != null) {
@@ -1491,64 +1480,29 @@ public class DataAPI {
                 String targetNameOrUri = values[colIndex];
                 targetColIndex = colIndex;
 
-                if (!StringUtils.isEmpty(targetNameOrUri)){
-                    if (nameURITargets.containsKey(targetNameOrUri)) {
-                        target = nameURITargets.get(targetNameOrUri);
-                    } else {
-                        // test not in uri list
-                        if (duplicatedTargets.contains(targetNameOrUri)) {
-                            CSVCell cell = new CSVCell(rowIndex, colIndex, targetNameOrUri, "TARGET_ID");
+                if (!StringUtils.isEmpty(targetNameOrUri)) {
+                    target = resolver.getTargets().get(targetNameOrUri);
+                    if (target == null) {
+                        CSVCell cell = new CSVCell(rowIndex, colIndex, targetNameOrUri, "TARGET_ID");
+                        if (resolver.getDuplicatedTargets().contains(targetNameOrUri)) {
                             csvValidation.addDuplicateTargetError(cell);
-                            validRow = false;
-                        } else if (!notExistingTargets.contains(targetNameOrUri)) {
-                            try {
-                                target = getTargetByNameOrURI(ontologyDAO, targetNameOrUri);
-                                if (target == null) {
-                                    if (!notExistingTargets.contains(targetNameOrUri)) {
-                                        notExistingTargets.add(targetNameOrUri);
-                                    }
-
-                                    CSVCell cell = new CSVCell(rowIndex, colIndex, targetNameOrUri, "TARGET_ID");
-                                    csvValidation.addInvalidTargetError(cell);
-                                    validRow = false;
-                                } else {
-                                    nameURITargets.put(targetNameOrUri, target);
-                                }
-                            } catch (DuplicateNameException e) {
-                                CSVCell cell = new CSVCell(rowIndex, colIndex, targetNameOrUri, "TARGET_ID");
-                                csvValidation.addDuplicateTargetError(cell);
-                                duplicatedTargets.add(targetNameOrUri);
-                                validRow = false;
-                            }
-
                         } else {
-                            CSVCell cell = new CSVCell(rowIndex, colIndex, targetNameOrUri, "TARGET_ID");
                             csvValidation.addInvalidTargetError(cell);
-                            validRow = false;
                         }
-
+                        validRow = false;
                     }
                 }
 
             } else if (headerByIndex.get(colIndex).equalsIgnoreCase(soHeader)) {
 
                 String objectNameOrUri = values[colIndex];
-                // test in uri list
-                if (!StringUtils.isEmpty(objectNameOrUri) && nameURIScientificObjects.containsKey(objectNameOrUri)) {
-                    object = nameURIScientificObjects.get(objectNameOrUri);
-                } else {
-                    // test not in uri list
-                    if (!StringUtils.isEmpty(objectNameOrUri) && !scientificObjectsNotInXp.contains(objectNameOrUri)) {
-                        object = getObjectByNameOrURI(scientificObjectDAO, experiment, objectNameOrUri);
-                    }
-                    if (object == null) {
-                        scientificObjectsNotInXp.add(objectNameOrUri);
-                        CSVCell cell = new CSVCell(rowIndex, colIndex, objectNameOrUri, "OBJECT_ID");
-                        csvValidation.addInvalidObjectError(cell);
-                        validRow = false;
-                    } else {
-                        nameURIScientificObjects.put(objectNameOrUri, object);
-                    }
+                if (!StringUtils.isEmpty(objectNameOrUri)) {
+                    object = resolver.getObjects().get(objectNameOrUri);
+                }
+                if (object == null) {
+                    CSVCell cell = new CSVCell(rowIndex, colIndex, objectNameOrUri, "OBJECT_ID");
+                    csvValidation.addInvalidObjectError(cell);
+                    validRow = false;
                 }
 
             } else if (headerByIndex.get(colIndex).equalsIgnoreCase(dateHeader)) {
@@ -1567,41 +1521,16 @@ public class DataAPI {
                 String deviceNameOrUri = values[colIndex];
                 deviceColIndex = colIndex;
 
-                // test in uri list
                 if (!StringUtils.isEmpty(deviceNameOrUri)) {
-                    if (nameURIDevices.containsKey(deviceNameOrUri)) {
-                        device = nameURIDevices.get(deviceNameOrUri);
-                    } else {
-                        // test not in uri list
-                        if (duplicatedDevices.contains(deviceNameOrUri)) {
-                            CSVCell cell = new CSVCell(rowIndex, colIndex, deviceNameOrUri, "DEVICE_ID");
+                    device = resolver.getDevices().get(deviceNameOrUri);
+                    if (device == null) {
+                        CSVCell cell = new CSVCell(rowIndex, colIndex, deviceNameOrUri, "DEVICE_ID");
+                        if (resolver.getDuplicatedDevices().contains(deviceNameOrUri)) {
                             csvValidation.addDuplicateDeviceError(cell);
-                            validRow = false;
-                        } else if (!notExistingDevices.contains(deviceNameOrUri)) {
-                            try {
-                                device = getDeviceByNameOrURI(deviceDAO, deviceNameOrUri);
-                                if (device == null) {
-                                    if (!notExistingDevices.contains(deviceNameOrUri)) {
-                                        notExistingDevices.add(deviceNameOrUri);
-                                    }
-                                    CSVCell cell = new CSVCell(rowIndex, colIndex, deviceNameOrUri, "DEVICE_ID");
-                                    csvValidation.addInvalidDeviceError(cell);
-                                    validRow = false;
-                                } else {
-                                    nameURIDevices.put(deviceNameOrUri, device);
-                                }
-                            } catch (DuplicateNameException e) {
-                                CSVCell cell = new CSVCell(rowIndex, colIndex, deviceNameOrUri, "DEVICE_ID");
-                                csvValidation.addDuplicateDeviceError(cell);
-                                duplicatedDevices.add(deviceNameOrUri);
-                                validRow = false;
-                            }
                         } else {
-                            CSVCell cell = new CSVCell(rowIndex, colIndex, deviceNameOrUri, "DEVICE_ID");
                             csvValidation.addInvalidDeviceError(cell);
-                            validRow = false;
                         }
-
+                        validRow = false;
                     }
                 }
 
@@ -1783,86 +1712,6 @@ public class DataAPI {
 
 
 
-    private ExperimentModel getExperimentByNameOrURI(ExperimentDAO xpDAO, String expNameOrUri) throws Exception {
-        ExperimentModel exp = null;
-        if (URIDeserializer.validateURI(expNameOrUri)) {
-            URI expUri = URI.create(expNameOrUri);
-            try {
-                exp = xpDAO.get(expUri, user);
-            } catch (Exception ex) {
-
-            }
-        } else {
-            exp = xpDAO.getByName(expNameOrUri);
-        }
-        return exp;
-    }
-
-    private DeviceModel getDeviceByNameOrURI(DeviceDAO deviceDAO, String deviceNameOrUri) throws Exception {
-        DeviceModel device;
-        if (URIDeserializer.validateURI(deviceNameOrUri)) {
-            URI deviceURI = URI.create(deviceNameOrUri);
-            device = deviceDAO.getDeviceByURI(deviceURI, user);
-        } else {
-            try {
-                device = deviceDAO.getByName(deviceNameOrUri);
-            } catch (Exception ex) {
-                throw ex;
-            }
-
-        }
-        return device;
-    }
-
-    private SPARQLNamedResourceModel<?> getTargetByNameOrURI(OntologyDAO dao, String targetNameOrUri) throws Exception {
-        SPARQLNamedResourceModel<?> target = new SPARQLNamedResourceModel<>();
-        if (URIDeserializer.validateURI(targetNameOrUri)) {
-            URI targetUri = URI.create(targetNameOrUri);
-            if (sparql.executeAskQuery(new AskBuilder()
-                    .addWhere(SPARQLDeserializers.nodeURI(targetUri), RDFS.label, "?label")
-            )) {
-                target.setUri(targetUri);
-            } else {
-                target = null;
-            }
-        } else {
-            List<SPARQLNamedResourceModel> results = dao.getByName(targetNameOrUri);
-            if (results.size()>1) {
-                throw new DuplicateNameException(targetNameOrUri);
-            } else {
-                if(!results.isEmpty()) {
-                    target = results.get(0);
-                } else {
-                    target = null ;
-                }
-            }
-        }
-        return target;
-    }
-
-
-    private ScientificObjectModel getObjectByNameOrURI(ScientificObjectDAO scientificObjectDAO, URI contextUri, String nameOrUri) {
-        ScientificObjectModel object = null;
-        try {
-            object = testNameOrURI(scientificObjectDAO, contextUri, nameOrUri);
-        } catch (Exception ex) {
-        }
-        return object;
-    }
-
-    private ScientificObjectModel testNameOrURI(ScientificObjectDAO scientificObjectDAO, URI contextUri, String nameOrUri) throws Exception {
-        ScientificObjectModel object;
-        if (URIDeserializer.validateURI(nameOrUri)) {
-            URI objectUri = URI.create(nameOrUri);
-
-            object = scientificObjectDAO.getObjectByURI(objectUri,contextUri,null);
-        } else {
-            object = scientificObjectDAO.getByNameAndContext(nameOrUri, contextUri);
-        }
-
-        return object;
-    }
-
     // Map who associate each type with its root type
     private Map<URI, URI> getRootDeviceTypes() throws URISyntaxException, Exception {
 
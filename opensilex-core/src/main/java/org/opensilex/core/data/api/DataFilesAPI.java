@@ -89,6 +89,7 @@ import org.opensilex.server.rest.serialization.ObjectMapperContextResolver;
 import org.opensilex.sparql.deserializer.SPARQLDeserializers;
 import org.opensilex.sparql.service.SPARQLService;
 import org.opensilex.sparql.utils.Ontology;
+import org.opensilex.utils.CountMode;
 import org.opensilex.utils.ListWithPagination;
 import org.opensilex.utils.OrderBy;
 
@@ -456,7 +457,9 @@ public class DataFilesAPI {
             @ApiParam(value = "Search by metadata", example = DataAPI.DATA_EXAMPLE_METADATA) @QueryParam("metadata") String metadata,
             @ApiParam(value = "List of fields to sort as an array of fieldName=asc|desc", example = "date=desc") @DefaultValue("date=desc") @QueryParam("order_by") List<OrderBy> orderByList,
             @ApiParam(value = "Page number", example = "0") @QueryParam("page") @DefaultValue("0") @Min(0) int page,
-            @ApiParam(value = "Page size", example = "20") @QueryParam("page_size") @DefaultValue("20") @Min(0) int pageSize
+            @ApiParam(value = "Page size", example = "20") @QueryParam("page_size") @DefaultValue("20") @Min(0) int pageSize,
+            @ApiParam(value = "Continuation token of the previous page, empty for the first page. Enables keyset pagination : page is only used for the response metadata") @QueryParam("page_token") String pageToken,
+            @ApiParam(value = "Total count computation : EXACT, ESTIMATED or NONE (total count is -1)", example = "EXACT") @QueryParam("count") @DefaultValue("EXACT") CountMode countMode
 
     ) throws Exception {
         DataDAO dao = new DataDAO(nosql, sparql, fs);
@@ -498,20 +501,30 @@ public class DataFilesAPI {
             rdfTypes = ontoDao.getSubclassRdfTypes(rdfType, user);
         }        
         
-        ListWithPagination<DataFileModel> resultList = dao.searchFiles(
-                user,
-                rdfTypes,
-                experiments,
-                objects,
-                provenances,
-                devices,
-                startInstant,
-                endInstant,
-                metadataFilter,
-                orderByList,
-                page,
-                pageSize
-        );
+        ListWithPagination<DataFileModel> resultList;
+        try {
+            resultList = dao.searchFiles(
+                    user,
+                    rdfTypes,
+                    experiments,
+                    objects,
+                    provenances,
+                    devices,
+                    startInstant,
+                    endInstant,
+                    metadataFilter,
+                    orderByList,
+                    page,
+                    pageSize,
+                    pageToken,
+                    countMode
+            );
+        } catch (IllegalArgumentException e) {
+            if (pageToken == null) {
+                throw e;
+            }
+            return new ErrorResponse(Response.Status.BAD_REQUEST, "PAGE_TOKEN_PARAM_ERROR", e.getMessage()).getResponse();
+        }
         
         ListWithPagination<DataFileGetDTO> resultDTOList = resultList.convert(DataFileGetDTO.class, DataFileGetDTO::fromModel);
 
@@ -0,0 +1,312 @@
+//******************************************************************************
+//                          DataCSVImportResolver.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.data.dal;
+
+import org.apache.commons.collections4.ListUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.opensilex.core.device.dal.DeviceDAO;
+import org.opensilex.core.device.dal.DeviceModel;
+import org.opensilex.core.exception.DuplicateNameException;
+import org.opensilex.core.experiment.dal.ExperimentDAO;
+import org.opensilex.core.experiment.dal.ExperimentModel;
+import org.opensilex.core.scientificObject.dal.ScientificObjectDAO;
+import org.opensilex.core.scientificObject.dal.ScientificObjectModel;
+import org.opensilex.fs.service.FileStorageService;
+import org.opensilex.nosql.mongodb.MongoDBService;
+import org.opensilex.security.user.dal.UserModel;
+import org.opensilex.sparql.deserializer.SPARQLDeserializers;
+import org.opensilex.sparql.deserializer.URIDeserializer;
+import org.opensilex.sparql.model.SPARQLNamedResourceModel;
+import org.opensilex.sparql.model.SPARQLResourceModel;
+import org.opensilex.sparql.ontology.dal.OntologyDAO;
+import org.opensilex.sparql.service.SPARQLService;
+import org.opensilex.utils.ThrowingFunction;
+
+import java.net.URI;
+import java.util.*;
+
+/**
+ * Resolve in batches the experiments, targets, scientific objects and devices referenced by a CSV data import.
+ * <p>
+ * Distinct names and URIs are first collected from the whole file, then resolved with a few queries using VALUES clauses
+ * (at most one query per resource type and per {@link #BATCH_SIZE} values), so that the rows can be validated against in-memory lookup tables.
+ * Each collected value ends either in the found map, in the duplicated set or in the not existing set of its resource type.
+ * </p>
+ */
+public class DataCSVImportResolver {
+
+    /**
+     * Maximum number of values put in one VALUES clause
+     */
+    public static final int BATCH_SIZE = 1000;
+
+    private final SPARQLService sparql;
+    private final MongoDBService nosql;
+    private final FileStorageService fs;
+    private final UserModel user;
+    private final URI experiment;
+
+    private final Set<String> experimentValues = new HashSet<>();
+    private final Set<String> targetValues = new HashSet<>();
+    private final Set<String> objectValues = new HashSet<>();
+    private final Set<String> deviceValues = new HashSet<>();
+
+    private final Map<String, ExperimentModel> experiments = new HashMap<>();
+    private final Set<String> notExistingExperiments = new HashSet<>();
+    private final Set<String> duplicatedExperiments = new HashSet<>();
+
+    private final Map<String, SPARQLNamedResourceModel> targets = new HashMap<>();
+    private final Set<String> notExistingTargets = new HashSet<>();
+    private final Set<String> duplicatedTargets = new HashSet<>();
+
+    private final Map<String, ScientificObjectModel> objects = new HashMap<>();
+    private final Set<String> objectsNotInXp = new HashSet<>();
+
+    private final Map<String, DeviceModel> devices = new HashMap<>();
+    private final Set<String> notExistingDevices = new HashSet<>();
+    private final Set<String> duplicatedDevices = new HashSet<>();
+
+    /**
+     * @param sparql SPARQL service
+     * @param nosql MongoDB service
+     * @param fs file storage service
+     * @param user current user, used to check experiments access
+     * @param experiment experiment in which scientific objects are searched, can be null
+     */
+    public DataCSVImportResolver(SPARQLService sparql, MongoDBService nosql, FileStorageService fs, UserModel user, URI experiment) {
+        this.sparql = sparql;
+        this.nosql = nosql;
+        this.fs = fs;
+        this.user = user;
+        this.experiment = experiment;
+    }
+
+    public void addExperiment(String nameOrUri) {
+        addValue(experimentValues, nameOrUri);
+    }
+
+    public void addTarget(String nameOrUri) {
+        addValue(targetValues, nameOrUri);
+    }
+
+    public void addObject(String nameOrUri) {
+        addValue(objectValues, nameOrUri);
+    }
+
+    public void addDevice(String nameOrUri) {
+        addValue(deviceValues, nameOrUri);
+    }
+
+    private static void addValue(Set<String> values, String nameOrUri) {
+        if (!StringUtils.isEmpty(nameOrUri)) {
+            values.add(nameOrUri);
+        }
+    }
+
+    /**
+     * Resolve all collected values.
+     *
+     * @throws Exception if one query fail
+     */
+    public void resolve() throws Exception {
+        resolveExperiments();
+        resolveTargets();
+        resolveObjects();
+        resolveDevices();
+    }
+
+    private void resolveExperiments() throws Exception {
+        ExperimentDAO xpDAO = new ExperimentDAO(sparql, nosql);
+        List<String> names = new ArrayList<>();
+        resolveByURIs(experimentValues, names, uris -> xpDAO.getAccessibleByURIs(uris, user), experiments, notExistingExperiments);
+        resolveByNames(names, xpDAO::getByNames, experiments, notExistingExperiments, duplicatedExperiments);
+
+        // names without exact match are still resolved with the regex search, one by one
+        for (String name : names) {
+            if (notExistingExperiments.contains(name)) {
+                try {
+                    ExperimentModel exp = xpDAO.getByName(name);
+                    if (exp != null) {
+                        notExistingExperiments.remove(name);
+                        experiments.put(name, exp);
+                    }
+                } catch (DuplicateNameException e) {
+                    notExistingExperiments.remove(name);
+                    duplicatedExperiments.add(name);
+                }
+            }
+        }
+    }
+
+    private void resolveTargets() throws Exception {
+        OntologyDAO ontologyDAO = new OntologyDAO(sparql);
+        List<String> names = new ArrayList<>();
+        Map<String, URI> urisByValue = splitURIsAndNames(targetValues, names);
+
+        Set<String> existingURIs = new HashSet<>();
+        for (List<URI> batch : ListUtils.partition(new ArrayList<>(new HashSet<>(urisByValue.values())), BATCH_SIZE)) {
+            for (URI uri : ontologyDAO.getURIsWithLabel(batch)) {
+                existingURIs.add(SPARQLDeserializers.getExpandedURI(uri));
+            }
+        }
+        for (Map.Entry<String, URI> entry : urisByValue.entrySet()) {
+            if (existingURIs.contains(SPARQLDeserializers.getExpandedURI(entry.getValue()))) {
+                SPARQLNamedResourceModel<?> target = new SPARQLNamedResourceModel<>();
+                target.setUri(entry.getValue());
+                targets.put(entry.getKey(), target);
+            } else {
+                notExistingTargets.add(entry.getKey());
+            }
+        }
+
+        resolveByNames(names, batch -> {
+            List<SPARQLNamedResourceModel> results = new ArrayList<>();
+            for (List<SPARQLNamedResourceModel> resources : ontologyDAO.getByNames(batch).values()) {
+                results.addAll(resources);
+            }
+            return results;
+        }, targets, notExistingTargets, duplicatedTargets);
+    }
+
+    private void resolveObjects() throws Exception {
+        ScientificObjectDAO scientificObjectDAO = new ScientificObjectDAO(sparql, nosql);
+        List<String> names = new ArrayList<>();
+        resolveByURIs(objectValues, names, uris -> scientificObjectDAO.getByURIsAndContext(uris, experiment), objects, objectsNotInXp);
+
+        // an ambiguous name is reported as an object which is not in the experiment
+        resolveByNames(names, batch -> scientificObjectDAO.getByNamesAndContext(batch, experiment), objects, objectsNotInXp, objectsNotInXp);
+    }
+
+    private void resolveDevices() throws Exception {
+        DeviceDAO deviceDAO = new DeviceDAO(sparql, nosql, fs);
+        List<String> names = new ArrayList<>();
+        resolveByURIs(deviceValues, names, uris -> deviceDAO.getDevicesByURIs(uris, user), devices, notExistingDevices);
+        resolveByNames(names, batch -> deviceDAO.getByNames(batch, user), devices, notExistingDevices, duplicatedDevices);
+    }
+
+    /**
+     * Split values between valid URIs and names.
+     *
+     * @param values values to split
+     * @param names list filled with values which are not URIs
+     * @return URIs indexed by their original value
+     */
+    private static Map<String, URI> splitURIsAndNames(Set<String> values, List<String> names) {
+        Map<String, URI> urisByValue = new HashMap<>();
+        for (String value : values) {
+            if (URIDeserializer.validateURI(value)) {
+                urisByValue.put(value, URI.create(value));
+            } else {
+                names.add(value);
+            }
+        }
+        return urisByValue;
+    }
+
+    /**
+     * Resolve URI values by batches, values which are not URIs are added to names.
+     */
+    private static <T extends SPARQLResourceModel> void resolveByURIs(
+            Set<String> values,
+            List<String> names,
+            ThrowingFunction<List<URI>, List<T>, Exception> loader,
+            Map<String, T> found,
+            Set<String> notExisting
+    ) throws Exception {
+        Map<String, URI> urisByValue = splitURIsAndNames(values, names);
+
+        Map<String, T> resultsByURI = new HashMap<>();
+        for (List<URI> batch : ListUtils.partition(new ArrayList<>(new HashSet<>(urisByValue.values())), BATCH_SIZE)) {
+            for (T result : loader.apply(batch)) {
+                resultsByURI.put(SPARQLDeserializers.getExpandedURI(result.getUri()), result);
+            }
+        }
+
+        for (Map.Entry<String, URI> entry : urisByValue.entrySet()) {
+            T result = resultsByURI.get(SPARQLDeserializers.getExpandedURI(entry.getValue()));
+            if (result != null) {
+                found.put(entry.getKey(), result);
+            } else {
+                notExisting.add(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Resolve names by batches, a name shared by several resources is marked as duplicated.
+     */
+    private static <T extends SPARQLNamedResourceModel> void resolveByNames(
+            List<String> names,
+            ThrowingFunction<List<String>, List<T>, Exception> loader,
+            Map<String, ? super T> found,
+            Set<String> notExisting,
+            Set<String> duplicated
+    ) throws Exception {
+        Map<String, Map<String, T>> resultsByName = new HashMap<>();
+        for (List<String> batch : ListUtils.partition(names, BATCH_SIZE)) {
+            for (T result : loader.apply(batch)) {
+                resultsByName.computeIfAbsent(result.getName(), key -> new HashMap<>())
+                        .putIfAbsent(SPARQLDeserializers.getExpandedURI(result.getUri()), result);
+            }
+        }
+
+        for (String name : names) {
+            Map<String, T> results = resultsByName.get(name);
+            if (results == null || results.isEmpty()) {
+                notExisting.add(name);
+            } else if (results.size() > 1) {
+                duplicated.add(name);
+            } else {
+                found.put(name, results.values().iterator().next());
+            }
+        }
+    }
+
+    public Map<String, ExperimentModel> getExperiments() {
+        return experiments;
+    }
+
+    public Set<String> getNotExistingExperiments() {
+        return notExistingExperiments;
+    }
+
+    public Set<String> getDuplicatedExperiments() {
+        return duplicatedExperiments;
+    }
+
+    public Map<String, SPARQLNamedResourceModel> getTargets() {
+        return targets;
+    }
+
+    public Set<String> getNotExistingTargets() {
+        return notExistingTargets;
+    }
+
+    public Set<String> getDuplicatedTargets() {
+        return duplicatedTargets;
+    }
+
+    public Map<String, ScientificObjectModel> getObjects() {
+        return objects;
+    }
+
+    public Set<String> getObjectsNotInXp() {
+        return objectsNotInXp;
+    }
+
+    public Map<String, DeviceModel> getDevices() {
+        return devices;
+    }
+
+    public Set<String> getNotExistingDevices() {
+        return notExistingDevices;
+    }
+
+    public Set<String> getDuplicatedDevices() {
+        return duplicatedDevices;
+    }
+}
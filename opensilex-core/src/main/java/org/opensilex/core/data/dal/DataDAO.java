@@ -6,21 +6,29 @@
 //******************************************************************************
 package org.opensilex.core.data.dal;
 
+import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.IndexOptions;
 import com.mongodb.client.model.Indexes;
 import com.mongodb.client.result.DeleteResult;
 import com.opencsv.CSVWriter;
+import org.apache.jena.arq.querybuilder.Order;
 import org.apache.jena.sparql.core.Var;
 import org.apache.jena.vocabulary.XSD;
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.opensilex.core.data.api.DataExportDTO;
 import org.opensilex.core.data.api.DataGetDTO;
 import org.opensilex.core.experiment.dal.ExperimentDAO;
 import org.opensilex.core.experiment.dal.ExperimentModel;
 import org.opensilex.core.experiment.utils.ExportDataIndex;
+import org.opensilex.core.metrics.dal.MetricsCounters;
+import org.opensilex.core.metrics.dal.MetricsCountersDAO;
 import org.opensilex.core.ontology.Oeso;
-import org.opensilex.sparql.ontology.dal.OntologyDAO;
 import org.opensilex.core.provenance.dal.ProvenanceDAO;
 import org.opensilex.core.provenance.dal.ProvenanceModel;
 import org.opensilex.core.variable.dal.MethodModel;
@@ -30,23 +38,30 @@ import org.opensilex.core.variable.dal.VariableModel;
 import org.opensilex.fs.service.FileStorageService;
 import org.opensilex.nosql.exceptions.NoSQLInvalidURIException;
 import org.opensilex.nosql.mongodb.MongoDBService;
+import org.opensilex.nosql.mongodb.MongoModel;
 import org.opensilex.security.user.dal.UserModel;
-import org.opensilex.server.response.ErrorResponse;
 import org.opensilex.sparql.deserializer.SPARQLDeserializers;
 import org.opensilex.sparql.model.SPARQLNamedResourceModel;
 import org.opensilex.sparql.service.SPARQLQueryHelper;
 import org.opensilex.sparql.service.SPARQLService;
+import org.opensilex.utils.CountMode;
 import org.opensilex.utils.ListWithPagination;
 import org.opensilex.utils.OrderBy;
+import org.opensilex.utils.ThrowingConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.StringWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Duration;
@@ -70,6 +85,11 @@ public class DataDAO {
 
     public static final String FS_FILE_PREFIX = "datafile";
 
+    /**
+     * Number of data read from the database cursor before resolving their labels during a CSV export
+     */
+    public static final int EXPORT_BATCH_SIZE = 1000;
+
     protected final MongoDBService nosql;
     protected final SPARQLService sparql;
     protected final FileStorageService fs;
@@ -107,6 +127,7 @@ public class DataDAO {
     public DataModel create(DataModel instance) throws Exception {
         createIndexes();
         nosql.create(instance, DataModel.class, DATA_COLLECTION_NAME, DATA_PREFIX);
+        new MetricsCountersDAO(nosql).update(getMetricsCounters(Collections.singletonList(instance), 1));
         return instance;
     }
 
@@ -119,6 +140,7 @@ public class DataDAO {
     public List<DataModel> createAll(List<DataModel> instances) throws Exception {
         createIndexes(); 
         nosql.createAll(instances, DataModel.class, DATA_COLLECTION_NAME, DATA_PREFIX,false);
+        new MetricsCountersDAO(nosql).update(getMetricsCounters(instances, 1));
         return instances;
     } 
 
@@ -129,7 +151,12 @@ public class DataDAO {
     }
 
     public DataModel update(DataModel instance) throws NoSQLInvalidURIException {
+        DataModel oldInstance = get(instance.getUri());
         nosql.update(instance, DataModel.class, DATA_COLLECTION_NAME);
+
+        MetricsCounters counters = getMetricsCounters(Collections.singletonList(oldInstance), -1)
+                .addAll(getMetricsCounters(Collections.singletonList(instance), 1));
+        new MetricsCountersDAO(nosql).update(counters);
         return instance;
     }
 
@@ -153,10 +180,41 @@ public class DataDAO {
             List<OrderBy> orderByList,
             Integer page,
             Integer pageSize) throws Exception {
+        return search(user, experiments, targets, variables, provenances, devices, startDate, endDate, confidenceMin, confidenceMax, metadata, orderByList, page, pageSize, null, CountMode.EXACT);
+    }
+
+    /**
+     * Search data with offset pagination, or with cursor pagination if a page token is given.
+     *
+     * @param pageToken continuation token of previous page, empty for the first page in cursor mode, null for offset pagination
+     * @param countMode total count computation
+     * @throws IllegalArgumentException in cursor mode, if page size is not strictly positive or if page token is invalid
+     * @see MongoDBService#searchWithCursor
+     */
+    public ListWithPagination<DataModel> search(
+            UserModel user,
+            List<URI> experiments,
+            List<URI> targets,
+            List<URI> variables,
+            List<URI> provenances,
+            List<URI> devices,
+            Instant startDate,
+            Instant endDate,
+            Float confidenceMin,
+            Float confidenceMax,
+            Document metadata,
+            List<OrderBy> orderByList,
+            Integer page,
+            Integer pageSize,
+            String pageToken,
+            CountMode countMode) throws Exception {
 
         Document filter = searchFilter(user, experiments, targets, variables, provenances, devices, startDate, endDate, confidenceMin, confidenceMax, metadata);
 
-        return nosql.searchWithPagination(DataModel.class, DATA_COLLECTION_NAME, filter, orderByList, page, pageSize);
+        if (pageToken != null) {
+            return nosql.searchWithCursor(DataModel.class, DATA_COLLECTION_NAME, filter, orderByList, pageToken, page, pageSize, countMode);
+        }
+        return nosql.searchWithPagination(DataModel.class, DATA_COLLECTION_NAME, filter, orderByList, page, pageSize, countMode);
     }
     
      public int count(
@@ -381,20 +439,19 @@ public class DataDAO {
         //user access
         if (!user.isAdmin()) {
             ExperimentDAO expDAO = new ExperimentDAO(sparql, nosql);
-            Set<URI> userExperiments = expDAO.getUserExperiments(user);                        
+            // cached and already in long format
+            Set<URI> userExperiments = expDAO.getUserExpandedExperiments(user);
 
             if (experiments != null && !experiments.isEmpty()) {
                 
-                //Transform experiments and userExperiments in long format to compare the two lists
-                Set<URI> longUserExp = new HashSet<>();
-                for (URI exp:userExperiments) {
-                    longUserExp.add(new URI(SPARQLDeserializers.getExpandedURI(exp)));
-                }                
+                //keep in the list only the experiments the user has access to
                 Set <URI> longExpURIs = new HashSet<>();
                 for (URI exp:experiments) {
-                    longExpURIs.add(new URI(SPARQLDeserializers.getExpandedURI(exp)));
+                    URI longExp = new URI(SPARQLDeserializers.getExpandedURI(exp));
+                    if (userExperiments.contains(longExp)) {
+                        longExpURIs.add(longExp);
+                    }
                 }
-                longExpURIs.retainAll(longUserExp); //keep in the list only the experiments the user has access to
                 
                 if (longExpURIs.isEmpty()) {
                     throw new Exception("you can't access to the given experiments");
@@ -429,11 +486,62 @@ public class DataDAO {
     }
     
     public void delete(URI uri) throws NoSQLInvalidURIException, Exception {
+        MetricsCounters counters = getStoredMetricsCounters(Filters.eq(MongoModel.URI_FIELD, uri));
         nosql.delete(DataModel.class, DATA_COLLECTION_NAME, uri);
+        new MetricsCountersDAO(nosql).update(counters.negate());
     }
 
     public void delete(List<URI> uris) throws NoSQLInvalidURIException, Exception {
+        MetricsCounters counters = getStoredMetricsCounters(Filters.in(MongoModel.URI_FIELD, uris));
         nosql.delete(DataModel.class, DATA_COLLECTION_NAME, uris);
+        new MetricsCountersDAO(nosql).update(counters.negate());
+    }
+
+    /**
+     * @param instances data
+     * @param delta counters variation by data
+     * @return data counters variations, by variable in the system scope and in each data experiment scope
+     */
+    private static MetricsCounters getMetricsCounters(Collection<DataModel> instances, long delta) {
+        MetricsCounters counters = new MetricsCounters();
+        for (DataModel instance : instances) {
+            if (instance == null) {
+                continue;
+            }
+            List<URI> experiments = instance.getProvenance() == null ? null : instance.getProvenance().getExperiments();
+            counters.addWithExperiments(experiments, MetricsCounters.DATA_CATEGORY, instance.getVariable(), delta);
+        }
+        return counters;
+    }
+
+    /**
+     * @param filter stored data filter
+     * @return counters of stored data matching the filter, grouped in database by variable and experiments
+     */
+    public MetricsCounters getStoredMetricsCounters(Bson filter) {
+        List<Bson> pipeline = Arrays.asList(
+                Aggregates.match(filter),
+                Aggregates.group(
+                        new Document(DataModel.VARIABLE_FIELD, "$" + DataModel.VARIABLE_FIELD).append("experiments", "$provenance.experiments"),
+                        Accumulators.sum("count", 1L)
+                )
+        );
+
+        MetricsCounters counters = new MetricsCounters();
+        for (Document group : nosql.getDatabase().getCollection(DATA_COLLECTION_NAME).aggregate(pipeline)) {
+            Document key = group.get("_id", Document.class);
+            Object variable = key.get(DataModel.VARIABLE_FIELD);
+            if (variable == null) {
+                continue;
+            }
+            List<URI> experiments = new ArrayList<>();
+            List<?> storedExperiments = key.get("experiments", List.class);
+            if (storedExperiments != null) {
+                storedExperiments.forEach(experiment -> experiments.add(URI.create(experiment.toString())));
+            }
+            counters.addWithExperiments(experiments, MetricsCounters.DATA_CATEGORY, URI.create(variable.toString()), ((Number) group.get("count")).longValue());
+        }
+        return counters;
     }
 
     public void deleteFile(URI uri) throws NoSQLInvalidURIException {
@@ -559,6 +667,32 @@ public class DataDAO {
             List<OrderBy> orderBy,
             int page,
             int pageSize) throws Exception {
+        return searchFiles(user, rdfTypes, experiments, targets, provenances, devices, startDate, endDate, metadata, orderBy, page, pageSize, null, CountMode.EXACT);
+    }
+
+    /**
+     * Search data files with offset pagination, or with cursor pagination if a page token is given.
+     *
+     * @param pageToken continuation token of previous page, empty for the first page in cursor mode, null for offset pagination
+     * @param countMode total count computation
+     * @throws IllegalArgumentException in cursor mode, if page size is not strictly positive or if page token is invalid
+     * @see MongoDBService#searchWithCursor
+     */
+    public ListWithPagination<DataFileModel> searchFiles(
+            UserModel user,
+            List<URI> rdfTypes,
+            List<URI> experiments,
+            List<URI> targets,
+            List<URI> provenances,
+            List<URI> devices,
+            Instant startDate,
+            Instant endDate,
+            Document metadata,
+            List<OrderBy> orderBy,
+            int page,
+            int pageSize,
+            String pageToken,
+            CountMode countMode) throws Exception {
 
         Document filter = searchFilter(user, experiments, targets, null, provenances, devices, startDate, endDate, null, null, metadata);
                 
@@ -568,7 +702,10 @@ public class DataDAO {
             filter.put(DataFileModel.RDF_TYPE_FIELD, inFilter);
         }
 
-        return nosql.searchWithPagination(DataFileModel.class, FILE_COLLECTION_NAME, filter, orderBy, page, pageSize);
+        if (pageToken != null) {
+            return nosql.searchWithCursor(DataFileModel.class, FILE_COLLECTION_NAME, filter, orderBy, pageToken, page, pageSize, countMode);
+        }
+        return nosql.searchWithPagination(DataFileModel.class, FILE_COLLECTION_NAME, filter, orderBy, page, pageSize, countMode);
     }
 
     public DeleteResult deleteWithFilter(UserModel user, URI experimentUri, URI targetUri, URI variableUri, URI provenanceUri) throws Exception {
@@ -593,7 +730,10 @@ public class DataDAO {
         }
         
         Document filter = searchFilter(user, experiments, targets, variables, provenances, null, null, null, null, null, null);
-        return nosql.deleteOnCriteria(DataModel.class, DATA_COLLECTION_NAME, filter);
+        MetricsCounters counters = getStoredMetricsCounters(filter);
+        DeleteResult result = nosql.deleteOnCriteria(DataModel.class, DATA_COLLECTION_NAME, filter);
+        new MetricsCountersDAO(nosql).update(counters.negate());
+        return result;
     }
 
     public List<VariableModel> getUsedVariables(UserModel user, List<URI> experiments, List<URI> objects, List<URI> provenances, List<URI> devices) throws Exception {
@@ -610,70 +750,94 @@ public class DataDAO {
         return variableURIs;
     }
     
-    public Response prepareCSVWideExportResponse(List<DataModel> resultList, UserModel user, boolean withRawData) throws Exception {
-        Instant data = Instant.now();
-
-        Set<URI> dateVariables = getAllDateVariables();
-
-        List<URI> variables = new ArrayList<>();
-
-        Map<URI, SPARQLNamedResourceModel> objects = new HashMap<>();
-        Map<URI, ProvenanceModel> provenances = new HashMap<>();
-        Map<Instant, Map<ExportDataIndex, List<DataExportDTO>>> dataByIndexAndInstant = new HashMap<>();
-        Map<URI, ExperimentModel> experiments = new HashMap();
-        
-        for (DataModel dataModel : resultList) {
-            if (dataModel.getTarget() != null && !objects.containsKey(dataModel.getTarget())) {
-                objects.put(dataModel.getTarget(), null);
-            }
-            
-            if (!variables.contains(dataModel.getVariable())) {
-                variables.add(dataModel.getVariable());
+    /**
+     * Return the sort used by the CSV export. Data are always read by date, so values with the same date
+     * can be grouped on one row without keeping the whole export in memory.
+     *
+     * @param orderByList requested sort, only the date direction is kept
+     * @return export sort
+     */
+    private List<OrderBy> getExportOrderByList(List<OrderBy> orderByList) {
+        Order dateOrder = Order.ASCENDING;
+        if (orderByList != null) {
+            for (OrderBy orderBy : orderByList) {
+                if (orderBy.getFieldName().equals("date")) {
+                    dateOrder = orderBy.getOrder();
+                }
             }
+        }
+        return Collections.singletonList(new OrderBy("date", dateOrder));
+    }
 
-            if (!provenances.containsKey(dataModel.getProvenance().getUri())) {
-                provenances.put(dataModel.getProvenance().getUri(), null);
-            }
-            
-            if (!dataByIndexAndInstant.containsKey(dataModel.getDate())) {
-                dataByIndexAndInstant.put(dataModel.getDate(), new HashMap<>());
+    /**
+     * Build a streamed CSV response. The given writer function is called while the response is sent to the client.
+     */
+    private Response buildCSVStreamingResponse(String fileName, ThrowingConsumer<CSVWriter, Exception> csvWriterConsumer) {
+        StreamingOutput stream = output -> {
+            try (CSVWriter writer = new CSVWriter(new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8)))) {
+                csvWriterConsumer.accept(writer);
+            } catch (IOException | WebApplicationException e) {
+                throw e;
+            } catch (Exception e) {
+                LOGGER.error("Error while writing CSV export " + fileName, e);
+                throw new WebApplicationException(e);
             }
-            
-            if (dataModel.getProvenance().getExperiments() != null) {
-                for (URI exp:dataModel.getProvenance().getExperiments()) {           
-                    if (!experiments.containsKey(exp)) {
-                        experiments.put(exp, null);
-                    }
-                    
-                    ExportDataIndex exportDataIndex = new ExportDataIndex(
-                            exp,
-                            dataModel.getProvenance().getUri(), 
-                            dataModel.getTarget()
-                    );
-
-                    if (!dataByIndexAndInstant.get(dataModel.getDate()).containsKey(exportDataIndex)) {
-                        dataByIndexAndInstant.get(dataModel.getDate()).put(exportDataIndex, new ArrayList<>());
-                    } 
-                    dataByIndexAndInstant.get(dataModel.getDate()).get(exportDataIndex).add(DataExportDTO.fromModel(dataModel, exp, dateVariables));
-                }                
-            } else {
-                ExportDataIndex exportDataIndex = new ExportDataIndex(
-                                null,
-                                dataModel.getProvenance().getUri(), 
-                                dataModel.getTarget()
-                        );
-                    
-                if (!dataByIndexAndInstant.get(dataModel.getDate()).containsKey(exportDataIndex)) {
-                        dataByIndexAndInstant.get(dataModel.getDate()).put(exportDataIndex, new ArrayList<>());
-                    } 
-                dataByIndexAndInstant.get(dataModel.getDate()).get(exportDataIndex).add(DataExportDTO.fromModel(dataModel, null, dateVariables));
+        };
+
+        return Response.ok(stream, MediaType.TEXT_PLAIN_TYPE)
+                .header("Content-Disposition", "attachment; filename=" + fileName)
+                .build();
+    }
 
+    /**
+     * Read data matching the filter from the database cursor, by batches of {@link #EXPORT_BATCH_SIZE}.
+     * The labels of each batch are resolved with the lookup cache before the batch is passed to the consumer.
+     *
+     * @return number of exported data
+     */
+    private int readExportBatches(Document filter, List<OrderBy> orderByList, DataExportLookupCache lookupCache, CSVWriter writer, ThrowingConsumer<List<DataModel>, Exception> batchConsumer) throws Exception {
+        FindIterable<DataModel> results = nosql.searchAsIterable(DataModel.class, DATA_COLLECTION_NAME, filter, getExportOrderByList(orderByList), EXPORT_BATCH_SIZE);
+
+        int count = 0;
+        List<DataModel> batch = new ArrayList<>(EXPORT_BATCH_SIZE);
+        try (MongoCursor<DataModel> cursor = results.iterator()) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() == EXPORT_BATCH_SIZE || !cursor.hasNext()) {
+                    lookupCache.resolve(batch);
+                    batchConsumer.accept(batch);
+                    writer.flush();
+                    count += batch.size();
+                    batch.clear();
+                }
             }
-            
         }
+        return count;
+    }
+
+    /**
+     * Export data matching the filter as a CSV file in wide format (one column per variable).
+     * The file is written while data are read from the database, so memory usage does not depend on the number of exported data.
+     *
+     * @param filter data filter, see {@link #searchFilter}
+     * @param orderByList sort, only the date direction is used
+     * @param user current user
+     * @param withRawData export also raw data
+     * @return streamed CSV response
+     * @throws Exception if variables can't be loaded
+     */
+    public Response prepareCSVWideExportResponse(Document filter, List<OrderBy> orderByList, UserModel user, boolean withRawData) throws Exception {
+        Instant start = Instant.now();
 
-        Instant dataTransform = Instant.now();
-        LOGGER.debug("Data conversion " + Long.toString(Duration.between(data, dataTransform).toMillis()) + " milliseconds elapsed");
+        Set<URI> dateVariables = getAllDateVariables();
+        DataExportLookupCache lookupCache = new DataExportLookupCache(nosql, sparql, fs, user.getLanguage());
+
+        // variables define the columns, so they must be known before writing the first row
+        Set<URI> variableURIs = nosql.distinct("variable", URI.class, DATA_COLLECTION_NAME, filter);
+        List<VariableModel> variablesModelList = lookupCache.resolveVariables(variableURIs);
+
+        Instant variableTime = Instant.now();
+        LOGGER.debug("Get " + variablesModelList.size() + " variable(s) " + Long.toString(Duration.between(start, variableTime).toMillis()) + " milliseconds elapsed");
 
         List<String> defaultColumns = new ArrayList<>();
 
@@ -699,8 +863,6 @@ public class DataDAO {
         }
         variablesList.add("Variable");
 
-        List<VariableModel> variablesModelList = new VariableDAO(sparql,nosql,fs).getList(variables);
-
         Map<URI, Integer> variableUriIndex = new HashMap<>();
         for (VariableModel variableModel : variablesModelList) {
 
@@ -734,34 +896,14 @@ public class DataDAO {
         defaultColumns.add("Target URI");
         defaultColumns.add("Provenance URI");
 
-        Instant variableTime = Instant.now();
-        LOGGER.debug("Get " + variables.size() + " variable(s) " + Long.toString(Duration.between(dataTransform, variableTime).toMillis()) + " milliseconds elapsed");
-        OntologyDAO ontologyDao = new OntologyDAO(sparql);
-        List<SPARQLNamedResourceModel> objectsList = ontologyDao.getURILabels(objects.keySet(), user.getLanguage(), null);
-        for (SPARQLNamedResourceModel obj : objectsList) {
-            objects.put(obj.getUri(), obj);
-        }
-        Instant targetTime = Instant.now();
-        LOGGER.debug("Get " + objectsList.size() + " target(s) " + Long.toString(Duration.between(variableTime, targetTime).toMillis()) + " milliseconds elapsed");
+        int columnCount = defaultColumns.size();
 
-        ProvenanceDAO provenanceDao = new ProvenanceDAO(nosql, sparql);
-            List<ProvenanceModel> listByURIs = provenanceDao.getListByURIs(new ArrayList<>(provenances.keySet()));
-        for (ProvenanceModel prov : listByURIs) {
-            provenances.put(prov.getUri(), prov);
-        }
-        Instant provenancesTime = Instant.now();
-        LOGGER.debug("Get " + listByURIs.size() + " provenance(s) " + Long.toString(Duration.between(targetTime, provenancesTime).toMillis()) + " milliseconds elapsed");
+        LocalDate date = LocalDate.now();
+        DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyyMMdd");
+        String fileName = "export_data_wide_format" + dtf.format(date) + ".csv";
 
-        sparql.getListByURIs(ExperimentModel.class, new ArrayList<>(experiments.keySet()), user.getLanguage());
-        List<ExperimentModel> listExp = sparql.getListByURIs(ExperimentModel.class, new ArrayList<>(experiments.keySet()), user.getLanguage());
-        for (ExperimentModel exp : listExp) {
-            experiments.put(exp.getUri(), exp);
-        }
-        Instant expTime = Instant.now();
-        LOGGER.debug("Get " + listExp.size() + " experiment(s) " + Long.toString(Duration.between(variableTime, expTime).toMillis()) + " milliseconds elapsed");    
-        
         // ObjectURI, ObjectName, Factor, Date, Confidence, Variable n ...
-        try (StringWriter sw = new StringWriter(); CSVWriter writer = new CSVWriter(sw)) {
+        return buildCSVStreamingResponse(fileName, writer -> {
             // Method
             // Unit
             // Variable 
@@ -769,168 +911,130 @@ public class DataDAO {
             writer.writeNext(units.toArray(new String[units.size()]));
             writer.writeNext(variablesList.toArray(new String[variablesList.size()]));
             // empty line
-            writer.writeNext(new String[defaultColumns.size()]);
+            writer.writeNext(new String[columnCount]);
             // headers
-            writer.writeNext(defaultColumns.toArray(new String[defaultColumns.size()]));
-
-            // Search in map indexed by date for exp, prov, object and data            
-            for (Map.Entry<Instant, Map<ExportDataIndex, List<DataExportDTO>>> instantProvUriDataEntry : dataByIndexAndInstant.entrySet()) {
-                Map<ExportDataIndex, List<DataExportDTO>> mapProvUriData = instantProvUriDataEntry.getValue();
-                // Search in map indexed by  prov and data
-                for (Map.Entry<ExportDataIndex, List<DataExportDTO>> provUriObjectEntry : mapProvUriData.entrySet()) {
-                    List<DataExportDTO> val = provUriObjectEntry.getValue();             
-
-                    ArrayList<String> csvRow = new ArrayList<>();
-                    //first is used to have value with the same dates on the same line
-                    boolean first = true;
-
-                    for (DataExportDTO dataGetDTO : val) {
-                                            
-
-                        if (first) {
-
-                            csvRow = new ArrayList<>();
-
-                            // experiment
-                            ExperimentModel experiment = null;
-                            if (dataGetDTO.getProvenance().getExperiments() != null && !dataGetDTO.getProvenance().getExperiments().isEmpty()) {
-                                experiment = experiments.get(dataGetDTO.getExperiment());
-                            } 
-
-                            if (experiment != null) {
-                                csvRow.add(experiment.getName());
-                            } else {                        
-                                csvRow.add("");
-                            }                            
-
-                            // target
-                            SPARQLNamedResourceModel target = null;
-                            if(dataGetDTO.getTarget() != null){
-                               target = objects.get(dataGetDTO.getTarget());
-                            }
-
-                            if(target != null){
-                                csvRow.add(target.getName());
-                            }else{
-                                csvRow.add("");
-                            }
-
-                            // date
-                            csvRow.add(dataGetDTO.getDate());
-                            
-                            // write blank columns for value and rawData
-                            for (int i = 0; i < variables.size(); i++) {
-                                csvRow.add("");
-                                if (withRawData) {
-                                    csvRow.add("");
-                                }
-                            }
-
-                            // provenance
-                            if (provenances.containsKey(dataGetDTO.getProvenance().getUri())) {
-                                csvRow.add(provenances.get(dataGetDTO.getProvenance().getUri()).getName());
-                            } else {
-                                csvRow.add("");
-                            }                            
-
-                            // experiment URI
-                            if (experiment != null) {
-                                csvRow.add(experiment.getUri().toString());
-                            } else {                        
-                                csvRow.add("");
-                            }
-
-                            // target URI
-                             if(target != null){
-                                csvRow.add(target.getUri().toString());
-                            }else{
-                                csvRow.add("");
-                            }
-
-                            // provenance Uri
-                            csvRow.add(dataGetDTO.getProvenance().getUri().toString());
-
-                            first = false;
+            writer.writeNext(defaultColumns.toArray(new String[columnCount]));
+
+            // rows of the current date, indexed by experiment, provenance and target.
+            // Data are sorted by date so rows are written as soon as the date changes
+            Map<ExportDataIndex, String[]> rowsByIndex = new LinkedHashMap<>();
+            Instant[] currentDate = new Instant[1];
+
+            int count = readExportBatches(filter, orderByList, lookupCache, writer, batch -> {
+                for (DataModel dataModel : batch) {
+                    if (!dataModel.getDate().equals(currentDate[0])) {
+                        for (String[] row : rowsByIndex.values()) {
+                            writer.writeNext(row);
                         }
+                        rowsByIndex.clear();
+                        currentDate[0] = dataModel.getDate();
+                    }
 
-                        // value
-                        if (dataGetDTO.getValue() == null){
-                            csvRow.set(variableUriIndex.get(dataGetDTO.getVariable()), null);
-                        } else {
-                            csvRow.set(variableUriIndex.get(dataGetDTO.getVariable()), dataGetDTO.getValue().toString());
-                        }
-                        
-                        // raw data
-                        if (withRawData) {
-                            if (dataGetDTO.getRawData() == null){
-                                csvRow.set(variableUriIndex.get(dataGetDTO.getVariable())+1, null);
-                            } else {
-                                csvRow.set(variableUriIndex.get(dataGetDTO.getVariable())+1, Arrays.toString(dataGetDTO.getRawData().toArray()).replace("[", "").replace("]", ""));
-                            } 
+                    List<URI> dataExperiments = dataModel.getProvenance().getExperiments();
+                    if (dataExperiments != null && !dataExperiments.isEmpty()) {
+                        for (URI exp : dataExperiments) {
+                            addWideExportValue(rowsByIndex, DataExportDTO.fromModel(dataModel, exp, dateVariables), lookupCache, variableUriIndex, columnCount, withRawData);
                         }
-                        
+                    } else {
+                        addWideExportValue(rowsByIndex, DataExportDTO.fromModel(dataModel, null, dateVariables), lookupCache, variableUriIndex, columnCount, withRawData);
                     }
-                    
-
-                    String[] row = csvRow.toArray(new String[csvRow.size()]);
-                    writer.writeNext(row);                        
-                    
                 }
-            }
-            
-            LocalDate date = LocalDate.now();
-            DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyyMMdd");
-            String fileName = "export_data_wide_format" + dtf.format(date) + ".csv";
+            });
 
-            Instant writeCSVTime = Instant.now();
-            LOGGER.debug("Write CSV " + Long.toString(Duration.between(provenancesTime, writeCSVTime).toMillis()) + " milliseconds elapsed");
+            for (String[] row : rowsByIndex.values()) {
+                writer.writeNext(row);
+            }
 
-            return Response.ok(sw.toString(), MediaType.TEXT_PLAIN_TYPE)
-                    .header("Content-Disposition", "attachment; filename=" + fileName )
-                    .build();
+            LOGGER.debug("Export " + count + " data in wide format " + Long.toString(Duration.between(start, Instant.now()).toMillis()) + " milliseconds elapsed");
+        });
+    }
 
-        } catch (Exception e) {
-            return new ErrorResponse(Response.Status.BAD_REQUEST, e.getMessage(), e).getResponse();
+    /**
+     * Add a value to the wide format row corresponding to its experiment, provenance and target, the row is created if needed.
+     */
+    private void addWideExportValue(Map<ExportDataIndex, String[]> rowsByIndex, DataExportDTO dataExportDTO, DataExportLookupCache lookupCache, Map<URI, Integer> variableUriIndex, int columnCount, boolean withRawData) {
+        ExportDataIndex exportDataIndex = new ExportDataIndex(
+                dataExportDTO.getExperiment(),
+                dataExportDTO.getProvenance().getUri(),
+                dataExportDTO.getTarget()
+        );
+
+        String[] csvRow = rowsByIndex.get(exportDataIndex);
+        if (csvRow == null) {
+            // blank columns for value and rawData
+            csvRow = new String[columnCount];
+            Arrays.fill(csvRow, "");
+
+            ExperimentModel experiment = lookupCache.getExperiment(dataExportDTO.getExperiment());
+            SPARQLNamedResourceModel target = lookupCache.getTarget(dataExportDTO.getTarget());
+            ProvenanceModel provenance = lookupCache.getProvenance(dataExportDTO.getProvenance().getUri());
+
+            // experiment
+            if (experiment != null) {
+                csvRow[0] = experiment.getName();
+            }
+            // target
+            if (target != null) {
+                csvRow[1] = target.getName();
+            }
+            // date
+            csvRow[2] = dataExportDTO.getDate();
+            // provenance
+            if (provenance != null) {
+                csvRow[columnCount - 4] = provenance.getName();
+            }
+            // experiment URI
+            if (experiment != null) {
+                csvRow[columnCount - 3] = experiment.getUri().toString();
+            }
+            // target URI
+            if (target != null) {
+                csvRow[columnCount - 2] = target.getUri().toString();
+            }
+            // provenance Uri
+            csvRow[columnCount - 1] = dataExportDTO.getProvenance().getUri().toString();
 
+            rowsByIndex.put(exportDataIndex, csvRow);
         }
-    }
-
-    public Response prepareCSVLongExportResponse(List<DataModel> resultList, UserModel user, boolean withRawData) throws Exception {
-        Instant data = Instant.now();
 
-        Set<URI> dateVariables = getAllDateVariables();
+        Integer variableIndex = variableUriIndex.get(dataExportDTO.getVariable());
+        if (variableIndex == null) {
+            return;
+        }
 
-        Map<URI, VariableModel> variables = new HashMap<>();
-        Map<URI, SPARQLNamedResourceModel> objects = new HashMap<>();
-        Map<URI, ProvenanceModel> provenances = new HashMap<>();
-        Map<URI, ExperimentModel> experiments = new HashMap();
+        // value
+        if (dataExportDTO.getValue() == null) {
+            csvRow[variableIndex] = null;
+        } else {
+            csvRow[variableIndex] = dataExportDTO.getValue().toString();
+        }
 
-        HashMap<Instant, List<DataGetDTO>> dataByInstant = new HashMap<>();
-        for (DataModel dataModel : resultList) {
-            if (dataModel.getTarget() != null && !objects.containsKey(dataModel.getTarget())) {
-                objects.put(dataModel.getTarget(), null);
-            }
-            if (!variables.containsKey(dataModel.getVariable())) {
-                variables.put(dataModel.getVariable(), null);
-            }
-            if (!provenances.containsKey(dataModel.getProvenance().getUri())) {
-                provenances.put(dataModel.getProvenance().getUri(), null);
-            }
-            if (!dataByInstant.containsKey(dataModel.getDate())) {
-                dataByInstant.put(dataModel.getDate(), new ArrayList<>());
-            }                        
-            dataByInstant.get(dataModel.getDate()).add(DataGetDTO.getDtoFromModel(dataModel, dateVariables));
-            if (dataModel.getProvenance().getExperiments() != null) {
-                for (URI exp:dataModel.getProvenance().getExperiments()) {
-                    if (!experiments.containsKey(exp)) {
-                        experiments.put(exp, null);
-                    }
-                }                
+        // raw data
+        if (withRawData) {
+            if (dataExportDTO.getRawData() == null) {
+                csvRow[variableIndex + 1] = null;
+            } else {
+                csvRow[variableIndex + 1] = Arrays.toString(dataExportDTO.getRawData().toArray()).replace("[", "").replace("]", "");
             }
         }
+    }
 
-        Instant dataTransform = Instant.now();
-        LOGGER.debug("Data conversion " + Long.toString(Duration.between(data, dataTransform).toMillis()) + " milliseconds elapsed");
+    /**
+     * Export data matching the filter as a CSV file in long format (one row per data and experiment).
+     * The file is written while data are read from the database, so memory usage does not depend on the number of exported data.
+     *
+     * @param filter data filter, see {@link #searchFilter}
+     * @param orderByList sort, only the date direction is used
+     * @param user current user
+     * @param withRawData export also raw data
+     * @return streamed CSV response
+     * @throws Exception if date variables can't be loaded
+     */
+    public Response prepareCSVLongExportResponse(Document filter, List<OrderBy> orderByList, UserModel user, boolean withRawData) throws Exception {
+        Instant start = Instant.now();
+
+        Set<URI> dateVariables = getAllDateVariables();
+        DataExportLookupCache lookupCache = new DataExportLookupCache(nosql, sparql, fs, user.getLanguage());
 
         List<String> defaultColumns = new ArrayList<>();
 
@@ -951,35 +1055,9 @@ public class DataDAO {
         defaultColumns.add("Variable URI");
         defaultColumns.add("Data Description URI");
 
-        Instant variableTime = Instant.now();
-        List<VariableModel> variablesModelList = new VariableDAO(sparql,nosql,fs).getList(new ArrayList<>(variables.keySet()));
-        for (VariableModel variableModel : variablesModelList) {
-            variables.put(variableModel.getUri(), variableModel);
-        }
-        LOGGER.debug("Get " + variables.keySet().size() + " variable(s) " + Long.toString(Duration.between(dataTransform, variableTime).toMillis()) + " milliseconds elapsed");
-        OntologyDAO ontologyDao = new OntologyDAO(sparql);
-        List<SPARQLNamedResourceModel> objectsList = ontologyDao.getURILabels(objects.keySet(), user.getLanguage(), null);
-        for (SPARQLNamedResourceModel obj : objectsList) {
-            objects.put(obj.getUri(), obj);
-        }
-        Instant targetTime = Instant.now();
-        LOGGER.debug("Get " + objectsList.size() + " target(s) " + Long.toString(Duration.between(variableTime, targetTime).toMillis()) + " milliseconds elapsed");
-
-        ProvenanceDAO provenanceDao = new ProvenanceDAO(nosql, sparql);
-        List<ProvenanceModel> listByURIs = provenanceDao.getListByURIs(new ArrayList<>(provenances.keySet()));
-        for (ProvenanceModel prov : listByURIs) {
-            provenances.put(prov.getUri(), prov);
-        }
-        Instant provenancesTime = Instant.now();
-        LOGGER.debug("Get " + listByURIs.size() + " provenance(s) " + Long.toString(Duration.between(targetTime, provenancesTime).toMillis()) + " milliseconds elapsed");
-
-        sparql.getListByURIs(ExperimentModel.class, new ArrayList<>(experiments.keySet()), user.getLanguage());
-        List<ExperimentModel> listExp = sparql.getListByURIs(ExperimentModel.class, new ArrayList<>(experiments.keySet()), user.getLanguage());
-        for (ExperimentModel exp : listExp) {
-            experiments.put(exp.getUri(), exp);
-        }
-        Instant expTime = Instant.now();
-        LOGGER.debug("Get " + listExp.size() + " experiment(s) " + Long.toString(Duration.between(variableTime, expTime).toMillis()) + " milliseconds elapsed");
+        LocalDate date = LocalDate.now();
+        DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyyMMdd");
+        String fileName = "export_data_long_format" + dtf.format(date) + ".csv";
 
         // See defaultColumns order
         //        Target
@@ -993,12 +1071,13 @@ public class DataDAO {
         //        Target URI
         //        Variable URI
         //        Data Description URI
-        try (StringWriter sw = new StringWriter(); CSVWriter writer = new CSVWriter(sw)) {
+        return buildCSVStreamingResponse(fileName, writer -> {
             writer.writeNext(defaultColumns.toArray(new String[defaultColumns.size()]));
-            for (Map.Entry<Instant, List<DataGetDTO>> entry : dataByInstant.entrySet()) {
-                List<DataGetDTO> val = entry.getValue();
-                for (DataGetDTO dataGetDTO : val) {
-                    
+
+            int count = readExportBatches(filter, orderByList, lookupCache, writer, batch -> {
+                for (DataModel dataModel : batch) {
+                    DataGetDTO dataGetDTO = DataGetDTO.getDtoFromModel(dataModel, dateVariables);
+
                     //1 row per experiment 
                     int maxRows = 1;
                     if (dataGetDTO.getProvenance().getExperiments() != null && dataGetDTO.getProvenance().getExperiments().size()>1) {
@@ -1010,7 +1089,7 @@ public class DataDAO {
                         // experiment
                         ExperimentModel experiment = null;
                         if (dataGetDTO.getProvenance().getExperiments() != null && !dataGetDTO.getProvenance().getExperiments().isEmpty()) {
-                            experiment = experiments.get(dataGetDTO.getProvenance().getExperiments().get(j));
+                            experiment = lookupCache.getExperiment(dataGetDTO.getProvenance().getExperiments().get(j));
                         } 
 
                         if (experiment != null) {
@@ -1019,10 +1098,7 @@ public class DataDAO {
                             csvRow.add("");
                         }            
                     
-                        SPARQLNamedResourceModel target = null;
-                        if(dataGetDTO.getTarget() != null){
-                           target = objects.get(dataGetDTO.getTarget());
-                        }
+                        SPARQLNamedResourceModel target = lookupCache.getTarget(dataGetDTO.getTarget());
                         // target name
                         if(target != null){
                             csvRow.add(target.getName());
@@ -1032,16 +1108,22 @@ public class DataDAO {
 
                         // date
                         csvRow.add(dataGetDTO.getDate());
+
+                        VariableModel variable = lookupCache.getVariable(dataGetDTO.getVariable());
                         // variable
-                        csvRow.add(variables.get(dataGetDTO.getVariable()).getName());
+                        csvRow.add(variable != null ? variable.getName() : "");
                         // method
-                        if (variables.get(dataGetDTO.getVariable()).getMethod() != null) {
-                            csvRow.add(variables.get(dataGetDTO.getVariable()).getMethod().getName());
+                        if (variable != null && variable.getMethod() != null) {
+                            csvRow.add(variable.getMethod().getName());
                         } else {
                             csvRow.add("");
                         }
                         // unit
-                        csvRow.add(variables.get(dataGetDTO.getVariable()).getUnit().getName());
+                        if (variable != null && variable.getUnit() != null) {
+                            csvRow.add(variable.getUnit().getName());
+                        } else {
+                            csvRow.add("");
+                        }
                         // value
                         if(dataGetDTO.getValue() == null){
                             csvRow.add(null);
@@ -1059,8 +1141,9 @@ public class DataDAO {
                         }
 
                         // provenance
-                        if (provenances.containsKey(dataGetDTO.getProvenance().getUri())) {
-                            csvRow.add(provenances.get(dataGetDTO.getProvenance().getUri()).getName());
+                        ProvenanceModel provenance = lookupCache.getProvenance(dataGetDTO.getProvenance().getUri());
+                        if (provenance != null) {
+                            csvRow.add(provenance.getName());
                         } else {
                             csvRow.add("");
                         }
@@ -1089,22 +1172,10 @@ public class DataDAO {
                         writer.writeNext(row);
                     }
                 }
-            }
-            LocalDate date = LocalDate.now();
-            DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyyMMdd");
-            String fileName = "export_data_long_format" + dtf.format(date) + ".csv";
+            });
 
-            Instant writeCSVTime = Instant.now();
-            LOGGER.debug("Write CSV " + Long.toString(Duration.between(provenancesTime, writeCSVTime).toMillis()) + " milliseconds elapsed");
-
-            return Response.ok(sw.toString(), MediaType.TEXT_PLAIN_TYPE)
-                    .header("Content-Disposition", "attachment; filename=" + fileName)
-                    .build();
-
-        } catch (Exception e) {
-            return new ErrorResponse(Response.Status.BAD_REQUEST, e.getMessage(), e).getResponse();
-
-        }
+            LOGGER.debug("Export " + count + " data in long format " + Long.toString(Duration.between(start, Instant.now()).toMillis()) + " milliseconds elapsed");
+        });
     }
 
     public Set<URI> getUsedProvenances(String collectionName, UserModel user, List<URI> experiments, List<URI> targets, List<URI> variables, List<URI> devices) throws Exception {
@@ -1161,6 +1232,6 @@ public class DataDAO {
         List<DataGetDTO> dtoList = modelList.getList().stream()
                 .map(dataModel -> DataGetDTO.getDtoFromModel(dataModel, dateVariables))
                 .collect(Collectors.toList());
-        return new ListWithPagination<>(dtoList, modelList.getPage(), modelList.getPageSize(), modelList.getTotal());
+        return new ListWithPagination<>(dtoList, modelList.getPage(), modelList.getPageSize(), modelList.getTotal(), modelList.getContinuationToken());
     }
 }
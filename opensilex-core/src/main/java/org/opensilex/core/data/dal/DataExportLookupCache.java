@@ -0,0 +1,210 @@
+//******************************************************************************
+//                          DataExportLookupCache.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.data.dal;
+
+import org.opensilex.core.experiment.dal.ExperimentModel;
+import org.opensilex.core.provenance.dal.ProvenanceDAO;
+import org.opensilex.core.provenance.dal.ProvenanceModel;
+import org.opensilex.core.variable.dal.VariableDAO;
+import org.opensilex.core.variable.dal.VariableModel;
+import org.opensilex.fs.service.FileStorageService;
+import org.opensilex.nosql.mongodb.MongoDBService;
+import org.opensilex.sparql.model.SPARQLNamedResourceModel;
+import org.opensilex.sparql.ontology.dal.OntologyDAO;
+import org.opensilex.sparql.service.SPARQLService;
+
+import java.net.URI;
+import java.util.*;
+
+/**
+ * Bounded lookup cache used by the streaming CSV data export.
+ * <p>
+ * Targets, provenances and experiments referenced by the exported data are resolved by batches
+ * (one query per resource type and per batch) and kept in LRU maps, so memory stays bounded whatever the number of exported data.
+ * Variables are kept for the whole export since they are few and define the columns of the wide format.
+ * </p>
+ */
+public class DataExportLookupCache {
+
+    /**
+     * Default maximum number of entries kept for each resource type
+     */
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    private final SPARQLService sparql;
+    private final MongoDBService nosql;
+    private final FileStorageService fs;
+    private final String lang;
+
+    private final Map<URI, VariableModel> variables = new HashMap<>();
+    private final Map<URI, SPARQLNamedResourceModel> targets;
+    private final Map<URI, ProvenanceModel> provenances;
+    private final Map<URI, ExperimentModel> experiments;
+
+    /**
+     * @param nosql MongoDB service
+     * @param sparql SPARQL service
+     * @param fs file storage service
+     * @param lang language used to resolve labels
+     * @param capacity maximum number of entries kept for each resource type, must be greater than the number of data resolved at once
+     */
+    public DataExportLookupCache(MongoDBService nosql, SPARQLService sparql, FileStorageService fs, String lang, int capacity) {
+        this.nosql = nosql;
+        this.sparql = sparql;
+        this.fs = fs;
+        this.lang = lang;
+        this.targets = lruMap(capacity);
+        this.provenances = lruMap(capacity);
+        this.experiments = lruMap(capacity);
+    }
+
+    public DataExportLookupCache(MongoDBService nosql, SPARQLService sparql, FileStorageService fs, String lang) {
+        this(nosql, sparql, fs, lang, DEFAULT_CAPACITY);
+    }
+
+    private static <V> Map<URI, V> lruMap(int capacity) {
+        return new LinkedHashMap<URI, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<URI, V> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Load the given variables with one query and keep them for the whole export.
+     *
+     * @param uris variables URIs
+     * @return loaded variables
+     * @throws Exception if the SPARQL query fail
+     */
+    public List<VariableModel> resolveVariables(Collection<URI> uris) throws Exception {
+        List<URI> missing = new ArrayList<>();
+        for (URI uri : uris) {
+            if (!variables.containsKey(uri)) {
+                missing.add(uri);
+            }
+        }
+        if (!missing.isEmpty()) {
+            List<VariableModel> variableList = new VariableDAO(sparql, nosql, fs).getList(missing);
+            for (VariableModel variable : variableList) {
+                variables.put(variable.getUri(), variable);
+            }
+            for (URI uri : missing) {
+                variables.putIfAbsent(uri, null);
+            }
+        }
+
+        List<VariableModel> result = new ArrayList<>();
+        for (URI uri : uris) {
+            VariableModel variable = variables.get(uri);
+            if (variable != null) {
+                result.add(variable);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Resolve every variable, target, provenance and experiment referenced by the given batch of data which is not already in cache.
+     * At most one query is executed per resource type.
+     *
+     * @param batch data batch, its size must not exceed the cache capacity
+     * @throws Exception if one query fail
+     */
+    public void resolve(Collection<DataModel> batch) throws Exception {
+        Set<URI> variableURIs = new HashSet<>();
+        Set<URI> targetURIs = new HashSet<>();
+        Set<URI> provenanceURIs = new HashSet<>();
+        Set<URI> experimentURIs = new HashSet<>();
+
+        for (DataModel data : batch) {
+            if (!variables.containsKey(data.getVariable())) {
+                variableURIs.add(data.getVariable());
+            }
+            if (data.getTarget() != null && !touch(targets, data.getTarget())) {
+                targetURIs.add(data.getTarget());
+            }
+            if (!touch(provenances, data.getProvenance().getUri())) {
+                provenanceURIs.add(data.getProvenance().getUri());
+            }
+            if (data.getProvenance().getExperiments() != null) {
+                for (URI experiment : data.getProvenance().getExperiments()) {
+                    if (!touch(experiments, experiment)) {
+                        experimentURIs.add(experiment);
+                    }
+                }
+            }
+        }
+
+        if (!variableURIs.isEmpty()) {
+            resolveVariables(variableURIs);
+        }
+
+        if (!targetURIs.isEmpty()) {
+            List<SPARQLNamedResourceModel> targetList = new OntologyDAO(sparql).getURILabels(targetURIs, lang, null);
+            for (SPARQLNamedResourceModel target : targetList) {
+                targets.put(target.getUri(), target);
+            }
+            markMissing(targets, targetURIs);
+        }
+
+        if (!provenanceURIs.isEmpty()) {
+            List<ProvenanceModel> provenanceList = new ProvenanceDAO(nosql, sparql).getListByURIs(new ArrayList<>(provenanceURIs));
+            for (ProvenanceModel provenance : provenanceList) {
+                provenances.put(provenance.getUri(), provenance);
+            }
+            markMissing(provenances, provenanceURIs);
+        }
+
+        if (!experimentURIs.isEmpty()) {
+            List<ExperimentModel> experimentList = sparql.getListByURIs(ExperimentModel.class, experimentURIs, lang);
+            for (ExperimentModel experiment : experimentList) {
+                experiments.put(experiment.getUri(), experiment);
+            }
+            markMissing(experiments, experimentURIs);
+        }
+    }
+
+    /**
+     * Mark the entry as recently used.
+     *
+     * @return true if the entry was already in cache
+     */
+    private static <V> boolean touch(Map<URI, V> map, URI uri) {
+        if (map.containsKey(uri)) {
+            map.get(uri);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Keep a null entry for URIs which were not found, in order to not query them again
+     */
+    private static <V> void markMissing(Map<URI, V> map, Set<URI> uris) {
+        for (URI uri : uris) {
+            map.putIfAbsent(uri, null);
+        }
+    }
+
+    public VariableModel getVariable(URI uri) {
+        return variables.get(uri);
+    }
+
+    public SPARQLNamedResourceModel getTarget(URI uri) {
+        return uri == null ? null : targets.get(uri);
+    }
+
+    public ProvenanceModel getProvenance(URI uri) {
+        return provenances.get(uri);
+    }
+
+    public ExperimentModel getExperiment(URI uri) {
+        return uri == null ? null : experiments.get(uri);
+    }
+}
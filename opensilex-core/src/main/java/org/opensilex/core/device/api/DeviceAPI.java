@@ -44,6 +44,7 @@ import org.opensilex.server.rest.validation.ValidURI;
 import org.opensilex.sparql.exceptions.SPARQLAlreadyExistingUriException;
 import org.opensilex.sparql.response.NamedResourceDTO;
 import org.opensilex.sparql.service.SPARQLService;
+import org.opensilex.utils.CountMode;
 import org.opensilex.utils.ListWithPagination;
 import org.opensilex.utils.OrderBy;
 import org.opensilex.utils.TokenGenerator;
@@ -172,7 +173,8 @@ public class DeviceAPI {
             @ApiParam(value = "Search by metadata", example = DEVICE_EXAMPLE_METADATA) @QueryParam("metadata") String metadata,
             @ApiParam(value = "List of fields to sort as an array of fieldName=asc|desc", example = "uri=asc") @DefaultValue("name=asc") @QueryParam("order_by") List<OrderBy> orderByList,
             @ApiParam(value = "Page number", example = "0") @QueryParam("page") @DefaultValue("0") @Min(0) int page,
-            @ApiParam(value = "Page size", example = "20") @QueryParam("page_size") @DefaultValue("20") @Min(0) int pageSize
+            @ApiParam(value = "Page size", example = "20") @QueryParam("page_size") @DefaultValue("20") @Min(0) int pageSize,
+            @ApiParam(value = "Total count computation : EXACT, ESTIMATED or NONE (total count is -1)", example = "EXACT") @QueryParam("count") @DefaultValue("EXACT") CountMode countMode
     ) throws Exception {
         Document metadataFilter = null;
         if (metadata != null) {
@@ -197,7 +199,8 @@ public class DeviceAPI {
             currentUser,
             orderByList,
             page,
-            pageSize);
+            pageSize,
+            countMode);
 
         ListWithPagination<DeviceGetDTO> dtoList = devices.convert(DeviceGetDTO.class, DeviceGetDTO::getDTOFromModel);
 
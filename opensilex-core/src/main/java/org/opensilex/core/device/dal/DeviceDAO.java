@@ -9,19 +9,20 @@ import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.IndexOptions;
 import com.mongodb.client.model.Indexes;
 import org.apache.commons.collections4.MapUtils;
-import org.apache.jena.arq.querybuilder.AskBuilder;
 import org.apache.jena.arq.querybuilder.ExprFactory;
 import org.apache.jena.arq.querybuilder.SelectBuilder;
 import org.apache.jena.arq.querybuilder.WhereBuilder;
 import org.apache.jena.arq.querybuilder.handlers.WhereHandler;
 import org.apache.jena.graph.Node;
 import org.apache.jena.graph.NodeFactory;
-import org.apache.jena.sparql.core.TriplePath;
 import org.apache.jena.sparql.expr.Expr;
 import org.apache.jena.vocabulary.RDFS;
 import org.bson.Document;
 import org.opensilex.core.data.dal.DataDAO;
 import org.opensilex.core.exception.DuplicateNameException;
+import org.opensilex.core.metrics.dal.MetricsCounters;
+import org.opensilex.core.metrics.dal.MetricsCountersDAO;
+import org.opensilex.core.metrics.dal.MetricsDAO;
 import org.opensilex.core.ontology.Oeso;
 import org.opensilex.core.ontology.api.RDFObjectRelationDTO;
 import org.opensilex.sparql.SPARQLModule;
@@ -42,7 +43,7 @@ import org.opensilex.sparql.exceptions.SPARQLException;
 import org.opensilex.sparql.ontology.dal.ClassModel;
 import org.opensilex.sparql.service.SPARQLQueryHelper;
 import org.opensilex.sparql.service.SPARQLService;
-import org.opensilex.sparql.utils.Ontology;
+import org.opensilex.utils.CountMode;
 import org.opensilex.utils.ListWithPagination;
 import org.opensilex.utils.OrderBy;
 
@@ -133,6 +134,7 @@ public class DeviceDAO {
                 attributeModel.setUri(devModel.getUri());
                 attributeModel.setAttribute(devModel.getAttributes());
                 collection.insertOne(nosql.getSession(), attributeModel);
+                updateMetricsCounters(devModel.getType(), 1);
 
                 nosql.commitTransaction();
                 sparql.commitTransaction();
@@ -142,11 +144,28 @@ public class DeviceDAO {
             }
         } else {
             sparql.create(devModel, true);
+            updateMetricsCounters(devModel.getType(), 1);
         }
 
         return devModel.getUri();
     }
 
+    /**
+     * Devices are counted by type in the system scope
+     */
+    private void updateMetricsCounters(URI type, long delta) {
+        new MetricsCountersDAO(nosql).update(new MetricsCounters()
+                .add(MetricsCounters.SYSTEM_SCOPE, MetricsCounters.DEVICE_CATEGORY, type, delta));
+    }
+
+    /**
+     * Move an updated device to the counter of its new type
+     */
+    private void updateMetricsCounters(URI oldType, URI newType) {
+        new MetricsCountersDAO(nosql).update(new MetricsCounters()
+                .addTypeChange(MetricsCounters.SYSTEM_SCOPE, MetricsCounters.DEVICE_CATEGORY, oldType, newType));
+    }
+
     public ListWithPagination<DeviceModel> search(
             String namePattern,
             URI rdfType,
@@ -161,7 +180,8 @@ public class DeviceDAO {
             UserModel currentUser,
             List<OrderBy> orderByList,
             Integer page,
-            Integer pageSize) throws Exception {
+            Integer pageSize,
+            CountMode countMode) throws Exception {
         LocalDate date;
         if (year != null) {
             String yearString = Integer.toString(year);
@@ -194,7 +214,7 @@ public class DeviceDAO {
                     currentUser.getLanguage(),
                     (SelectBuilder select) -> {                        
                         if (namePattern != null && !namePattern.trim().isEmpty()) {
-                            select.addFilter(SPARQLQueryHelper.regexFilter(DeviceModel.NAME_FIELD, namePattern));
+                            SPARQLQueryHelper.addNameFilter(sparql, select, sparql.getDefaultGraph(DeviceModel.class), DeviceModel.class, DeviceModel.NAME_FIELD, namePattern);
                         }
                         if (rdfType != null && !includeSubTypes) {
                             select.addFilter(SPARQLQueryHelper.eq(DeviceModel.TYPE_FIELD, NodeFactory.createURI(SPARQLDeserializers.getExpandedURI(rdfType.toString()))));
@@ -244,7 +264,8 @@ public class DeviceDAO {
                     null,
                     orderByList,
                     page,
-                    pageSize);
+                    pageSize,
+                    countMode);
         }
 
         return returnList;
@@ -301,7 +322,7 @@ public class DeviceDAO {
                     currentUser.getLanguage(),
                     (SelectBuilder select) -> {
                         if (namePattern != null && !namePattern.trim().isEmpty()) {
-                            select.addFilter(SPARQLQueryHelper.regexFilter(DeviceModel.NAME_FIELD, namePattern));
+                            SPARQLQueryHelper.addNameFilter(sparql, select, sparql.getDefaultGraph(DeviceModel.class), DeviceModel.class, DeviceModel.NAME_FIELD, namePattern);
                         }
                         if (rdfType != null && !includeSubTypes) {
                             select.addFilter(SPARQLQueryHelper.eq(DeviceModel.TYPE_FIELD, NodeFactory.createURI(SPARQLDeserializers.getExpandedURI(rdfType.toString()))));
@@ -368,7 +389,7 @@ public class DeviceDAO {
     private void appendTypeFilter(Map<String, WhereHandler> customHandlerByFields, URI type) throws Exception {
         if (type != null) {
             WhereHandler handler = new WhereHandler();
-            handler.addWhere(new TriplePath(makeVar(DeviceModel.TYPE_FIELD), Ontology.subClassAny, SPARQLDeserializers.nodeURI(type)));
+            handler.addFilter(SPARQLQueryHelper.subClassesFilter(makeVar(DeviceModel.TYPE_FIELD), type));
             customHandlerByFields.put(DeviceModel.TYPE_FIELD, handler);
         }
     }
@@ -417,9 +438,11 @@ public class DeviceDAO {
         createIndexes();
         DeviceAttributeModel storedAttributes = getStoredAttributes(instance.getUri());
         Node graph = sparql.getDefaultGraph(DeviceModel.class);
+        URI oldType = MetricsDAO.getStoredType(sparql, graph, instance.getUri());
         if ((instance.getAttributes() == null || instance.getAttributes().isEmpty()) && storedAttributes == null) {
             sparql.deleteByURI(graph, instance.getUri());
             sparql.create(instance);
+            updateMetricsCounters(oldType, instance.getType());
         } else {
             nosql.startTransaction();
             sparql.startTransaction();
@@ -440,6 +463,7 @@ public class DeviceDAO {
                 } else {
                     collection.findOneAndDelete(nosql.getSession(), eq(MongoModel.URI_FIELD, instance.getUri()));
                 }
+                updateMetricsCounters(oldType, instance.getType());
                 nosql.commitTransaction();
                 sparql.commitTransaction();
             } catch (Exception ex) {
@@ -480,6 +504,63 @@ public class DeviceDAO {
         return devices;
     }
 
+    /**
+     * Batch version of {@link #getDeviceByURI(URI, UserModel)} : load devices with one SPARQL query and their attributes with one MongoDB query.
+     *
+     * @param devicesURI devices URIs
+     * @param currentUser current user
+     * @return existing devices, unknown URIs are just missing from this list
+     * @throws Exception if one query fail
+     */
+    public List<DeviceModel> getDevicesByURIs(Collection<URI> devicesURI, UserModel currentUser) throws Exception {
+        if (devicesURI.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<DeviceModel> devices = sparql.search(DeviceModel.class, currentUser.getLanguage(), (SelectBuilder select) -> {
+            SPARQLQueryHelper.addWhereUriValues(select, DeviceModel.URI_FIELD, devicesURI);
+        });
+        setStoredAttributes(devices);
+        return devices;
+    }
+
+    /**
+     * Batch version of {@link #getByName(String)} : load devices which have one of the given names with one SPARQL query
+     * and their attributes with one MongoDB query.
+     *
+     * @param names devices names
+     * @param currentUser current user
+     * @return devices which have one of the given names, several devices can share the same name
+     * @throws Exception if one query fail
+     */
+    public List<DeviceModel> getByNames(Collection<String> names, UserModel currentUser) throws Exception {
+        if (names.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<DeviceModel> devices = sparql.search(DeviceModel.class, currentUser.getLanguage(), (SelectBuilder select) -> {
+            select.addWhereValueVar(makeVar(DeviceModel.NAME_FIELD), names.stream().map(NodeFactory::createLiteral).toArray());
+        });
+        setStoredAttributes(devices);
+        return devices;
+    }
+
+    private void setStoredAttributes(List<DeviceModel> devices) {
+        if (devices.isEmpty()) {
+            return;
+        }
+        Map<String, DeviceModel> devicesByURI = new HashMap<>();
+        List<URI> uris = new ArrayList<>(devices.size());
+        for (DeviceModel device : devices) {
+            devicesByURI.put(SPARQLDeserializers.getExpandedURI(device.getUri()), device);
+            uris.add(device.getUri());
+        }
+        for (DeviceAttributeModel storedAttributes : nosql.findByURIs(DeviceAttributeModel.class, ATTRIBUTES_COLLECTION_NAME, uris)) {
+            DeviceModel device = devicesByURI.get(SPARQLDeserializers.getExpandedURI(storedAttributes.getUri()));
+            if (device != null) {
+                device.setAttributes(storedAttributes.getAttribute());
+            }
+        }
+    }
+
     /**
      *
      * @param deviceURI uri of device
@@ -511,6 +592,8 @@ public class DeviceDAO {
             throw new ForbiddenURIAccessException(deviceURI, dataFileCount+" datafile(s)");
         }  
         
+        DeviceModel device = sparql.getByURI(DeviceModel.class, deviceURI, null);
+
         nosql.startTransaction();
         sparql.startTransaction();
         sparql.delete(DeviceModel.class, deviceURI);
@@ -518,6 +601,9 @@ public class DeviceDAO {
 
         try {
             collection.findOneAndDelete(nosql.getSession(), eq(MongoModel.URI_FIELD, deviceURI));
+            if (device != null) {
+                updateMetricsCounters(device.getType(), -1);
+            }
             nosql.commitTransaction();
             sparql.commitTransaction();
         } catch (Exception ex) {
@@ -560,8 +646,8 @@ public class DeviceDAO {
     }
 
     public boolean isDeviceType(URI rdfType) throws SPARQLException {
-        return sparql.executeAskQuery(new AskBuilder()
-                .addWhere(SPARQLDeserializers.nodeURI(rdfType), Ontology.subClassAny, Oeso.Device)
-        );
+        return SPARQLModule.getOntologyStoreInstance()
+                .getSubClassesURIs(URI.create(Oeso.Device.getURI()))
+                .contains(SPARQLDeserializers.getExpandedURI(rdfType));
     }
 }
@@ -653,24 +653,13 @@ public class ExperimentAPI {
             }
         }
 
-        Instant start = Instant.now();
-        List<DataModel> resultList = dao.search(currentUser, experiments, objects, variables, provenancesArrayList, null, startInstant, endInstant, confidenceMin, confidenceMax, metadataFilter, orderByList);
-        Instant data = Instant.now();
-        LOGGER.debug(resultList.size() + " observations retrieved " + Long.toString(Duration.between(start, data).toMillis()) + " milliseconds elapsed");
-
-        Response prepareCSVExport = null;
+        Document filter = dao.searchFilter(currentUser, experiments, objects, variables, provenancesArrayList, null, startInstant, endInstant, confidenceMin, confidenceMax, metadataFilter);
 
         if (csvFormat.equals("long")) {
-            prepareCSVExport = dao.prepareCSVLongExportResponse(resultList, currentUser, false);
+            return dao.prepareCSVLongExportResponse(filter, orderByList, currentUser, false);
         } else {
-            prepareCSVExport = dao.prepareCSVWideExportResponse(resultList, currentUser, false);
+            return dao.prepareCSVWideExportResponse(filter, orderByList, currentUser, false);
         }
-
-        Instant finish = Instant.now();
-        long timeElapsed = Duration.between(start, finish).toMillis();
-        LOGGER.debug("Export data " + Long.toString(timeElapsed) + " milliseconds elapsed");
-
-        return prepareCSVExport;
     }
     @Deprecated
     @POST
@@ -23,11 +23,14 @@ import org.apache.jena.sparql.path.Path;
 import org.apache.jena.sparql.syntax.ElementFilter;
 import org.apache.jena.sparql.syntax.ElementGroup;
 import org.apache.jena.sparql.syntax.ElementOptional;
-import org.apache.jena.vocabulary.DCTerms;
 import org.apache.jena.vocabulary.RDF;
 import org.apache.jena.vocabulary.RDFS;
 import org.opensilex.core.exception.DuplicateNameException;
+import org.opensilex.core.metrics.dal.MetricsCounters;
+import org.opensilex.core.metrics.dal.MetricsCountersDAO;
+import org.opensilex.core.metrics.dal.MetricsDAO;
 import org.opensilex.core.ontology.Oeso;
+import org.opensilex.core.organisation.dal.AccessControlIndex;
 import org.opensilex.core.organisation.dal.InfrastructureDAO;
 import org.opensilex.core.organisation.dal.InfrastructureFacilityModel;
 import org.opensilex.core.organisation.dal.InfrastructureModel;
@@ -37,6 +40,7 @@ import org.opensilex.security.authentication.NotFoundURIException;
 import org.opensilex.security.authentication.SecurityOntology;
 import org.opensilex.security.user.dal.UserModel;
 import org.opensilex.sparql.deserializer.SPARQLDeserializers;
+import org.opensilex.sparql.deserializer.URIDeserializer;
 import org.opensilex.sparql.exceptions.SPARQLException;
 import org.opensilex.sparql.model.SPARQLResourceModel;
 import org.opensilex.sparql.service.SPARQLQueryHelper;
@@ -65,6 +69,11 @@ public class ExperimentDAO {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ExperimentDAO.class);
 
+    /**
+     * Cache tag invalidated on each experiment modification, see {@link UserExperimentsCache}
+     */
+    public static final String CACHE_TAG = "experiments";
+
     public ExperimentDAO(SPARQLService sparql, MongoDBService nosql) {
         this.sparql = sparql;
         this.nosql = nosql;
@@ -72,12 +81,14 @@ public class ExperimentDAO {
 
     public ExperimentModel create(ExperimentModel instance) throws Exception {
         sparql.create(instance);
+        sparql.invalidateApiCacheTags(CACHE_TAG);
         return instance;
     }
 
     public ExperimentModel update(ExperimentModel instance, UserModel user) throws Exception {
         validateExperimentAccess(instance.getUri(), user);
         sparql.update(instance);
+        sparql.invalidateApiCacheTags(CACHE_TAG);
         return instance;
     }
 
@@ -94,6 +105,8 @@ public class ExperimentDAO {
     public void delete(URI xpUri, UserModel user) throws Exception {
         validateExperimentAccess(xpUri, user);
         sparql.delete(ExperimentModel.class, xpUri);
+        new MetricsCountersDAO(nosql).deleteScopes(Collections.singletonList(MetricsCounters.getScope(xpUri)));
+        sparql.invalidateApiCacheTags(CACHE_TAG);
     }
 
     public void delete(List<URI> xpUris, UserModel user) throws Exception {
@@ -101,6 +114,10 @@ public class ExperimentDAO {
             validateExperimentAccess(xpUri, user);
         }
         sparql.delete(ExperimentModel.class, xpUris);
+        new MetricsCountersDAO(nosql).deleteScopes(xpUris.stream()
+                .map(MetricsCounters::getScope)
+                .collect(Collectors.toList()));
+        sparql.invalidateApiCacheTags(CACHE_TAG);
     }
 
     public ExperimentModel get(URI xpUri, UserModel user) throws Exception {
@@ -195,7 +212,7 @@ public class ExperimentDAO {
                     appendIsActiveFilter(select, isEnded);
                     appendDateFilter(select, startDate, endDate);
                     appendProjectListFilter(select, projects);
-                    appendUserExperimentsFilter(select, user);
+                    appendUserExperimentsFilter(sparql, select, user);
                     appendPublicFilter(select, isPublic);
                 },
                 orderByList,
@@ -334,15 +351,35 @@ public class ExperimentDAO {
     }
 
     public Set<URI> getUserExperiments(UserModel user) throws Exception {
-        String lang = user.getLanguage();
-        Set<URI> userExperiments = new HashSet<>();
-        List<URI> xps = sparql.searchURIs(ExperimentModel.class, lang, (SelectBuilder select) -> {
-            appendUserExperimentsFilter(select, user);
-        });
+        return new HashSet<>(getUserExperimentsEntry(user).getURIs());
+    }
 
-        userExperiments.addAll(xps);
+    /**
+     * Get experiments available for a user in expanded form, they can be used directly in a Mongo filter.
+     *
+     * @param user current user
+     * @return unmodifiable set of expanded experiments URIs
+     * @throws Exception if query fail
+     */
+    public Set<URI> getUserExpandedExperiments(UserModel user) throws Exception {
+        return getUserExperimentsEntry(user).getExpandedURIs();
+    }
 
-        return userExperiments;
+    private UserExperimentsCache.UserExperiments getUserExperimentsEntry(UserModel user) throws Exception {
+        UserExperimentsCache.UserExperiments userExperiments = UserExperimentsCache.get(user.getUri());
+        if (userExperiments != null) {
+            return userExperiments;
+        }
+
+        // read versions before query, so that a concurrent modification invalidates the entry
+        HashMap<String, Long> versions = UserExperimentsCache.getVersions();
+        Collection<URI> xps = AccessControlIndex.getUserExperiments(sparql, user);
+        if (xps == null) {
+            // admin : all experiments
+            xps = sparql.searchURIs(ExperimentModel.class, user.getLanguage());
+        }
+
+        return UserExperimentsCache.put(user.getUri(), versions, xps);
     }
     
     /**
@@ -356,7 +393,7 @@ public class ExperimentDAO {
         Set<URI> userExperiments = new HashSet<>(); 
         
         List<URI> xps = sparql.searchURIs(ExperimentModel.class, lang, (SelectBuilder select) -> {
-            appendUserExperimentsFilter(select, user); 
+            appendUserExperimentsFilter(sparql, select, user);
             Var uriVar = makeVar(ExperimentModel.URI_FIELD);
             Var endDateField = makeVar(ExperimentModel.END_DATE_FIELD);
             Triple endDateTriple = new Triple(uriVar, Oeso.endDate.asNode(), endDateField);
@@ -368,48 +405,26 @@ public class ExperimentDAO {
         return userExperiments;
     }
     
-    public static void appendUserExperimentsFilter(SelectBuilder select, UserModel user) throws Exception {
-        if (user == null || user.isAdmin()) {
+    /**
+     * Restrict the experiments of the query to the experiments accessible by the user, with a VALUES clause computed by the {@link AccessControlIndex}
+     *
+     * @param sparql connection used to load the access control index if needed
+     * @param select query on experiments
+     * @param user current user, no filter is added for an admin
+     * @throws Exception if the access control index loading fails
+     */
+    public static void appendUserExperimentsFilter(SPARQLService sparql, SelectBuilder select, UserModel user) throws Exception {
+        Set<URI> experiments = AccessControlIndex.getUserExperiments(sparql, user);
+        if (experiments == null) {
             return;
         }
 
-        Var uriVar = makeVar(ExperimentModel.URI_FIELD);
-        Var userProfileVar = makeVar("_userProfile");
-        Var userVar = makeVar("_user");
-        Var groupVar = makeVar(ExperimentModel.GROUP_FIELD);
-
-        Node userNodeURI = SPARQLDeserializers.nodeURI(user.getUri());
-
-        ElementGroup optionals = new ElementGroup();
-        optionals.addTriplePattern(new Triple(uriVar, SecurityOntology.hasGroup.asNode(), groupVar));
-        optionals.addTriplePattern(new Triple(groupVar, SecurityOntology.hasUserProfile.asNode(), userProfileVar));
-        optionals.addTriplePattern(new Triple(userProfileVar, SecurityOntology.hasUser.asNode(), userVar));
-        select.getWhereHandler().getClause().addElement(new ElementOptional(optionals));
-        Expr inGroup = SPARQLQueryHelper.eq(userVar, userNodeURI);
-
-        Var scientificSupervisorVar = makeVar(ExperimentModel.SCIENTIFIC_SUPERVISOR_FIELD);
-        select.addOptional(new Triple(uriVar, Oeso.hasScientificSupervisor.asNode(), scientificSupervisorVar));
-        Expr hasScientificSupervisor = SPARQLQueryHelper.eq(scientificSupervisorVar, userNodeURI);
-
-        Var technicalSupervisorVar = makeVar(ExperimentModel.TECHNICAL_SUPERVISOR_FIELD);
-        select.addOptional(new Triple(uriVar, Oeso.hasTechnicalSupervisor.asNode(), technicalSupervisorVar));
-        Expr hasTechnicalSupervisor = SPARQLQueryHelper.eq(technicalSupervisorVar, userNodeURI);
-
-        Var isPublicVar = makeVar(ExperimentModel.IS_PUBLIC_FIELD);
-        select.addOptional(new Triple(uriVar, Oeso.isPublic.asNode(), isPublicVar));
-        Expr isPublic = SPARQLQueryHelper.eq(isPublicVar, Boolean.TRUE);
-
-        Var creatorVar = makeVar(ExperimentModel.CREATOR_FIELD);
-        select.addOptional(new Triple(uriVar, DCTerms.creator.asNode(), creatorVar));
-        Expr isCreator = SPARQLQueryHelper.eq(creatorVar, userNodeURI);
-
-        select.addFilter(SPARQLQueryHelper.or(
-                inGroup,
-                hasScientificSupervisor,
-                hasTechnicalSupervisor,
-                isPublic,
-                isCreator
-        ));
+        if (experiments.isEmpty()) {
+            // an empty VALUES clause is ignored, IN () is always false
+            select.addFilter(SPARQLQueryHelper.getExprFactory().in(makeVar(ExperimentModel.URI_FIELD)));
+        } else {
+            SPARQLQueryHelper.addWhereUriValues(select, ExperimentModel.URI_FIELD, experiments);
+        }
     }
 
     public void validateExperimentAccess(URI experimentURI, UserModel user) throws Exception {
@@ -422,49 +437,7 @@ public class ExperimentDAO {
             return;
         }
 
-        AskBuilder ask = sparql.getUriExistsQuery(ExperimentModel.class, experimentURI);
-
-        Node uriVar = SPARQLDeserializers.nodeURI(experimentURI);
-        Var userProfileVar = makeVar("_userProfile");
-        Var userVar = makeVar("_user");
-        Var groupVar = makeVar(ExperimentModel.GROUP_FIELD);
-
-        Node userNodeURI = SPARQLDeserializers.nodeURI(user.getUri());
-
-        ElementGroup optionals = new ElementGroup();
-        optionals.addTriplePattern(new Triple(uriVar, SecurityOntology.hasGroup.asNode(), groupVar));
-        optionals.addTriplePattern(new Triple(groupVar, SecurityOntology.hasUserProfile.asNode(), userProfileVar));
-        optionals.addTriplePattern(new Triple(userProfileVar, SecurityOntology.hasUser.asNode(), userVar));
-        ask.getWhereHandler().getClause().addElement(new ElementOptional(optionals));
-        Expr inGroup = SPARQLQueryHelper.eq(userVar, userNodeURI);
-
-        Var creatorVar = makeVar(ExperimentModel.CREATOR_FIELD);
-        ask.addOptional(new Triple(uriVar, DCTerms.creator.asNode(), creatorVar));
-        Expr isCreator = SPARQLQueryHelper.eq(creatorVar, userNodeURI);
-
-        Var scientificSupervisorVar = makeVar(ExperimentModel.SCIENTIFIC_SUPERVISOR_FIELD);
-        ask.addOptional(new Triple(uriVar, Oeso.hasScientificSupervisor.asNode(), scientificSupervisorVar));
-        Expr hasScientificSupervisor = SPARQLQueryHelper.eq(scientificSupervisorVar, userNodeURI);
-
-        Var technicalSupervisorVar = makeVar(ExperimentModel.TECHNICAL_SUPERVISOR_FIELD);
-        ask.addOptional(new Triple(uriVar, Oeso.hasTechnicalSupervisor.asNode(), technicalSupervisorVar));
-        Expr hasTechnicalSupervisor = SPARQLQueryHelper.eq(technicalSupervisorVar, userNodeURI);
-
-        Var isPublicVar = makeVar(ExperimentModel.IS_PUBLIC_FIELD);
-        ask.addOptional(new Triple(uriVar, Oeso.isPublic.asNode(), isPublicVar));
-        Expr isPublic = SPARQLQueryHelper.eq(isPublicVar, Boolean.TRUE);
-
-        ask.addFilter(
-                SPARQLQueryHelper.or(
-                        isCreator,
-                        inGroup,
-                        hasScientificSupervisor,
-                        hasTechnicalSupervisor,
-                        isPublic
-                )
-        );
-
-        if (!sparql.executeAskQuery(ask)) {
+        if (!AccessControlIndex.isExperimentAccessible(sparql, experimentURI, user)) {
             throw new ForbiddenURIAccessException(experimentURI);
         }
     }
@@ -491,6 +464,59 @@ public class ExperimentDAO {
         return sparql.getListByURIs(ExperimentModel.class, uris, currentUser.getLanguage());
     }
 
+    /**
+     * Batch version of {@link #get(URI, UserModel)} : load with one query the experiments which exist and which are accessible by the user.
+     *
+     * @param uris experiments URIs
+     * @param user current user
+     * @return accessible experiments, unknown or forbidden URIs are just missing from this list
+     * @throws Exception if the SPARQL query fail
+     */
+    public List<ExperimentModel> getAccessibleByURIs(Collection<URI> uris, UserModel user) throws Exception {
+        if (uris.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // only one VALUES clause on experiment URI, so that values are intersected with accessible experiments before
+        Set<URI> userExperiments = AccessControlIndex.getUserExperiments(sparql, user);
+        List<URI> accessibleURIs = uris.stream()
+                .filter(uri -> userExperiments == null || userExperiments.contains(URIDeserializer.formatURI(uri)))
+                .collect(Collectors.toList());
+        if (accessibleURIs.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<ExperimentModel> results = sparql.search(ExperimentModel.class, user.getLanguage(), (SelectBuilder select) -> {
+            SPARQLQueryHelper.addWhereUriValues(select, ExperimentModel.URI_FIELD, accessibleURIs);
+        });
+        return distinctByURI(results);
+    }
+
+    /**
+     * Batch lookup of experiments by their exact name, with one query using a VALUES clause.
+     *
+     * @param names experiments names
+     * @return experiments which have one of the given names, several experiments can share the same name
+     * @throws Exception if the SPARQL query fail
+     */
+    public List<ExperimentModel> getByNames(Collection<String> names) throws Exception {
+        if (names.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<ExperimentModel> results = sparql.search(ExperimentModel.class, null, (SelectBuilder select) -> {
+            select.addWhereValueVar(makeVar(ExperimentModel.NAME_FIELD), names.stream().map(NodeFactory::createLiteral).toArray());
+        });
+        return distinctByURI(results);
+    }
+
+    private List<ExperimentModel> distinctByURI(List<ExperimentModel> experiments) {
+        Map<String, ExperimentModel> experimentsByURI = new LinkedHashMap<>();
+        for (ExperimentModel experiment : experiments) {
+            experimentsByURI.putIfAbsent(SPARQLDeserializers.getExpandedURI(experiment.getUri()), experiment);
+        }
+        return new ArrayList<>(experimentsByURI.values());
+    }
+
     public ExperimentModel getByName(String name) throws Exception {
         //pageSize=2 in order to detect duplicated names
         ListWithPagination<ExperimentModel> results = sparql.searchWithPagination(
@@ -516,7 +542,8 @@ public class ExperimentDAO {
     }
 
     /**
-     * Update the experiment species from the germplasms of their scientific objects. Three requests are performed :
+     * Update the experiment species and germplasm metrics counters from the germplasms of their scientific objects.
+     * Three requests are performed to update species :
      *
      * First query (delete) :
      *
@@ -621,5 +648,22 @@ public class ExperimentDAO {
             LOGGER.error("Error while updating species of experiment " + experimentUri, e);
             sparql.rollbackTransaction();
         }
+
+        updateGermplasmMetricsCounters(experimentUri);
+    }
+
+    /**
+     * Recount the germplasm of the experiment scientific objects in the experiment metrics counters.
+     * Counters are replaced instead of updated, since a germplasm is counted once whatever the number of objects using it.
+     *
+     * @param experimentUri experiment URI
+     * @throws Exception if counting fails
+     */
+    public void updateGermplasmMetricsCounters(URI experimentUri) throws Exception {
+        new MetricsCountersDAO(nosql).replace(
+                MetricsCounters.getScope(experimentUri),
+                MetricsCounters.GERMPLASM_CATEGORY,
+                MetricsDAO.getExperimentGermplasmCounts(sparql, experimentUri)
+        );
     }
 }
@@ -0,0 +1,122 @@
+//******************************************************************************
+//                          UserExperimentsCache.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.experiment.dal;
+
+import org.opensilex.security.group.dal.GroupDAO;
+import org.opensilex.security.user.dal.UserDAO;
+import org.opensilex.server.rest.cache.ApiCacheTags;
+import org.opensilex.sparql.deserializer.SPARQLDeserializers;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <pre>
+ * Cache of experiments accessible by each user, shared by DAOs which filter resources on user experiments.
+ *
+ * Entries keep experiment URIs as returned by SPARQL and in expanded form, so that they can be used directly in Mongo filters.
+ * An entry is ignored once experiments, groups or users were modified since its creation (see {@link ApiCacheTags}).
+ * </pre>
+ *
+ * @see ExperimentDAO#getUserExperiments(org.opensilex.security.user.dal.UserModel)
+ * @see ExperimentDAO#getUserExpandedExperiments(org.opensilex.security.user.dal.UserModel)
+ */
+public final class UserExperimentsCache {
+
+    /**
+     * Maximum number of cached users
+     */
+    public static final int MAX_USERS = 10000;
+
+    private static final String[] TAGS = {ExperimentDAO.CACHE_TAG, GroupDAO.CACHE_TAG, UserDAO.CACHE_TAG};
+
+    private static final ConcurrentHashMap<URI, UserExperiments> ENTRIES = new ConcurrentHashMap<>();
+
+    private UserExperimentsCache() {
+    }
+
+    /**
+     * @param userURI user URI
+     * @return cached experiments of the user, or null if not cached or outdated
+     */
+    static UserExperiments get(URI userURI) {
+        UserExperiments userExperiments = ENTRIES.get(userURI);
+        if (userExperiments == null) {
+            return null;
+        }
+        if (!ApiCacheTags.isUpToDate(userExperiments.versions)) {
+            ENTRIES.remove(userURI, userExperiments);
+            return null;
+        }
+        return userExperiments;
+    }
+
+    /**
+     * @return current versions of tags invalidating entries, must be read before querying user experiments
+     */
+    static HashMap<String, Long> getVersions() {
+        return ApiCacheTags.getVersions(TAGS);
+    }
+
+    /**
+     * @param userURI user URI
+     * @param versions tag versions read before querying user experiments
+     * @param experiments user experiments
+     * @return cached entry
+     */
+    static UserExperiments put(URI userURI, HashMap<String, Long> versions, Collection<URI> experiments) {
+        UserExperiments userExperiments = new UserExperiments(versions, experiments);
+        if (ENTRIES.size() >= MAX_USERS) {
+            ENTRIES.clear();
+        }
+        ENTRIES.put(userURI, userExperiments);
+        return userExperiments;
+    }
+
+    /**
+     * Remove all cached entries
+     */
+    public static void clear() {
+        ENTRIES.clear();
+    }
+
+    /**
+     * Experiments accessible by a user
+     */
+    static final class UserExperiments {
+
+        private final HashMap<String, Long> versions;
+
+        private final Set<URI> uris;
+
+        private final Set<URI> expandedURIs;
+
+        private UserExperiments(HashMap<String, Long> versions, Collection<URI> experiments) {
+            this.versions = versions;
+
+            Set<URI> expanded = new LinkedHashSet<>(experiments.size());
+            for (URI experiment : experiments) {
+                expanded.add(URI.create(SPARQLDeserializers.getExpandedURI(experiment)));
+            }
+            this.uris = Collections.unmodifiableSet(new LinkedHashSet<>(experiments));
+            this.expandedURIs = Collections.unmodifiableSet(expanded);
+        }
+
+        Set<URI> getURIs() {
+            return uris;
+        }
+
+        Set<URI> getExpandedURIs() {
+            return expandedURIs;
+        }
+    }
+}
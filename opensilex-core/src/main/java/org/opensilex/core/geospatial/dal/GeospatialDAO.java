@@ -36,23 +36,21 @@ import org.locationtech.jts.io.WKTWriter;
 import org.locationtech.jts.io.geojson.GeoJsonReader;
 import org.locationtech.jts.io.geojson.GeoJsonWriter;
 import org.opensilex.core.ontology.Oeso;
-import org.opensilex.sparql.ontology.dal.OntologyDAO;
 import org.opensilex.nosql.mongodb.MongoDBService;
-import org.opensilex.security.user.dal.UserModel;
 import org.opensilex.server.rest.serialization.ObjectMapperContextResolver;
+import org.opensilex.sparql.SPARQLModule;
 import org.opensilex.sparql.deserializer.SPARQLDeserializers;
 import org.opensilex.sparql.deserializer.URIDeserializer;
-import org.opensilex.sparql.model.SPARQLTreeListModel;
-import org.opensilex.sparql.ontology.dal.ClassModel;
-import org.opensilex.sparql.response.ResourceTreeDTO;
-import org.opensilex.sparql.service.SPARQLService;
 import org.opensilex.utils.ListWithPagination;
 
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.mongodb.client.model.Filters.and;
 import static org.bson.codecs.configuration.CodecRegistries.fromProviders;
@@ -68,6 +66,13 @@ public class GeospatialDAO {
 
     public static final String GEOSPATIAL_COLLECTION_NAME = "geospatial";
 
+    /**
+     * Versions of geometries by graph, incremented on each write, used as cache keys by {@link GeospatialTileDAO}.
+     * Writes without graph may modify any graph, so they increment the global version.
+     */
+    private static final Map<String, AtomicLong> graphVersions = new ConcurrentHashMap<>();
+    private static final AtomicLong globalVersion = new AtomicLong();
+
     public GeospatialDAO(MongoDBService nosql) {
         MongoDatabase db = nosql.getDatabase();
         geometryCollection = db.getCollection(GEOSPATIAL_COLLECTION_NAME, GeospatialModel.class);
@@ -130,6 +135,7 @@ public class GeospatialDAO {
             // the verification of the existence of the URI is done by mongoDB thanks to the uri_1_graph_1 index.
             addIndex();
             geometryCollection.insertOne(instanceGeospatial);
+            incrementVersion(instanceGeospatial.getGraph());
         }
 
         return instanceGeospatial;
@@ -156,7 +162,9 @@ public class GeospatialDAO {
             Document filter = getFilter(uri, graph);
 
             // the verification of the existence of the URI is done by mongoDB thanks to the uri_1_graph_1 index.
-            return geometryCollection.findOneAndReplace(filter, geospatial, new FindOneAndReplaceOptions().upsert(true));
+            GeospatialModel previous = geometryCollection.findOneAndReplace(filter, geospatial, new FindOneAndReplaceOptions().upsert(true));
+            incrementVersion(graph);
+            return previous;
         }
         return geospatial;
     }
@@ -172,6 +180,24 @@ public class GeospatialDAO {
         Document filter = getFilter(uri, graph);
 
         geometryCollection.deleteOne(filter);
+        incrementVersion(graph);
+    }
+
+    /**
+     * @param graph geometries graph
+     * @return a version of the geometries of the graph, which changes on each write in this graph
+     */
+    public static long getVersion(URI graph) {
+        AtomicLong graphVersion = graphVersions.get(SPARQLDeserializers.getExpandedURI(graph));
+        return globalVersion.get() + (graphVersion == null ? 0 : graphVersion.get());
+    }
+
+    private static void incrementVersion(URI graph) {
+        if (graph == null) {
+            globalVersion.incrementAndGet();
+        } else {
+            graphVersions.computeIfAbsent(SPARQLDeserializers.getExpandedURI(graph), key -> new AtomicLong()).incrementAndGet();
+        }
     }
 
     private ListWithPagination<GeospatialModel> getGeospatialModelListWithPagination(Integer page, Integer pageSize, FindIterable<GeospatialModel> geospatialFindIterable) {
@@ -226,41 +252,28 @@ public class GeospatialDAO {
     }
 
     // All of the following methods required the presence of a 2dsphere or 2s index to support geospatial queries.
-    public FindIterable<GeospatialModel> searchIntersectsArea(Geometry geometry, UserModel currentUser, SPARQLService sparql) throws Exception {
+
+    /**
+     * @param graph geometries graph
+     * @param bbox area to intersect, or null for all geometries of the graph
+     * @return geometries of the graph which intersect the area
+     */
+    public FindIterable<GeospatialModel> searchIntersectsInGraph(URI graph, Geometry bbox) {
+        Document graphFilter = new Document("graph", SPARQLDeserializers.getExpandedURI(graph));
+        if (bbox == null) {
+            return geometryCollection.find(graphFilter);
+        }
+        return geometryCollection.find(and(graphFilter, Filters.geoIntersects("geometry", bbox)));
+    }
+    public FindIterable<GeospatialModel> searchIntersectsArea(Geometry geometry) throws Exception {
         if (geometry != null) {
-            OntologyDAO ontologyDAO = new OntologyDAO(sparql);
-
-            SPARQLTreeListModel<ClassModel> tree = ontologyDAO.searchSubClasses(new URI(Oeso.Area.getURI()), ClassModel.class, null,
-                    currentUser.getLanguage(),
-                    true,
-                    null);
-            List<ResourceTreeDTO> resourceTreeDTOS = ResourceTreeDTO.fromResourceTree(tree);
-            List<String> ontologyAreaURI = new LinkedList<>();
-
-            resourceTreeDTOS.forEach(resourceTreeDTO -> {
-                ontologyAreaURI.add(SPARQLDeserializers.getExpandedURI(resourceTreeDTO.getUri().toString()));
-                List<ResourceTreeDTO> childrenList = resourceTreeDTO.getChildren();
-                if (childrenList != null)
-                    extractedChildren(ontologyAreaURI, childrenList);
-            });
-
-            return geometryCollection.find(and(Filters.geoIntersects("geometry", geometry), Filters.in("rdfType", ontologyAreaURI)));
+            Set<String> areaTypes = SPARQLModule.getOntologyStoreInstance().getSubClassesURIs(new URI(Oeso.Area.getURI()));
+            return geometryCollection.find(and(Filters.geoIntersects("geometry", geometry), Filters.in("rdfType", areaTypes)));
         } else {
             return null;
         }
     }
 
-    private void extractedChildren(List<String> ontologyAreaURI, List<ResourceTreeDTO> children) {
-        children.forEach(child -> {
-            String expandedURI = SPARQLDeserializers.getExpandedURI(child.getUri().toString());
-            ontologyAreaURI.add(expandedURI);
-            List<ResourceTreeDTO> childrenList = child.getChildren();
-            if (childrenList != null) {
-                extractedChildren(ontologyAreaURI, childrenList);
-            }
-        });
-    }
-
     public ListWithPagination<GeospatialModel> searchIntersects(URI rdfType, Geometry geometry, Integer page, Integer pageSize) {
         Document filter = null;
         if (rdfType != null) {
@@ -327,5 +340,9 @@ public class GeospatialDAO {
     public void createAll(List<GeospatialModel> geospatialModels) {
         addIndex();
         geometryCollection.insertMany(geospatialModels);
+        geospatialModels.stream()
+                .map(GeospatialModel::getGraph)
+                .distinct()
+                .forEach(GeospatialDAO::incrementVersion);
     }
 }
\ No newline at end of file
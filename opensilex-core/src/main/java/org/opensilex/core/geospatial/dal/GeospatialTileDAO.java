@@ -0,0 +1,222 @@
+//******************************************************************************
+//                          GeospatialTileDAO.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.geospatial.dal;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mongodb.client.model.geojson.Polygon;
+import com.mongodb.client.model.geojson.Position;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.WKBWriter;
+import org.locationtech.jts.io.geojson.GeoJsonReader;
+import org.locationtech.jts.simplify.TopologyPreservingSimplifier;
+import org.opensilex.nosql.mongodb.MongoDBService;
+import org.opensilex.sparql.deserializer.SPARQLDeserializers;
+import org.opensilex.sparql.deserializer.URIDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * Geometries of a graph by web map tile (z/x/y, web mercator tiling scheme), simplified according to the zoom level.
+ *
+ * Only geometries intersecting the tile are read, thanks to the 2dsphere index. A tile is encoded as :
+ * - int : number of features
+ * - for each feature : URI, rdf type and name as modified UTF-8 strings (empty if null), then int length and WKB bytes of the geometry.
+ *
+ * Encoded tiles are kept in a bounded cache by graph, tile and geometries version of the graph (see {@link GeospatialDAO#getVersion(URI)}).
+ * </pre>
+ */
+public class GeospatialTileDAO {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(GeospatialTileDAO.class);
+
+    public static final int MAX_ZOOM = 24;
+
+    /**
+     * Tile width in pixels, the simplification tolerance is the size of a pixel
+     */
+    public static final int TILE_EXTENT = 256;
+
+    /**
+     * Below this zoom level, a tile covers more than a hemisphere which can't be used as a MongoDB query polygon, so the graph is not filtered
+     */
+    private static final int MIN_FILTERED_ZOOM = 2;
+
+    /**
+     * Tile margin, as a ratio of the tile size, to include geometries on tile borders
+     */
+    private static final double TILE_MARGIN = 1.0 / 16;
+
+    private static final long CACHE_MAX_BYTES = 64L * 1024 * 1024;
+
+    private static final Cache<TileKey, byte[]> cache = Caffeine.newBuilder()
+            .maximumWeight(CACHE_MAX_BYTES)
+            .weigher((TileKey key, byte[] tile) -> tile.length)
+            .expireAfterWrite(10, TimeUnit.MINUTES)
+            .build();
+
+    private final GeospatialDAO geospatialDAO;
+
+    public GeospatialTileDAO(MongoDBService nosql) {
+        this.geospatialDAO = new GeospatialDAO(nosql);
+    }
+
+    /**
+     * @param z zoom level
+     * @param x tile column
+     * @param y tile row
+     * @return true if the tile exists in the tiling scheme
+     */
+    public static boolean isValidTile(int z, int x, int y) {
+        if (z < 0 || z > MAX_ZOOM) {
+            return false;
+        }
+        int tileCount = 1 << z;
+        return x >= 0 && x < tileCount && y >= 0 && y < tileCount;
+    }
+
+    /**
+     * @param graph geometries graph
+     * @param z zoom level
+     * @param x tile column
+     * @param y tile row
+     * @return encoded tile
+     * @throws IllegalArgumentException if the tile doesn't exist
+     * @throws IOException if the encoding fails
+     */
+    public byte[] getTile(URI graph, int z, int x, int y) throws IOException {
+        if (!isValidTile(z, x, y)) {
+            throw new IllegalArgumentException("Invalid tile " + z + "/" + x + "/" + y);
+        }
+
+        TileKey key = new TileKey(SPARQLDeserializers.getExpandedURI(graph), z, x, y, GeospatialDAO.getVersion(graph));
+        byte[] tile = cache.getIfPresent(key);
+        if (tile == null) {
+            tile = encodeTile(graph, z, x, y);
+            cache.put(key, tile);
+        }
+        return tile;
+    }
+
+    private byte[] encodeTile(URI graph, int z, int x, int y) throws IOException {
+        long start = System.currentTimeMillis();
+
+        double west = getLongitude(x, z);
+        double east = getLongitude(x + 1, z);
+        double north = getLatitude(y, z);
+        double south = getLatitude(y + 1, z);
+        double tolerance = (east - west) / TILE_EXTENT;
+
+        Polygon bbox = null;
+        if (z >= MIN_FILTERED_ZOOM) {
+            double lonMargin = (east - west) * TILE_MARGIN;
+            double latMargin = (north - south) * TILE_MARGIN;
+            bbox = getBoundingBox(
+                    Math.max(west - lonMargin, -180), Math.max(south - latMargin, -90),
+                    Math.min(east + lonMargin, 180), Math.min(north + latMargin, 90)
+            );
+        }
+
+        GeoJsonReader reader = new GeoJsonReader();
+        WKBWriter writer = new WKBWriter();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream features = new DataOutputStream(bytes);
+        int count = 0;
+
+        for (GeospatialModel geospatialModel : geospatialDAO.searchIntersectsInGraph(graph, bbox)) {
+            Geometry geometry;
+            try {
+                geometry = reader.read(geospatialModel.getGeometry().toJson());
+            } catch (org.locationtech.jts.io.ParseException e) {
+                LOGGER.warn("Invalid geometry ignored in tile " + z + "/" + x + "/" + y + " : " + geospatialModel.getUri(), e);
+                continue;
+            }
+            Geometry simplified = TopologyPreservingSimplifier.simplify(geometry, tolerance);
+            byte[] wkb = writer.write(simplified);
+
+            features.writeUTF(geospatialModel.getUri() == null ? "" : URIDeserializer.formatURIAsStr(geospatialModel.getUri().toString()));
+            features.writeUTF(geospatialModel.getRdfType() == null ? "" : URIDeserializer.formatURIAsStr(geospatialModel.getRdfType().toString()));
+            features.writeUTF(geospatialModel.getName() == null ? "" : geospatialModel.getName());
+            features.writeInt(wkb.length);
+            features.write(wkb);
+            count++;
+        }
+        features.flush();
+
+        ByteArrayOutputStream tile = new ByteArrayOutputStream(bytes.size() + Integer.BYTES);
+        DataOutputStream tileOutput = new DataOutputStream(tile);
+        tileOutput.writeInt(count);
+        bytes.writeTo(tileOutput);
+        tileOutput.flush();
+
+        LOGGER.debug("Tile " + z + "/" + x + "/" + y + " : " + count + " features, " + tile.size() + " bytes, " + (System.currentTimeMillis() - start) + " milliseconds elapsed");
+        return tile.toByteArray();
+    }
+
+    static double getLongitude(int x, int z) {
+        return x / (double) (1 << z) * 360.0 - 180.0;
+    }
+
+    static double getLatitude(int y, int z) {
+        double n = Math.PI * (1 - 2.0 * y / (1 << z));
+        return Math.toDegrees(Math.atan(Math.sinh(n)));
+    }
+
+    private static Polygon getBoundingBox(double west, double south, double east, double north) {
+        // counter-clockwise exterior ring
+        return new Polygon(Arrays.asList(
+                new Position(west, south),
+                new Position(east, south),
+                new Position(east, north),
+                new Position(west, north),
+                new Position(west, south)
+        ));
+    }
+
+    private static final class TileKey {
+
+        private final String graph;
+        private final int z;
+        private final int x;
+        private final int y;
+        private final long version;
+
+        private TileKey(String graph, int z, int x, int y, long version) {
+            this.graph = graph;
+            this.z = z;
+            this.x = x;
+            this.y = y;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TileKey)) {
+                return false;
+            }
+            TileKey tileKey = (TileKey) o;
+            return z == tileKey.z && x == tileKey.x && y == tileKey.y && version == tileKey.version && graph.equals(tileKey.graph);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(graph, z, x, y, version);
+        }
+    }
+}
@@ -38,6 +38,7 @@ import org.opensilex.server.rest.validation.ValidURI;
 import org.opensilex.sparql.deserializer.SPARQLDeserializers;
 import org.opensilex.sparql.exceptions.SPARQLInvalidURIException;
 import org.opensilex.sparql.service.SPARQLService;
+import org.opensilex.utils.CountMode;
 import org.opensilex.utils.ListWithPagination;
 import org.opensilex.utils.OrderBy;
 
@@ -356,6 +357,7 @@ public class GermplasmAPI {
      * @param orderByList
      * @param page
      * @param pageSize
+     * @param countMode
      * @return
      * @throws Exception
      */
@@ -382,7 +384,8 @@ public class GermplasmAPI {
             @ApiParam(value = "Search by metadata", example = GERMPLASM_EXAMPLE_METADATA) @QueryParam("metadata") String metadata,
             @ApiParam(value = "List of fields to sort as an array of fieldName=asc|desc", example = "uri=asc") @DefaultValue("label=asc") @QueryParam("order_by") List<OrderBy> orderByList,
             @ApiParam(value = "Page number", example = "0") @QueryParam("page") @DefaultValue("0") @Min(0) int page,
-            @ApiParam(value = "Page size", example = "20") @QueryParam("page_size") @DefaultValue("20") @Min(0) int pageSize
+            @ApiParam(value = "Page size", example = "20") @QueryParam("page_size") @DefaultValue("20") @Min(0) int pageSize,
+            @ApiParam(value = "Total count computation : EXACT, ESTIMATED or NONE (total count is -1)", example = "EXACT") @QueryParam("count") @DefaultValue("EXACT") CountMode countMode
     ) throws Exception {
 
          GermplasmSearchFilter searchFilter = new GermplasmSearchFilter()
@@ -400,6 +403,7 @@ public class GermplasmAPI {
          searchFilter.setOrderByList(orderByList)
                  .setPage(page)
                  .setPageSize(pageSize)
+                 .setCountMode(countMode)
                  .setLang(currentUser.getLanguage());
 
         GermplasmDAO dao = new GermplasmDAO(sparql, nosql);
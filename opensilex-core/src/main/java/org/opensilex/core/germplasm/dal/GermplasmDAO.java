@@ -24,16 +24,23 @@ import org.apache.jena.vocabulary.RDF;
 import org.apache.jena.vocabulary.RDFS;
 import org.apache.jena.vocabulary.SKOS;
 import org.bson.Document;
+import org.opensilex.core.experiment.dal.ExperimentDAO;
 import org.opensilex.core.experiment.dal.ExperimentModel;
 import org.opensilex.core.germplasm.api.GermplasmCreationDTO;
 import org.opensilex.core.germplasm.api.GermplasmSearchFilter;
+import org.opensilex.core.metrics.dal.MetricsCounters;
+import org.opensilex.core.metrics.dal.MetricsCountersDAO;
+import org.opensilex.core.metrics.dal.MetricsDAO;
 import org.opensilex.core.ontology.Oeso;
+import org.opensilex.core.scientificObject.dal.ScientificObjectModel;
+import org.opensilex.core.species.dal.SpeciesDAO;
 import org.opensilex.nosql.exceptions.NoSQLInvalidURIException;
 import org.opensilex.nosql.mongodb.metadata.MetaDataDao;
 import org.opensilex.nosql.mongodb.metadata.MetaDataModel;
 import org.opensilex.nosql.mongodb.MongoDBService;
 import org.opensilex.nosql.mongodb.MongoModel;
 import org.opensilex.security.user.dal.UserModel;
+import org.opensilex.sparql.SPARQLModule;
 import org.opensilex.sparql.mapping.SPARQLListFetcher;
 import org.opensilex.sparql.mapping.SparqlNoProxyFetcher;
 import org.opensilex.sparql.deserializer.SPARQLDeserializers;
@@ -90,6 +97,7 @@ public class GermplasmDAO {
     public GermplasmModel update(GermplasmModel model) throws Exception {
         MetaDataModel storedAttributes = getStoredAttributes(model.getUri());
         MetaDataModel attributeModel = model.getMetadata();
+        URI oldType = MetricsDAO.getStoredType(sparql, sparql.getDefaultGraph(GermplasmModel.class), model.getUri());
 
         if (((attributeModel == null || MapUtils.isEmpty(attributeModel.getAttributes())) && storedAttributes == null)) {
             sparql.update(model);
@@ -117,6 +125,10 @@ public class GermplasmDAO {
             }
 
         }
+        if (oldType != null && !SPARQLDeserializers.compareURIs(oldType, model.getType())) {
+            updateMetricsCounters(model.getUri(), oldType, model.getType());
+        }
+        sparql.invalidateApiCacheTags(SpeciesDAO.CACHE_TAG);
         return model;
 
     }
@@ -177,6 +189,7 @@ public class GermplasmDAO {
                 sparql.create(model);
                 model.getMetadata().setUri(model.getUri());
                 nosql.create(model.getMetadata(), MetaDataModel.class, ATTRIBUTES_COLLECTION_NAME, null);
+                updateMetricsCounters(model.getType(), 1);
                 nosql.commitTransaction();
                 sparql.commitTransaction();
             } catch (Exception ex) {
@@ -185,7 +198,9 @@ public class GermplasmDAO {
             }
         } else {
             sparql.create(model);
+            updateMetricsCounters(model.getType(), 1);
         }
+        sparql.invalidateApiCacheTags(SpeciesDAO.CACHE_TAG);
 
         return model;
 
@@ -234,6 +249,18 @@ public class GermplasmDAO {
             }
         }
 
+        // resolve name pattern on labels and synonyms with the text index, a REGEX filter is used if the index can't answer
+        Set<URI> nameURIs = SPARQLQueryHelper.searchURIsByName(
+                sparql,
+                sparql.getDefaultGraph(GermplasmModel.class),
+                GermplasmModel.class,
+                Arrays.asList(RDFS.label, SKOS.altLabel),
+                searchFilter.getName()
+        );
+        if (nameURIs != null && nameURIs.isEmpty()) {
+            return new ListWithPagination<>(Collections.emptyList());
+        }
+
         // Filter by experiment if it has any species. Otherwise, don't apply any filter on experiments (because it
         // doesn't make sens).
         final URI finalExperiment;
@@ -258,7 +285,11 @@ public class GermplasmDAO {
 
                     appendRegexUriFilter(select, searchFilter.getUri());
                     appendRdfTypeFilter(select, searchFilter.getType());
-                    appendRegexLabelAndSynonymFilter(select, searchFilter.getName());
+                    if (nameURIs == null) {
+                        appendRegexLabelAndSynonymFilter(select, searchFilter.getName());
+                    } else {
+                        SPARQLQueryHelper.addWhereUriValues(select, GermplasmModel.URI_FIELD, nameURIs);
+                    }
                     appendSpeciesFilter(select, searchFilter.getSpecies());
                     appendVarietyFilter(select, searchFilter.getVariety());
                     appendAccessionFilter(select, searchFilter.getAccession());
@@ -274,14 +305,15 @@ public class GermplasmDAO {
                 result -> customFetcher.getInstance(result, searchFilter.getLang()),
                 searchFilter.getOrderByList(),
                 searchFilter.getPage(),
-                searchFilter.getPageSize()
+                searchFilter.getPageSize(),
+                searchFilter.getCountMode()
         );
 
         // manually fetch synonyms with ListFetcher in optimized way
 
         Map<String, Boolean> fieldsToFetch = new HashMap<>();
-        // The triple <?uri skos:altLabel ?synonym> is present into initial select if and only if a filter on name occurred
-        fieldsToFetch.put(GermplasmModel.SYNONYM_VAR, StringUtils.isEmpty(searchFilter.getName()));
+        // The triple <?uri skos:altLabel ?synonym> is present into initial select if and only if a REGEX filter on name occurred
+        fieldsToFetch.put(GermplasmModel.SYNONYM_VAR, StringUtils.isEmpty(searchFilter.getName()) || nameURIs != null);
 
         SPARQLListFetcher<GermplasmModel> listFetcher = new SPARQLListFetcher<>(
                 sparql,
@@ -392,19 +424,21 @@ public class GermplasmDAO {
     }
 
     public boolean isGermplasmType(URI rdfType) throws SPARQLException {
-        return sparql.executeAskQuery(new AskBuilder()
-                .addWhere(SPARQLDeserializers.nodeURI(rdfType), Ontology.subClassAny, Oeso.Germplasm)
-        );
+        return SPARQLModule.getOntologyStoreInstance()
+                .getSubClassesURIs(URI.create(Oeso.Germplasm.getURI()))
+                .contains(SPARQLDeserializers.getExpandedURI(rdfType));
     }
 
     public boolean isPlantMaterialLot(URI rdfType) throws SPARQLException {
-        return sparql.executeAskQuery(new AskBuilder()
-                .addWhere(SPARQLDeserializers.nodeURI(rdfType), Ontology.subClassAny, Oeso.PlantMaterialLot)
-        );
+        return SPARQLModule.getOntologyStoreInstance()
+                .getSubClassesURIs(URI.create(Oeso.PlantMaterialLot.getURI()))
+                .contains(SPARQLDeserializers.getExpandedURI(rdfType));
     }
 
     public void delete(URI uri) throws Exception {
         MetaDataModel attributes = getStoredAttributes(uri);
+        GermplasmModel germplasm = sparql.getByURI(GermplasmModel.class, uri, null);
+        URI type = germplasm == null ? null : germplasm.getType();
         if (attributes != null) {
             nosql.startTransaction();
             sparql.startTransaction();
@@ -412,6 +446,7 @@ public class GermplasmDAO {
                 sparql.delete(GermplasmModel.class, uri);
                 MongoCollection<MetaDataModel> collection = getAttributesCollection();
                 collection.findOneAndDelete(nosql.getSession(), eq("uri", uri));
+                updateMetricsCounters(type, -1);
                 nosql.commitTransaction();
                 sparql.commitTransaction();
             } catch (Exception ex) {
@@ -420,6 +455,37 @@ public class GermplasmDAO {
             }
         } else {
             sparql.delete(GermplasmModel.class, uri);
+            updateMetricsCounters(type, -1);
+        }
+        sparql.invalidateApiCacheTags(SpeciesDAO.CACHE_TAG);
+    }
+
+    /**
+     * Germplasm are counted by type in the system scope
+     */
+    private void updateMetricsCounters(URI type, long delta) {
+        new MetricsCountersDAO(nosql).update(new MetricsCounters()
+                .add(MetricsCounters.SYSTEM_SCOPE, MetricsCounters.GERMPLASM_CATEGORY, type, delta));
+    }
+
+    /**
+     * Move an updated germplasm to the counter of its new type, in the system scope
+     * and in the scopes of the experiments whose scientific objects use it
+     */
+    private void updateMetricsCounters(URI uri, URI oldType, URI newType) throws Exception {
+        new MetricsCountersDAO(nosql).update(new MetricsCounters()
+                .addTypeChange(MetricsCounters.SYSTEM_SCOPE, MetricsCounters.GERMPLASM_CATEGORY, oldType, newType));
+
+        Var graph = makeVar("graph");
+        SelectBuilder select = new SelectBuilder()
+                .setDistinct(true)
+                .addVar(graph)
+                .addGraph(graph, makeVar("object"), Oeso.hasGermplasm, SPARQLDeserializers.nodeURI(uri))
+                .addFilter(SPARQLQueryHelper.getExprFactory().ne(graph, sparql.getDefaultGraph(ScientificObjectModel.class)));
+
+        ExperimentDAO experimentDAO = new ExperimentDAO(sparql, nosql);
+        for (SPARQLResult result : sparql.executeSelectQuery(select)) {
+            experimentDAO.updateGermplasmMetricsCounters(new URI(result.getStringValue(graph.getVarName())));
         }
     }
 
@@ -480,7 +546,7 @@ public class GermplasmDAO {
                     appendGermplasmFilter(select, uri);
                     if (!StringUtils.isEmpty(name)) {
                         select.addFilter(SPARQLQueryHelper.regexFilter(ExperimentModel.NAME_FIELD, name));
-                        appendUserExperimentsFilter(select, currentUser);
+                        appendUserExperimentsFilter(sparql, select, currentUser);
                     }
                 },
                 orderByList,
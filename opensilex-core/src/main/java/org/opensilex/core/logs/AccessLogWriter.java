@@ -0,0 +1,215 @@
+//******************************************************************************
+//                          AccessLogWriter.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.logs;
+
+import org.opensilex.core.AccessLogsConfig;
+import org.opensilex.core.logs.dal.LogModel;
+import org.opensilex.core.logs.dal.LogsDAO;
+import org.opensilex.utils.ThrowingConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <pre>
+ * Asynchronous writer of user access logs.
+ *
+ * Logs are added to a bounded buffer without blocking the request thread, and a background thread writes them by batch.
+ * When logs are produced faster than written, the {@link OverflowPolicy} decides which logs are dropped.
+ * Written and dropped logs are counted, and new drops are logged at WARN level at most once per minute.
+ * </pre>
+ */
+public class AccessLogWriter {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(AccessLogWriter.class);
+
+    private final static long DROP_REPORT_INTERVAL_MS = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * Policy applied when the buffer is filling up
+     */
+    public enum OverflowPolicy {
+
+        /**
+         * Drop new logs once buffer is full
+         */
+        DROP,
+
+        /**
+         * Keep one new log of sample rate once buffer is half full, and drop new logs once buffer is full
+         */
+        SAMPLE
+    }
+
+    private final ThrowingConsumer<List<LogModel>, Exception> batchWriter;
+
+    private final ArrayBlockingQueue<LogModel> buffer;
+
+    private final int bufferSize;
+
+    private final int batchSize;
+
+    private final long flushIntervalMs;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final int sampleRate;
+
+    private final AtomicLong sampleCounter = new AtomicLong();
+
+    private final AtomicLong writtenCount = new AtomicLong();
+
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    private final Thread writerThread;
+
+    private volatile boolean running = false;
+
+    private long reportedDroppedCount = 0;
+
+    private long lastDropReport = System.currentTimeMillis();
+
+    public AccessLogWriter(LogsDAO logsDAO, AccessLogsConfig config) {
+        this(logsDAO::createAll, config.bufferSize(), config.batchSize(), config.flushIntervalMs(),
+                OverflowPolicy.valueOf(config.overflowPolicy()), config.sampleRate());
+    }
+
+    /**
+     * @param batchWriter write a batch of logs
+     * @param bufferSize maximum number of logs waiting to be written
+     * @param batchSize maximum number of logs written by one batch
+     * @param flushIntervalMs maximum delay before pending logs are written
+     * @param overflowPolicy policy applied when buffer is filling up
+     * @param sampleRate keep one log of sampleRate with {@link OverflowPolicy#SAMPLE}
+     */
+    public AccessLogWriter(ThrowingConsumer<List<LogModel>, Exception> batchWriter, int bufferSize, int batchSize, long flushIntervalMs, OverflowPolicy overflowPolicy, int sampleRate) {
+        if (bufferSize <= 0 || batchSize <= 0 || flushIntervalMs <= 0 || sampleRate <= 0) {
+            throw new IllegalArgumentException("Access logs buffer size, batch size, flush interval and sample rate must be strictly positive");
+        }
+        this.batchWriter = batchWriter;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.bufferSize = bufferSize;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.overflowPolicy = overflowPolicy;
+        this.sampleRate = sampleRate;
+
+        this.writerThread = new Thread(this::run, "opensilex-access-log-writer");
+        this.writerThread.setDaemon(true);
+    }
+
+    public void start() {
+        running = true;
+        writerThread.start();
+    }
+
+    /**
+     * Stop writer thread after writing pending logs
+     *
+     * @throws InterruptedException if interrupted while waiting for writer thread
+     */
+    public void close() throws InterruptedException {
+        // no interrupt, so that a running write is not aborted : writer thread stops after its next poll
+        running = false;
+        writerThread.join(flushIntervalMs + TimeUnit.SECONDS.toMillis(10));
+        LOGGER.info("Access logs writer stopped: " + writtenCount.get() + " logs written, " + droppedCount.get() + " logs dropped");
+    }
+
+    /**
+     * Add a log to write, never blocks
+     *
+     * @param log log to write
+     * @return false if log was dropped
+     */
+    public boolean log(LogModel log) {
+        if (overflowPolicy == OverflowPolicy.SAMPLE
+                && buffer.size() >= bufferSize / 2
+                && sampleCounter.incrementAndGet() % sampleRate != 0) {
+            droppedCount.incrementAndGet();
+            return false;
+        }
+        if (!running || !buffer.offer(log)) {
+            droppedCount.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return number of written logs
+     */
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    /**
+     * @return number of logs dropped by overflow policy or by a write error
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * @return number of logs waiting to be written
+     */
+    public int getPendingCount() {
+        return buffer.size();
+    }
+
+    private void run() {
+        List<LogModel> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            reportDrops();
+            try {
+                LogModel first = running ? buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS) : buffer.poll();
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException ex) {
+                // write pending logs before exiting
+                running = false;
+                continue;
+            }
+            buffer.drainTo(batch, batchSize - batch.size());
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Log the number of logs dropped since last report, called by writer thread
+     */
+    private void reportDrops() {
+        long now = System.currentTimeMillis();
+        if (now - lastDropReport < DROP_REPORT_INTERVAL_MS) {
+            return;
+        }
+        long dropped = droppedCount.get();
+        if (dropped > reportedDroppedCount) {
+            LOGGER.warn("{} access logs dropped during the last {} seconds ({} dropped, {} written since start)",
+                    dropped - reportedDroppedCount, TimeUnit.MILLISECONDS.toSeconds(now - lastDropReport), dropped, writtenCount.get());
+        }
+        reportedDroppedCount = dropped;
+        lastDropReport = now;
+    }
+
+    private void write(List<LogModel> batch) {
+        try {
+            batchWriter.accept(batch);
+            writtenCount.addAndGet(batch.size());
+        } catch (Exception ex) {
+            droppedCount.addAndGet(batch.size());
+            LOGGER.warn("Error while writing " + batch.size() + " access logs", ex);
+        }
+    }
+}
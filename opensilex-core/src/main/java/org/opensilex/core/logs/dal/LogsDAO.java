@@ -6,7 +6,10 @@
 package org.opensilex.core.logs.dal;
 
 import com.mongodb.MongoWriteException;
-import org.opensilex.nosql.mongodb.MongoDBService; 
+import com.mongodb.client.model.InsertManyOptions;
+import org.opensilex.nosql.mongodb.MongoDBService;
+
+import java.util.List;
 
 /**
  *
@@ -28,4 +31,15 @@ public class LogsDAO {
         return instance;
     }
 
+    /**
+     * Insert logs without URI generation, documents are only identified by their generated "_id"
+     *
+     * @param instances logs to insert
+     */
+    public void createAll(List<LogModel> instances) {
+        nosql.getDatabase()
+                .getCollection(LOGS_COLLECTION_NAME, LogModel.class)
+                .insertMany(instances, new InsertManyOptions().ordered(false));
+    }
+
 }
@@ -19,9 +19,9 @@ import javax.ws.rs.core.UriInfo;
 import javax.ws.rs.ext.Provider;
 import org.bson.Document;
 import org.opensilex.OpenSilex;
+import org.opensilex.core.CoreModule;
+import org.opensilex.core.logs.AccessLogWriter;
 import org.opensilex.core.logs.dal.LogModel;
-import org.opensilex.core.logs.dal.LogsDAO;
-import org.opensilex.nosql.mongodb.MongoDBService;
 import org.opensilex.security.user.dal.UserModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,14 +40,12 @@ public class UserAccessLogFilter implements ContainerRequestFilter {
     final static String MAP_FIELD_QUERY_PARAMETERS = "queryParameters";
     final static String MAP_FIELD_RESSOURCE_PATH = "ressourcePath";
 
-    @Inject
-    MongoDBService nosql;
-
     @Inject
     OpenSilex opensilex;
 
     /**
-     * Filters the session token.
+     * Logs user searches on data services. Logs are only queued here, they are written by the {@link AccessLogWriter}
+     * background thread so that request latency doesn't depend on log writes.
      *
      * @param requestContext
      * @throws IOException
@@ -62,15 +60,17 @@ public class UserAccessLogFilter implements ContainerRequestFilter {
             final UriInfo uriInfo = requestContext.getUriInfo();
             final String resourcePath = uriInfo.getPath();
             String httpMethod = servletRequest.getMethod();
-            LOGGER.warn(httpMethod);
             //3 . check if the path equals to data service and sub services
             if (resourcePath != null
                     && resourcePath.contains("core/data")
                     && httpMethod.equals("GET")) {
                 MultivaluedMap<String, String> queryPathParameters = uriInfo.getQueryParameters();
                 try {
-                    // 6. save data search query
-                    LogsDAO logsDAO = new LogsDAO(nosql);
+                    AccessLogWriter accessLogWriter = opensilex.getModuleByClass(CoreModule.class).getAccessLogWriter();
+                    if (accessLogWriter == null) {
+                        return;
+                    }
+                    // 6. queue data search query
                     LogModel logModel = new LogModel();
                     logModel.setUserUri(user.getUri());
                     logModel.setRemoteAdress(servletRequest.getRemoteAddr());
@@ -81,7 +81,7 @@ public class UserAccessLogFilter implements ContainerRequestFilter {
                     }
                     logModel.setQueryParameters(queryParams);
                     logModel.setDatetime(LocalDateTime.now());
-                    logsDAO.create(logModel);
+                    accessLogWriter.log(logModel);
                 } catch (Exception ex) {
                     LOGGER.warn("Error while logging user access to service", ex);
                 }
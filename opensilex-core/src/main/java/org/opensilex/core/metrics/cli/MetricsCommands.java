@@ -0,0 +1,58 @@
+//******************************************************************************
+//                          MetricsCommands.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.metrics.cli;
+
+import org.opensilex.cli.AbstractOpenSilexCommand;
+import org.opensilex.cli.HelpOption;
+import org.opensilex.cli.OpenSilexCommand;
+import org.opensilex.core.metrics.dal.MetricsDAO;
+import org.opensilex.nosql.mongodb.MongoDBService;
+import org.opensilex.sparql.service.SPARQLService;
+import org.opensilex.sparql.service.SPARQLServiceFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+
+import java.util.Map;
+
+/**
+ * Metrics operations
+ */
+@Command(
+        name = "metrics",
+        header = "Subcommand to group OpenSILEX metrics operations"
+)
+public class MetricsCommands extends AbstractOpenSilexCommand implements OpenSilexCommand {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(MetricsCommands.class);
+
+    @CommandLine.Command(
+            name = "rebuild-counters",
+            header = "Rebuild metrics counters",
+            description = "Recompute metrics counters from stored data, scientific objects, germplasm and devices"
+    )
+    public void rebuildCounters(
+            @CommandLine.Option(names = {"--parallelism"}, description = "Maximum number of queries run in parallel, metrics configuration value by default") Integer parallelism,
+            @CommandLine.Mixin HelpOption help
+    ) throws Exception {
+        SPARQLServiceFactory factory = getOpenSilex().getServiceInstance(SPARQLService.DEFAULT_SPARQL_SERVICE, SPARQLServiceFactory.class);
+        SPARQLService sparql = factory.provide();
+        MongoDBService nosql = getOpenSilex().getServiceInstance(MongoDBService.DEFAULT_SERVICE, MongoDBService.class);
+        try {
+            long start = System.currentTimeMillis();
+            MetricsDAO metricsDAO = new MetricsDAO(sparql, nosql);
+            Map<String, Long> timings = parallelism == null
+                    ? metricsDAO.rebuildCounters()
+                    : metricsDAO.rebuildCounters(factory, parallelism);
+            timings.forEach((query, duration) -> LOGGER.info("Metrics query " + query + ": " + duration + " milliseconds"));
+            LOGGER.info("Metrics counters rebuilt in " + (System.currentTimeMillis() - start) + " milliseconds");
+        } finally {
+            factory.dispose(sparql);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+//******************************************************************************
+//                          MetricsCounters.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.metrics.dal;
+
+import org.opensilex.sparql.deserializer.SPARQLDeserializers;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * <pre>
+ * Counter variations to apply with {@link MetricsCountersDAO#update(MetricsCounters)}.
+ *
+ * A counter is identified by a scope (an experiment URI or {@link #SYSTEM_SCOPE}), a category (data, scientific object...)
+ * and an item (the variable or the type which is counted).
+ * Variations on the same counter are summed, so that each counter is updated once.
+ * </pre>
+ */
+public class MetricsCounters {
+
+    public static final String SYSTEM_SCOPE = "system";
+
+    public static final String DATA_CATEGORY = "data";
+    public static final String SCIENTIFIC_OBJECT_CATEGORY = "scientificObject";
+    public static final String GERMPLASM_CATEGORY = "germplasm";
+    public static final String DEVICE_CATEGORY = "device";
+
+    /**
+     * Counter identifier, URIs are stored in their expanded form
+     */
+    public static final class Key {
+
+        private final String scope;
+        private final String category;
+        private final String item;
+
+        public Key(String scope, String category, String item) {
+            this.scope = scope;
+            this.category = category;
+            this.item = item;
+        }
+
+        public String getScope() {
+            return scope;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public String getItem() {
+            return item;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return scope.equals(key.scope) && category.equals(key.category) && item.equals(key.item);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(scope, category, item);
+        }
+    }
+
+    private final Map<Key, Long> variations = new LinkedHashMap<>();
+
+    /**
+     * @param experiment experiment URI, or null for the system scope
+     * @return counter scope
+     */
+    public static String getScope(URI experiment) {
+        return experiment == null ? SYSTEM_SCOPE : SPARQLDeserializers.getExpandedURI(experiment);
+    }
+
+    /**
+     * Add a variation to a counter, ignored if item is null
+     *
+     * @param scope counter scope
+     * @param category counter category
+     * @param item counted item
+     * @param delta variation, negative on deletion
+     * @return this
+     */
+    public MetricsCounters add(String scope, String category, URI item, long delta) {
+        if (item != null && delta != 0) {
+            variations.merge(new Key(scope, category, SPARQLDeserializers.getExpandedURI(item)), delta, Long::sum);
+        }
+        return this;
+    }
+
+    /**
+     * Move an item from its old type counter to its new type counter, ignored if types are equal or unknown
+     *
+     * @param scope counter scope
+     * @param category counter category
+     * @param oldType type before the update
+     * @param newType type after the update
+     * @return this
+     */
+    public MetricsCounters addTypeChange(String scope, String category, URI oldType, URI newType) {
+        if (oldType != null && newType != null && !SPARQLDeserializers.compareURIs(oldType, newType)) {
+            add(scope, category, oldType, -1);
+            add(scope, category, newType, 1);
+        }
+        return this;
+    }
+
+    /**
+     * Add a variation to a counter in the system scope and in each experiment scope
+     *
+     * @param experiments experiments of the counted item, may be null
+     * @param category counter category
+     * @param item counted item
+     * @param delta variation, negative on deletion
+     * @return this
+     */
+    public MetricsCounters addWithExperiments(Collection<URI> experiments, String category, URI item, long delta) {
+        add(SYSTEM_SCOPE, category, item, delta);
+        if (experiments != null) {
+            for (URI experiment : experiments) {
+                add(getScope(experiment), category, item, delta);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Add all variations of other counters
+     *
+     * @param counters variations to add
+     * @return this
+     */
+    public MetricsCounters addAll(MetricsCounters counters) {
+        counters.variations.forEach((key, delta) -> variations.merge(key, delta, Long::sum));
+        return this;
+    }
+
+    /**
+     * @return variations by counter, without zero variations
+     */
+    public Map<Key, Long> getVariations() {
+        variations.values().removeIf(delta -> delta == 0);
+        return variations;
+    }
+
+    /**
+     * @return counters with opposite variations
+     */
+    public MetricsCounters negate() {
+        MetricsCounters negated = new MetricsCounters();
+        variations.forEach((key, delta) -> negated.variations.put(key, -delta));
+        return negated;
+    }
+
+    public boolean isEmpty() {
+        return getVariations().isEmpty();
+    }
+}
@@ -0,0 +1,217 @@
+//******************************************************************************
+//                          MetricsCountersDAO.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.metrics.dal;
+
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.opensilex.nosql.mongodb.MongoDBService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <pre>
+ * Counters used by metrics summaries, maintained on each creation, type change or deletion of data, scientific objects, germplasm and devices.
+ * Counters of an experiment scope are deleted with the experiment.
+ *
+ * Counters are updated with $inc upserts in the current MongoDB transaction, if any.
+ * A failed update is only logged, since counters are statistics : they can be rebuilt with {@link MetricsDAO#rebuildCounters()}.
+ * </pre>
+ */
+public class MetricsCountersDAO {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(MetricsCountersDAO.class);
+
+    public static final String COUNTERS_COLLECTION = "metrics_counters";
+
+    public static final String SCOPE_FIELD = "scope";
+    public static final String CATEGORY_FIELD = "category";
+    public static final String ITEM_FIELD = "item";
+    public static final String COUNT_FIELD = "count";
+
+    protected final MongoDBService nosql;
+
+    public MetricsCountersDAO(MongoDBService nosql) {
+        this.nosql = nosql;
+    }
+
+    public void createIndexes() {
+        getCollection().createIndex(Indexes.ascending(SCOPE_FIELD, CATEGORY_FIELD, ITEM_FIELD), new IndexOptions().unique(true));
+    }
+
+    /**
+     * Apply counters variations, errors are logged and not thrown
+     *
+     * @param counters variations to apply
+     */
+    public void update(MetricsCounters counters) {
+        if (counters == null || counters.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<WriteModel<Document>> updates = new ArrayList<>(counters.getVariations().size());
+            UpdateOptions upsert = new UpdateOptions().upsert(true);
+            counters.getVariations().forEach((key, delta) -> updates.add(
+                    new UpdateOneModel<>(getKeyFilter(key), Updates.inc(COUNT_FIELD, delta), upsert)
+            ));
+
+            BulkWriteOptions options = new BulkWriteOptions().ordered(false);
+            ClientSession session = nosql.getSession();
+            if (session != null) {
+                getCollection().bulkWrite(session, updates, options);
+            } else {
+                getCollection().bulkWrite(updates, options);
+            }
+        } catch (Exception ex) {
+            LOGGER.warn("Error while updating metrics counters, they must be rebuilt", ex);
+        }
+    }
+
+    /**
+     * Replace counters of one category in one scope, errors are logged and not thrown
+     *
+     * @param scope counters scope
+     * @param category counters category
+     * @param counters new counters values, only the ones of this scope and category are stored
+     */
+    public void replace(String scope, String category, MetricsCounters counters) {
+        List<Document> documents = new ArrayList<>();
+        counters.getVariations().forEach((key, count) -> {
+            if (key.getScope().equals(scope) && key.getCategory().equals(category)) {
+                documents.add(toDocument(key, count));
+            }
+        });
+
+        try {
+            Bson filter = Filters.and(Filters.eq(SCOPE_FIELD, scope), Filters.eq(CATEGORY_FIELD, category));
+            MongoCollection<Document> collection = getCollection();
+            ClientSession session = nosql.getSession();
+            if (session != null) {
+                collection.deleteMany(session, filter);
+                if (!documents.isEmpty()) {
+                    collection.insertMany(session, documents);
+                }
+            } else {
+                collection.deleteMany(filter);
+                if (!documents.isEmpty()) {
+                    collection.insertMany(documents);
+                }
+            }
+        } catch (Exception ex) {
+            LOGGER.warn("Error while replacing metrics counters of scope " + scope + ", they must be rebuilt", ex);
+        }
+    }
+
+    /**
+     * Delete all counters of the given scopes, errors are logged and not thrown
+     *
+     * @param scopes counters scopes, like the ones of deleted experiments
+     */
+    public void deleteScopes(Collection<String> scopes) {
+        if (scopes.isEmpty()) {
+            return;
+        }
+
+        try {
+            Bson filter = Filters.in(SCOPE_FIELD, scopes);
+            ClientSession session = nosql.getSession();
+            if (session != null) {
+                getCollection().deleteMany(session, filter);
+            } else {
+                getCollection().deleteMany(filter);
+            }
+        } catch (Exception ex) {
+            LOGGER.warn("Error while deleting metrics counters of scopes " + scopes + ", they must be rebuilt", ex);
+        }
+    }
+
+    /**
+     * @param scopes counters scopes
+     * @return counts by scope, category and expanded item URI, without null or negative counts
+     */
+    public Map<String, Map<String, Map<String, Long>>> getCounts(Collection<String> scopes) {
+        Map<String, Map<String, Map<String, Long>>> counts = new HashMap<>();
+        if (scopes.isEmpty()) {
+            return counts;
+        }
+
+        Bson filter = Filters.and(Filters.in(SCOPE_FIELD, scopes), Filters.gt(COUNT_FIELD, 0));
+        for (Document counter : getCollection().find(filter)) {
+            counts.computeIfAbsent(counter.getString(SCOPE_FIELD), scope -> new HashMap<>())
+                    .computeIfAbsent(counter.getString(CATEGORY_FIELD), category -> new HashMap<>())
+                    .put(counter.getString(ITEM_FIELD), ((Number) counter.get(COUNT_FIELD)).longValue());
+        }
+        return counts;
+    }
+
+    /**
+     * Replace all counters in one transaction
+     *
+     * @param counters new counters values
+     * @throws Exception if replacement fails
+     */
+    public void replaceAll(MetricsCounters counters) throws Exception {
+        List<Document> documents = new ArrayList<>(counters.getVariations().size());
+        counters.getVariations().forEach((key, count) -> documents.add(toDocument(key, count)));
+
+        nosql.startTransaction();
+        try {
+            MongoCollection<Document> collection = getCollection();
+            collection.deleteMany(nosql.getSession(), new Document());
+            if (!documents.isEmpty()) {
+                collection.insertMany(nosql.getSession(), documents);
+            }
+            nosql.commitTransaction();
+        } catch (Exception ex) {
+            nosql.rollbackTransaction();
+            throw ex;
+        }
+    }
+
+    /**
+     * @return true if no counter was stored yet
+     */
+    public boolean isEmpty() {
+        return getCollection().find().limit(1).first() == null;
+    }
+
+    private MongoCollection<Document> getCollection() {
+        return nosql.getDatabase().getCollection(COUNTERS_COLLECTION);
+    }
+
+    private static Document toDocument(MetricsCounters.Key key, long count) {
+        return new Document()
+                .append(SCOPE_FIELD, key.getScope())
+                .append(CATEGORY_FIELD, key.getCategory())
+                .append(ITEM_FIELD, key.getItem())
+                .append(COUNT_FIELD, count);
+    }
+
+    private static Bson getKeyFilter(MetricsCounters.Key key) {
+        return Filters.and(
+                Filters.eq(SCOPE_FIELD, key.getScope()),
+                Filters.eq(CATEGORY_FIELD, key.getCategory()),
+                Filters.eq(ITEM_FIELD, key.getItem())
+        );
+    }
+}
@@ -7,9 +7,6 @@
 package org.opensilex.core.metrics.dal;
 
 import com.mongodb.client.MongoCollection;
-import com.mongodb.client.model.Accumulators;
-import static com.mongodb.client.model.Aggregates.group;
-import static com.mongodb.client.model.Aggregates.match;
 import com.mongodb.client.model.IndexOptions;
 import com.mongodb.client.model.Indexes;
 import java.net.URI;
@@ -17,7 +14,9 @@ import java.net.URISyntaxException;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -30,23 +29,27 @@ import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.sparql.core.Var;
 import org.apache.jena.vocabulary.OWL2;
 import org.apache.jena.vocabulary.RDF;
-import org.apache.jena.vocabulary.RDFS;
 import org.bson.Document;
+import org.opensilex.core.CoreConfig;
+import org.opensilex.core.CoreModule;
 import org.opensilex.core.data.dal.DataDAO;
 import org.opensilex.core.experiment.dal.ExperimentDAO;
 import org.opensilex.core.ontology.Oeso;
+import org.opensilex.core.scientificObject.dal.ScientificObjectModel;
 import org.opensilex.core.variable.dal.VariableDAO;
 import org.opensilex.core.variable.dal.VariableModel;
 import org.opensilex.nosql.exceptions.NoSQLInvalidURIException;
 import org.opensilex.sparql.ontology.dal.ClassModel;
+import org.opensilex.sparql.service.SPARQLResult;
 import org.opensilex.sparql.service.SPARQLService;
+import org.opensilex.sparql.service.SPARQLServiceFactory;
 import org.opensilex.nosql.mongodb.MongoDBService;
 import org.opensilex.nosql.mongodb.MongoModel;
 import org.opensilex.security.user.dal.UserModel;
 import org.opensilex.sparql.SPARQLConfig;
 import org.opensilex.sparql.SPARQLModule;
 import org.opensilex.sparql.deserializer.SPARQLDeserializers;
-import org.opensilex.sparql.service.SPARQLQueryHelper;
+import org.opensilex.sparql.deserializer.URIDeserializer;
 import static org.opensilex.sparql.service.SPARQLQueryHelper.makeVar;
 import org.opensilex.sparql.utils.Ontology;
 import org.opensilex.utils.ListWithPagination;
@@ -74,6 +77,8 @@ public class MetricsDAO {
                 .getCollection(METRICS_COLLECTION, GlobalSummaryModel.class);
         metricsCollection.createIndex(Indexes.ascending(MongoModel.URI_FIELD), unicityOptions);
         metricsCollection.createIndex(Indexes.descending(GlobalSummaryModel.CREATION_DATE_FIELD));
+
+        new MetricsCountersDAO(nosql).createIndexes();
     }
 
     public ListWithPagination<ExperimentSummaryModel> getExperimentSummaries(List<URI> experimentURIs, Instant startInstant, Instant endInstant, int page, int pageSize, String currentLanguage) throws URISyntaxException, Exception {
@@ -81,14 +86,7 @@ public class MetricsDAO {
         Document searchFilter = searchFilter(ExperimentSummaryModel.SUMMARY_TYPE, experimentURIs, startInstant, endInstant);
         ListWithPagination<ExperimentSummaryModel> searchWithPagination = nosql.searchWithPagination(ExperimentSummaryModel.class, METRICS_COLLECTION, searchFilter, orderByList, page, pageSize);
 
-        DataDAO dataDAO = new DataDAO( nosql,  sparql,  null);
-        List<VariableModel> usedVariables = dataDAO.getUsedVariables(null, experimentURIs, null, null, null);
-        
-        // TODO : Need to improve
-        HashMap<URI, String> variables = new HashMap<>();
-        for (VariableModel usedVariable : usedVariables) {
-             variables.put(usedVariable.getUri(), usedVariable.getName());
-        }
+        HashMap<URI, String> variables = getVariableNames(searchWithPagination.getList(), currentLanguage);
         
         // for each entry in metrics
         searchWithPagination.getList().forEach(metric -> {
@@ -136,14 +134,7 @@ public class MetricsDAO {
         Document searchFilter = searchFilter(SystemSummaryModel.SUMMARY_TYPE, null, startInstant, endInstant);
         ListWithPagination<SystemSummaryModel> searchWithPagination = nosql.searchWithPagination(SystemSummaryModel.class, METRICS_COLLECTION, searchFilter, orderByList, page, pageSize);
 
-        DataDAO dataDAO = new DataDAO( nosql,  sparql,  null);
-        List<VariableModel> usedVariables = dataDAO.getUsedVariables(null, null, null, null, null);
-        
-        // TODO : Need to improve
-        HashMap<URI, String> variables = new HashMap<>();
-        for (VariableModel usedVariable : usedVariables) {
-             variables.put(usedVariable.getUri(), usedVariable.getName());
-        }
+        HashMap<URI, String> variables = getVariableNames(searchWithPagination.getList(), currentLanguage);
         
         // for each entry in metrics
         searchWithPagination.getList().forEach(metric -> {
@@ -234,40 +225,44 @@ public class MetricsDAO {
 
         Set<URI> experiments = experimentDAO.getUserExperiments(currentUser);
 
+        Map<URI, String> experimentScopes = new HashMap<>();
         for (URI experimentURI : experiments) {
+            experimentScopes.put(experimentURI, MetricsCounters.getScope(experimentURI));
+        }
+        Map<String, Map<String, Map<String, Long>>> counts = new MetricsCountersDAO(nosql).getCounts(experimentScopes.values());
+
+        List<GlobalSummaryModel> summaries = new ArrayList<>(experiments.size());
+        for (URI experimentURI : experiments) {
+            Map<String, Map<String, Long>> experimentCounts = counts.getOrDefault(experimentScopes.get(experimentURI), Collections.emptyMap());
+
             ExperimentSummaryModel model = new ExperimentSummaryModel();
             model.setExperimentUri(experimentURI);
             model.setCreationDate(Instant.now());
-            CountListItemModel scientificObjectTypesByCount = getCountByTypeAndContext(experimentURI, currentUser, Oeso.ScientificObject, false);
-            CountListItemModel variables = getDataCountByVariables(experimentURI, currentUser);
-            CountListItemModel germplasmByCount = getCountByTypeAndContext(experimentURI, currentUser, Oeso.Germplasm, false);
-
-            model.setScientificObjectsByType(scientificObjectTypesByCount);
-            model.setDataByVariables(variables);
-            model.setGermplasmByType(germplasmByCount);
-
-            nosql.create(model, GlobalSummaryModel.class, METRICS_COLLECTION, "experiment");
+            model.setScientificObjectsByType(getCountList(experimentCounts, MetricsCounters.SCIENTIFIC_OBJECT_CATEGORY, Oeso.ScientificObject, OWL2.Class));
+            model.setDataByVariables(getCountList(experimentCounts, MetricsCounters.DATA_CATEGORY, Oeso.Variable, Oeso.Variable));
+            model.setGermplasmByType(getCountList(experimentCounts, MetricsCounters.GERMPLASM_CATEGORY, Oeso.Germplasm, OWL2.Class));
+            summaries.add(model);
         }
 
+        if (!summaries.isEmpty()) {
+            nosql.createAll(summaries, GlobalSummaryModel.class, METRICS_COLLECTION, "experiment", true);
+        }
     }
 
     public void createSystemSummary() throws Exception {
 
         createIndexes();
 
-        UserModel currentUser = UserModel.getSystemUser();
+        Map<String, Map<String, Long>> systemCounts = new MetricsCountersDAO(nosql)
+                .getCounts(Collections.singleton(MetricsCounters.SYSTEM_SCOPE))
+                .getOrDefault(MetricsCounters.SYSTEM_SCOPE, Collections.emptyMap());
 
         SystemSummaryModel model = new SystemSummaryModel();
         model.setCreationDate(Instant.now());
-        CountListItemModel scientificObjectTypesByCount = getCountByTypeAndContext(null, currentUser, Oeso.ScientificObject, false);
-        CountListItemModel deviceTypesByCount = getCountByTypeAndContext(null, currentUser, Oeso.Device, false);
-        CountListItemModel variablesByCount = getDataCountByVariables(null, currentUser);
-        CountListItemModel germplasmByCount = getCountByTypeAndContext(null, currentUser, Oeso.Germplasm, false);
-
-        model.setScientificObjectsByType(scientificObjectTypesByCount);
-        model.setDeviceByType(deviceTypesByCount);
-        model.setDataByVariables(variablesByCount);
-        model.setGermplasmByType(germplasmByCount);
+        model.setScientificObjectsByType(getCountList(systemCounts, MetricsCounters.SCIENTIFIC_OBJECT_CATEGORY, Oeso.ScientificObject, OWL2.Class));
+        model.setDeviceByType(getCountList(systemCounts, MetricsCounters.DEVICE_CATEGORY, Oeso.Device, OWL2.Class));
+        model.setDataByVariables(getCountList(systemCounts, MetricsCounters.DATA_CATEGORY, Oeso.Variable, Oeso.Variable));
+        model.setGermplasmByType(getCountList(systemCounts, MetricsCounters.GERMPLASM_CATEGORY, Oeso.Germplasm, OWL2.Class));
 
         SPARQLConfig sparqlConfig = sparql.getOpenSilex().getModuleConfig(SPARQLModule.class, SPARQLConfig.class);
         model.setBaseSystemAlias(sparqlConfig.baseURIAlias());
@@ -275,100 +270,184 @@ public class MetricsDAO {
 
     }
 
-    private CountListItemModel getDataCountByVariables(URI experimentURI, UserModel currentUser) throws Exception {
-        List<URI> experiments = null;
-        if (experimentURI != null) {
-            experiments = Arrays.asList(experimentURI);
-        }
-        DataDAO dataDAO = new DataDAO(nosql, sparql, null);
+    /**
+     * <pre>
+     * Recompute all metrics counters from stored data, scientific objects, germplasm and devices.
+     *
+     * Counters are maintained on each creation or deletion, so this is only needed to repair them,
+     * or to initialize them on an existing database. Creations or deletions done during the rebuild may be lost.
+     * Queries by experiment and by class are run in parallel, with the parallelism of metrics configuration.
+     * </pre>
+     *
+     * @return duration in milliseconds of each query
+     * @throws Exception if counting or counters replacement fails
+     */
+    public Map<String, Long> rebuildCounters() throws Exception {
+        CoreConfig coreConfig = sparql.getOpenSilex().getModuleConfig(CoreModule.class, CoreConfig.class);
+        SPARQLServiceFactory factory = sparql.getOpenSilex().getServiceInstance(SPARQLService.DEFAULT_SPARQL_SERVICE, SPARQLServiceFactory.class);
+        return rebuildCounters(factory, coreConfig.metrics().parallelism());
+    }
+
+    /**
+     * @param factory factory providing a SPARQL connection to each query
+     * @param parallelism maximum number of queries run at the same time
+     * @return duration in milliseconds of each query
+     * @throws Exception if counting or counters replacement fails
+     * @see #rebuildCounters()
+     */
+    public Map<String, Long> rebuildCounters(SPARQLServiceFactory factory, int parallelism) throws Exception {
+        createIndexes();
+
+        Set<URI> experiments = new ExperimentDAO(sparql, nosql).getUserExperiments(UserModel.getSystemUser());
+        Node globalObjectsGraph = sparql.getDefaultGraph(ScientificObjectModel.class);
+
+        try (MetricsQueryExecutor executor = new MetricsQueryExecutor(factory, parallelism)) {
+            // data by variable, in system and experiment scopes
+            executor.submit("data", () -> new DataDAO(nosql, sparql, null).getStoredMetricsCounters(new Document()));
+
+            // in the system scope, scientific objects are the ones from the global graph, which includes copies of experiments objects
+            executor.submitSPARQL("system scientific objects", connection ->
+                    getCountsByType(connection, MetricsCounters.SYSTEM_SCOPE, MetricsCounters.SCIENTIFIC_OBJECT_CATEGORY, globalObjectsGraph, Oeso.ScientificObject));
+            executor.submitSPARQL("system germplasm", connection ->
+                    getCountsByType(connection, MetricsCounters.SYSTEM_SCOPE, MetricsCounters.GERMPLASM_CATEGORY, null, Oeso.Germplasm));
+            executor.submitSPARQL("system devices", connection ->
+                    getCountsByType(connection, MetricsCounters.SYSTEM_SCOPE, MetricsCounters.DEVICE_CATEGORY, null, Oeso.Device));
+
+            for (URI experimentURI : experiments) {
+                String scope = MetricsCounters.getScope(experimentURI);
+                Node experimentGraph = SPARQLDeserializers.nodeURI(experimentURI);
+                executor.submitSPARQL(experimentURI + " scientific objects", connection ->
+                        getCountsByType(connection, scope, MetricsCounters.SCIENTIFIC_OBJECT_CATEGORY, experimentGraph, Oeso.ScientificObject));
+                executor.submitSPARQL(experimentURI + " germplasm", connection ->
+                        getExperimentGermplasmCounts(connection, experimentURI));
+            }
 
-        List<VariableModel> variables = dataDAO.getUsedVariables(currentUser, experiments, null, null, null);
-        Map<URI, VariableModel> tmpVariable = new HashMap<>();
-        for (VariableModel variable : variables) {
-            tmpVariable.put(new URI(SPARQLDeserializers.getExpandedURI(variable.getUri())), variable);
+            MetricsCounters counters = executor.join();
+            new MetricsCountersDAO(nosql).replaceAll(counters);
+            return executor.getTimings();
         }
+    }
 
-        // Make an aggregation on DATA_COLLECTION_NAME
-        Document filter = new Document();
-        Document inFilter = new Document();
-        inFilter.put("$in", new ArrayList<>(tmpVariable.keySet()));
-        filter.put("variable", inFilter);
-        // Add experiment filter
-        dataDAO.appendExperimentUserAccessFilter(filter, currentUser, experiments);
-        // 1.match - Filter data on these variables
-        // 2.group - Group variables with number of data  
-        Set<Document> variablesWithDataCount = nosql.aggregate(
-                DataDAO.DATA_COLLECTION_NAME,
-                Arrays.asList(match(filter), group("$variable", Accumulators.sum("count", 1))
-                ));
-        CountListItemModel variablesByCount = new CountListItemModel();
-        variablesByCount.setType(new URI(Oeso.Variable.getURI()));
-        variablesByCount.setName(Oeso.Variable.getLocalName());
-        // Return a list of unique arrays keys
-        for (Document variableWithDataCount : variablesWithDataCount) {
-            VariableModel variable = tmpVariable.get(new URI((String) variableWithDataCount.get("_id")));
+    private static CountListItemModel getCountList(Map<String, Map<String, Long>> counts, String category, Resource listType, Resource itemType) throws URISyntaxException {
+        CountListItemModel countList = new CountListItemModel();
+        countList.setType(new URI(listType.getURI()));
+        countList.setName(listType.getLocalName());
+
+        URI itemTypeURI = new URI(itemType.getURI());
+        for (Map.Entry<String, Long> count : counts.getOrDefault(category, Collections.emptyMap()).entrySet()) {
             CountItemModel countItem = new CountItemModel();
-            countItem.setUri(variable.getUri());
-            countItem.setCount((Integer) variableWithDataCount.get("count"));
-            countItem.setType(new URI(Oeso.Variable.getURI()));
-            variablesByCount.addItem(countItem);
+            countItem.setUri(URIDeserializer.formatURI(count.getKey()));
+            countItem.setCount((int) Math.min(count.getValue(), Integer.MAX_VALUE));
+            countItem.setType(itemTypeURI);
+            countList.addItem(countItem);
         }
-
-        return variablesByCount;
+        return countList;
     }
 
-    private CountListItemModel getCountByTypeAndContext(URI contextURI, UserModel currentUser, Resource classResource, Boolean isExperimentContext) throws Exception {
-        SelectBuilder select = new SelectBuilder();
-
+    /**
+     * Count instances of each strict sub-class of a class
+     *
+     * @param connection SPARQL connection used by the query
+     * @param graph graph of instances, or null for all graphs
+     */
+    private static MetricsCounters getCountsByType(SPARQLService connection, String scope, String category, Node graph, Resource classResource) throws Exception {
         Var varUri = makeVar("uri");
         Var varType = makeVar("type");
-        Var varG = makeVar("g");
         Var varCount = makeVar("uri_count");
-        Var varLabel = makeVar("label");
 
-        if (contextURI != null) {
-            Node context = SPARQLDeserializers.nodeURI(contextURI);
-            select.addGraph(context, varUri, RDF.type, varType);
-        } else if (!currentUser.isAdmin() && isExperimentContext) {
-            ExperimentDAO xpDO = new ExperimentDAO(sparql, nosql);
-            Set<URI> graphFilterURIs = xpDO.getUserExperiments(currentUser);
-
-            select.addGraph(varG, varUri, RDF.type, varType);
-            select.addFilter(SPARQLQueryHelper.inURIFilter(varG, graphFilterURIs));
+        SelectBuilder select = new SelectBuilder();
+        if (graph != null) {
+            select.addGraph(graph, varUri, RDF.type, varType);
         } else {
             select.addWhere(varUri, RDF.type, varType);
         }
-
         select.addVar(varType);
         select.addVar("(count(distinct ?uri) as ?uri_count)", varCount);
-        select.addVar(varLabel);
-
         select.addWhere(varType, Ontology.subClassStrict, classResource);
-        select.addWhere(varType, RDFS.label, varLabel);
-        select.addFilter(SPARQLQueryHelper.langFilter(varLabel, currentUser.getLanguage()));
+        select.addGroupBy(varType);
+
+        MetricsCounters counters = new MetricsCounters();
+        connection.executeSelectQuery(select, (row) -> counters.add(
+                scope,
+                category,
+                URI.create(row.getStringValue(varType.getVarName())),
+                Long.parseLong(row.getStringValue(varCount.getVarName()))
+        ));
+        return counters;
+    }
 
+    /**
+     * Count germplasm of an experiment by type, which are the germplasm of its scientific objects
+     *
+     * @param connection SPARQL connection used by the query
+     * @param experimentURI experiment URI
+     * @return germplasm counters of the experiment scope
+     * @throws Exception if query fails
+     */
+    public static MetricsCounters getExperimentGermplasmCounts(SPARQLService connection, URI experimentURI) throws Exception {
+        Var varObject = makeVar("object");
+        Var varUri = makeVar("uri");
+        Var varType = makeVar("type");
+        Var varCount = makeVar("uri_count");
+
+        SelectBuilder select = new SelectBuilder();
+        select.addVar(varType);
+        select.addVar("(count(distinct ?uri) as ?uri_count)", varCount);
+        select.addGraph(SPARQLDeserializers.nodeURI(experimentURI), varObject, Oeso.hasGermplasm, varUri);
+        select.addWhere(varUri, RDF.type, varType);
+        select.addWhere(varType, Ontology.subClassStrict, Oeso.Germplasm);
         select.addGroupBy(varType);
-        select.addGroupBy(varLabel);
 
-        CountListItemModel types = new CountListItemModel();
-        types.setType(new URI(classResource.getURI()));
-        types.setName(classResource.getLocalName());
-        sparql.executeSelectQuery(select, (row) -> {
-            CountItemModel countItem = new CountItemModel();
-            URI uri;
-            try {
-                uri = new URI(row.getStringValue(varType.getVarName()));
-                countItem.setUri(uri);
-                String label = row.getStringValue(varLabel.getVarName());
-                Integer uriCount = Integer.valueOf(row.getStringValue(varCount.getVarName()));
-                countItem.setCount(uriCount);
-                countItem.setType(new URI(OWL2.Class.getURI()));
-                types.addItem(countItem);
-            } catch (URISyntaxException ex) {
-                throw new RuntimeException(ex);
+        String scope = MetricsCounters.getScope(experimentURI);
+        MetricsCounters counters = new MetricsCounters();
+        connection.executeSelectQuery(select, (row) -> counters.add(
+                scope,
+                MetricsCounters.GERMPLASM_CATEGORY,
+                URI.create(row.getStringValue(varType.getVarName())),
+                Long.parseLong(row.getStringValue(varCount.getVarName()))
+        ));
+        return counters;
+    }
+
+    /**
+     * @param sparql SPARQL connection used by the query
+     * @param graph graph of the resource
+     * @param uri resource URI
+     * @return type of the resource in the given graph, or null if the resource is not in this graph
+     * @throws Exception if query fails
+     */
+    public static URI getStoredType(SPARQLService sparql, Node graph, URI uri) throws Exception {
+        Var varType = makeVar("type");
+        SelectBuilder select = new SelectBuilder()
+                .addVar(varType)
+                .addGraph(graph, SPARQLDeserializers.nodeURI(uri), RDF.type, varType)
+                .setLimit(1);
+
+        List<SPARQLResult> results = sparql.executeSelectQuery(select);
+        if (results.isEmpty()) {
+            return null;
+        }
+        return new URI(results.get(0).getStringValue(varType.getVarName()));
+    }
+
+    /**
+     * @return names of the variables counted in the given metrics
+     */
+    private HashMap<URI, String> getVariableNames(List<? extends GlobalSummaryModel> metrics, String language) throws Exception {
+        Set<URI> variableURIs = new HashSet<>();
+        for (GlobalSummaryModel metric : metrics) {
+            if (metric.getDataByVariables() != null) {
+                metric.getDataByVariables().getItems().forEach(item -> variableURIs.add(item.getUri()));
             }
-        });
-        return types;
+        }
+
+        HashMap<URI, String> variables = new HashMap<>();
+        if (!variableURIs.isEmpty()) {
+            for (VariableModel variable : new VariableDAO(sparql, nosql, null).getList(new ArrayList<>(variableURIs), language)) {
+                variables.put(variable.getUri(), variable.getName());
+            }
+        }
+        return variables;
     }
 
 }
@@ -0,0 +1,150 @@
+//******************************************************************************
+//                          MetricsQueryExecutor.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.metrics.dal;
+
+import org.opensilex.sparql.service.SPARQLService;
+import org.opensilex.sparql.service.SPARQLServiceFactory;
+import org.opensilex.utils.ThrowingFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <pre>
+ * Run independent metrics queries in parallel and merge their counters.
+ *
+ * At most "parallelism" queries run at the same time, each SPARQL query with its own connection provided by the factory.
+ * Submission blocks while too many queries are waiting, so that queries are not all queued at once.
+ * The duration of each query is kept, see {@link #getTimings()}.
+ * </pre>
+ */
+public class MetricsQueryExecutor implements AutoCloseable {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(MetricsQueryExecutor.class);
+
+    private final SPARQLServiceFactory factory;
+
+    private final ExecutorService executor;
+
+    private final Semaphore pendingQueries;
+
+    private final List<Future<MetricsCounters>> results = new ArrayList<>();
+
+    private final Map<String, Long> timings = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    /**
+     * @param factory factory providing one SPARQL connection by running query
+     * @param parallelism maximum number of queries running at the same time
+     */
+    public MetricsQueryExecutor(SPARQLServiceFactory factory, int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Metrics queries parallelism must be strictly positive");
+        }
+        this.factory = factory;
+        this.pendingQueries = new Semaphore(parallelism * 2);
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "opensilex-metrics-query-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Submit a SPARQL query, waits if too many queries are pending
+     *
+     * @param name query name used for timings
+     * @param query query run with its own SPARQL connection
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void submitSPARQL(String name, ThrowingFunction<SPARQLService, MetricsCounters, Exception> query) throws InterruptedException {
+        submit(name, () -> {
+            SPARQLService sparql = factory.provide();
+            try {
+                return query.apply(sparql);
+            } finally {
+                factory.dispose(sparql);
+            }
+        });
+    }
+
+    /**
+     * Submit a query, waits if too many queries are pending
+     *
+     * @param name query name used for timings
+     * @param query query to run
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void submit(String name, Callable<MetricsCounters> query) throws InterruptedException {
+        pendingQueries.acquire();
+        try {
+            results.add(executor.submit(() -> {
+                long start = System.currentTimeMillis();
+                try {
+                    return query.call();
+                } finally {
+                    long duration = System.currentTimeMillis() - start;
+                    timings.put(name, duration);
+                    LOGGER.debug("Metrics query " + name + ": " + duration + " milliseconds elapsed");
+                    pendingQueries.release();
+                }
+            }));
+        } catch (RuntimeException ex) {
+            pendingQueries.release();
+            throw ex;
+        }
+    }
+
+    /**
+     * Wait for all submitted queries
+     *
+     * @return merged counters of all queries
+     * @throws Exception first error of a query, remaining queries are cancelled
+     */
+    public MetricsCounters join() throws Exception {
+        MetricsCounters counters = new MetricsCounters();
+        try {
+            for (Future<MetricsCounters> result : results) {
+                counters.addAll(result.get());
+            }
+        } catch (ExecutionException ex) {
+            results.forEach(result -> result.cancel(true));
+            if (ex.getCause() instanceof Exception) {
+                throw (Exception) ex.getCause();
+            }
+            throw ex;
+        }
+        return counters;
+    }
+
+    /**
+     * @return duration in milliseconds by query name, for finished queries
+     */
+    public Map<String, Long> getTimings() {
+        synchronized (timings) {
+            return new LinkedHashMap<>(timings);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -19,6 +19,7 @@ import org.opensilex.OpenSilex;
 import org.opensilex.OpenSilexModuleNotFoundException;
 import org.opensilex.core.CoreConfig;
 import org.opensilex.core.CoreModule;
+import org.opensilex.core.metrics.dal.MetricsCountersDAO;
 import org.opensilex.core.metrics.dal.MetricsDAO;
 import org.opensilex.nosql.mongodb.MongoDBService;
 import org.opensilex.sparql.service.SPARQLService;
@@ -28,7 +29,8 @@ import org.slf4j.LoggerFactory;
 import org.opensilex.core.MetricsConfig;
 
 /**
- * Create System metrics with a delay defined by user for experiment and system
+ * Create System metrics with a delay defined by user for experiment and system.
+ * Summaries are built from counters maintained by DAOs, see {@link MetricsCountersDAO}.
  *
  * @author Arnaud Charleroy
  */
@@ -78,6 +80,9 @@ public class ScheduleMetrics implements ApplicationEventListener {
                         throw new RuntimeException("Bad experiment time unit set" + systemTimeUnit);
                     }
                     MetricsDAO metricsDao = new MetricsDAO(sparql, nosql);
+                    if (new MetricsCountersDAO(nosql).isEmpty()) {
+                        LOGGER.info("Metrics counters are empty, run 'metrics rebuild-counters' command to initialize them on an existing database");
+                    }
                     scheduler.scheduleAtFixedRate(new CreateExperimentSummaries(metricsDao), experimentsTimeBeforeFirstMetric, delayBetweenExperimentsMetrics, experimentsTimeUnit);
                     scheduler.scheduleAtFixedRate(new CreateSystemSummary(metricsDao), systemTimeBeforeFirstMetric, delayBetweenSystemMetrics, systemTimeUnit);
 
@@ -16,6 +16,7 @@ import org.opensilex.server.response.ErrorResponse;
 import org.opensilex.server.response.ObjectUriResponse;
 import org.opensilex.server.response.PaginatedListResponse;
 import org.opensilex.server.response.SingleObjectResponse;
+import org.opensilex.server.rest.cache.ApiCache;
 import org.opensilex.server.rest.validation.ValidURI;
 import org.opensilex.sparql.SPARQLModule;
 import org.opensilex.sparql.exceptions.SPARQLAlreadyExistingUriException;
@@ -40,6 +41,7 @@ import javax.ws.rs.core.Response;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.function.BiPredicate;
@@ -54,6 +56,8 @@ public class OntologyAPI {
 
     public static final String PATH = "/ontology";
 
+    public static final String ONTOLOGY_CACHE_CATEGORY = "ontology";
+
     @CurrentUser
     UserModel currentUser;
 
@@ -72,6 +76,7 @@ public class OntologyAPI {
     @Path(SUBCLASSES_OF_PATH)
     @ApiOperation("Search sub-classes tree of an RDF class")
     @ApiProtected
+    @ApiCache(category = ONTOLOGY_CACHE_CATEGORY, tags = OntologyDAO.CACHE_TAG)
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
     @ApiResponses(value = {
@@ -90,6 +95,7 @@ public class OntologyAPI {
     @Path(SEARCH_SUB_CLASS_OF_PATH)
     @ApiOperation("Search sub-classes tree of an RDF class")
     @ApiProtected
+    @ApiCache(category = ONTOLOGY_CACHE_CATEGORY, tags = OntologyDAO.CACHE_TAG)
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
     @ApiResponses(value = {
@@ -114,6 +120,7 @@ public class OntologyAPI {
     @Path(RDF_TYPE)
     @ApiOperation("Return class model definition with properties")
     @ApiProtected
+    @ApiCache(category = ONTOLOGY_CACHE_CATEGORY, tags = OntologyDAO.CACHE_TAG)
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
     @ApiResponses(value = {
@@ -133,6 +140,7 @@ public class OntologyAPI {
     @Path("/rdf_types")
     @ApiOperation("Return classes models definitions with properties for a list of rdf types")
     @ApiProtected
+    @ApiCache(category = ONTOLOGY_CACHE_CATEGORY, tags = OntologyDAO.CACHE_TAG)
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
     @ApiResponses(value = {
@@ -233,12 +241,12 @@ public class OntologyAPI {
             if (isDataProperty) {
                 DatatypePropertyModel model = getDataTypePropertyModel(ontologyStore, dto);
                 dao.createDataProperty(model);
-                SPARQLModule.getOntologyStoreInstance().reload();
+                SPARQLModule.getOntologyStoreInstance().reloadProperties(Collections.singletonList(model.getUri()));
                 return new ObjectUriResponse(Response.Status.CREATED, model.getUri()).getResponse();
             } else {
                 ObjectPropertyModel model = getObjectPropertyModel(ontologyStore, dto);
                 dao.createObjectProperty(model);
-                SPARQLModule.getOntologyStoreInstance().reload();
+                SPARQLModule.getOntologyStoreInstance().reloadProperties(Collections.singletonList(model.getUri()));
                 return new ObjectUriResponse(Response.Status.CREATED, model.getUri()).getResponse();
             }
 
@@ -270,12 +278,12 @@ public class OntologyAPI {
         if (isDataProperty) {
             DatatypePropertyModel model = getDataTypePropertyModel(ontologyStore, dto);
             dao.updateDataProperty(model);
-            SPARQLModule.getOntologyStoreInstance().reload();
+            SPARQLModule.getOntologyStoreInstance().reloadProperties(Collections.singletonList(model.getUri()));
             return new ObjectUriResponse(Response.Status.OK, model.getUri()).getResponse();
         } else {
             ObjectPropertyModel model = getObjectPropertyModel(ontologyStore, dto);
             dao.updateObjectProperty(model);
-            SPARQLModule.getOntologyStoreInstance().reload();
+            SPARQLModule.getOntologyStoreInstance().reloadProperties(Collections.singletonList(model.getUri()));
             return new ObjectUriResponse(Response.Status.OK, model.getUri()).getResponse();
         }
 
@@ -285,6 +293,7 @@ public class OntologyAPI {
     @Path(PROPERTY_PATH)
     @ApiOperation("Return property model definition detail")
     @ApiProtected
+    @ApiCache(category = ONTOLOGY_CACHE_CATEGORY, tags = OntologyDAO.CACHE_TAG)
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
     @ApiResponses(value = {
@@ -319,10 +328,10 @@ public class OntologyAPI {
 
         if (RDFPropertyDTO.isDataProperty(propertyType)) {
             dao.deleteDataProperty(propertyURI);
-            SPARQLModule.getOntologyStoreInstance().reload();
+            SPARQLModule.getOntologyStoreInstance().reloadProperties(Collections.singletonList(propertyURI));
         } else {
             dao.deleteObjectProperty(propertyURI);
-            SPARQLModule.getOntologyStoreInstance().reload();
+            SPARQLModule.getOntologyStoreInstance().reloadProperties(Collections.singletonList(propertyURI));
         }
 
         return new ObjectUriResponse(Response.Status.OK, propertyURI).getResponse();
@@ -332,6 +341,7 @@ public class OntologyAPI {
     @Path("/properties/{domain}")
     @ApiOperation("Search properties tree")
     @ApiProtected
+    @ApiCache(category = ONTOLOGY_CACHE_CATEGORY, tags = OntologyDAO.CACHE_TAG)
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
     @ApiResponses(value = {
@@ -360,6 +370,7 @@ public class OntologyAPI {
     @Path("/linkable_properties")
     @ApiOperation("Search properties linkable to a domain")
     @ApiProtected
+    @ApiCache(category = ONTOLOGY_CACHE_CATEGORY, tags = OntologyDAO.CACHE_TAG)
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
     @ApiResponses(value = {
@@ -394,6 +405,7 @@ public class OntologyAPI {
     @Path("/data_properties")
     @ApiOperation("Search data properties tree")
     @ApiProtected
+    @ApiCache(category = ONTOLOGY_CACHE_CATEGORY, tags = OntologyDAO.CACHE_TAG)
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
     @ApiResponses(value = {
@@ -415,6 +427,7 @@ public class OntologyAPI {
     @Path("/object_properties")
     @ApiOperation("Search object properties tree")
     @ApiProtected
+    @ApiCache(category = ONTOLOGY_CACHE_CATEGORY, tags = OntologyDAO.CACHE_TAG)
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
     @ApiResponses(value = {
@@ -454,7 +467,7 @@ public class OntologyAPI {
         if (!dao.addClassPropertyRestriction(dto.getClassURI(), restriction, currentUser.getLanguage())) {
             return new ErrorResponse(Response.Status.CONFLICT, "Property restriction already exists for class", "Class URI: " + dto.getClassURI().toString() + " - Property URI: " + dto.getProperty().toString()).getResponse();
         }
-        ontologyStore.reload();
+        ontologyStore.reloadRestrictions(dto.getClassURI());
 
         return new ObjectUriResponse(new URI("about:blank")).getResponse();
     }
@@ -475,7 +488,7 @@ public class OntologyAPI {
 
         OntologyDAO dao = new OntologyDAO(sparql);
         dao.deleteClassPropertyRestriction(classURI, propertyURI, currentUser.getLanguage());
-        SPARQLModule.getOntologyStoreInstance().reload();
+        SPARQLModule.getOntologyStoreInstance().reloadRestrictions(classURI);
 
         return new ObjectUriResponse(Response.Status.OK, propertyURI).getResponse();
     }
@@ -497,7 +510,7 @@ public class OntologyAPI {
 
         OwlRestrictionModel restriction = this.restrictionDtoToModel(ontologyStore, dto);
         dao.updateClassPropertyRestriction(dto.getClassURI(), restriction, currentUser.getLanguage());
-        ontologyStore.reload();
+        ontologyStore.reloadRestrictions(dto.getClassURI());
 
         return new ObjectUriResponse(new URI("about:blank")).getResponse();
     }
@@ -19,9 +19,11 @@ import org.opensilex.security.authentication.ApiCredential;
 import org.opensilex.security.authentication.ApiCredentialGroup;
 import org.opensilex.security.authentication.ApiProtected;
 import org.opensilex.security.authentication.injection.CurrentUser;
+import org.opensilex.security.group.dal.GroupDAO;
 import org.opensilex.security.user.dal.UserModel;
 import org.opensilex.server.exceptions.InvalidValueException;
 import org.opensilex.server.response.*;
+import org.opensilex.server.rest.cache.ApiCache;
 import org.opensilex.server.rest.validation.ValidURI;
 import org.opensilex.sparql.exceptions.SPARQLAlreadyExistingUriException;
 import org.opensilex.sparql.ontology.dal.ClassModel;
@@ -65,6 +67,8 @@ public class FacilityAPI {
     public static final String CREDENTIAL_FACILITY_DELETE_ID = "facility-delete";
     public static final String CREDENTIAL_FACILITY_DELETE_LABEL_KEY = "credential.default.delete";
 
+    public static final String FACILITIES_CACHE_CATEGORY = "facilities";
+
     @Inject
     private SPARQLService sparql;
 
@@ -119,6 +123,7 @@ public class FacilityAPI {
     @Path("all_facilities")
     @ApiOperation("Get all facilities")
     @ApiProtected
+    @ApiCache(category = FACILITIES_CACHE_CATEGORY, userDependent = true, tags = {InfrastructureDAO.FACILITY_CACHE_TAG, InfrastructureDAO.ORGANIZATION_CACHE_TAG, GroupDAO.CACHE_TAG})
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
 
@@ -139,6 +144,7 @@ public class FacilityAPI {
     @Path("{uri}")
     @ApiOperation("Get a facility")
     @ApiProtected
+    @ApiCache(category = FACILITIES_CACHE_CATEGORY, userDependent = true, tags = {InfrastructureDAO.FACILITY_CACHE_TAG, InfrastructureDAO.ORGANIZATION_CACHE_TAG, GroupDAO.CACHE_TAG})
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
 
@@ -163,6 +169,7 @@ public class FacilityAPI {
     @Path("by_uris")
     @ApiOperation("Get facilities by their URIs")
     @ApiProtected
+    @ApiCache(category = FACILITIES_CACHE_CATEGORY, userDependent = true, tags = {InfrastructureDAO.FACILITY_CACHE_TAG, InfrastructureDAO.ORGANIZATION_CACHE_TAG, GroupDAO.CACHE_TAG})
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
     @ApiResponses(value = {
@@ -190,6 +197,7 @@ public class FacilityAPI {
     @GET
     @ApiOperation("Search facilities")
     @ApiProtected
+    @ApiCache(category = FACILITIES_CACHE_CATEGORY, userDependent = true, tags = {InfrastructureDAO.FACILITY_CACHE_TAG, InfrastructureDAO.ORGANIZATION_CACHE_TAG, GroupDAO.CACHE_TAG})
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
     @ApiResponses(value = {
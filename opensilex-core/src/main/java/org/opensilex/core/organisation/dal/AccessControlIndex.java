@@ -0,0 +1,408 @@
+//******************************************************************************
+//                          AccessControlIndex.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.organisation.dal;
+
+import org.apache.jena.arq.querybuilder.SelectBuilder;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.vocabulary.FOAF;
+import org.apache.jena.vocabulary.DCTerms;
+import org.apache.jena.vocabulary.RDF;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultDirectedGraph;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.traverse.BreadthFirstIterator;
+import org.opensilex.core.experiment.dal.ExperimentDAO;
+import org.opensilex.core.ontology.Oeso;
+import org.opensilex.security.authentication.SecurityOntology;
+import org.opensilex.security.group.dal.GroupDAO;
+import org.opensilex.security.user.dal.UserDAO;
+import org.opensilex.security.user.dal.UserModel;
+import org.opensilex.server.rest.cache.ApiCacheTags;
+import org.opensilex.sparql.deserializer.URIDeserializer;
+import org.opensilex.sparql.service.SPARQLResult;
+import org.opensilex.sparql.service.SPARQLService;
+import org.opensilex.sparql.utils.Ontology;
+import org.opensilex.utils.ThrowingFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.*;
+
+import static org.opensilex.sparql.service.SPARQLQueryHelper.makeVar;
+
+/**
+ * <pre>
+ * In-memory index of organizations, facilities and experiments accessible by each user.
+ *
+ * An organization is accessible to a user if ONE of the following statements is true :
+ * - the organization and its ascendants in the hierarchy have no security group
+ * - the user belongs to one of the groups of the organization or of its ascendants
+ * - the user is the creator of the organization
+ *
+ * A facility is accessible if it is hosted by an accessible organization.
+ *
+ * An experiment is accessible if it is public, or if the user belongs to one of its groups, is one of its supervisors or its creator.
+ *
+ * The index is built from a few flat SPARQL queries, the hierarchy inheritance is computed once in memory.
+ * Each part of the index (group members, organizations, facilities, experiments) is loaded again only when one of its
+ * {@link ApiCacheTags} was invalidated, so that a modification of an experiment doesn't reload organizations.
+ *
+ * Admin users have access to everything and are never filtered : access sets are null for them.
+ * </pre>
+ */
+public final class AccessControlIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AccessControlIndex.class);
+
+    private static final Var URI_VAR = makeVar("uri");
+    private static final Var PARENT_VAR = makeVar("parent");
+    private static final Var GROUP_VAR = makeVar("group");
+    private static final Var USER_VAR = makeVar("user");
+    private static final Var PROFILE_VAR = makeVar("_profile");
+    private static final Var RELATION_VAR = makeVar("_relation");
+    private static final Var RDF_TYPE_VAR = makeVar("_rdfType");
+    private static final Var IS_PUBLIC_VAR = makeVar("isPublic");
+
+    private static final Part<Map<URI, Set<URI>>> GROUPS_BY_USER = new Part<>(
+            "group members",
+            new String[]{GroupDAO.CACHE_TAG, UserDAO.CACHE_TAG},
+            AccessControlIndex::loadGroupsByUser
+    );
+
+    private static final Part<AccessSets> ORGANIZATIONS = new Part<>(
+            "organizations",
+            new String[]{InfrastructureDAO.ORGANIZATION_CACHE_TAG, GroupDAO.CACHE_TAG},
+            AccessControlIndex::loadOrganizations
+    );
+
+    private static final Part<Map<URI, Set<URI>>> FACILITIES_BY_ORGANIZATION = new Part<>(
+            "facilities",
+            new String[]{InfrastructureDAO.ORGANIZATION_CACHE_TAG, InfrastructureDAO.FACILITY_CACHE_TAG},
+            AccessControlIndex::loadFacilitiesByOrganization
+    );
+
+    private static final Part<AccessSets> EXPERIMENTS = new Part<>(
+            "experiments",
+            new String[]{ExperimentDAO.CACHE_TAG, GroupDAO.CACHE_TAG},
+            AccessControlIndex::loadExperiments
+    );
+
+    private AccessControlIndex() {
+    }
+
+    /**
+     * @param sparql connection used to load the index if needed
+     * @param user user
+     * @return new modifiable set of organizations accessible by the user, or null if the user is null or admin
+     * @throws Exception if the index loading fails
+     */
+    public static Set<URI> getUserOrganizations(SPARQLService sparql, UserModel user) throws Exception {
+        if (user == null || user.isAdmin()) {
+            return null;
+        }
+        return ORGANIZATIONS.get(sparql).getAccessible(user.getUri(), getUserGroups(sparql, user));
+    }
+
+    /**
+     * @param sparql connection used to load the index if needed
+     * @param user user
+     * @return new modifiable set of facilities accessible by the user, or null if the user is null or admin
+     * @throws Exception if the index loading fails
+     */
+    public static Set<URI> getUserFacilities(SPARQLService sparql, UserModel user) throws Exception {
+        Set<URI> organizations = getUserOrganizations(sparql, user);
+        if (organizations == null) {
+            return null;
+        }
+
+        Map<URI, Set<URI>> facilitiesByOrganization = FACILITIES_BY_ORGANIZATION.get(sparql);
+        Set<URI> facilities = new HashSet<>();
+        for (URI organization : organizations) {
+            facilities.addAll(facilitiesByOrganization.getOrDefault(organization, Collections.emptySet()));
+        }
+        return facilities;
+    }
+
+    /**
+     * @param sparql connection used to load the index if needed
+     * @param user user
+     * @return new modifiable set of experiments accessible by the user, or null if the user is null or admin
+     * @throws Exception if the index loading fails
+     */
+    public static Set<URI> getUserExperiments(SPARQLService sparql, UserModel user) throws Exception {
+        if (user == null || user.isAdmin()) {
+            return null;
+        }
+        return EXPERIMENTS.get(sparql).getAccessible(user.getUri(), getUserGroups(sparql, user));
+    }
+
+    /**
+     * @return true if the user is null, admin, or has access to the organization
+     */
+    public static boolean isOrganizationAccessible(SPARQLService sparql, URI organization, UserModel user) throws Exception {
+        Set<URI> organizations = getUserOrganizations(sparql, user);
+        return organizations == null || organizations.contains(URIDeserializer.formatURI(organization));
+    }
+
+    /**
+     * @return true if the user is null, admin, or has access to the facility
+     */
+    public static boolean isFacilityAccessible(SPARQLService sparql, URI facility, UserModel user) throws Exception {
+        Set<URI> facilities = getUserFacilities(sparql, user);
+        return facilities == null || facilities.contains(URIDeserializer.formatURI(facility));
+    }
+
+    /**
+     * @return true if the user is null, admin, or has access to the experiment
+     */
+    public static boolean isExperimentAccessible(SPARQLService sparql, URI experiment, UserModel user) throws Exception {
+        Set<URI> experiments = getUserExperiments(sparql, user);
+        return experiments == null || experiments.contains(URIDeserializer.formatURI(experiment));
+    }
+
+    private static Set<URI> getUserGroups(SPARQLService sparql, UserModel user) throws Exception {
+        return GROUPS_BY_USER.get(sparql).getOrDefault(URIDeserializer.formatURI(user.getUri()), Collections.emptySet());
+    }
+
+    private static URI getURI(SPARQLResult result, Var var) {
+        String value = result.getStringValue(var.getVarName());
+        return value == null ? null : URIDeserializer.formatURI(value);
+    }
+
+    private static Map<URI, Set<URI>> loadGroupsByUser(SPARQLService sparql) throws Exception {
+        SelectBuilder select = new SelectBuilder()
+                .setDistinct(true)
+                .addVar(GROUP_VAR)
+                .addVar(USER_VAR)
+                .addWhere(GROUP_VAR, SecurityOntology.hasUserProfile, PROFILE_VAR)
+                .addWhere(PROFILE_VAR, SecurityOntology.hasUser, USER_VAR);
+
+        Map<URI, Set<URI>> groupsByUser = new HashMap<>();
+        sparql.executeSelectQueryAsStream(select).forEach(result ->
+                groupsByUser.computeIfAbsent(getURI(result, USER_VAR), user -> new HashSet<>()).add(getURI(result, GROUP_VAR))
+        );
+        return groupsByUser;
+    }
+
+    private static AccessSets loadOrganizations(SPARQLService sparql) throws Exception {
+        AccessSets organizations = new AccessSets();
+        Graph<URI, DefaultEdge> hierarchy = new DefaultDirectedGraph<>(DefaultEdge.class);
+
+        // organizations and their creators
+        SelectBuilder organizationsSelect = new SelectBuilder()
+                .setDistinct(true)
+                .addVar(URI_VAR)
+                .addVar(USER_VAR)
+                .addWhere(RDF_TYPE_VAR, Ontology.subClassAny, FOAF.Organization)
+                .addGraph(sparql.getDefaultGraph(InfrastructureModel.class), URI_VAR, RDF.type, RDF_TYPE_VAR)
+                .addOptional(URI_VAR, DCTerms.creator, USER_VAR);
+
+        sparql.executeSelectQueryAsStream(organizationsSelect).forEach(result -> {
+            URI organization = getURI(result, URI_VAR);
+            hierarchy.addVertex(organization);
+            URI creator = getURI(result, USER_VAR);
+            if (creator != null) {
+                organizations.addUserAccess(creator, organization);
+            }
+        });
+
+        // hierarchy between organizations
+        SelectBuilder hierarchySelect = new SelectBuilder()
+                .setDistinct(true)
+                .addVar(PARENT_VAR)
+                .addVar(URI_VAR)
+                .addWhere(PARENT_VAR, Oeso.hasPart, URI_VAR);
+
+        sparql.executeSelectQueryAsStream(hierarchySelect).forEach(result -> {
+            URI parent = getURI(result, PARENT_VAR);
+            URI child = getURI(result, URI_VAR);
+            if (!parent.equals(child) && hierarchy.containsVertex(parent) && hierarchy.containsVertex(child)) {
+                hierarchy.addEdge(parent, child);
+            }
+        });
+
+        // groups, inherited by all descendants
+        Set<URI> organizationsWithGroups = new HashSet<>();
+        for (Map.Entry<URI, Set<URI>> organizationGroups : getGroupsBySubject(sparql, hierarchy.vertexSet()).entrySet()) {
+            BreadthFirstIterator<URI, DefaultEdge> descendants = new BreadthFirstIterator<>(hierarchy, organizationGroups.getKey());
+            while (descendants.hasNext()) {
+                URI descendant = descendants.next();
+                organizationsWithGroups.add(descendant);
+                organizationGroups.getValue().forEach(group -> organizations.addGroupAccess(group, descendant));
+            }
+        }
+
+        for (URI organization : hierarchy.vertexSet()) {
+            if (!organizationsWithGroups.contains(organization)) {
+                organizations.addPublic(organization);
+            }
+        }
+        return organizations;
+    }
+
+    private static Map<URI, Set<URI>> loadFacilitiesByOrganization(SPARQLService sparql) throws Exception {
+        SelectBuilder select = new SelectBuilder()
+                .setDistinct(true)
+                .addVar(PARENT_VAR)
+                .addVar(URI_VAR)
+                .addWhere(PARENT_VAR, Oeso.isHosted, URI_VAR);
+
+        Map<URI, Set<URI>> facilitiesByOrganization = new HashMap<>();
+        sparql.executeSelectQueryAsStream(select).forEach(result ->
+                facilitiesByOrganization.computeIfAbsent(getURI(result, PARENT_VAR), organization -> new HashSet<>()).add(getURI(result, URI_VAR))
+        );
+        return facilitiesByOrganization;
+    }
+
+    private static AccessSets loadExperiments(SPARQLService sparql) throws Exception {
+        AccessSets experiments = new AccessSets();
+        Set<URI> experimentURIs = new HashSet<>();
+
+        // experiments and public flag
+        SelectBuilder experimentsSelect = new SelectBuilder()
+                .setDistinct(true)
+                .addVar(URI_VAR)
+                .addVar(IS_PUBLIC_VAR)
+                .addWhere(URI_VAR, Ontology.typeSubClassAny, Oeso.Experiment)
+                .addOptional(URI_VAR, Oeso.isPublic, IS_PUBLIC_VAR);
+
+        sparql.executeSelectQueryAsStream(experimentsSelect).forEach(result -> {
+            URI experiment = getURI(result, URI_VAR);
+            experimentURIs.add(experiment);
+            if (Boolean.parseBoolean(result.getStringValue(IS_PUBLIC_VAR.getVarName()))) {
+                experiments.addPublic(experiment);
+            }
+        });
+
+        // supervisors and creator
+        SelectBuilder usersSelect = new SelectBuilder()
+                .setDistinct(true)
+                .addVar(URI_VAR)
+                .addVar(USER_VAR)
+                .addWhere(URI_VAR, Ontology.typeSubClassAny, Oeso.Experiment)
+                .addWhere(URI_VAR, RELATION_VAR, USER_VAR)
+                .addWhereValueVar(RELATION_VAR,
+                        NodeFactory.createURI(Oeso.hasScientificSupervisor.getURI()),
+                        NodeFactory.createURI(Oeso.hasTechnicalSupervisor.getURI()),
+                        NodeFactory.createURI(DCTerms.creator.getURI())
+                );
+
+        sparql.executeSelectQueryAsStream(usersSelect).forEach(result ->
+                experiments.addUserAccess(getURI(result, USER_VAR), getURI(result, URI_VAR))
+        );
+
+        // groups
+        getGroupsBySubject(sparql, experimentURIs).forEach((experiment, groups) ->
+                groups.forEach(group -> experiments.addGroupAccess(group, experiment))
+        );
+        return experiments;
+    }
+
+    /**
+     * @return groups by subject, for the given subjects only
+     */
+    private static Map<URI, Set<URI>> getGroupsBySubject(SPARQLService sparql, Set<URI> subjects) throws Exception {
+        SelectBuilder select = new SelectBuilder()
+                .setDistinct(true)
+                .addVar(URI_VAR)
+                .addVar(GROUP_VAR)
+                .addWhere(URI_VAR, SecurityOntology.hasGroup, GROUP_VAR);
+
+        Map<URI, Set<URI>> groupsBySubject = new HashMap<>();
+        sparql.executeSelectQueryAsStream(select).forEach(result -> {
+            URI subject = getURI(result, URI_VAR);
+            if (subjects.contains(subject)) {
+                groupsBySubject.computeIfAbsent(subject, key -> new HashSet<>()).add(getURI(result, GROUP_VAR));
+            }
+        });
+        return groupsBySubject;
+    }
+
+    /**
+     * Resources accessible by everyone, by group and by user
+     */
+    private static final class AccessSets {
+
+        private final Set<URI> publicResources = new HashSet<>();
+        private final Map<URI, Set<URI>> resourcesByGroup = new HashMap<>();
+        private final Map<URI, Set<URI>> resourcesByUser = new HashMap<>();
+
+        private void addPublic(URI resource) {
+            publicResources.add(resource);
+        }
+
+        private void addGroupAccess(URI group, URI resource) {
+            resourcesByGroup.computeIfAbsent(group, key -> new HashSet<>()).add(resource);
+        }
+
+        private void addUserAccess(URI user, URI resource) {
+            resourcesByUser.computeIfAbsent(user, key -> new HashSet<>()).add(resource);
+        }
+
+        private Set<URI> getAccessible(URI user, Set<URI> groups) {
+            Set<URI> resources = new HashSet<>(publicResources);
+            for (URI group : groups) {
+                resources.addAll(resourcesByGroup.getOrDefault(group, Collections.emptySet()));
+            }
+            resources.addAll(resourcesByUser.getOrDefault(URIDeserializer.formatURI(user), Collections.emptySet()));
+            return resources;
+        }
+    }
+
+    /**
+     * Part of the index, loaded again once one of its tags is invalidated. A loaded value is never modified.
+     */
+    private static final class Part<T> {
+
+        private final String name;
+        private final String[] tags;
+        private final ThrowingFunction<SPARQLService, T, Exception> loader;
+
+        private volatile Loaded<T> loaded;
+
+        private Part(String name, String[] tags, ThrowingFunction<SPARQLService, T, Exception> loader) {
+            this.name = name;
+            this.tags = tags;
+            this.loader = loader;
+        }
+
+        private T get(SPARQLService sparql) throws Exception {
+            Loaded<T> current = loaded;
+            if (current != null && ApiCacheTags.isUpToDate(current.versions)) {
+                return current.value;
+            }
+
+            synchronized (this) {
+                current = loaded;
+                if (current != null && ApiCacheTags.isUpToDate(current.versions)) {
+                    return current.value;
+                }
+
+                // read versions before loading, so that a concurrent modification triggers a new loading
+                long start = System.currentTimeMillis();
+                HashMap<String, Long> versions = ApiCacheTags.getVersions(tags);
+                loaded = new Loaded<>(versions, loader.apply(sparql));
+
+                LOGGER.debug("Access control index {} loaded: {} milliseconds elapsed", name, System.currentTimeMillis() - start);
+                return loaded.value;
+            }
+        }
+    }
+
+    private static final class Loaded<T> {
+
+        private final Map<String, Long> versions;
+        private final T value;
+
+        private Loaded(Map<String, Long> versions, T value) {
+            this.versions = versions;
+            this.value = value;
+        }
+    }
+}
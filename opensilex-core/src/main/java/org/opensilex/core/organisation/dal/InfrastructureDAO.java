@@ -10,8 +10,6 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.jena.arq.querybuilder.AskBuilder;
 import org.apache.jena.arq.querybuilder.ExprFactory;
 import org.apache.jena.arq.querybuilder.SelectBuilder;
-import org.apache.jena.arq.querybuilder.WhereBuilder;
-import org.apache.jena.arq.querybuilder.clauses.WhereClause;
 import org.apache.jena.graph.Node;
 import org.apache.jena.sparql.core.Var;
 import org.apache.jena.sparql.expr.Expr;
@@ -19,7 +17,6 @@ import org.apache.jena.sparql.path.P_Link;
 import org.apache.jena.sparql.path.P_ZeroOrMore1;
 import org.apache.jena.sparql.syntax.ElementVisitor;
 import org.apache.jena.sparql.vocabulary.FOAF;
-import org.opensilex.core.experiment.dal.ExperimentModel;
 import org.opensilex.core.external.geocoding.GeocodingService;
 import org.opensilex.core.external.geocoding.OpenStreetMapGeocodingService;
 import org.opensilex.core.geospatial.dal.GeospatialDAO;
@@ -35,9 +32,9 @@ import org.opensilex.security.authentication.NotFoundURIException;
 import org.opensilex.security.user.dal.UserModel;
 import org.opensilex.server.exceptions.BadRequestException;
 import org.opensilex.sparql.deserializer.SPARQLDeserializers;
+import org.opensilex.sparql.deserializer.URIDeserializer;
 import org.opensilex.sparql.model.SPARQLResourceModel;
 import org.opensilex.sparql.service.SPARQLQueryHelper;
-import org.opensilex.sparql.service.SPARQLResult;
 import org.opensilex.sparql.service.SPARQLService;
 import org.opensilex.sparql.utils.Ontology;
 import org.opensilex.utils.ListWithPagination;
@@ -54,12 +51,20 @@ import static org.opensilex.sparql.service.SPARQLQueryHelper.makeVar;
  */
 public class InfrastructureDAO {
 
+    /**
+     * API cache tag invalidated on each organization modification
+     */
+    public static final String ORGANIZATION_CACHE_TAG = "organizations";
+
+    /**
+     * API cache tag invalidated on each facility modification
+     */
+    public static final String FACILITY_CACHE_TAG = "facilities";
+
     protected final SPARQLService sparql;
     protected final MongoDBService nosql;
     protected final GeocodingService geocodingService;
 
-    protected final OrganizationSPARQLHelper organizationSPARQLHelper;
-
     protected final GeospatialDAO geospatialDAO;
     protected final SiteDAO siteDAO;
 
@@ -69,8 +74,6 @@ public class InfrastructureDAO {
         this.sparql = sparql;
         this.nosql = nosql;
 
-        this.organizationSPARQLHelper = new OrganizationSPARQLHelper(sparql);
-
         this.geospatialDAO = new GeospatialDAO(nosql);
         this.geocodingService = new OpenStreetMapGeocodingService();
         this.siteDAO = new SiteDAO(sparql, nosql, this);
@@ -112,34 +115,21 @@ public class InfrastructureDAO {
             throw new NotFoundURIException(infrastructureURI);
         }
 
-        if (user.isAdmin()) {
-            return;
-        }
-
-        AskBuilder ask = sparql.getUriExistsQuery(InfrastructureModel.class, infrastructureURI);
-        addAskInfrastructureAccess(ask, null, infrastructureURI, user);
-
-        if (!sparql.executeAskQuery(ask)) {
+        if (!AccessControlIndex.isOrganizationAccessible(sparql, infrastructureURI, user)) {
             throw new ForbiddenURIAccessException(infrastructureURI);
         }
     }
 
     public void validateInfrastructureFacilityAccess(List<URI> facilityUris, UserModel user) throws Exception {
 
-        if (user.isAdmin()) {
+        Set<URI> facilities = AccessControlIndex.getUserFacilities(sparql, user);
+        if (facilities == null) {
             return;
         }
 
-        SelectBuilder askFacilityAccess = sparql.getUriListExistQuery(InfrastructureFacilityModel.class, facilityUris);
-        Var orgVar = makeVar(InfrastructureFacilityModel.INFRASTRUCTURE_FIELD);
-        askFacilityAccess.addWhere(orgVar, Oeso.isHosted, makeVar(InfrastructureFacilityModel.URI_FIELD));
-        addAskInfrastructureAccess(askFacilityAccess, orgVar, null, user);
-
-        for (SPARQLResult result : sparql.executeSelectQuery(askFacilityAccess)) {
-            boolean value = Boolean.parseBoolean(result.getStringValue(SPARQLService.EXISTING_VAR));
-            if (!value) {
-                URI uri = new URI(result.getStringValue(SPARQLResourceModel.URI_FIELD));
-                throw new ForbiddenURIAccessException(uri);
+        for (URI facilityUri : facilityUris) {
+            if (!facilities.contains(URIDeserializer.formatURI(facilityUri))) {
+                throw new ForbiddenURIAccessException(facilityUri);
             }
         }
 
@@ -151,16 +141,7 @@ public class InfrastructureDAO {
             throw new NotFoundURIException(infrastructureFacilityURI);
         }
 
-        if (user == null || user.isAdmin()) {
-            return;
-        }
-
-        AskBuilder ask = sparql.getUriExistsQuery(InfrastructureFacilityModel.class, infrastructureFacilityURI);
-        Var orgVar = makeVar(InfrastructureFacilityModel.INFRASTRUCTURE_FIELD);
-        ask.addWhere(orgVar, Oeso.isHosted, SPARQLDeserializers.nodeURI(infrastructureFacilityURI));
-        addAskInfrastructureAccess(ask, orgVar, null, user);
-
-        if (!sparql.executeAskQuery(ask)) {
+        if (!AccessControlIndex.isFacilityAccessible(sparql, infrastructureFacilityURI, user)) {
             throw new ForbiddenURIAccessException(infrastructureFacilityURI);
         }
     }
@@ -234,122 +215,20 @@ public class InfrastructureDAO {
     }
 
     /**
-     * Add an organization access clause to the given query. An organization is considered accessible to a user if ONE
-     * of the following statements is true :
-     *
-     * <ul>
-     *     <li>The user is admin (thus they have access to all the organizations)</li>
-     *     <li>The organization has no security group</li>
-     *     <li>The user belongs to one of the groups of the organizations</li>
-     *     <li>The user is the creator of the organization</li>
-     * </ul>
-     *
-     * Please note that the groups are inherited by the descendant organizations. E.g. if a parent organization has a group,
-     * this group is taken in account for all descendant organizations in the hierarchy.
-     *
-     * @param where
-     * @param uriVar
-     * @param user
-     * @throws Exception
-     */
-    protected void addAskInfrastructureAccess(WhereClause<?> where, Var uriVar, URI orgUri, UserModel user) throws Exception {
-        Var userVar = makeVar("_userURI");
-        Node orgUriNode = SPARQLDeserializers.nodeURI(orgUri);
-
-        /*
-        We'll build a quite complicated request. It will look like this :
-
-        {
-            optional {
-                ?_parent (vocabulary:hasPart)* ?uri ;
-                         os-sec:hasGroup ?groups.
-                ?groups os-sec:hasUserProfile ?_userProfile.
-                ?_userProfile os-sec:hasUser ?_userURI
-            }
-            optional {
-                ?uri dc:creator ?uri
-            }
-            filter ((bound(?_userURI) && (?_userURI = <the uri of the user to check>)
-                  || bound(?creator) && (?creator = <the uri of the user to check>))
-        } union {
-            select distinct ?uri {
-                ?rdfType (rdfs:subClassOf)* foaf:Organization
-                graph <the organizations graph> {
-                    ?uri a ?rdfType
-                }
-                optional {
-                    ?_parent (vocabulary:hasPart)* ?uri;
-                             os-sec:hasGroup ?groups
-                }
-            }
-            group by ?uri
-            having (count(?groups) = 0)
-        }
-
-        While this could be written way more efficiently, this is the only way I found to make to work for both rdf4j and
-        GraphDB (which was causing a lot of trouble with the `filter` and `or` statements). Feel free to rewrite it if you
-        manage to find a better way.
-         */
-
-        WhereBuilder userInGroupOrCreator = new WhereBuilder();
-
-        // This first where clause is used to retrieve all users in the associated groups of the organizations, or the
-        // associated groups of the ascendant organizations in the hierarchy.
-        WhereBuilder userProfileGroup = organizationSPARQLHelper.buildOrganizationGroupUserClause(uriVar != null ? uriVar : orgUriNode, userVar);
-        userInGroupOrCreator.addOptional(userProfileGroup);
-        Expr isInGroup = SPARQLQueryHelper.and(
-                SPARQLQueryHelper.bound(userVar),
-                SPARQLQueryHelper.eq(userVar, SPARQLDeserializers.nodeURI(user.getUri())));
-
-        // Retrieve the creator of the organizations
-        Var creatorVar = makeVar(ExperimentModel.CREATOR_FIELD);
-        userInGroupOrCreator.addOptional(organizationSPARQLHelper.buildOrganizationCreatorClause(uriVar != null ? uriVar : orgUriNode, creatorVar));
-        Expr isCreator = SPARQLQueryHelper.and(
-                SPARQLQueryHelper.bound(creatorVar),
-                SPARQLQueryHelper.eq(creatorVar, user.getUri()));
-
-        // The filter represents the OR condition
-        userInGroupOrCreator.addFilter(SPARQLQueryHelper.or(isInGroup, isCreator));
-
-        // Here we create the nested select clause
-        Var nestedUriVar = uriVar != null
-                ? uriVar
-                : makeVar(InfrastructureModel.URI_FIELD);
-        SelectBuilder noGroupSelect = organizationSPARQLHelper.buildNoGroupOrganizationSelect(nestedUriVar, orgUri);
-
-
-        // Create the union
-        userInGroupOrCreator.addUnion(noGroupSelect);
-
-        where.addWhere(userInGroupOrCreator);
-    }
-
-    /**
-     * Get all organizations accessible by a giver user. See {@link #addAskInfrastructureAccess(WhereClause, Var, URI, UserModel)}
+     * Get all organizations accessible by a giver user. See {@link AccessControlIndex}
      * for further information on the conditions for an organization to be considered accessible.
      *
      * @param user
-     * @return
+     * @return new modifiable set of organizations, or null if the user is null or admin
      * @throws Exception
      */
     public Set<URI> getUserInfrastructures(UserModel user) throws Exception {
-        if (user == null || user.isAdmin()) {
-            return null;
-        }
-
-        String lang = user.getLanguage();
-
-        List<URI> infras = sparql.searchURIs(InfrastructureModel.class, lang, (SelectBuilder select) -> {
-            Var uriVar = makeVar(InfrastructureModel.URI_FIELD);
-
-            addAskInfrastructureAccess(select, uriVar, null, user);
-        });
-
-        return new HashSet<>(infras);
+        return AccessControlIndex.getUserOrganizations(sparql, user);
     }
 
     public InfrastructureModel create(InfrastructureModel instance) throws Exception {
         sparql.create(instance);
+        sparql.invalidateApiCacheTags(ORGANIZATION_CACHE_TAG);
 
         return instance;
     }
@@ -362,12 +241,14 @@ public class InfrastructureDAO {
     public void delete(URI uri, UserModel user) throws Exception {
         validateInfrastructureAccess(uri, user);
         sparql.delete(InfrastructureModel.class, uri);
+        sparql.invalidateApiCacheTags(ORGANIZATION_CACHE_TAG);
     }
 
     public InfrastructureModel update(InfrastructureModel instance, UserModel user) throws Exception {
         validateInfrastructureAccess(instance.getUri(), user);
         validateOrganizationHierarchy(instance);
         sparql.update(instance);
+        sparql.invalidateApiCacheTags(ORGANIZATION_CACHE_TAG);
         return instance;
     }
 
@@ -383,6 +264,7 @@ public class InfrastructureDAO {
         sparql.create(instance);
 
         createFacilityGeospatialModel(instance);
+        sparql.invalidateApiCacheTags(FACILITY_CACHE_TAG);
 
         return instance;
     }
@@ -488,6 +370,7 @@ public class InfrastructureDAO {
         }
 
         sparql.delete(InfrastructureFacilityModel.class, uri);
+        sparql.invalidateApiCacheTags(FACILITY_CACHE_TAG);
     }
 
     public InfrastructureFacilityModel updateFacility(InfrastructureFacilityModel instance, UserModel user) throws Exception {
@@ -512,6 +395,7 @@ public class InfrastructureDAO {
         createFacilityGeospatialModel(instance);
 
         sparql.update(instance);
+        sparql.invalidateApiCacheTags(FACILITY_CACHE_TAG);
         return instance;
     }
 
@@ -8,7 +8,6 @@ package org.opensilex.core.scientificObject.api;
 import com.auth0.jwt.interfaces.Claim;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.mongodb.MongoWriteException;
-import com.mongodb.client.FindIterable;
 import com.mongodb.client.model.geojson.Geometry;
 import io.swagger.annotations.*;
 import org.apache.commons.collections4.CollectionUtils;
@@ -43,6 +42,7 @@ import org.opensilex.core.experiment.factor.dal.FactorLevelModel;
 import org.opensilex.core.experiment.factor.dal.FactorModel;
 import org.opensilex.core.geospatial.dal.GeospatialDAO;
 import org.opensilex.core.geospatial.dal.GeospatialModel;
+import org.opensilex.core.geospatial.dal.GeospatialTileDAO;
 import org.opensilex.core.ontology.Oeso;
 import org.opensilex.core.organisation.dal.InfrastructureFacilityModel;
 import org.opensilex.core.provenance.api.ProvenanceGetDTO;
@@ -70,6 +70,7 @@ import org.opensilex.sparql.response.NamedResourceDTO;
 import org.opensilex.sparql.service.SPARQLQueryHelper;
 import org.opensilex.sparql.service.SPARQLService;
 import org.opensilex.sparql.utils.Ontology;
+import org.opensilex.utils.CountMode;
 import org.opensilex.utils.ListWithPagination;
 import org.opensilex.utils.OrderBy;
 import org.opensilex.utils.TokenGenerator;
@@ -245,44 +246,54 @@ public class ScientificObjectAPI {
         GeospatialDAO geoDAO = new GeospatialDAO(nosql);
 
         Instant test_start = Instant.now();
-        FindIterable<GeospatialModel> mapGeo = geoDAO.getGeometryByGraphList(contextURI);
+        // read geometries only once, the date filter needs all URIs before filtering
+        List<ScientificObjectNodeDTO> dtoList = new ArrayList<>();
+        for (GeospatialModel geospatialModel : geoDAO.getGeometryByGraphList(contextURI)) {
+            dtoList.add(ScientificObjectNodeDTO.getDTOFromModel(geospatialModel));
+        }
         Instant test_end = Instant.now();
-        
-        Collection<String> filteredUris = new HashSet<>(); 
 
         // Date
         if (startDate != null || endDate != null) {
             ScientificObjectDAO soDAO = new ScientificObjectDAO(sparql, nosql);
             Collection<URI> uris = new HashSet<>();
-            
-            for (GeospatialModel geospatialModel : mapGeo) {
-                ScientificObjectNodeDTO dtoFromModel = ScientificObjectNodeDTO.getDTOFromModel(geospatialModel);
-                URI uri = dtoFromModel.getUri();
-                uris.add(uri);
+            for (ScientificObjectNodeDTO dto : dtoList) {
+                uris.add(dto.getUri());
             }
-            filteredUris = soDAO.getScientificObjectsByDate(contextURI, startDate, endDate, uris);
+            Collection<String> filteredUris = soDAO.getScientificObjectsByDate(contextURI, startDate, endDate, uris);
+            dtoList.removeIf(dto -> !filteredUris.contains(dto.getUri().toString()));
         }
 
-        List<ScientificObjectNodeDTO> dtoList = new ArrayList<>();
-        int lengthMapGeo = 0;
-
-        for (GeospatialModel geospatialModel : mapGeo) {
-            if (startDate != null || endDate != null) {
-                String uri = geospatialModel.getUri().toString();
-                if (filteredUris.contains(uri) == true) {
-                    ScientificObjectNodeDTO dtoFromModel = ScientificObjectNodeDTO.getDTOFromModel(geospatialModel);
-                    dtoList.add(dtoFromModel);
-                    lengthMapGeo++;
-                }
-            } else {
-                ScientificObjectNodeDTO dtoFromModel = ScientificObjectNodeDTO.getDTOFromModel(geospatialModel);
-                dtoList.add(dtoFromModel);
-                lengthMapGeo++;
-            }
+        LOGGER.debug(dtoList.size() + " space entities recovered " + Duration.between(test_start, test_end).toMillis() + " milliseconds elapsed");
+        return new PaginatedListResponse<>(dtoList).getResponse();
+    }
+
+    @GET
+    @Path("geometry/tiles/{z}/{x}/{y}")
+    @ApiOperation(value = "Get a map tile of scientific objects geometries of a given experiment URI",
+            notes = "Geometries intersecting the tile (web mercator z/x/y scheme), simplified to the tile resolution. " +
+                    "Binary encoding : int features count, then for each feature URI, type and name as modified UTF-8 strings, int length and WKB geometry.")
+    @ApiProtected
+    @Produces(MediaType.APPLICATION_OCTET_STREAM)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Return the encoded tile"),
+            @ApiResponse(code = 400, message = "Invalid tile", response = ErrorDTO.class)
+    })
+    public Response getScientificObjectsGeometryTile(
+            @ApiParam(value = "Context URI", example = "http://example.com/", required = true) @QueryParam("experiment") @NotNull URI contextURI,
+            @ApiParam(value = "Zoom level", example = "18", required = true) @PathParam("z") int z,
+            @ApiParam(value = "Tile column", example = "131628", required = true) @PathParam("x") int x,
+            @ApiParam(value = "Tile row", example = "95286", required = true) @PathParam("y") int y
+    ) throws Exception {
+
+        validateContextAccess(contextURI);
+
+        if (!GeospatialTileDAO.isValidTile(z, x, y)) {
+            return new ErrorResponse(Response.Status.BAD_REQUEST, "Invalid tile", "Tile " + z + "/" + x + "/" + y + " doesn't exist").getResponse();
         }
 
-        LOGGER.debug(lengthMapGeo + " space entities recovered " + Duration.between(test_start, test_end).toMillis() + " milliseconds elapsed");
-        return new PaginatedListResponse<>(dtoList).getResponse();
+        byte[] tile = new GeospatialTileDAO(nosql).getTile(contextURI, z, x, y);
+        return Response.ok(tile, MediaType.APPLICATION_OCTET_STREAM).build();
     }
 
     @GET
@@ -351,7 +362,8 @@ public class ScientificObjectAPI {
             @ApiParam(value = "Date to filter object creation") @QueryParam("creation_date") LocalDate creationDate,
             @ApiParam(value = "List of fields to sort as an array of fieldName=asc|desc", example = "uri=asc") @DefaultValue("name=asc") @QueryParam("order_by") List<OrderBy> orderByList,
             @ApiParam(value = "Page number", example = "0") @QueryParam("page") @DefaultValue("0") @Min(0) int page,
-            @ApiParam(value = "Page size", example = "20") @QueryParam("page_size") @DefaultValue("20") @Min(0) int pageSize
+            @ApiParam(value = "Page size", example = "20") @QueryParam("page_size") @DefaultValue("20") @Min(0) int pageSize,
+            @ApiParam(value = "Total count computation : EXACT, ESTIMATED or NONE (total count is -1)", example = "EXACT") @QueryParam("count") @DefaultValue("EXACT") CountMode countMode
     ) throws Exception {
 
         if (contextURI != null) {
@@ -377,6 +389,7 @@ public class ScientificObjectAPI {
         searchFilter.setPage(page)
                 .setPageSize(pageSize)
                 .setOrderByList(orderByList)
+                .setCountMode(countMode)
                 .setLang(currentUser.getLanguage());
 
         ScientificObjectDAO dao = new ScientificObjectDAO(sparql, nosql);
@@ -522,6 +535,7 @@ public class ScientificObjectAPI {
                 update.addInsert(graphNode, soNode, RDF.type, SPARQLDeserializers.nodeURI(soType));
                 update.addInsert(graphNode, soNode, RDFS.label, descriptionDto.getName());
                 sparql.executeUpdateQuery(update);
+                sparql.resourcesChanged(ScientificObjectModel.class, Collections.singletonList(soURI));
             }
 
             if (descriptionDto.getGeometry() != null) {
@@ -833,6 +847,9 @@ public class ScientificObjectAPI {
                     update.addInsert(graphNode, soNode, RDFS.label, object.getName());
                 }
                 sparql.executeUpdateQuery(update);
+                sparql.resourcesChanged(ScientificObjectModel.class, models.stream()
+                        .map(ScientificObjectModel::getUri)
+                        .collect(Collectors.toList()));
             }
 
             //Update experiment
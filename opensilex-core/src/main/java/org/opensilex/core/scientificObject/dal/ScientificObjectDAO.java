@@ -29,6 +29,9 @@ import org.opensilex.core.exception.DuplicateNameException;
 import org.opensilex.core.exception.DuplicateNameListException;
 import org.opensilex.core.experiment.dal.ExperimentModel;
 import org.opensilex.core.experiment.factor.dal.FactorLevelModel;
+import org.opensilex.core.metrics.dal.MetricsCounters;
+import org.opensilex.core.metrics.dal.MetricsCountersDAO;
+import org.opensilex.core.metrics.dal.MetricsDAO;
 import org.opensilex.core.ontology.Oeso;
 import org.opensilex.core.ontology.api.RDFObjectRelationDTO;
 import org.opensilex.core.ontology.dal.SPARQLRelationFetcher;
@@ -55,6 +58,7 @@ import org.opensilex.sparql.service.SPARQLQueryHelper;
 import org.opensilex.sparql.service.SPARQLResult;
 import org.opensilex.sparql.service.SPARQLService;
 import org.opensilex.sparql.utils.Ontology;
+import org.opensilex.utils.CountMode;
 import org.opensilex.utils.ListWithPagination;
 import org.opensilex.utils.OrderBy;
 import org.opensilex.utils.ThrowingConsumer;
@@ -235,12 +239,17 @@ public class ScientificObjectDAO {
         SelectBuilder count = new SelectBuilder();
         addSearchfilter(count, true, searchFilter);
 
-        List<SPARQLResult> countResult = sparql.executeSelectQuery(count);
-        if (countResult.size() != 1) {
-            throw new SPARQLException("Invalid count query");
-        }
+        return sparql.executeCountQuery(count, searchFilter.getCountMode());
+    }
 
-        return Integer.parseInt(countResult.get(0).getStringValue(countField));
+    /**
+     * @return total count, an estimated count can't be lower than the number of objects up to the current page
+     */
+    private int getTotal(ScientificObjectSearchFilter searchFilter, int count, int pageResultsSize) {
+        if (searchFilter.getCountMode() != CountMode.ESTIMATED || searchFilter.getPageSize() == null) {
+            return count;
+        }
+        return Math.max(count, searchFilter.getPage() * searchFilter.getPageSize() + pageResultsSize);
     }
 
     private SelectBuilder getSelect(ScientificObjectSearchFilter searchFilter) throws Exception {
@@ -333,6 +342,7 @@ public class ScientificObjectDAO {
         relationFetcher.updateModels();
 
         // handle object property fetching + uri list selection
+        total = getTotal(searchFilter, total, results.size());
         return new ListWithPagination<>(results,searchFilter.getPage(),searchFilter.getPageSize(),total);
     }
 
@@ -353,6 +363,7 @@ public class ScientificObjectDAO {
 
         List<ScientificObjectNodeDTO> results = streamToList(resultStream,dtoFromResult());
 
+        total = getTotal(searchFilter, total, results.size());
         return new ListWithPagination<>(results,searchFilter.getPage(),searchFilter.getPageSize(),total);
     }
 
@@ -442,7 +453,7 @@ public class ScientificObjectDAO {
 
         // Add label and type in where clause
         WhereBuilder graphHandler = new WhereBuilder();
-        builder.addWhere(typeVar, Ontology.subClassAny, Oeso.ScientificObject);
+        builder.addFilter(SPARQLQueryHelper.subClassesFilter(typeVar, URI.create(Oeso.ScientificObject.getURI())));
         graphHandler.addWhere(uriVar, RDFS.label, nameVar);
         graphHandler.addWhere(uriVar, RDF.type, typeVar);
 
@@ -459,9 +470,25 @@ public class ScientificObjectDAO {
         graphHandler.addOptional(uriVar, Oeso.hasCreationDate, creationDateVar);
         graphHandler.addOptional(uriVar, Oeso.hasDestructionDate, destructionDateVar);
 
-        // add VALUES clause with included uris
-        if(!CollectionUtils.isEmpty(searchFilter.getUris())){
-            Object[] uriNodes = SPARQLDeserializers.nodeListURIAsArray(searchFilter.getUris());
+        // resolve name pattern with the text index, a REGEX filter is used if the index can't answer
+        boolean hasPattern = searchFilter.getPattern() != null && !searchFilter.getPattern().trim().isEmpty();
+        Set<URI> nameURIs = hasPattern ? SPARQLQueryHelper.searchURIsByName(sparql, contextNode, ScientificObjectModel.class, Collections.singletonList(RDFS.label), searchFilter.getPattern()) : null;
+
+        // add VALUES clause with included uris, intersected with uris matching the name pattern
+        Collection<URI> includedURIs = searchFilter.getUris();
+        if (nameURIs != null) {
+            includedURIs = CollectionUtils.isEmpty(includedURIs) ? nameURIs : includedURIs.stream()
+                    .map(URIDeserializer::formatURI)
+                    .filter(nameURIs::contains)
+                    .collect(Collectors.toSet());
+
+            if (includedURIs.isEmpty()) {
+                // an empty VALUES clause is ignored, IN () is always false
+                builder.addFilter(SPARQLQueryHelper.getExprFactory().in(uriVar));
+            }
+        }
+        if(!CollectionUtils.isEmpty(includedURIs)){
+            Object[] uriNodes = SPARQLDeserializers.nodeListURIAsArray(includedURIs);
             builder.addValueVar(SPARQLResourceModel.URI_FIELD, uriNodes);
         }
         // add NOT IN filter with excluded uris
@@ -474,7 +501,7 @@ public class ScientificObjectDAO {
         builder.addGraph(contextNode, graphHandler);
 
         // Add pattern filter
-        if (searchFilter.getPattern() != null && !searchFilter.getPattern().trim().isEmpty()) {
+        if (hasPattern && nameURIs == null) {
             builder.addFilter(SPARQLQueryHelper.regexFilter(ScientificObjectModel.NAME_FIELD, searchFilter.getPattern()));
         }
 
@@ -710,16 +737,55 @@ public class ScientificObjectDAO {
         boolean useDefaultGraph = SPARQLDeserializers.compareURIs(defaultGraphNode.getURI(),contextURI);
         Node graphNode = useDefaultGraph ? defaultGraphNode : SPARQLDeserializers.nodeURI(contextURI);
 
-        for(ScientificObjectModel model : models){
+        // objects which already exist in another graph are not counted again in the system scope
+        Set<String> existingURIs = new HashSet<>();
+
+        // experimental context + no URI set
+        if (!useDefaultGraph) {
+            List<URI> modelsURIs = models.stream()
+                    .map(ScientificObjectModel::getUri)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+            for (URI existingURI : sparql.getExistingUris(ScientificObjectModel.class, modelsURIs, true)) {
+                existingURIs.add(SPARQLDeserializers.getExpandedURI(existingURI));
+            }
 
-            // experimental context + no URI set
-            if(! useDefaultGraph && model.getUri() == null) {
+            List<ScientificObjectModel> modelsWithoutURI = models.stream()
+                    .filter(model -> model.getUri() == null)
+                    .collect(Collectors.toList());
 
-                // generate a globally unique URI
-                // (by taking account of all OS into global graph, which also includes OS from any xp)
-                sparql.generateUniqueURI(defaultGraphNode, model, model, true);
-            }
-            sparql.create(graphNode,model);
+            // generate globally unique URIs
+            // (by taking account of all OS into global graph, which also includes OS from any xp)
+            sparql.generateUniqueURIs(defaultGraphNode, modelsWithoutURI, true);
+        }
+
+        // URIs are checked inside the context graph with one query by batch, and objects are inserted by batch
+        sparql.create(graphNode, models, SPARQLService.DEFAULT_MAX_INSTANCE_PER_QUERY, true);
+
+        MetricsCounters counters = new MetricsCounters();
+        for (ScientificObjectModel model : models) {
+            addMetricsCounters(counters, contextURI, model.getType(), !existingURIs.contains(SPARQLDeserializers.getExpandedURI(model.getUri())), 1);
+        }
+        new MetricsCountersDAO(nosql).update(counters);
+    }
+
+    /**
+     * Add scientific object counters variations : objects are counted by type in their experiment scope,
+     * and in the system scope when they are added to or removed from the global graph.
+     *
+     * @param counters counters to update
+     * @param contextURI object graph
+     * @param type object type
+     * @param isGlobal true if the object is added to or removed from the global graph
+     * @param delta variation, negative on deletion
+     */
+    private void addMetricsCounters(MetricsCounters counters, URI contextURI, URI type, boolean isGlobal, long delta) {
+        boolean isGlobalContext = contextURI == null || SPARQLDeserializers.compareURIs(defaultGraphURI, contextURI);
+        if (!isGlobalContext) {
+            counters.add(MetricsCounters.getScope(contextURI), MetricsCounters.SCIENTIFIC_OBJECT_CATEGORY, type, delta);
+        }
+        if (isGlobalContext || isGlobal) {
+            counters.add(MetricsCounters.SYSTEM_SCOPE, MetricsCounters.SCIENTIFIC_OBJECT_CATEGORY, type, delta);
         }
     }
 
@@ -744,6 +810,11 @@ public class ScientificObjectDAO {
         ScientificObjectModel object = initObject(contextURI, experiment, soType, name, relations, currentUser);
         object.setUri(objectURI);
 
+        // an object which already exists in another graph is not counted again in the system scope
+        boolean isNewObject = objectURI == null
+                || SPARQLDeserializers.compareURIs(defaultGraphURI, contextURI)
+                || !sparql.uriExists(ScientificObjectModel.class, objectURI);
+
         try {
             sparql.startTransaction();
             nosql.startTransaction();
@@ -770,6 +841,11 @@ public class ScientificObjectDAO {
                 moveDAO.create(facilityMoveEvent);
             }
             sparql.deletePrimitives(SPARQLDeserializers.nodeURI(contextURI), object.getUri(), Oeso.isHosted);
+
+            MetricsCounters counters = new MetricsCounters();
+            addMetricsCounters(counters, contextURI, soType, isNewObject, 1);
+            new MetricsCountersDAO(nosql).update(counters);
+
             nosql.commitTransaction();
             sparql.commitTransaction();
         } catch (Exception ex) {
@@ -838,6 +914,7 @@ public class ScientificObjectDAO {
         object.setUri(objectURI);
 
         Node graphNode = SPARQLDeserializers.nodeURI(contextURI);
+        URI oldType = MetricsDAO.getStoredType(sparql, graphNode, objectURI);
 
         List<URI> childrenURIs = sparql.searchURIs(
                 graphNode,
@@ -905,6 +982,13 @@ public class ScientificObjectDAO {
             }
             sparql.deletePrimitives(graphNode, objectURI, Oeso.isHosted);
 
+            if (oldType != null && !SPARQLDeserializers.compareURIs(oldType, soType)) {
+                MetricsCounters counters = new MetricsCounters();
+                addMetricsCounters(counters, contextURI, oldType, false, -1);
+                addMetricsCounters(counters, contextURI, soType, false, 1);
+                new MetricsCountersDAO(nosql).update(counters);
+            }
+
             sparql.commitTransaction();
             nosql.commitTransaction();
         } catch (Exception ex) {
@@ -948,7 +1032,7 @@ public class ScientificObjectDAO {
         select.setDistinct(true);
         select.addVar(graphVar);
         select.addGraph(graphVar, uri, RDF.type, typeVar);
-        select.addWhere(typeVar, Ontology.subClassAny, Oeso.ScientificObject);
+        select.addFilter(SPARQLQueryHelper.subClassesFilter(typeVar, URI.create(Oeso.ScientificObject.getURI())));
 
         List<URI> resultList = new ArrayList<>();
         SPARQLDeserializer<URI> uriDeserializer = SPARQLDeserializers.getForClass(URI.class);
@@ -1048,11 +1132,14 @@ public class ScientificObjectDAO {
      */
     public void delete(URI xpURI, URI objectURI) throws Exception {
         Objects.requireNonNull(objectURI);
-        if(xpURI == null){
-            sparql.deleteByURI(defaultGraphNode,objectURI);
-        }else{
-            sparql.deleteByURI(SPARQLDeserializers.nodeURI(xpURI), objectURI);
-        }
+        Node graphNode = xpURI == null ? defaultGraphNode : SPARQLDeserializers.nodeURI(xpURI);
+        URI type = MetricsDAO.getStoredType(sparql, graphNode, objectURI);
+
+        sparql.deleteByURI(graphNode, objectURI);
+
+        MetricsCounters counters = new MetricsCounters();
+        addMetricsCounters(counters, xpURI, type, false, -1);
+        new MetricsCountersDAO(nosql).update(counters);
     }
 
     /**
@@ -1097,6 +1184,40 @@ public class ScientificObjectDAO {
         return experimentalObjectModel;
     }
 
+    /**
+     * Batch version of {@link #getByNameAndContext(String, URI)} : load with one query the objects which have one of the given names inside the context.
+     *
+     * @param objectNames objects names
+     * @param objectGraph context URI
+     * @return objects which have one of the given names, several objects can share the same name
+     * @throws Exception if the SPARQL query fail
+     */
+    public List<ScientificObjectModel> getByNamesAndContext(Collection<String> objectNames, URI objectGraph) throws Exception {
+        if (objectNames.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return sparql.search(SPARQLDeserializers.nodeURI(objectGraph), ScientificObjectModel.class, null, (SelectBuilder select) -> {
+            select.addWhereValueVar(makeVar(ScientificObjectModel.NAME_FIELD), objectNames.stream().map(NodeFactory::createLiteral).toArray());
+        });
+    }
+
+    /**
+     * Batch version of {@link #getObjectByURI(URI, URI, String)} : load with one query the objects which exist inside the context.
+     *
+     * @param objectURIs objects URIs
+     * @param objectGraph context URI
+     * @return existing objects, unknown URIs are just missing from this list
+     * @throws Exception if the SPARQL query fail
+     */
+    public List<ScientificObjectModel> getByURIsAndContext(Collection<URI> objectURIs, URI objectGraph) throws Exception {
+        if (objectURIs.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return sparql.search(SPARQLDeserializers.nodeURI(objectGraph), ScientificObjectModel.class, null, (SelectBuilder select) -> {
+            SPARQLQueryHelper.addWhereUriValues(select, ScientificObjectModel.URI_FIELD, objectURIs);
+        });
+    }
+
     private void appendStrictNameFilter(SelectBuilder select, String name) throws Exception {
         select.addFilter(SPARQLQueryHelper.eq(ScientificObjectModel.NAME_FIELD, name));
     }
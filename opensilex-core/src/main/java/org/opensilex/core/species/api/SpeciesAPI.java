@@ -11,6 +11,7 @@ import org.opensilex.core.species.dal.SpeciesDAO;
 import org.opensilex.core.species.dal.SpeciesModel;
 import org.opensilex.server.response.ErrorResponse;
 import org.opensilex.server.response.PaginatedListResponse;
+import org.opensilex.server.rest.cache.ApiCache;
 import org.opensilex.sparql.service.SPARQLService;
 
 import javax.inject.Inject;
@@ -43,6 +44,7 @@ public class SpeciesAPI {
     @GET
     @ApiOperation("get species (no pagination)")
     @ApiTranslatable
+    @ApiCache(category = SPECIES_CACHE_CATEGORY, tags = SpeciesDAO.CACHE_TAG)
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
     @ApiResponses(value = {
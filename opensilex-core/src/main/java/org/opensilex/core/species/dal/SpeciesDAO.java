@@ -28,6 +28,11 @@ import static org.opensilex.sparql.service.SPARQLQueryHelper.makeVar;
  */
 public class SpeciesDAO {
 
+    /**
+     * API cache tag invalidated on each germplasm modification, since species are germplasm
+     */
+    public static final String CACHE_TAG = "species";
+
     protected final SPARQLService sparql;
     protected final SparqlNoProxyFetcher<SpeciesModel> fetcher;
     protected final Node defaultGraph;
@@ -0,0 +1,59 @@
+//******************************************************************************
+//                          AccessLogStatisticsDTO.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.system.api;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import org.opensilex.core.logs.AccessLogWriter;
+
+/**
+ * Live statistics of the user access logs writer
+ */
+@JsonPropertyOrder({"written_count", "dropped_count", "pending_count"})
+public class AccessLogStatisticsDTO {
+
+    @JsonProperty("written_count")
+    private long writtenCount;
+
+    @JsonProperty("dropped_count")
+    private long droppedCount;
+
+    @JsonProperty("pending_count")
+    private int pendingCount;
+
+    public static AccessLogStatisticsDTO fromModel(AccessLogWriter writer) {
+        AccessLogStatisticsDTO dto = new AccessLogStatisticsDTO();
+        dto.setWrittenCount(writer.getWrittenCount());
+        dto.setDroppedCount(writer.getDroppedCount());
+        dto.setPendingCount(writer.getPendingCount());
+        return dto;
+    }
+
+    public long getWrittenCount() {
+        return writtenCount;
+    }
+
+    public void setWrittenCount(long writtenCount) {
+        this.writtenCount = writtenCount;
+    }
+
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    public void setDroppedCount(long droppedCount) {
+        this.droppedCount = droppedCount;
+    }
+
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    public void setPendingCount(int pendingCount) {
+        this.pendingCount = pendingCount;
+    }
+}
@@ -0,0 +1,131 @@
+//******************************************************************************
+//                          SPARQLConnectionPoolDTO.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.system.api;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import org.opensilex.sparql.rdf4j.RDF4JConnectionPoolStatistics;
+
+/**
+ * Live statistics of the HTTP connection pool to the triplestore
+ */
+@JsonPropertyOrder({"leased", "pending", "available", "max_total", "max_per_route", "lease_count", "lease_timeout_count", "average_lease_wait_ms", "max_lease_wait_ms"})
+public class SPARQLConnectionPoolDTO {
+
+    @JsonProperty("leased")
+    private int leased;
+
+    @JsonProperty("pending")
+    private int pending;
+
+    @JsonProperty("available")
+    private int available;
+
+    @JsonProperty("max_total")
+    private int maxTotal;
+
+    @JsonProperty("max_per_route")
+    private int maxPerRoute;
+
+    @JsonProperty("lease_count")
+    private long leaseCount;
+
+    @JsonProperty("lease_timeout_count")
+    private long leaseTimeoutCount;
+
+    @JsonProperty("average_lease_wait_ms")
+    private long averageLeaseWaitMs;
+
+    @JsonProperty("max_lease_wait_ms")
+    private long maxLeaseWaitMs;
+
+    public static SPARQLConnectionPoolDTO fromModel(RDF4JConnectionPoolStatistics statistics) {
+        SPARQLConnectionPoolDTO dto = new SPARQLConnectionPoolDTO();
+        dto.setLeased(statistics.getLeased());
+        dto.setPending(statistics.getPending());
+        dto.setAvailable(statistics.getAvailable());
+        dto.setMaxTotal(statistics.getMaxTotal());
+        dto.setMaxPerRoute(statistics.getMaxPerRoute());
+        dto.setLeaseCount(statistics.getLeaseCount());
+        dto.setLeaseTimeoutCount(statistics.getLeaseTimeoutCount());
+        dto.setAverageLeaseWaitMs(statistics.getAverageLeaseWaitMs());
+        dto.setMaxLeaseWaitMs(statistics.getMaxLeaseWaitMs());
+        return dto;
+    }
+
+    public int getLeased() {
+        return leased;
+    }
+
+    public void setLeased(int leased) {
+        this.leased = leased;
+    }
+
+    public int getPending() {
+        return pending;
+    }
+
+    public void setPending(int pending) {
+        this.pending = pending;
+    }
+
+    public int getAvailable() {
+        return available;
+    }
+
+    public void setAvailable(int available) {
+        this.available = available;
+    }
+
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    public void setMaxTotal(int maxTotal) {
+        this.maxTotal = maxTotal;
+    }
+
+    public int getMaxPerRoute() {
+        return maxPerRoute;
+    }
+
+    public void setMaxPerRoute(int maxPerRoute) {
+        this.maxPerRoute = maxPerRoute;
+    }
+
+    public long getLeaseCount() {
+        return leaseCount;
+    }
+
+    public void setLeaseCount(long leaseCount) {
+        this.leaseCount = leaseCount;
+    }
+
+    public long getLeaseTimeoutCount() {
+        return leaseTimeoutCount;
+    }
+
+    public void setLeaseTimeoutCount(long leaseTimeoutCount) {
+        this.leaseTimeoutCount = leaseTimeoutCount;
+    }
+
+    public long getAverageLeaseWaitMs() {
+        return averageLeaseWaitMs;
+    }
+
+    public void setAverageLeaseWaitMs(long averageLeaseWaitMs) {
+        this.averageLeaseWaitMs = averageLeaseWaitMs;
+    }
+
+    public long getMaxLeaseWaitMs() {
+        return maxLeaseWaitMs;
+    }
+
+    public void setMaxLeaseWaitMs(long maxLeaseWaitMs) {
+        this.maxLeaseWaitMs = maxLeaseWaitMs;
+    }
+}
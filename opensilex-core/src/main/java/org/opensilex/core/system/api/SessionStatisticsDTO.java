@@ -0,0 +1,59 @@
+//******************************************************************************
+//                          SessionStatisticsDTO.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.system.api;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import org.opensilex.security.authentication.AuthenticationService;
+
+/**
+ * Live statistics of user sessions
+ */
+@JsonPropertyOrder({"active_sessions", "expirations_last_minute", "expired_count"})
+public class SessionStatisticsDTO {
+
+    @JsonProperty("active_sessions")
+    private int activeSessions;
+
+    @JsonProperty("expirations_last_minute")
+    private long expirationsLastMinute;
+
+    @JsonProperty("expired_count")
+    private long expiredCount;
+
+    public static SessionStatisticsDTO fromModel(AuthenticationService authentication) {
+        SessionStatisticsDTO dto = new SessionStatisticsDTO();
+        dto.setActiveSessions(authentication.getActiveSessionCount());
+        dto.setExpirationsLastMinute(authentication.getSessionExpirationsPerMinute());
+        dto.setExpiredCount(authentication.getSessionExpiredCount());
+        return dto;
+    }
+
+    public int getActiveSessions() {
+        return activeSessions;
+    }
+
+    public void setActiveSessions(int activeSessions) {
+        this.activeSessions = activeSessions;
+    }
+
+    public long getExpirationsLastMinute() {
+        return expirationsLastMinute;
+    }
+
+    public void setExpirationsLastMinute(long expirationsLastMinute) {
+        this.expirationsLastMinute = expirationsLastMinute;
+    }
+
+    public long getExpiredCount() {
+        return expiredCount;
+    }
+
+    public void setExpiredCount(long expiredCount) {
+        this.expiredCount = expiredCount;
+    }
+}
@@ -21,10 +21,22 @@ import java.util.List;
 import java.util.Properties;
 import org.opensilex.OpenSilex;
 import org.opensilex.OpenSilexModule;
+import org.opensilex.core.CoreModule;
+import org.opensilex.core.logs.AccessLogWriter;
+import org.opensilex.security.authentication.ApiProtected;
+import org.opensilex.security.authentication.AuthenticationService;
 import org.opensilex.security.authentication.injection.CurrentUser;
 import org.opensilex.security.user.dal.UserModel;
 import org.opensilex.server.ServerModule;
+import org.opensilex.server.exceptions.ForbiddenException;
+import org.opensilex.server.exceptions.NotFoundException;
 import org.opensilex.server.response.SingleObjectResponse;
+import org.opensilex.sparql.SPARQLModule;
+import org.opensilex.sparql.rdf4j.RDF4JConnectionPoolStatistics;
+import org.opensilex.sparql.rdf4j.RDF4JServiceFactory;
+import org.opensilex.sparql.service.SPARQLService;
+import org.opensilex.sparql.service.SPARQLServiceFactory;
+import org.opensilex.sparql.text.TextIndex;
 import org.opensilex.utils.ClassUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,6 +54,9 @@ public class SystemAPI {
     
     @Inject
     private ServerModule serverModule;
+
+    @Inject
+    private AuthenticationService authentication;
     
     @CurrentUser
     UserModel user;
@@ -137,5 +152,90 @@ public class SystemAPI {
         
         return new SingleObjectResponse<>(versionInfoDTO).getResponse();
     }
-    
+
+    @PUT
+    @Path("/text_index")
+    @ApiOperation("Rebuild the index of resource names used by name searches (admin only)")
+    @ApiProtected
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiResponses(value = {
+        @ApiResponse(code = 200, message = "Index dropped, it will be loaded again on next search"),
+        @ApiResponse(code = 403, message = "Only admin users can rebuild the index", response = ErrorResponse.class)
+    })
+    public Response rebuildTextIndex() throws Exception {
+        if (!user.isAdmin()) {
+            throw new ForbiddenException("You must be an admin to rebuild the text index");
+        }
+
+        TextIndex textIndex = SPARQLModule.getTextIndexInstance();
+        if (textIndex != null) {
+            textIndex.rebuild();
+        }
+        return Response.ok().build();
+    }
+
+    @GET
+    @Path("/sparql_connections")
+    @ApiOperation("Get live statistics of the triplestore connection pool (admin only)")
+    @ApiProtected
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiResponses(value = {
+        @ApiResponse(code = 200, message = "Connection pool statistics", response = SPARQLConnectionPoolDTO.class),
+        @ApiResponse(code = 403, message = "Only admin users can read the statistics", response = ErrorResponse.class),
+        @ApiResponse(code = 404, message = "The triplestore is not accessed through a connection pool", response = ErrorResponse.class)
+    })
+    public Response getSPARQLConnectionPoolStatistics() throws Exception {
+        if (!user.isAdmin()) {
+            throw new ForbiddenException("You must be an admin to read the connection pool statistics");
+        }
+
+        SPARQLServiceFactory factory = serverModule.getOpenSilex().getServiceInstance(SPARQLService.DEFAULT_SPARQL_SERVICE, SPARQLServiceFactory.class);
+        if (factory instanceof RDF4JServiceFactory) {
+            RDF4JConnectionPoolStatistics statistics = ((RDF4JServiceFactory) factory).getConnectionPoolStatistics();
+            if (statistics != null) {
+                return new SingleObjectResponse<>(SPARQLConnectionPoolDTO.fromModel(statistics)).getResponse();
+            }
+        }
+        throw new NotFoundException("The triplestore is not accessed through a connection pool");
+    }
+
+    @GET
+    @Path("/sessions")
+    @ApiOperation("Get live statistics of user sessions (admin only)")
+    @ApiProtected
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiResponses(value = {
+        @ApiResponse(code = 200, message = "User sessions statistics", response = SessionStatisticsDTO.class),
+        @ApiResponse(code = 403, message = "Only admin users can read the statistics", response = ErrorResponse.class)
+    })
+    public Response getSessionStatistics() throws Exception {
+        if (!user.isAdmin()) {
+            throw new ForbiddenException("You must be an admin to read the sessions statistics");
+        }
+
+        return new SingleObjectResponse<>(SessionStatisticsDTO.fromModel(authentication)).getResponse();
+    }
+
+    @GET
+    @Path("/access_logs")
+    @ApiOperation("Get live statistics of the user access logs writer (admin only)")
+    @ApiProtected
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiResponses(value = {
+        @ApiResponse(code = 200, message = "Access logs writer statistics", response = AccessLogStatisticsDTO.class),
+        @ApiResponse(code = 403, message = "Only admin users can read the statistics", response = ErrorResponse.class),
+        @ApiResponse(code = 404, message = "Access logs are disabled", response = ErrorResponse.class)
+    })
+    public Response getAccessLogStatistics() throws Exception {
+        if (!user.isAdmin()) {
+            throw new ForbiddenException("You must be an admin to read the access logs statistics");
+        }
+
+        AccessLogWriter accessLogWriter = serverModule.getOpenSilex().getModuleByClass(CoreModule.class).getAccessLogWriter();
+        if (accessLogWriter == null) {
+            throw new NotFoundException("Access logs are disabled");
+        }
+        return new SingleObjectResponse<>(AccessLogStatisticsDTO.fromModel(accessLogWriter)).getResponse();
+    }
+
 }
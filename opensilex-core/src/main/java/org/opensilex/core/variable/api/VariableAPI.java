@@ -14,6 +14,8 @@ import com.fasterxml.jackson.dataformat.csv.CsvSchema;
 import io.swagger.annotations.*;
 import org.apache.jena.datatypes.xsd.XSDDatatype;
 import org.opensilex.core.URIsListPostDTO;
+import org.opensilex.core.species.dal.SpeciesDAO;
+import org.opensilex.core.variable.dal.BaseVariableDAO;
 import org.opensilex.core.variable.dal.VariableDAO;
 import org.opensilex.core.variable.dal.VariableModel;
 import org.opensilex.core.variable.dal.VariableSearchFilter;
@@ -26,6 +28,7 @@ import org.opensilex.security.authentication.NotFoundURIException;
 import org.opensilex.security.authentication.injection.CurrentUser;
 import org.opensilex.security.user.dal.UserModel;
 import org.opensilex.server.response.*;
+import org.opensilex.server.rest.cache.ApiCache;
 import org.opensilex.server.rest.serialization.ObjectMapperContextResolver;
 import org.opensilex.server.rest.validation.ValidURI;
 import org.opensilex.sparql.deserializer.SPARQLDeserializers;
@@ -70,6 +73,8 @@ public class VariableAPI {
     public static final String CREDENTIAL_VARIABLE_DELETE_ID = "variable-delete";
     public static final String CREDENTIAL_VARIABLE_DELETE_LABEL_KEY = "credential.default.delete";
 
+    public static final String VARIABLES_CACHE_CATEGORY = "variables";
+
     @Inject
     private SPARQLService sparql;
     @Inject
@@ -120,6 +125,7 @@ public class VariableAPI {
     @Path("{uri}")
     @ApiOperation("Get a variable")
     @ApiProtected
+    @ApiCache(category = VARIABLES_CACHE_CATEGORY, tags = {BaseVariableDAO.CACHE_TAG, SpeciesDAO.CACHE_TAG})
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Variable retrieved", response = VariableDetailsDTO.class),
             @ApiResponse(code = 404, message = "Unknown variable URI", response = ErrorResponse.class)
@@ -262,6 +268,7 @@ public class VariableAPI {
                     " _unit_name : the name of the variable unit\n\n"
     )
     @ApiProtected
+    @ApiCache(category = VARIABLES_CACHE_CATEGORY, tags = {BaseVariableDAO.CACHE_TAG, SpeciesDAO.CACHE_TAG})
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Return detailed variables", response = VariableDetailsDTO.class, responseContainer = "List")
     })
@@ -296,6 +303,7 @@ public class VariableAPI {
     @GET
     @Path("datatypes")
     @ApiOperation(value = "Get variables datatypes")
+    @ApiCache(category = VARIABLES_CACHE_CATEGORY, tags = {BaseVariableDAO.CACHE_TAG, SpeciesDAO.CACHE_TAG})
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Return data types", response = VariableDatatypeDTO.class, responseContainer = "List")
     })
@@ -326,6 +334,7 @@ public class VariableAPI {
     @Path("by_uris")
     @ApiOperation("Get detailed variables by uris")
     @ApiProtected
+    @ApiCache(category = VARIABLES_CACHE_CATEGORY, tags = {BaseVariableDAO.CACHE_TAG, SpeciesDAO.CACHE_TAG})
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
     @ApiResponses(value = {
@@ -27,6 +27,11 @@ import java.util.List;
  */
 public class BaseVariableDAO<T extends SPARQLNamedResourceModel<T>> {
 
+    /**
+     * API cache tag invalidated on each variable, entity, characteristic, method or unit modification
+     */
+    public static final String CACHE_TAG = "variables";
+
     protected final SPARQLService sparql;
     protected final Class<T> objectClass;
     protected final Node defaultGraph;
@@ -51,16 +56,19 @@ public class BaseVariableDAO<T extends SPARQLNamedResourceModel<T>> {
 
     public T create(T instance) throws Exception {
         sparql.create(instance);
+        sparql.invalidateApiCacheTags(CACHE_TAG);
         return instance;
     }
 
     public T update(T instance) throws Exception {
         sparql.update(instance);
+        sparql.invalidateApiCacheTags(CACHE_TAG);
         return instance;
     }
 
     public void delete(URI instanceURI) throws Exception {
         sparql.delete(objectClass, instanceURI);
+        sparql.invalidateApiCacheTags(CACHE_TAG);
     }
 
     public T get(URI instanceURI) throws Exception {
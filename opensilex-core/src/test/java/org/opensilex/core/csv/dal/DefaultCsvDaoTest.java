@@ -0,0 +1,96 @@
+//******************************************************************************
+//                          DefaultCsvDaoTest.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.csv.dal;
+
+import org.junit.Test;
+import org.opensilex.core.ontology.Oeso;
+import org.opensilex.core.scientificObject.dal.ScientificObjectModel;
+import org.opensilex.integration.test.security.AbstractSecurityIntegrationTest;
+import org.opensilex.sparql.csv.CSVValidationModel;
+import org.opensilex.sparql.deserializer.SPARQLDeserializers;
+import org.opensilex.sparql.model.SPARQLNamedResourceModel;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Check URIs validation and generation of CSV import, which are done for all rows at once.
+ */
+public class DefaultCsvDaoTest extends AbstractSecurityIntegrationTest {
+
+    private static final URI GRAPH = URI.create("http://opensilex.test/csv-dao-graph");
+
+    private static final String HEADERS = "uri,type,name\nURI,Type,Name\n";
+
+    @Override
+    public void afterEach() throws Exception {
+        getSparqlService().clearGraph(GRAPH);
+    }
+
+    private CSVValidationModel validate(String rows, boolean generateURI) throws Exception {
+        DefaultCsvDao<ScientificObjectModel> csvDao = new DefaultCsvDao<>(getSparqlService(), ScientificObjectModel.class);
+        ByteArrayInputStream file = new ByteArrayInputStream((HEADERS + rows).getBytes(StandardCharsets.UTF_8));
+        return csvDao.validateCSV(GRAPH, URI.create(Oeso.ScientificObject.getURI()), file, 3, "en", null, Collections.emptyList(), generateURI);
+    }
+
+    private ScientificObjectModel createObject(URI uri, String name) throws Exception {
+        ScientificObjectModel object = new ScientificObjectModel();
+        object.setUri(uri);
+        object.setName(name);
+        getSparqlService().create(SPARQLDeserializers.nodeURI(GRAPH), object);
+        return object;
+    }
+
+    @Test
+    public void testGenerateURIs() throws Exception {
+        String prefix = getSparqlService().getDefaultGenerationURI(ScientificObjectModel.class).toString();
+        ScientificObjectModel model = new ScientificObjectModel();
+        model.setName("plot");
+        URI existingURI = model.generateURI(prefix, model, 0);
+        createObject(existingURI, "plot");
+
+        String type = Oeso.ScientificObject.getURI();
+        CSVValidationModel validation = validate(
+                "," + type + ",plot\n" +
+                "," + type + ",plot\n" +
+                "," + type + ",other\n",
+                true);
+
+        assertFalse(validation.hasErrors());
+        assertEquals(3, validation.getObjects().size());
+
+        Set<String> uris = new HashSet<>();
+        for (SPARQLNamedResourceModel object : validation.getObjects()) {
+            assertNotNull(object.getUri());
+            assertTrue(uris.add(SPARQLDeserializers.getExpandedURI(object.getUri())));
+        }
+        assertFalse(uris.contains(SPARQLDeserializers.getExpandedURI(existingURI)));
+    }
+
+    @Test
+    public void testExistingAndDuplicateURIs() throws Exception {
+        URI existingURI = URI.create("http://opensilex.test/csv-dao/existing");
+        createObject(existingURI, "existing");
+
+        String type = Oeso.ScientificObject.getURI();
+        CSVValidationModel validation = validate(
+                existingURI + "," + type + ",first\n" +
+                "http://opensilex.test/csv-dao/new," + type + ",second\n" +
+                "http://opensilex.test/csv-dao/new," + type + ",third\n",
+                false);
+
+        assertTrue(validation.hasErrors());
+        assertEquals(Collections.singleton(1), validation.getAlreadyExistingURIErrors().keySet());
+        assertEquals(Collections.singleton(3), validation.getDuplicateURIErrors().keySet());
+    }
+}
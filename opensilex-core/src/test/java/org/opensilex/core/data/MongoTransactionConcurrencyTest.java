@@ -0,0 +1,117 @@
+//******************************************************************************
+//                          MongoTransactionConcurrencyTest.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.data;
+
+import com.mongodb.client.ClientSession;
+import org.junit.Test;
+import org.opensilex.core.AbstractMongoIntegrationTest;
+import org.opensilex.core.data.dal.DataDAO;
+import org.opensilex.core.data.dal.DataModel;
+import org.opensilex.core.data.dal.DataProvenanceModel;
+import org.opensilex.nosql.mongodb.MongoDBService;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Check that concurrent writers of {@link MongoDBService} use their own transaction.
+ */
+public class MongoTransactionConcurrencyTest extends AbstractMongoIntegrationTest {
+
+    private static final int WRITER_COUNT = 8;
+
+    private static final int BATCH_COUNT = 10;
+
+    private static final int BATCH_SIZE = 50;
+
+    @Override
+    protected List<String> getCollectionsToClearNames() {
+        return Collections.singletonList(DataDAO.DATA_COLLECTION_NAME);
+    }
+
+    @Test
+    public void testParallelCreateAll() throws Exception {
+        MongoDBService nosql = getMongoDBService();
+        ExecutorService executor = Executors.newFixedThreadPool(WRITER_COUNT);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int writer = 0; writer < WRITER_COUNT; writer++) {
+                int writerIndex = writer;
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    for (int batch = 0; batch < BATCH_COUNT; batch++) {
+                        nosql.createAll(buildData(writerIndex, batch), DataModel.class, DataDAO.DATA_COLLECTION_NAME, DataDAO.DATA_PREFIX, true);
+                        assertNull(nosql.getSession());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+
+            for (Future<?> writer : writers) {
+                writer.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long expectedCount = (long) WRITER_COUNT * BATCH_COUNT * BATCH_SIZE;
+        assertEquals(expectedCount, nosql.getDatabase().getCollection(DataDAO.DATA_COLLECTION_NAME).countDocuments());
+    }
+
+    @Test
+    public void testTransactionIsBoundToThread() throws Exception {
+        MongoDBService nosql = getMongoDBService();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        nosql.startTransaction();
+        try {
+            ClientSession session = nosql.getSession();
+            assertNotNull(session);
+
+            // another thread must not see nor commit the transaction of this thread
+            Future<ClientSession> otherSession = executor.submit(() -> {
+                nosql.commitTransaction();
+                return nosql.getSession();
+            });
+            assertNull(otherSession.get(1, TimeUnit.MINUTES));
+            assertSame(session, nosql.getSession());
+
+            nosql.createAll(buildData(0, 0), DataModel.class, DataDAO.DATA_COLLECTION_NAME, DataDAO.DATA_PREFIX, false);
+            assertSame(session, nosql.getSession());
+        } finally {
+            nosql.rollbackTransaction();
+            executor.shutdownNow();
+        }
+
+        assertNull(nosql.getSession());
+        assertEquals(0, nosql.getDatabase().getCollection(DataDAO.DATA_COLLECTION_NAME).countDocuments());
+    }
+
+    private static List<DataModel> buildData(int writer, int batch) {
+        DataProvenanceModel provenance = new DataProvenanceModel();
+        provenance.setUri(URI.create("test:provenance/" + writer));
+
+        List<DataModel> dataList = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            DataModel data = new DataModel();
+            data.setTarget(URI.create("test:target/" + writer));
+            data.setVariable(URI.create("test:variable/" + batch));
+            data.setProvenance(provenance);
+            data.setDate(Instant.now());
+            data.setValue(i);
+            dataList.add(data);
+        }
+        return dataList;
+    }
+}
@@ -0,0 +1,143 @@
+//******************************************************************************
+//                          UserExperimentsCacheTest.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.experiment.dal;
+
+import org.apache.jena.arq.querybuilder.UpdateBuilder;
+import org.apache.jena.graph.Node;
+import org.apache.jena.vocabulary.DCTerms;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+import org.junit.Before;
+import org.junit.Test;
+import org.opensilex.core.AbstractMongoIntegrationTest;
+import org.opensilex.security.authentication.SecurityOntology;
+import org.opensilex.security.group.dal.GroupDAO;
+import org.opensilex.security.group.dal.GroupModel;
+import org.opensilex.security.user.dal.UserModel;
+import org.opensilex.server.rest.cache.ApiCacheTags;
+import org.opensilex.sparql.deserializer.SPARQLDeserializers;
+import org.opensilex.sparql.model.SPARQLResourceModel;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Check that cached user experiments are updated after experiments modifications, and that the cache size is limited.
+ */
+public class UserExperimentsCacheTest extends AbstractMongoIntegrationTest {
+
+    private static final String NS = "http://opensilex.test/user-experiments/";
+
+    private static final URI USER = URI.create(NS + "user");
+    private static final URI GROUP = URI.create(NS + "group");
+    private static final URI EXPERIMENT = URI.create(NS + "experiment");
+
+    private ExperimentDAO dao;
+
+    private UserModel user;
+
+    @Override
+    protected List<Class<? extends SPARQLResourceModel>> getModelsToClean() {
+        return Arrays.asList(ExperimentModel.class, GroupModel.class);
+    }
+
+    @Before
+    public void createResources() throws Exception {
+        UserExperimentsCache.clear();
+        dao = new ExperimentDAO(getSparqlService(), getMongoDBService());
+
+        user = new UserModel();
+        user.setUri(USER);
+        user.setAdmin(false);
+
+        // the user belongs to the group
+        Node groupGraph = getSparqlService().getDefaultGraph(GroupModel.class);
+        URI profile = URI.create(GROUP + "/profile");
+        UpdateBuilder update = new UpdateBuilder()
+                .addInsert(groupGraph, SPARQLDeserializers.nodeURI(GROUP), RDF.type, SecurityOntology.Group)
+                .addInsert(groupGraph, SPARQLDeserializers.nodeURI(GROUP), RDFS.label, "group")
+                .addInsert(groupGraph, SPARQLDeserializers.nodeURI(GROUP), DCTerms.description, "user group")
+                .addInsert(groupGraph, SPARQLDeserializers.nodeURI(GROUP), SecurityOntology.hasUserProfile, SPARQLDeserializers.nodeURI(profile))
+                .addInsert(groupGraph, SPARQLDeserializers.nodeURI(profile), SecurityOntology.hasUser, SPARQLDeserializers.nodeURI(USER));
+        getSparqlService().executeUpdateQuery(update);
+        ApiCacheTags.invalidate(GroupDAO.CACHE_TAG);
+
+        ExperimentModel xp = new ExperimentModel();
+        xp.setUri(EXPERIMENT);
+        xp.setName("private experiment");
+        xp.setObjective("user experiments cache");
+        xp.setStartDate(LocalDate.now());
+        xp.setIsPublic(false);
+        dao.create(xp);
+    }
+
+    @Override
+    public void afterEach() throws Exception {
+        super.afterEach();
+        UserExperimentsCache.clear();
+    }
+
+    private boolean hasExperiment() throws Exception {
+        return dao.getUserExperiments(user).stream()
+                .anyMatch(uri -> SPARQLDeserializers.compareURIs(uri, EXPERIMENT))
+                && dao.getUserExpandedExperiments(user).contains(URI.create(SPARQLDeserializers.getExpandedURI(EXPERIMENT)));
+    }
+
+    private void setGroups(GroupModel... groups) throws Exception {
+        ExperimentModel xp = dao.get(EXPERIMENT, UserModel.getSystemUser());
+        xp.setGroups(Arrays.asList(groups));
+        dao.update(xp, UserModel.getSystemUser());
+    }
+
+    @Test
+    public void testEntryUpdatedAfterModifications() throws Exception {
+        assertFalse(hasExperiment());
+        UserExperimentsCache.UserExperiments entry = UserExperimentsCache.get(USER);
+        assertNotNull(entry);
+
+        // entry is reused while nothing is modified
+        assertFalse(hasExperiment());
+        assertSame(entry, UserExperimentsCache.get(USER));
+
+        // grant the user group
+        GroupModel group = new GroupModel();
+        group.setUri(GROUP);
+        setGroups(group);
+        assertTrue(hasExperiment());
+
+        // revoke the user group
+        setGroups();
+        assertFalse(hasExperiment());
+
+        // delete the experiment
+        setGroups(group);
+        assertTrue(hasExperiment());
+        dao.delete(EXPERIMENT, UserModel.getSystemUser());
+        assertFalse(hasExperiment());
+    }
+
+    @Test
+    public void testClearedWhenFull() {
+        HashMap<String, Long> versions = UserExperimentsCache.getVersions();
+        List<URI> experiments = Collections.singletonList(EXPERIMENT);
+
+        for (int i = 0; i < UserExperimentsCache.MAX_USERS; i++) {
+            UserExperimentsCache.put(URI.create(NS + "user/" + i), versions, experiments);
+        }
+        assertNotNull(UserExperimentsCache.get(URI.create(NS + "user/0")));
+        assertNotNull(UserExperimentsCache.get(URI.create(NS + "user/" + (UserExperimentsCache.MAX_USERS - 1))));
+
+        // the cache is full, all entries are dropped before adding a new one
+        UserExperimentsCache.put(USER, versions, experiments);
+        assertNull(UserExperimentsCache.get(URI.create(NS + "user/0")));
+        assertNull(UserExperimentsCache.get(URI.create(NS + "user/" + (UserExperimentsCache.MAX_USERS - 1))));
+        assertEquals(Collections.singleton(EXPERIMENT), UserExperimentsCache.get(USER).getURIs());
+    }
+}
@@ -23,6 +23,9 @@ import org.opensilex.nosql.mongodb.MongoDBService;
 import org.opensilex.sparql.deserializer.SPARQLDeserializers;
 import org.opensilex.utils.ListWithPagination;
 
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.HashMap;
@@ -261,6 +264,32 @@ public class GeospatialDAOTest extends AbstractMongoIntegrationTest {
         TestCase.assertNotNull(geometryByUrisWithoutUriExperience);
     }
 
+    @Test
+    public void testGetTile() throws Exception {
+        GeospatialModel geospatial = getGeospatialModel("Polygon", new URI("http://opensilex/Geospatial/G_884"), false);
+        geospatialDAO.create(geospatial);
+
+        // tile containing the polygon at zoom 18
+        int z = 18;
+        double lon = 3.97170272;
+        double lat = 43.61328981;
+        int x = (int) Math.floor((lon + 180) / 360 * (1 << z));
+        int y = (int) Math.floor((1 - Math.log(Math.tan(Math.toRadians(lat)) + 1 / Math.cos(Math.toRadians(lat))) / Math.PI) / 2 * (1 << z));
+
+        GeospatialTileDAO tileDAO = new GeospatialTileDAO(getMongoDBService());
+        int count = getTileFeaturesCount(tileDAO.getTile(geospatial.getGraph(), z, x, y));
+        TestCase.assertTrue(count > 0);
+        TestCase.assertEquals(0, getTileFeaturesCount(tileDAO.getTile(geospatial.getGraph(), z, x + 10, y)));
+
+        // cached tile is invalidated by the deletion
+        geospatialDAO.delete(geospatial.getUri(), geospatial.getGraph());
+        TestCase.assertEquals(count - 1, getTileFeaturesCount(tileDAO.getTile(geospatial.getGraph(), z, x, y)));
+    }
+
+    private static int getTileFeaturesCount(byte[] tile) throws IOException {
+        return new DataInputStream(new ByteArrayInputStream(tile)).readInt();
+    }
+
     @Ignore("this test is not ready yet (sparql problem)")
     @Test
     public void testSearchIntersectsArea() throws Exception {
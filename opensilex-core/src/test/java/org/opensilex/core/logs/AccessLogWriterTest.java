@@ -0,0 +1,86 @@
+//******************************************************************************
+//                          AccessLogWriterTest.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.logs;
+
+import org.junit.Test;
+import org.opensilex.core.logs.dal.LogModel;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class AccessLogWriterTest {
+
+    @Test
+    public void testLogsAreWrittenByBatch() throws Exception {
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        AccessLogWriter writer = new AccessLogWriter(batch -> batchSizes.add(batch.size()), 1000, 10, 50, AccessLogWriter.OverflowPolicy.DROP, 1);
+        writer.start();
+
+        for (int i = 0; i < 95; i++) {
+            assertTrue(writer.log(new LogModel()));
+        }
+        writer.close();
+
+        assertEquals(95, writer.getWrittenCount());
+        assertEquals(0, writer.getDroppedCount());
+        assertEquals(95, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 10));
+    }
+
+    @Test
+    public void testLogsAreDroppedWhenBufferIsFull() throws Exception {
+        CountDownLatch writeStarted = new CountDownLatch(1);
+        CountDownLatch releaseWrite = new CountDownLatch(1);
+        AccessLogWriter writer = new AccessLogWriter(batch -> {
+            writeStarted.countDown();
+            releaseWrite.await();
+        }, 10, 1, 50, AccessLogWriter.OverflowPolicy.DROP, 1);
+        writer.start();
+
+        // block writer thread on first log, then fill buffer
+        assertTrue(writer.log(new LogModel()));
+        assertTrue(writeStarted.await(1, TimeUnit.MINUTES));
+        for (int i = 0; i < 100; i++) {
+            writer.log(new LogModel());
+        }
+        assertEquals(10, writer.getPendingCount());
+        assertEquals(90, writer.getDroppedCount());
+
+        releaseWrite.countDown();
+        writer.close();
+        assertEquals(11, writer.getWrittenCount());
+    }
+
+    @Test
+    public void testLogsAreSampledUnderPressure() throws Exception {
+        CountDownLatch writeStarted = new CountDownLatch(1);
+        CountDownLatch releaseWrite = new CountDownLatch(1);
+        AccessLogWriter writer = new AccessLogWriter(batch -> {
+            writeStarted.countDown();
+            releaseWrite.await();
+        }, 100, 1, 50, AccessLogWriter.OverflowPolicy.SAMPLE, 10);
+        writer.start();
+
+        assertTrue(writer.log(new LogModel()));
+        assertTrue(writeStarted.await(1, TimeUnit.MINUTES));
+
+        // buffer is filled up to its half, then only one log of 10 is kept
+        for (int i = 0; i < 150; i++) {
+            writer.log(new LogModel());
+        }
+        assertEquals(60, writer.getPendingCount());
+        assertEquals(90, writer.getDroppedCount());
+
+        releaseWrite.countDown();
+        writer.close();
+        assertEquals(61, writer.getWrittenCount());
+    }
+}
@@ -0,0 +1,190 @@
+//******************************************************************************
+//                          MetricsCountersDAOTest.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.metrics.dal;
+
+import org.apache.jena.arq.querybuilder.UpdateBuilder;
+import org.bson.Document;
+import org.junit.Test;
+import org.opensilex.core.AbstractMongoIntegrationTest;
+import org.opensilex.core.data.dal.DataDAO;
+import org.opensilex.core.data.dal.DataModel;
+import org.opensilex.core.data.dal.DataProvenanceModel;
+import org.opensilex.core.device.dal.DeviceDAO;
+import org.opensilex.core.device.dal.DeviceModel;
+import org.opensilex.core.experiment.dal.ExperimentDAO;
+import org.opensilex.core.experiment.dal.ExperimentModel;
+import org.opensilex.core.germplasm.dal.GermplasmDAO;
+import org.opensilex.core.germplasm.dal.GermplasmModel;
+import org.opensilex.core.ontology.Oeso;
+import org.opensilex.core.scientificObject.dal.ScientificObjectDAO;
+import org.opensilex.core.scientificObject.dal.ScientificObjectModel;
+import org.opensilex.security.user.dal.UserModel;
+import org.opensilex.sparql.deserializer.SPARQLDeserializers;
+import org.opensilex.sparql.model.SPARQLLabel;
+import org.opensilex.sparql.model.SPARQLResourceModel;
+import org.opensilex.sparql.service.SPARQLService;
+
+import java.net.URI;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Check that creations, type changes and deletions update metrics counters.
+ */
+public class MetricsCountersDAOTest extends AbstractMongoIntegrationTest {
+
+    private static final URI EXPERIMENT = URI.create("test:experiment/metrics");
+
+    private static final URI VARIABLE = URI.create("test:variable/metrics");
+
+    @Override
+    protected List<String> getCollectionsToClearNames() {
+        return Arrays.asList(DataDAO.DATA_COLLECTION_NAME, MetricsCountersDAO.COUNTERS_COLLECTION);
+    }
+
+    @Override
+    protected List<Class<? extends SPARQLResourceModel>> getModelsToClean() {
+        return Arrays.asList(ExperimentModel.class, GermplasmModel.class, DeviceModel.class, ScientificObjectModel.class);
+    }
+
+    @Test
+    public void testDataCounters() throws Exception {
+        DataDAO dataDAO = new DataDAO(getMongoDBService(), null, null);
+        MetricsCountersDAO countersDAO = new MetricsCountersDAO(getMongoDBService());
+
+        List<DataModel> dataList = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            dataList.add(buildData(i));
+        }
+        dataDAO.createAll(dataList);
+        assertEquals(10, getDataCount(countersDAO, MetricsCounters.getScope(EXPERIMENT)));
+        assertEquals(10, getDataCount(countersDAO, MetricsCounters.SYSTEM_SCOPE));
+
+        dataDAO.delete(dataList.get(0).getUri());
+        dataDAO.delete(Arrays.asList(dataList.get(1).getUri(), dataList.get(2).getUri()));
+        assertEquals(7, getDataCount(countersDAO, MetricsCounters.getScope(EXPERIMENT)));
+        assertEquals(7, getDataCount(countersDAO, MetricsCounters.SYSTEM_SCOPE));
+
+        // stored counts are the same as incremental ones
+        MetricsCounters storedCounters = dataDAO.getStoredMetricsCounters(new Document());
+        countersDAO.replaceAll(storedCounters);
+        assertEquals(7, getDataCount(countersDAO, MetricsCounters.getScope(EXPERIMENT)));
+        assertEquals(7, getDataCount(countersDAO, MetricsCounters.SYSTEM_SCOPE));
+    }
+
+    @Test
+    public void testDeviceTypeChange() throws Exception {
+        DeviceDAO deviceDAO = new DeviceDAO(getSparqlService(), getMongoDBService(), null);
+        MetricsCountersDAO countersDAO = new MetricsCountersDAO(getMongoDBService());
+
+        DeviceModel device = new DeviceModel();
+        device.setName("metrics device");
+        device.setType(URI.create(Oeso.SensingDevice.getURI()));
+        deviceDAO.create(device, UserModel.getSystemUser());
+        assertEquals(1, getCount(countersDAO, MetricsCounters.SYSTEM_SCOPE, MetricsCounters.DEVICE_CATEGORY, Oeso.SensingDevice.getURI()));
+
+        device.setType(URI.create(Oeso.Software.getURI()));
+        deviceDAO.update(device, UserModel.getSystemUser());
+        assertEquals(0, getCount(countersDAO, MetricsCounters.SYSTEM_SCOPE, MetricsCounters.DEVICE_CATEGORY, Oeso.SensingDevice.getURI()));
+        assertEquals(1, getCount(countersDAO, MetricsCounters.SYSTEM_SCOPE, MetricsCounters.DEVICE_CATEGORY, Oeso.Software.getURI()));
+    }
+
+    @Test
+    public void testScientificObjectTypeChange() throws Exception {
+        SPARQLService sparql = getSparqlService();
+        ScientificObjectDAO objectDAO = new ScientificObjectDAO(sparql, getMongoDBService());
+        MetricsCountersDAO countersDAO = new MetricsCountersDAO(getMongoDBService());
+        URI globalGraph = sparql.getDefaultGraphURI(ScientificObjectModel.class);
+        String population = Oeso.NS + "Population";
+
+        ScientificObjectModel object = objectDAO.create(globalGraph, null, URI.create(Oeso.ScientificObject.getURI()), null, "metrics object", null, UserModel.getSystemUser());
+        assertEquals(1, getCount(countersDAO, MetricsCounters.SYSTEM_SCOPE, MetricsCounters.SCIENTIFIC_OBJECT_CATEGORY, Oeso.ScientificObject.getURI()));
+
+        objectDAO.update(globalGraph, URI.create(population), object.getUri(), "metrics object", null, UserModel.getSystemUser());
+        assertEquals(0, getCount(countersDAO, MetricsCounters.SYSTEM_SCOPE, MetricsCounters.SCIENTIFIC_OBJECT_CATEGORY, Oeso.ScientificObject.getURI()));
+        assertEquals(1, getCount(countersDAO, MetricsCounters.SYSTEM_SCOPE, MetricsCounters.SCIENTIFIC_OBJECT_CATEGORY, population));
+
+        objectDAO.delete(null, object.getUri());
+        assertEquals(0, getCount(countersDAO, MetricsCounters.SYSTEM_SCOPE, MetricsCounters.SCIENTIFIC_OBJECT_CATEGORY, population));
+    }
+
+    @Test
+    public void testExperimentGermplasmCounters() throws Exception {
+        SPARQLService sparql = getSparqlService();
+        GermplasmDAO germplasmDAO = new GermplasmDAO(sparql, getMongoDBService());
+        ExperimentDAO experimentDAO = new ExperimentDAO(sparql, getMongoDBService());
+        MetricsCountersDAO countersDAO = new MetricsCountersDAO(getMongoDBService());
+
+        GermplasmModel germplasm = new GermplasmModel();
+        germplasm.setLabel(new SPARQLLabel("metrics germplasm", ""));
+        germplasm.setType(URI.create(Oeso.Species.getURI()));
+        germplasmDAO.create(germplasm);
+        assertEquals(1, getCount(countersDAO, MetricsCounters.SYSTEM_SCOPE, MetricsCounters.GERMPLASM_CATEGORY, Oeso.Species.getURI()));
+
+        ExperimentModel experiment = new ExperimentModel();
+        experiment.setName("metrics experiment");
+        experiment.setObjective("metrics experiment");
+        experiment.setStartDate(LocalDate.now());
+        sparql.create(experiment);
+        String scope = MetricsCounters.getScope(experiment.getUri());
+
+        // two objects of the experiment use the germplasm, which is counted once
+        for (int i = 0; i < 2; i++) {
+            ScientificObjectModel object = new ScientificObjectModel();
+            object.setName("metrics object " + i);
+            sparql.create(SPARQLDeserializers.nodeURI(experiment.getUri()), object);
+            sparql.executeUpdateQuery(new UpdateBuilder().addInsert(
+                    SPARQLDeserializers.nodeURI(experiment.getUri()),
+                    SPARQLDeserializers.nodeURI(object.getUri()),
+                    Oeso.hasGermplasm,
+                    SPARQLDeserializers.nodeURI(germplasm.getUri())
+            ));
+        }
+        experimentDAO.updateExperimentSpeciesFromScientificObjects(experiment.getUri());
+        assertEquals(1, getCount(countersDAO, scope, MetricsCounters.GERMPLASM_CATEGORY, Oeso.Species.getURI()));
+
+        // same counts as rebuilt ones
+        countersDAO.replaceAll(MetricsDAO.getExperimentGermplasmCounts(sparql, experiment.getUri()));
+        assertEquals(1, getCount(countersDAO, scope, MetricsCounters.GERMPLASM_CATEGORY, Oeso.Species.getURI()));
+
+        germplasm.setType(URI.create(Oeso.Variety.getURI()));
+        germplasmDAO.update(germplasm);
+        assertEquals(0, getCount(countersDAO, scope, MetricsCounters.GERMPLASM_CATEGORY, Oeso.Species.getURI()));
+        assertEquals(1, getCount(countersDAO, scope, MetricsCounters.GERMPLASM_CATEGORY, Oeso.Variety.getURI()));
+
+        experimentDAO.delete(experiment.getUri(), UserModel.getSystemUser());
+        assertTrue(countersDAO.getCounts(Collections.singleton(scope)).isEmpty());
+    }
+
+    private static long getCount(MetricsCountersDAO countersDAO, String scope, String category, String item) {
+        return countersDAO.getCounts(Collections.singleton(scope))
+                .getOrDefault(scope, Collections.emptyMap())
+                .getOrDefault(category, Collections.emptyMap())
+                .getOrDefault(SPARQLDeserializers.getExpandedURI(item), 0L);
+    }
+
+    private static long getDataCount(MetricsCountersDAO countersDAO, String scope) {
+        return getCount(countersDAO, scope, MetricsCounters.DATA_CATEGORY, VARIABLE.toString());
+    }
+
+    private static DataModel buildData(int index) {
+        DataProvenanceModel provenance = new DataProvenanceModel();
+        provenance.setUri(URI.create("test:provenance/metrics"));
+        provenance.setExperiments(Collections.singletonList(EXPERIMENT));
+
+        DataModel data = new DataModel();
+        data.setTarget(URI.create("test:target/" + index));
+        data.setVariable(VARIABLE);
+        data.setProvenance(provenance);
+        data.setDate(Instant.now());
+        data.setValue(index);
+        return data;
+    }
+}
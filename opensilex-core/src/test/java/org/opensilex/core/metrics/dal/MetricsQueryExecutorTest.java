@@ -0,0 +1,57 @@
+//******************************************************************************
+//                          MetricsQueryExecutorTest.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.metrics.dal;
+
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Check merging, parallelism limit and error propagation of metrics queries.
+ */
+public class MetricsQueryExecutorTest {
+
+    private static final URI ITEM = URI.create("http://test.opensilex.org/metrics#item");
+
+    @Test
+    public void testMergeCounters() throws Exception {
+        int parallelism = 2;
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        try (MetricsQueryExecutor executor = new MetricsQueryExecutor(null, parallelism)) {
+            for (int i = 0; i < 20; i++) {
+                executor.submit("query " + i, () -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(5);
+                    running.decrementAndGet();
+                    return new MetricsCounters().add(MetricsCounters.SYSTEM_SCOPE, MetricsCounters.DATA_CATEGORY, ITEM, 1);
+                });
+            }
+
+            MetricsCounters counters = executor.join();
+            MetricsCounters.Key key = new MetricsCounters.Key(MetricsCounters.SYSTEM_SCOPE, MetricsCounters.DATA_CATEGORY, ITEM.toString());
+            assertEquals(Long.valueOf(20), counters.getVariations().get(key));
+            assertEquals(20, executor.getTimings().size());
+            assertTrue(maxRunning.get() <= parallelism);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testQueryError() throws Exception {
+        try (MetricsQueryExecutor executor = new MetricsQueryExecutor(null, 2)) {
+            executor.submit("ok", MetricsCounters::new);
+            executor.submit("error", () -> {
+                throw new IllegalStateException("query error");
+            });
+            executor.join();
+        }
+    }
+}
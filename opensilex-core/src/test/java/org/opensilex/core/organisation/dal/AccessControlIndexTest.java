@@ -0,0 +1,338 @@
+//******************************************************************************
+//                          AccessControlIndexTest.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.organisation.dal;
+
+import org.apache.jena.arq.querybuilder.SelectBuilder;
+import org.apache.jena.arq.querybuilder.UpdateBuilder;
+import org.apache.jena.arq.querybuilder.WhereBuilder;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.syntax.ElementGroup;
+import org.apache.jena.sparql.syntax.ElementOptional;
+import org.apache.jena.sparql.vocabulary.FOAF;
+import org.apache.jena.vocabulary.DCTerms;
+import org.apache.jena.vocabulary.RDF;
+import org.junit.Before;
+import org.junit.Test;
+import org.opensilex.core.experiment.dal.ExperimentDAO;
+import org.opensilex.core.experiment.dal.ExperimentModel;
+import org.opensilex.core.ontology.Oeso;
+import org.opensilex.integration.test.security.AbstractSecurityIntegrationTest;
+import org.opensilex.security.authentication.SecurityOntology;
+import org.opensilex.security.group.dal.GroupDAO;
+import org.opensilex.security.group.dal.GroupModel;
+import org.opensilex.security.user.dal.UserDAO;
+import org.opensilex.security.user.dal.UserModel;
+import org.opensilex.server.rest.cache.ApiCacheTags;
+import org.opensilex.sparql.deserializer.SPARQLDeserializers;
+import org.opensilex.sparql.deserializer.URIDeserializer;
+import org.opensilex.sparql.model.SPARQLResourceModel;
+import org.opensilex.sparql.service.SPARQLQueryHelper;
+import org.opensilex.sparql.service.SPARQLResult;
+import org.opensilex.sparql.service.SPARQLService;
+import org.opensilex.sparql.utils.Ontology;
+
+import java.net.URI;
+import java.util.*;
+
+import static org.junit.Assert.*;
+import static org.opensilex.sparql.service.SPARQLQueryHelper.makeVar;
+
+/**
+ * Check that {@link AccessControlIndex} gives the same answers as the SPARQL access control queries it replaces,
+ * which are kept in this test as reference.
+ */
+public class AccessControlIndexTest extends AbstractSecurityIntegrationTest {
+
+    private static final String NS = "http://opensilex.test/acl/";
+
+    private static final URI USER_IN_GROUP = URI.create(NS + "user/inGroup");
+    private static final URI USER_CREATOR = URI.create(NS + "user/creator");
+    private static final URI USER_SUPERVISOR = URI.create(NS + "user/supervisor");
+
+    private static final URI GROUP_ROOT = URI.create(NS + "group/root");
+    private static final URI GROUP_CREATED = URI.create(NS + "group/created");
+
+    private static final URI ORGANIZATION_ROOT = URI.create(NS + "organization/root");
+    private static final URI ORGANIZATION_CHILD = URI.create(NS + "organization/child");
+    private static final URI ORGANIZATION_GRAND_CHILD = URI.create(NS + "organization/grandChild");
+    private static final URI ORGANIZATION_WITHOUT_GROUP = URI.create(NS + "organization/withoutGroup");
+    private static final URI ORGANIZATION_CREATED = URI.create(NS + "organization/created");
+
+    private static final URI FACILITY_ROOT = URI.create(NS + "facility/root");
+    private static final URI FACILITY_WITHOUT_GROUP = URI.create(NS + "facility/withoutGroup");
+    private static final URI FACILITY_CREATED = URI.create(NS + "facility/created");
+
+    private static final URI EXPERIMENT_PUBLIC = URI.create(NS + "experiment/public");
+    private static final URI EXPERIMENT_GROUP = URI.create(NS + "experiment/group");
+    private static final URI EXPERIMENT_SCIENTIFIC_SUPERVISOR = URI.create(NS + "experiment/scientificSupervisor");
+    private static final URI EXPERIMENT_TECHNICAL_SUPERVISOR = URI.create(NS + "experiment/technicalSupervisor");
+    private static final URI EXPERIMENT_CREATED = URI.create(NS + "experiment/created");
+    private static final URI EXPERIMENT_PRIVATE = URI.create(NS + "experiment/private");
+
+    @Override
+    protected List<Class<? extends SPARQLResourceModel>> getModelsToClean() {
+        return Arrays.asList(InfrastructureModel.class, InfrastructureFacilityModel.class, ExperimentModel.class, GroupModel.class);
+    }
+
+    @Before
+    public void createResources() throws Exception {
+        SPARQLService sparql = getSparqlService();
+        Node organizationGraph = sparql.getDefaultGraph(InfrastructureModel.class);
+        Node facilityGraph = sparql.getDefaultGraph(InfrastructureFacilityModel.class);
+        Node experimentGraph = sparql.getDefaultGraph(ExperimentModel.class);
+        Node groupGraph = sparql.getDefaultGraph(GroupModel.class);
+
+        UpdateBuilder update = new UpdateBuilder();
+
+        addMember(update, groupGraph, GROUP_ROOT, USER_IN_GROUP);
+        addMember(update, groupGraph, GROUP_CREATED, USER_SUPERVISOR);
+
+        // the root group is inherited by the child and grand child through hasPart
+        for (URI organization : Arrays.asList(ORGANIZATION_ROOT, ORGANIZATION_CHILD, ORGANIZATION_GRAND_CHILD, ORGANIZATION_WITHOUT_GROUP, ORGANIZATION_CREATED)) {
+            addTriple(update, organizationGraph, organization, RDF.type, FOAF.Organization);
+        }
+        addTriple(update, organizationGraph, ORGANIZATION_ROOT, SecurityOntology.hasGroup, GROUP_ROOT);
+        addTriple(update, organizationGraph, ORGANIZATION_ROOT, Oeso.hasPart, ORGANIZATION_CHILD);
+        addTriple(update, organizationGraph, ORGANIZATION_CHILD, Oeso.hasPart, ORGANIZATION_GRAND_CHILD);
+        addTriple(update, organizationGraph, ORGANIZATION_CREATED, SecurityOntology.hasGroup, GROUP_CREATED);
+        addTriple(update, organizationGraph, ORGANIZATION_CREATED, DCTerms.creator, USER_CREATOR);
+
+        // facilities are hosted by organizations, the root facility is hosted by an organization only accessible to its group
+        addTriple(update, facilityGraph, ORGANIZATION_ROOT, Oeso.isHosted, FACILITY_ROOT);
+        addTriple(update, facilityGraph, ORGANIZATION_WITHOUT_GROUP, Oeso.isHosted, FACILITY_WITHOUT_GROUP);
+        addTriple(update, facilityGraph, ORGANIZATION_CREATED, Oeso.isHosted, FACILITY_CREATED);
+
+        for (URI experiment : Arrays.asList(EXPERIMENT_PUBLIC, EXPERIMENT_GROUP, EXPERIMENT_SCIENTIFIC_SUPERVISOR, EXPERIMENT_TECHNICAL_SUPERVISOR, EXPERIMENT_CREATED, EXPERIMENT_PRIVATE)) {
+            addTriple(update, experimentGraph, experiment, RDF.type, Oeso.Experiment);
+        }
+        update.addInsert(experimentGraph, SPARQLDeserializers.nodeURI(EXPERIMENT_PUBLIC), Oeso.isPublic, true);
+        update.addInsert(experimentGraph, SPARQLDeserializers.nodeURI(EXPERIMENT_PRIVATE), Oeso.isPublic, false);
+        addTriple(update, experimentGraph, EXPERIMENT_GROUP, SecurityOntology.hasGroup, GROUP_ROOT);
+        addTriple(update, experimentGraph, EXPERIMENT_SCIENTIFIC_SUPERVISOR, Oeso.hasScientificSupervisor, USER_SUPERVISOR);
+        addTriple(update, experimentGraph, EXPERIMENT_TECHNICAL_SUPERVISOR, Oeso.hasTechnicalSupervisor, USER_SUPERVISOR);
+        addTriple(update, experimentGraph, EXPERIMENT_CREATED, DCTerms.creator, USER_CREATOR);
+
+        sparql.executeUpdateQuery(update);
+        invalidateIndex();
+    }
+
+    @Test
+    public void testOrganizations() throws Exception {
+        assertAccessible(AccessControlIndex.getUserOrganizations(getSparqlService(), getUser(USER_IN_GROUP)),
+                ORGANIZATION_ROOT, ORGANIZATION_CHILD, ORGANIZATION_GRAND_CHILD, ORGANIZATION_WITHOUT_GROUP);
+        assertAccessible(AccessControlIndex.getUserOrganizations(getSparqlService(), getUser(USER_CREATOR)),
+                ORGANIZATION_WITHOUT_GROUP, ORGANIZATION_CREATED);
+        assertAccessible(AccessControlIndex.getUserOrganizations(getSparqlService(), getUser(USER_SUPERVISOR)),
+                ORGANIZATION_WITHOUT_GROUP, ORGANIZATION_CREATED);
+
+        for (URI user : getUsers()) {
+            assertEquals(getReferenceOrganizations(getUser(user)), AccessControlIndex.getUserOrganizations(getSparqlService(), getUser(user)));
+        }
+    }
+
+    @Test
+    public void testFacilities() throws Exception {
+        assertAccessible(AccessControlIndex.getUserFacilities(getSparqlService(), getUser(USER_IN_GROUP)),
+                FACILITY_ROOT, FACILITY_WITHOUT_GROUP);
+        assertAccessible(AccessControlIndex.getUserFacilities(getSparqlService(), getUser(USER_CREATOR)),
+                FACILITY_WITHOUT_GROUP, FACILITY_CREATED);
+        assertFalse(AccessControlIndex.isFacilityAccessible(getSparqlService(), FACILITY_ROOT, getUser(USER_SUPERVISOR)));
+
+        for (URI user : getUsers()) {
+            assertEquals(getReferenceFacilities(getUser(user)), AccessControlIndex.getUserFacilities(getSparqlService(), getUser(user)));
+        }
+    }
+
+    @Test
+    public void testExperiments() throws Exception {
+        assertAccessible(AccessControlIndex.getUserExperiments(getSparqlService(), getUser(USER_IN_GROUP)),
+                EXPERIMENT_PUBLIC, EXPERIMENT_GROUP);
+        assertAccessible(AccessControlIndex.getUserExperiments(getSparqlService(), getUser(USER_CREATOR)),
+                EXPERIMENT_PUBLIC, EXPERIMENT_CREATED);
+        assertAccessible(AccessControlIndex.getUserExperiments(getSparqlService(), getUser(USER_SUPERVISOR)),
+                EXPERIMENT_PUBLIC, EXPERIMENT_SCIENTIFIC_SUPERVISOR, EXPERIMENT_TECHNICAL_SUPERVISOR);
+
+        for (URI user : getUsers()) {
+            assertEquals(getReferenceExperiments(getUser(user)), AccessControlIndex.getUserExperiments(getSparqlService(), getUser(user)));
+        }
+    }
+
+    @Test
+    public void testAdminIsNotFiltered() throws Exception {
+        UserModel admin = getUser(USER_IN_GROUP);
+        admin.setAdmin(true);
+
+        assertNull(AccessControlIndex.getUserOrganizations(getSparqlService(), admin));
+        assertNull(AccessControlIndex.getUserFacilities(getSparqlService(), admin));
+        assertNull(AccessControlIndex.getUserExperiments(getSparqlService(), admin));
+        assertTrue(AccessControlIndex.isExperimentAccessible(getSparqlService(), EXPERIMENT_PRIVATE, admin));
+    }
+
+    @Test
+    public void testReloadAfterInvalidation() throws Exception {
+        UserModel user = getUser(USER_IN_GROUP);
+        assertTrue(AccessControlIndex.isOrganizationAccessible(getSparqlService(), ORGANIZATION_GRAND_CHILD, user));
+
+        SPARQLService sparql = getSparqlService();
+        UpdateBuilder update = new UpdateBuilder();
+        update.addDelete(sparql.getDefaultGraph(InfrastructureModel.class),
+                SPARQLDeserializers.nodeURI(ORGANIZATION_ROOT), Oeso.hasPart, SPARQLDeserializers.nodeURI(ORGANIZATION_CHILD));
+        sparql.executeUpdateQuery(update);
+
+        // the child has no group anymore : accessible to everyone
+        ApiCacheTags.invalidate(InfrastructureDAO.ORGANIZATION_CACHE_TAG);
+        assertTrue(AccessControlIndex.isOrganizationAccessible(sparql, ORGANIZATION_CHILD, getUser(USER_CREATOR)));
+        assertEquals(getReferenceOrganizations(getUser(USER_CREATOR)), AccessControlIndex.getUserOrganizations(sparql, getUser(USER_CREATOR)));
+    }
+
+    private static void invalidateIndex() {
+        ApiCacheTags.invalidate(
+                GroupDAO.CACHE_TAG,
+                UserDAO.CACHE_TAG,
+                InfrastructureDAO.ORGANIZATION_CACHE_TAG,
+                InfrastructureDAO.FACILITY_CACHE_TAG,
+                ExperimentDAO.CACHE_TAG
+        );
+    }
+
+    private static List<URI> getUsers() {
+        return Arrays.asList(USER_IN_GROUP, USER_CREATOR, USER_SUPERVISOR);
+    }
+
+    private static UserModel getUser(URI uri) {
+        UserModel user = new UserModel();
+        user.setUri(uri);
+        user.setAdmin(false);
+        return user;
+    }
+
+    private static void addMember(UpdateBuilder update, Node graph, URI group, URI user) {
+        URI profile = URI.create(group + "/profile/" + user.hashCode());
+        addTriple(update, graph, group, SecurityOntology.hasUserProfile, profile);
+        addTriple(update, graph, profile, SecurityOntology.hasUser, user);
+    }
+
+    private static void addTriple(UpdateBuilder update, Node graph, URI subject, Property property, URI object) {
+        update.addInsert(graph, SPARQLDeserializers.nodeURI(subject), property, SPARQLDeserializers.nodeURI(object));
+    }
+
+    private static void addTriple(UpdateBuilder update, Node graph, URI subject, Property property, Resource object) {
+        update.addInsert(graph, SPARQLDeserializers.nodeURI(subject), property, object);
+    }
+
+    private static void assertAccessible(Set<URI> accessible, URI... expected) {
+        Set<URI> testResources = new HashSet<>();
+        for (URI uri : accessible) {
+            if (SPARQLDeserializers.getExpandedURI(uri).startsWith(NS)) {
+                testResources.add(uri);
+            }
+        }
+
+        Set<URI> expectedResources = new HashSet<>();
+        for (URI uri : expected) {
+            expectedResources.add(URIDeserializer.formatURI(uri));
+        }
+        assertEquals(expectedResources, testResources);
+    }
+
+    private Set<URI> getURIs(SelectBuilder select, Var var) throws Exception {
+        Set<URI> uris = new HashSet<>();
+        for (SPARQLResult result : getSparqlService().executeSelectQuery(select)) {
+            uris.add(URIDeserializer.formatURI(result.getStringValue(var.getVarName())));
+        }
+        return uris;
+    }
+
+    /**
+     * Organization access clause, as previously added to organization queries : the user belongs to a group of the
+     * organization or of its ascendants, or is its creator, or the organization and its ascendants have no group
+     */
+    private void addReferenceOrganizationAccess(SelectBuilder select, Var organizationVar, UserModel user) throws Exception {
+        OrganizationSPARQLHelper helper = new OrganizationSPARQLHelper(getSparqlService());
+        Var userVar = makeVar("_userURI");
+        Var creatorVar = makeVar("_creator");
+
+        WhereBuilder userInGroupOrCreator = new WhereBuilder();
+        userInGroupOrCreator.addOptional(helper.buildOrganizationGroupUserClause(organizationVar, userVar));
+        userInGroupOrCreator.addOptional(helper.buildOrganizationCreatorClause(organizationVar, creatorVar));
+        userInGroupOrCreator.addFilter(SPARQLQueryHelper.or(
+                SPARQLQueryHelper.and(SPARQLQueryHelper.bound(userVar), SPARQLQueryHelper.eq(userVar, SPARQLDeserializers.nodeURI(user.getUri()))),
+                SPARQLQueryHelper.and(SPARQLQueryHelper.bound(creatorVar), SPARQLQueryHelper.eq(creatorVar, user.getUri()))
+        ));
+        userInGroupOrCreator.addUnion(helper.buildNoGroupOrganizationSelect(organizationVar, null));
+
+        select.addWhere(userInGroupOrCreator);
+    }
+
+    private Set<URI> getReferenceOrganizations(UserModel user) throws Exception {
+        Var uriVar = makeVar("uri");
+        Var typeVar = makeVar("_type");
+        SelectBuilder select = new SelectBuilder()
+                .setDistinct(true)
+                .addVar(uriVar)
+                .addWhere(typeVar, Ontology.subClassAny, FOAF.Organization)
+                .addGraph(getSparqlService().getDefaultGraph(InfrastructureModel.class), uriVar, RDF.type, typeVar);
+        addReferenceOrganizationAccess(select, uriVar, user);
+        return getURIs(select, uriVar);
+    }
+
+    private Set<URI> getReferenceFacilities(UserModel user) throws Exception {
+        Var uriVar = makeVar("uri");
+        Var organizationVar = makeVar("organization");
+        SelectBuilder select = new SelectBuilder()
+                .setDistinct(true)
+                .addVar(uriVar)
+                .addWhere(organizationVar, Oeso.isHosted, uriVar);
+        addReferenceOrganizationAccess(select, organizationVar, user);
+        return getURIs(select, uriVar);
+    }
+
+    /**
+     * Experiment access filter, as previously added to experiment queries : the experiment is public, or the user
+     * belongs to one of its groups, is one of its supervisors or its creator
+     */
+    private Set<URI> getReferenceExperiments(UserModel user) throws Exception {
+        Var uriVar = makeVar("uri");
+        Var userProfileVar = makeVar("_userProfile");
+        Var userVar = makeVar("_user");
+        Var groupVar = makeVar("_group");
+        Var scientificSupervisorVar = makeVar("_scientificSupervisor");
+        Var technicalSupervisorVar = makeVar("_technicalSupervisor");
+        Var isPublicVar = makeVar("_isPublic");
+        Var creatorVar = makeVar("_creator");
+        Node userNodeURI = SPARQLDeserializers.nodeURI(user.getUri());
+
+        SelectBuilder select = new SelectBuilder()
+                .setDistinct(true)
+                .addVar(uriVar)
+                .addGraph(getSparqlService().getDefaultGraph(ExperimentModel.class), uriVar, RDF.type, Oeso.Experiment);
+
+        ElementGroup optionals = new ElementGroup();
+        optionals.addTriplePattern(new Triple(uriVar, SecurityOntology.hasGroup.asNode(), groupVar));
+        optionals.addTriplePattern(new Triple(groupVar, SecurityOntology.hasUserProfile.asNode(), userProfileVar));
+        optionals.addTriplePattern(new Triple(userProfileVar, SecurityOntology.hasUser.asNode(), userVar));
+        select.getWhereHandler().getClause().addElement(new ElementOptional(optionals));
+
+        select.addOptional(new Triple(uriVar, Oeso.hasScientificSupervisor.asNode(), scientificSupervisorVar));
+        select.addOptional(new Triple(uriVar, Oeso.hasTechnicalSupervisor.asNode(), technicalSupervisorVar));
+        select.addOptional(new Triple(uriVar, Oeso.isPublic.asNode(), isPublicVar));
+        select.addOptional(new Triple(uriVar, DCTerms.creator.asNode(), creatorVar));
+
+        select.addFilter(SPARQLQueryHelper.or(
+                SPARQLQueryHelper.eq(userVar, userNodeURI),
+                SPARQLQueryHelper.eq(scientificSupervisorVar, userNodeURI),
+                SPARQLQueryHelper.eq(technicalSupervisorVar, userNodeURI),
+                SPARQLQueryHelper.eq(isPublicVar, Boolean.TRUE),
+                SPARQLQueryHelper.eq(creatorVar, userNodeURI)
+        ));
+        return getURIs(select, uriVar);
+    }
+}
@@ -0,0 +1,250 @@
+//******************************************************************************
+//                          AbstractOntologyStoreTest.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.ontology.store;
+
+import org.apache.commons.collections4.trie.PatriciaTrie;
+import org.apache.jena.vocabulary.XSD;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.SimpleDirectedGraph;
+import org.junit.Before;
+import org.junit.Test;
+import org.opensilex.integration.test.security.AbstractSecurityIntegrationTest;
+import org.opensilex.sparql.deserializer.SPARQLDeserializers;
+import org.opensilex.sparql.exceptions.SPARQLException;
+import org.opensilex.sparql.exceptions.SPARQLInvalidURIException;
+import org.opensilex.sparql.model.VocabularyModel;
+import org.opensilex.sparql.ontology.dal.ClassModel;
+import org.opensilex.sparql.ontology.dal.DatatypePropertyModel;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+/**
+ * Check that incremental reloads of the ontology store give the same content as the SPARQL repository,
+ * and that readers keep the previous snapshot until the new one is published.
+ */
+public class AbstractOntologyStoreTest extends AbstractSecurityIntegrationTest {
+
+    private static final String NS = "http://opensilex.test/ontology-store/";
+
+    private static final URI GRAPH = URI.create(NS + "graph");
+    private static final URI CLASS = URI.create(NS + "Class");
+    private static final URI SUB_CLASS = URI.create(NS + "SubClass");
+    private static final URI PARENT_CLASS = URI.create(NS + "ParentClass");
+    private static final URI PROPERTY = URI.create(NS + "hasValue");
+    private static final URI RESTRICTION = URI.create(NS + "Class_hasValue");
+
+    private static final String PREFIXES = "PREFIX owl: <http://www.w3.org/2002/07/owl#> \n" +
+            "PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#> \n" +
+            "PREFIX xsd: <http://www.w3.org/2001/XMLSchema#> \n";
+
+    /**
+     * Models map supplier which can block the store just before a new snapshot is published
+     */
+    private static class PublishBarrier implements Supplier<Map<String, VocabularyModel<?>>> {
+
+        private final CountDownLatch reached = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile boolean armed = false;
+
+        @Override
+        public Map<String, VocabularyModel<?>> get() {
+            if (armed) {
+                reached.countDown();
+                try {
+                    release.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return new PatriciaTrie<>();
+        }
+    }
+
+    private PublishBarrier barrier;
+
+    private AbstractOntologyStore store;
+
+    /**
+     * Number of full loads, used to check that incremental reloads don't fall back to load()
+     */
+    private final AtomicInteger loadCount = new AtomicInteger();
+
+    @Before
+    public void createStore() throws Exception {
+        barrier = new PublishBarrier();
+        store = new AbstractOntologyStore(getSparqlService(), getOpensilex(), barrier, () -> new SimpleDirectedGraph<>(DefaultEdge.class)) {
+            @Override
+            public synchronized void load() throws SPARQLException {
+                loadCount.incrementAndGet();
+                super.load();
+            }
+        };
+
+        insert("<" + CLASS + "> a owl:Class ; rdfs:label \"class\"@en .");
+        store.load();
+        loadCount.set(0);
+    }
+
+    @Override
+    public void afterEach() throws Exception {
+        getSparqlService().clearGraph(GRAPH);
+    }
+
+    private void insert(String triples) throws Exception {
+        getSparqlService().executeUpdateQuery(PREFIXES + "INSERT DATA { GRAPH <" + GRAPH + "> { " + triples + " } }");
+    }
+
+    private void delete(String triples) throws Exception {
+        getSparqlService().executeUpdateQuery(PREFIXES + "DELETE DATA { GRAPH <" + GRAPH + "> { " + triples + " } }");
+    }
+
+    private String getLabel(URI classURI) throws Exception {
+        return store.getClassModel(classURI, null, "en").getLabel().getDefaultValue();
+    }
+
+    private boolean hasSubClass(URI classURI, URI subClassURI) throws Exception {
+        return store.getSubClassesURIs(classURI).stream()
+                .anyMatch(uri -> SPARQLDeserializers.compareURIs(uri, subClassURI.toString()));
+    }
+
+    @Test
+    public void testReloadClasses() throws Exception {
+
+        // create
+        insert("<" + SUB_CLASS + "> a owl:Class ; rdfs:label \"sub class\"@en ; rdfs:subClassOf <" + CLASS + "> .");
+        store.reloadClasses(Collections.singletonList(SUB_CLASS));
+
+        ClassModel subClass = store.getClassModel(SUB_CLASS, null, "en");
+        assertEquals("sub class", subClass.getLabel().getDefaultValue());
+        assertTrue(SPARQLDeserializers.compareURIs(CLASS, subClass.getParent().getUri()));
+        assertTrue(store.classExist(SUB_CLASS, CLASS));
+        assertTrue(hasSubClass(CLASS, SUB_CLASS));
+
+        // update
+        delete("<" + SUB_CLASS + "> rdfs:label \"sub class\"@en .");
+        insert("<" + SUB_CLASS + "> rdfs:label \"updated sub class\"@en .");
+        store.reloadClasses(Collections.singletonList(SUB_CLASS));
+        assertEquals("updated sub class", getLabel(SUB_CLASS));
+        assertTrue(store.classExist(SUB_CLASS, CLASS));
+
+        // delete
+        delete("<" + SUB_CLASS + "> a owl:Class ; rdfs:label \"updated sub class\"@en ; rdfs:subClassOf <" + CLASS + "> .");
+        store.reloadClasses(Collections.singletonList(SUB_CLASS));
+        assertFalse(store.classExist(SUB_CLASS, null));
+        assertFalse(hasSubClass(CLASS, SUB_CLASS));
+        assertThrows(SPARQLInvalidURIException.class, () -> store.getClassModel(SUB_CLASS, null, "en"));
+        assertEquals("class", getLabel(CLASS));
+        assertEquals(0, loadCount.get());
+    }
+
+    @Test
+    public void testReloadProperties() throws Exception {
+
+        // create
+        insert("<" + PROPERTY + "> a owl:DatatypeProperty ; rdfs:label \"value\"@en ; rdfs:domain <" + CLASS + "> ; rdfs:range xsd:string .");
+        store.reloadProperties(Collections.singletonList(PROPERTY));
+
+        DatatypePropertyModel property = store.getDataProperty(PROPERTY, CLASS, "en");
+        assertEquals("value", property.getLabel().getDefaultValue());
+        assertTrue(SPARQLDeserializers.compareURIs(XSD.xstring.getURI(), property.getRange()));
+        assertTrue(store.getClassModel(CLASS, null, "en").getDatatypeProperties().keySet().stream()
+                .anyMatch(uri -> SPARQLDeserializers.compareURIs(uri, PROPERTY)));
+
+        // update
+        delete("<" + PROPERTY + "> rdfs:range xsd:string .");
+        insert("<" + PROPERTY + "> rdfs:range xsd:integer .");
+        store.reloadProperties(Collections.singletonList(PROPERTY));
+        property = store.getDataProperty(PROPERTY, CLASS, "en");
+        assertTrue(SPARQLDeserializers.compareURIs(XSD.integer.getURI(), property.getRange()));
+
+        // delete
+        delete("<" + PROPERTY + "> a owl:DatatypeProperty ; rdfs:label \"value\"@en ; rdfs:domain <" + CLASS + "> ; rdfs:range xsd:integer .");
+        store.reloadProperties(Collections.singletonList(PROPERTY));
+        assertThrows(SPARQLInvalidURIException.class, () -> store.getDataProperty(PROPERTY, CLASS, "en"));
+        assertTrue(store.getClassModel(CLASS, null, "en").getDatatypeProperties().keySet().stream()
+                .noneMatch(uri -> SPARQLDeserializers.compareURIs(uri, PROPERTY)));
+        assertEquals(0, loadCount.get());
+    }
+
+    @Test
+    public void testReloadRestrictions() throws Exception {
+        insert("<" + PROPERTY + "> a owl:DatatypeProperty ; rdfs:domain <" + CLASS + "> ; rdfs:range xsd:string .");
+        store.reloadProperties(Collections.singletonList(PROPERTY));
+
+        // create
+        String restriction = "<" + RESTRICTION + "> a owl:Restriction ; owl:onProperty <" + PROPERTY + "> ; " +
+                "owl:onDataRange xsd:string ; owl:qualifiedCardinality \"1\"^^xsd:nonNegativeInteger . " +
+                "<" + CLASS + "> rdfs:subClassOf <" + RESTRICTION + "> .";
+        insert(restriction);
+        store.reloadRestrictions(CLASS);
+        assertTrue(store.getClassModel(CLASS, null, "en").getRestrictionsByProperties().keySet().stream()
+                .anyMatch(uri -> SPARQLDeserializers.compareURIs(uri, PROPERTY)));
+
+        // delete
+        delete(restriction);
+        store.reloadRestrictions(CLASS);
+        assertTrue(store.getClassModel(CLASS, null, "en").getRestrictionsByProperties().isEmpty());
+        assertEquals(0, loadCount.get());
+    }
+
+    @Test
+    public void testReloadFallbackToLoad() throws Exception {
+
+        // the parent class is not reloaded, so the sub class can't be linked with the current snapshot
+        insert("<" + PARENT_CLASS + "> a owl:Class ; rdfs:label \"parent class\"@en . " +
+                "<" + SUB_CLASS + "> a owl:Class ; rdfs:label \"sub class\"@en ; rdfs:subClassOf <" + PARENT_CLASS + "> .");
+        store.reloadClasses(Collections.singletonList(SUB_CLASS));
+
+        // the whole store is loaded instead
+        assertEquals(1, loadCount.get());
+        assertEquals("parent class", getLabel(PARENT_CLASS));
+        assertEquals("sub class", getLabel(SUB_CLASS));
+        assertTrue(store.classExist(SUB_CLASS, PARENT_CLASS));
+        assertTrue(hasSubClass(PARENT_CLASS, SUB_CLASS));
+        assertEquals("class", getLabel(CLASS));
+    }
+
+    @Test
+    public void testReadersSeePreviousSnapshotDuringReload() throws Exception {
+        delete("<" + CLASS + "> rdfs:label \"class\"@en .");
+        insert("<" + CLASS + "> rdfs:label \"updated class\"@en .");
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            barrier.armed = true;
+            Future<?> reload = executor.submit(() -> {
+                store.reloadClasses(Collections.singletonList(CLASS));
+                return null;
+            });
+
+            // the new snapshot is linked but not published, readers aren't blocked and see the previous one
+            assertTrue(barrier.reached.await(30, TimeUnit.SECONDS));
+            assertEquals("class", getLabel(CLASS));
+            assertTrue(store.classExist(CLASS, null));
+
+            barrier.armed = false;
+            barrier.release.countDown();
+            reload.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals("updated class", getLabel(CLASS));
+        assertEquals(0, loadCount.get());
+    }
+}
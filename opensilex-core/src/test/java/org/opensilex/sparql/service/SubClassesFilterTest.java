@@ -0,0 +1,80 @@
+//******************************************************************************
+//                          SubClassesFilterTest.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.service;
+
+import org.apache.jena.arq.querybuilder.SelectBuilder;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.vocabulary.OWL2;
+import org.apache.jena.vocabulary.RDF;
+import org.junit.Test;
+import org.opensilex.core.ontology.Oeev;
+import org.opensilex.core.ontology.Oeso;
+import org.opensilex.integration.test.security.AbstractSecurityIntegrationTest;
+import org.opensilex.sparql.deserializer.SPARQLDeserializers;
+import org.opensilex.sparql.utils.Ontology;
+
+import java.net.URI;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Check that {@link SPARQLQueryHelper#subClassesFilter(Var, URI)} matches the same classes as a rdfs:subClassOf* property path.
+ */
+public class SubClassesFilterTest extends AbstractSecurityIntegrationTest {
+
+    private static final Var TYPE_VAR = SPARQLQueryHelper.makeVar("type");
+
+    private static SelectBuilder getClassesQuery() {
+        return new SelectBuilder()
+                .setDistinct(true)
+                .addVar(TYPE_VAR)
+                .addWhere(TYPE_VAR, RDF.type, OWL2.Class)
+                .addFilter(SPARQLQueryHelper.getExprFactory().isIRI(TYPE_VAR));
+    }
+
+    private Set<String> getTypes(SelectBuilder select) throws Exception {
+        return getSparqlService().executeSelectQueryAsStream(select)
+                .map(result -> SPARQLDeserializers.getExpandedURI(result.getStringValue(TYPE_VAR.getVarName())))
+                .collect(Collectors.toSet());
+    }
+
+    private Set<String> getTypesWithPropertyPath(URI classURI) throws Exception {
+        SelectBuilder select = getClassesQuery()
+                .addWhere(TYPE_VAR, Ontology.subClassAny, SPARQLDeserializers.nodeURI(classURI));
+        return getTypes(select);
+    }
+
+    private Set<String> getTypesWithFilter(URI classURI) throws Exception {
+        SelectBuilder select = getClassesQuery()
+                .addFilter(SPARQLQueryHelper.subClassesFilter(TYPE_VAR, classURI));
+        return getTypes(select);
+    }
+
+    private void assertSameTypes(URI classURI) throws Exception {
+        Set<String> expectedTypes = getTypesWithPropertyPath(classURI);
+        assertTrue(expectedTypes.contains(SPARQLDeserializers.getExpandedURI(classURI)));
+        assertEquals(expectedTypes, getTypesWithFilter(classURI));
+    }
+
+    @Test
+    public void testSameTypesAsPropertyPath() throws Exception {
+        assertSameTypes(URI.create(Oeso.ScientificObject.getURI()));
+        assertSameTypes(URI.create(Oeso.Device.getURI()));
+        assertSameTypes(URI.create(Oeso.SensingDevice.getURI()));
+        assertSameTypes(URI.create(Oeev.Event.getURI()));
+    }
+
+    @Test
+    public void testUnknownClass() throws Exception {
+        URI unknownClass = URI.create("http://opensilex.test/unknown-class");
+
+        assertTrue(getTypesWithPropertyPath(unknownClass).isEmpty());
+        assertTrue(getTypesWithFilter(unknownClass).isEmpty());
+    }
+}
@@ -33,6 +33,7 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -94,7 +95,7 @@ public class VueOwlExtensionAPI {
             ClassModel classModel = dto.toModel(currentUser.getLanguage());
             VueClassExtensionModel classExtModel = dto.getExtClassModel();
             dao.createExtendedClass(classModel, classExtModel);
-            SPARQLModule.getOntologyStoreInstance().reload();
+            SPARQLModule.getOntologyStoreInstance().reloadClasses(Collections.singletonList(classModel.getUri()));
 
             return new ObjectUriResponse(Response.Status.CREATED, classModel.getUri()).getResponse();
 
@@ -121,7 +122,7 @@ public class VueOwlExtensionAPI {
         ClassModel classModel = dto.toModel(currentUser.getLanguage());
         VueClassExtensionModel classExtModel = dto.getExtClassModel();
         dao.updateExtendedClass(classModel, classExtModel);
-        SPARQLModule.getOntologyStoreInstance().reload();
+        SPARQLModule.getOntologyStoreInstance().reloadClasses(Collections.singletonList(classModel.getUri()));
 
         return new ObjectUriResponse(Response.Status.CREATED, classModel.getUri()).getResponse();
     }
@@ -159,7 +160,7 @@ public class VueOwlExtensionAPI {
     ) throws Exception {
         VueOwlExtensionDAO dao = new VueOwlExtensionDAO(sparql);
         dao.deleteExtendedClass(classURI);
-        SPARQLModule.getOntologyStoreInstance().reload();
+        SPARQLModule.getOntologyStoreInstance().reloadClasses(Collections.singletonList(classURI));
         return new ObjectUriResponse(Response.Status.OK, classURI).getResponse();
     }
 
@@ -6,6 +6,9 @@
 //******************************************************************************
 package org.opensilex.server.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
 /**
  * Response metadata Pagination DTO.
  *
@@ -34,6 +37,11 @@ public class PaginationDTO {
      */
     private final long totalPages;
 
+    /**
+     * token to get next page in cursor pagination mode.
+     */
+    private final String continuationToken;
+
     /**
      * Empty constructor assume no pagination.
      */
@@ -42,6 +50,7 @@ public class PaginationDTO {
         this.currentPage = 0;
         this.totalCount = 0;
         this.totalPages = 0;
+        this.continuationToken = null;
     }
 
     /**
@@ -52,12 +61,27 @@ public class PaginationDTO {
      * @param totalCount Total item count
      */
     public PaginationDTO(long pageSize, long currentPage, long totalCount) {
+        this(pageSize, currentPage, totalCount, null);
+    }
+
+    /**
+     * Constructor for cursor pagination mode.
+     *
+     * @param pageSize Number of items per page
+     * @param currentPage Current page index (0 based)
+     * @param totalCount Total item count, negative if unknown
+     * @param continuationToken Token to get next page, null if there is no next page
+     */
+    public PaginationDTO(long pageSize, long currentPage, long totalCount, String continuationToken) {
         this.pageSize = pageSize;
+        this.continuationToken = continuationToken;
         this.currentPage = currentPage;
         this.totalCount = totalCount;
 
         // Add a page if the the total number of elements divided by the page
-        if (pageSize == 0) {
+        if (totalCount < 0) {
+            totalPages = -1;
+        } else if (pageSize == 0) {
             totalPages = 0;
         } else {
             if (totalCount % this.pageSize == 0) {
@@ -103,4 +127,14 @@ public class PaginationDTO {
     public long getTotalPages() {
         return totalPages;
     }
+
+    /**
+     * Getter for continuation token.
+     *
+     * @return continuation token
+     */
+    @JsonInclude(Include.NON_NULL)
+    public String getContinuationToken() {
+        return continuationToken;
+    }
 }
@@ -13,7 +13,10 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 /**
- * Api annotation to enable caching.
+ * Api annotation to enable caching of GET responses.
+ *
+ * Serialized responses are cached by request URI, Accept-Language header and user if response is user dependent.
+ * Cached entries are invalidated when one of their tags is invalidated by a DAO write with {@link ApiCacheTags#invalidate(String...)}.
  *
  * @author Vincent Migot
  */
@@ -37,10 +40,10 @@ public @interface ApiCache {
     public boolean userDependent() default false;
 
     /**
-     * List of cache categories to clear if this annotation is used on a non-GET API method.
+     * List of resource types tags on which the response depends.
      *
-     * @return List of categories identifier to clear.
+     * @return List of tags invalidating the cached response, if empty only the category is used as tag.
      */
-    public String[] clearCategories() default {};
+    public String[] tags() default {};
 
 }
@@ -0,0 +1,56 @@
+//******************************************************************************
+//                              ApiCacheEntry.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.server.rest.cache;
+
+import java.io.Serializable;
+import java.util.HashMap;
+
+/**
+ * Cached API response : serialized body with its media type, entity tag and tag versions.
+ */
+public class ApiCacheEntry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final byte[] body;
+
+    private final String mediaType;
+
+    private final String entityTag;
+
+    private final HashMap<String, Long> tagVersions;
+
+    public ApiCacheEntry(byte[] body, String mediaType, String entityTag, HashMap<String, Long> tagVersions) {
+        this.body = body;
+        this.mediaType = mediaType;
+        this.entityTag = entityTag;
+        this.tagVersions = tagVersions;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getEntityTag() {
+        return entityTag;
+    }
+
+    public HashMap<String, Long> getTagVersions() {
+        return tagVersions;
+    }
+
+    /**
+     * @return true if no tag of this entry was invalidated since its creation
+     */
+    public boolean isUpToDate() {
+        return ApiCacheTags.isUpToDate(tagVersions);
+    }
+}
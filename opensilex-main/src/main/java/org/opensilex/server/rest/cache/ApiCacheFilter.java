@@ -6,10 +6,20 @@
 //******************************************************************************
 package org.opensilex.server.rest.cache;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Method;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
-import java.util.logging.Level;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
 import javax.annotation.Priority;
 import javax.inject.Inject;
 import javax.ws.rs.HttpMethod;
@@ -20,15 +30,28 @@ import javax.ws.rs.container.ContainerResponseContext;
 import javax.ws.rs.container.ContainerResponseFilter;
 import javax.ws.rs.container.ResourceInfo;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.ext.MessageBodyWriter;
 import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.Providers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
+ * <pre>
  * Jersey filter for Api Cache.
  *
+ * For GET methods annotated with {@link ApiCache}, responses are serialized once and stored as bytes with their entity tag.
+ * Following requests with the same key are answered from cache, or with 304 Not Modified if the "If-None-Match" header
+ * match the entity tag.
+ * Cache keys are computed from the request path, the sorted query parameters, the current user language and the user
+ * if the response is user dependent.
+ * </pre>
+ *
  * @author Vincent Migot
  */
 @Provider
@@ -40,6 +63,22 @@ public class ApiCacheFilter implements ContainerRequestFilter, ContainerResponse
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(ApiCacheFilter.class);
 
+    /**
+     * Request property holding cache key of a response to store.
+     */
+    private static final String CACHE_KEY_PROPERTY = "opensilex.api.cache.key";
+
+    /**
+     * Request property holding tags versions read before response computation.
+     */
+    private static final String CACHE_TAGS_PROPERTY = "opensilex.api.cache.tags";
+
+    /**
+     * Request property holding the current user language, which must be set by authentication before this filter.
+     * Responses are translated in this language, so it is part of the cache key.
+     */
+    public static final String USER_LANGUAGE_PROPERTY = "opensilex.user.language";
+
     /**
      * Cache service.
      */
@@ -52,26 +91,22 @@ public class ApiCacheFilter implements ContainerRequestFilter, ContainerResponse
     @Context
     private ResourceInfo resourceInfo;
 
+    /**
+     * Providers used to serialize response entities.
+     */
+    @Context
+    private Providers providers;
+
     @Override
     public void filter(ContainerRequestContext context) throws IOException {
-        Method apiMethod = resourceInfo.getResourceMethod();
-        if (apiMethod != null) {
-            ApiCache cacheAnnotation = apiMethod.getAnnotation(ApiCache.class);
-            if (cacheAnnotation != null) {
-                switch (context.getRequest().getMethod()) {
-                    case HttpMethod.GET:
-                        loadCacheIfExists(context, cacheAnnotation);
-                        break;
-
-                    default:
-                        break;
-                }
-            }
+        ApiCache cacheAnnotation = getCacheAnnotation(context);
+        if (cacheAnnotation != null) {
+            loadCacheIfExists(context, cacheAnnotation);
         }
     }
 
     /**
-     * Load cache corresponding to given context.
+     * Load cache corresponding to given context, or register tags versions before response computation if there is no cache.
      *
      * @param context request context
      * @param cacheAnnotation cache annotation
@@ -79,11 +114,30 @@ public class ApiCacheFilter implements ContainerRequestFilter, ContainerResponse
     private void loadCacheIfExists(ContainerRequestContext context, ApiCache cacheAnnotation) {
         try {
             String key = computeCacheKey(context, cacheAnnotation);
-            if (this.cache.exists(cacheAnnotation.category(), key)) {
-                ContainerResponseContext responseContext = (ContainerResponseContext) this.cache.retrieve(cacheAnnotation.category(), key);
-                Response.ResponseBuilder responseCacheBuilder = Response.ok().entity(responseContext.getEntity());
-                context.abortWith(responseCacheBuilder.build());
+            Object cached = this.cache.retrieve(cacheAnnotation.category(), key);
+
+            if (cached instanceof ApiCacheEntry && ((ApiCacheEntry) cached).isUpToDate()) {
+                ApiCacheEntry entry = (ApiCacheEntry) cached;
+                EntityTag entityTag = new EntityTag(entry.getEntityTag());
+
+                Response.ResponseBuilder responseCacheBuilder = context.getRequest().evaluatePreconditions(entityTag);
+                if (responseCacheBuilder == null) {
+                    responseCacheBuilder = Response.ok(entry.getBody(), entry.getMediaType());
+                }
+                context.abortWith(responseCacheBuilder
+                        .tag(entityTag)
+                        .header(HttpHeaders.CACHE_CONTROL, getCacheControl(cacheAnnotation))
+                        .build());
+                return;
+            }
+
+            if (cached != null) {
+                this.cache.remove(cacheAnnotation.category(), key);
             }
+
+            // Read tags versions before response computation, so that a concurrent write invalidates the stored response
+            context.setProperty(CACHE_KEY_PROPERTY, key);
+            context.setProperty(CACHE_TAGS_PROPERTY, ApiCacheTags.getVersions(getTags(cacheAnnotation)));
         } catch (Throwable ex) {
             LOGGER.error("Error while loading cache", ex);
         }
@@ -91,43 +145,69 @@ public class ApiCacheFilter implements ContainerRequestFilter, ContainerResponse
 
     @Override
     public void filter(ContainerRequestContext context, ContainerResponseContext responseContext) throws IOException {
-        Method apiMethod = resourceInfo.getResourceMethod();
-        if (apiMethod != null) {
-
-            ApiCache cacheAnnotation = apiMethod.getAnnotation(ApiCache.class);
+        String key = (String) context.getProperty(CACHE_KEY_PROPERTY);
+        if (key != null) {
+            ApiCache cacheAnnotation = getCacheAnnotation(context);
             if (cacheAnnotation != null) {
-                switch (context.getRequest().getMethod()) {
-                    case HttpMethod.GET:
-                        storeCacheIfExists(context, cacheAnnotation, responseContext);
-                        break;
-                    case HttpMethod.POST:
-                        clear(cacheAnnotation);
-                        break;
-                    case HttpMethod.PUT:
-                        clear(cacheAnnotation);
-                        break;
-                    case HttpMethod.DELETE:
-                        clear(cacheAnnotation);
-                        break;
-                    default:
-                        break;
-                }
+                storeCacheIfExists(context, cacheAnnotation, key, responseContext);
             }
         }
     }
 
     /**
-     * Load cache corresponding to given context.
+     * Serialize response and store it in cache.
      *
      * @param context request context
      * @param cacheAnnotation cache annotation
+     * @param key cache key
+     * @param responseContext response context
      */
-    private void storeCacheIfExists(ContainerRequestContext context, ApiCache cacheAnnotation, ContainerResponseContext responseContext) {
+    @SuppressWarnings("unchecked")
+    private void storeCacheIfExists(ContainerRequestContext context, ApiCache cacheAnnotation, String key, ContainerResponseContext responseContext) {
+        if (responseContext.getStatus() != Status.OK.getStatusCode() || !responseContext.hasEntity()) {
+            return;
+        }
+
         try {
-            String key = computeCacheKey(context, cacheAnnotation);
+            MediaType mediaType = responseContext.getMediaType();
+            if (mediaType == null) {
+                mediaType = MediaType.APPLICATION_JSON_TYPE;
+            }
 
-            if (key != null && responseContext.getStatus() == Status.OK.getStatusCode()) {
-                this.cache.store(cacheAnnotation.category(), key, responseContext);
+            MessageBodyWriter<Object> writer = (MessageBodyWriter<Object>) providers.getMessageBodyWriter(
+                    responseContext.getEntityClass(),
+                    responseContext.getEntityType(),
+                    responseContext.getEntityAnnotations(),
+                    mediaType
+            );
+            if (writer == null) {
+                return;
+            }
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            writer.writeTo(
+                    responseContext.getEntity(),
+                    responseContext.getEntityClass(),
+                    responseContext.getEntityType(),
+                    responseContext.getEntityAnnotations(),
+                    mediaType,
+                    responseContext.getHeaders(),
+                    output
+            );
+            byte[] body = output.toByteArray();
+            EntityTag entityTag = new EntityTag(digest(body));
+
+            HashMap<String, Long> tagVersions = (HashMap<String, Long>) context.getProperty(CACHE_TAGS_PROPERTY);
+            this.cache.store(cacheAnnotation.category(), key, new ApiCacheEntry(body, mediaType.toString(), entityTag.getValue(), tagVersions));
+
+            // Send serialized body, so that response is not serialized twice
+            responseContext.setEntity(body, responseContext.getEntityAnnotations(), mediaType);
+            responseContext.getHeaders().putSingle(HttpHeaders.ETAG, entityTag);
+            responseContext.getHeaders().putSingle(HttpHeaders.CACHE_CONTROL, getCacheControl(cacheAnnotation));
+
+            if (context.getRequest().evaluatePreconditions(entityTag) != null) {
+                responseContext.setStatus(Status.NOT_MODIFIED.getStatusCode());
+                responseContext.setEntity(null);
             }
         } catch (Throwable ex) {
             LOGGER.error("Error while updating cache", ex);
@@ -135,13 +215,35 @@ public class ApiCacheFilter implements ContainerRequestFilter, ContainerResponse
     }
 
     /**
-     * Compute Base64 string.
+     * Get cache annotation of the matched API method, only for GET requests.
      *
-     * @param input string to encode
-     * @return encoded string
+     * @param context request context
+     * @return cache annotation or null if response must not be cached
+     */
+    private ApiCache getCacheAnnotation(ContainerRequestContext context) {
+        Method apiMethod = resourceInfo.getResourceMethod();
+        if (apiMethod != null && HttpMethod.GET.equals(context.getMethod())) {
+            return apiMethod.getAnnotation(ApiCache.class);
+        }
+        return null;
+    }
+
+    /**
+     * @param cacheAnnotation cache annotation
+     * @return tags of the cached response
+     */
+    private String[] getTags(ApiCache cacheAnnotation) {
+        if (cacheAnnotation.tags().length == 0) {
+            return new String[]{cacheAnnotation.category()};
+        }
+        return cacheAnnotation.tags();
+    }
+
+    /**
+     * Clients must revalidate responses with their entity tag, user dependent responses must not be shared.
      */
-    private String getBase64(String input) {
-        return new String(Base64.getEncoder().encode(input.getBytes()));
+    private String getCacheControl(ApiCache cacheAnnotation) {
+        return cacheAnnotation.userDependent() ? "private, no-cache" : "no-cache";
     }
 
     /**
@@ -153,24 +255,62 @@ public class ApiCacheFilter implements ContainerRequestFilter, ContainerResponse
      * @throws Throwable
      */
     private String computeCacheKey(ContainerRequestContext context, ApiCache cacheAnnotation) throws Throwable {
-        String langKey = getBase64(context.getHeaderString(org.apache.http.HttpHeaders.ACCEPT_LANGUAGE));
-        String key = getBase64(context.getUriInfo().getRequestUri().toString()) + "|" + langKey;
+        StringBuilder key = new StringBuilder(encode(context.getUriInfo().getPath(true)));
+
+        // query parameters order has no meaning, but values order of the same parameter may have one
+        Map<String, List<String>> parameters = new TreeMap<>(context.getUriInfo().getQueryParameters(true));
+        parameters.forEach((name, values) -> {
+            key.append('&').append(encode(name)).append('=');
+            for (String value : values) {
+                key.append(encode(value)).append(',');
+            }
+        });
+
+        key.append('|').append(encode(getLanguage(context)));
 
         if (cacheAnnotation.userDependent() && context.getSecurityContext() != null && context.getSecurityContext().getUserPrincipal() != null) {
-            String userId = getBase64(context.getSecurityContext().getUserPrincipal().getName());
-            key = userId + "|" + key;
+            key.append('|').append(encode(context.getSecurityContext().getUserPrincipal().getName()));
         }
 
-        return key;
+        return digest(key.toString().getBytes(StandardCharsets.UTF_8));
     }
 
     /**
-     * Clear cache corresponding to current cache annotation.
+     * Get language of the response, which is the current user language resolved by the authentication filter.
+     * Only language of the first Accept-Language locale is used if it was not resolved.
+     *
+     * @param context request context
+     * @return response language, or empty string if unknown
      */
-    private void clear(ApiCache cacheAnnotation) {
-        this.cache.remove(cacheAnnotation.category());
-        for (String category : cacheAnnotation.clearCategories()) {
-            this.cache.remove(category);
+    private String getLanguage(ContainerRequestContext context) {
+        Object userLanguage = context.getProperty(USER_LANGUAGE_PROPERTY);
+        if (userLanguage != null) {
+            return userLanguage.toString();
+        }
+
+        List<Locale> locales = context.getAcceptableLanguages();
+        if (!locales.isEmpty() && !locales.get(0).toString().equals("*")) {
+            return locales.get(0).getLanguage();
+        }
+        return "";
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (UnsupportedEncodingException ex) {
+            // UTF-8 is available on every Java platform
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static String digest(byte[] value) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(md.digest(value));
+        } catch (NoSuchAlgorithmException ex) {
+            // SHA-256 is available on every Java platform
+            throw new IllegalStateException(ex);
         }
     }
 
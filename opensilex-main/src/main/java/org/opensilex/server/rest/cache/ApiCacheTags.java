@@ -0,0 +1,72 @@
+//******************************************************************************
+//                              ApiCacheTags.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.server.rest.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <pre>
+ * Resource type tags used to invalidate API cache entries.
+ *
+ * Each tag has a version which is incremented when DAOs modify resources of this type.
+ * Cache entries keep the versions of their tags at request time and are ignored once one of these versions changed,
+ * so writes only invalidate responses depending on the modified resource types.
+ * </pre>
+ *
+ * @see ApiCache#tags()
+ */
+public final class ApiCacheTags {
+
+    private static final Map<String, AtomicLong> VERSIONS = new ConcurrentHashMap<>();
+
+    private ApiCacheTags() {
+    }
+
+    /**
+     * Invalidate all cache entries depending on the given tags.
+     *
+     * @param tags modified resource types
+     */
+    public static void invalidate(String... tags) {
+        for (String tag : tags) {
+            VERSIONS.computeIfAbsent(tag, key -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    /**
+     * @param tags tags to read
+     * @return current version of each tag
+     */
+    public static HashMap<String, Long> getVersions(String... tags) {
+        HashMap<String, Long> versions = new HashMap<>(tags.length);
+        for (String tag : tags) {
+            versions.put(tag, getVersion(tag));
+        }
+        return versions;
+    }
+
+    /**
+     * @param versions tag versions of a cache entry
+     * @return true if no tag was invalidated since these versions were read
+     */
+    public static boolean isUpToDate(Map<String, Long> versions) {
+        for (Map.Entry<String, Long> version : versions.entrySet()) {
+            if (getVersion(version.getKey()) != version.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long getVersion(String tag) {
+        AtomicLong version = VERSIONS.get(tag);
+        return version == null ? 0 : version.get();
+    }
+}
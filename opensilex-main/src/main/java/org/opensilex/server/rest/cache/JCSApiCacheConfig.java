@@ -0,0 +1,28 @@
+//******************************************************************************
+//                              JCSApiCacheConfig.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.server.rest.cache;
+
+import org.opensilex.config.ConfigDescription;
+import org.opensilex.service.ServiceConfig;
+
+/**
+ * JCS API cache configuration.
+ */
+public interface JCSApiCacheConfig extends ServiceConfig {
+
+    @ConfigDescription(
+            value = "Maximum number of responses kept in memory for each cache category",
+            defaultInt = 1000
+    )
+    public int maxObjects();
+
+    @ConfigDescription(
+            value = "Spool responses evicted from memory to a disk cache",
+            defaultBoolean = true
+    )
+    public boolean enableDiskCache();
+}
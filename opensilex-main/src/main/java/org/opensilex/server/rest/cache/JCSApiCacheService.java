@@ -12,6 +12,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import org.opensilex.service.BaseService;
+import org.opensilex.service.ServiceDefaultDefinition;
 import org.apache.commons.jcs.JCS;
 import org.apache.tomcat.util.http.fileupload.FileUtils;
 import org.slf4j.Logger;
@@ -22,14 +23,31 @@ import org.slf4j.LoggerFactory;
  *
  * See: http://commons.apache.org/proper/commons-jcs/
  *
+ * Each category is a JCS region with a bounded LRU memory tier, evicted responses are spooled to an indexed disk cache
+ * if enabled in configuration.
+ *
  * @author Vincent Migot
  */
+@ServiceDefaultDefinition(config = JCSApiCacheConfig.class)
 public class JCSApiCacheService extends BaseService implements ApiCacheService {
 
+    /**
+     * Disk auxiliary cache name defined in jsc-cache.ccf files.
+     */
+    private final static String DISK_CACHE = "DC";
+
+    public JCSApiCacheService(JCSApiCacheConfig config) {
+        super(config);
+    }
+
     public JCSApiCacheService() {
         super(null);
     }
 
+    public JCSApiCacheConfig getImplementedConfig() {
+        return (JCSApiCacheConfig) this.getConfig();
+    }
+
     /**
      * Class Logger.
      */
@@ -58,6 +76,14 @@ public class JCSApiCacheService extends BaseService implements ApiCacheService {
             });
         }
 
+        JCSApiCacheConfig config = getImplementedConfig();
+        if (config != null) {
+            properties.put("jcs.default.cacheattributes.MaxObjects", String.valueOf(config.maxObjects()));
+            if (!config.enableDiskCache()) {
+                disableDiskCache(properties);
+            }
+        }
+
         if (LOGGER.isDebugEnabled()) {
             StringBuilder cacheProperties = new StringBuilder();
             properties.forEach((key, value) -> {
@@ -69,6 +95,20 @@ public class JCSApiCacheService extends BaseService implements ApiCacheService {
         JCS.setConfigProperties(properties);
     }
 
+    /**
+     * Remove disk auxiliary cache from default and declared regions, so that only memory tier is used.
+     *
+     * @param properties JCS properties
+     */
+    private void disableDiskCache(Properties properties) {
+        for (String key : properties.stringPropertyNames()) {
+            boolean isRegion = key.equals("jcs.default") || (key.startsWith("jcs.region.") && key.indexOf('.', "jcs.region.".length()) < 0);
+            if (isRegion && DISK_CACHE.equals(properties.getProperty(key).trim())) {
+                properties.put(key, "");
+            }
+        }
+    }
+
     @Override
     public void shutdown() throws Exception {
         FileUtils.cleanDirectory(cacheDir);
@@ -0,0 +1,159 @@
+//******************************************************************************
+//                          UniqueURIGenerator.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.uri.generation;
+
+import org.opensilex.utils.ThrowingFunction;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * <pre>
+ * Generate unique URIs for a collection of instances, with one existence check by batch of URIs
+ * instead of one check by URI.
+ *
+ * Candidate URIs are generated for all instances, then checked by batch with the existing URIs lookup.
+ * Only instances which URI already exists, or was generated for another instance, are generated again
+ * with the next retry count, until all URIs are unique.
+ * </pre>
+ */
+public class UniqueURIGenerator {
+
+    /**
+     * Default maximum number of URIs checked by one lookup
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /**
+     * URI generation of one instance
+     *
+     * @param <T> instance class
+     */
+    @FunctionalInterface
+    public interface InstanceURIGenerator<T> {
+
+        /**
+         * @param instance instance
+         * @param retryCount number of previous generations which gave an existing URI
+         * @return generated URI
+         * @throws Exception if URI generation fails
+         */
+        URI generateURI(T instance, int retryCount) throws Exception;
+    }
+
+    private final ThrowingFunction<List<URI>, Collection<URI>, Exception> existingURIsLookup;
+
+    private final Function<URI, String> uriKey;
+
+    private final int batchSize;
+
+    /**
+     * @param existingURIsLookup return the given URIs which already exist
+     * @param uriKey key used to compare URIs, like their expanded form
+     * @param batchSize maximum number of URIs given to existingURIsLookup
+     */
+    public UniqueURIGenerator(ThrowingFunction<List<URI>, Collection<URI>, Exception> existingURIsLookup, Function<URI, String> uriKey, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("URI existence check batch size must be strictly positive");
+        }
+        this.existingURIsLookup = existingURIsLookup;
+        this.uriKey = uriKey;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @param uris URIs to check
+     * @return first of the given URIs which already exists, or null
+     * @throws Exception if lookup fails
+     */
+    public URI getFirstExistingURI(Collection<URI> uris) throws Exception {
+        Map<String, URI> urisByKey = new LinkedHashMap<>();
+        for (URI uri : uris) {
+            urisByKey.putIfAbsent(uriKey.apply(uri), uri);
+        }
+
+        List<URI> urisToCheck = new ArrayList<>(urisByKey.values());
+        for (int start = 0; start < urisToCheck.size(); start += batchSize) {
+            List<URI> batch = urisToCheck.subList(start, Math.min(start + batchSize, urisToCheck.size()));
+            for (URI existingURI : existingURIsLookup.apply(batch)) {
+                URI uri = urisByKey.get(uriKey.apply(existingURI));
+                if (uri != null) {
+                    return uri;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Generate and set unique URIs of instances
+     *
+     * @param instances instances for which URIs are generated
+     * @param generator URI generation of one instance
+     * @param uriSetter set the generated URI on an instance
+     * @param reservedURIs URIs which must not be generated, like the ones already set on other created instances
+     * @param <T> instance class
+     * @throws Exception if generation or lookup fails
+     */
+    public <T> void generate(List<T> instances, InstanceURIGenerator<T> generator, BiConsumer<T, URI> uriSetter, Collection<URI> reservedURIs) throws Exception {
+        Set<String> reservedKeys = new HashSet<>();
+        for (URI reservedURI : reservedURIs) {
+            reservedKeys.add(uriKey.apply(reservedURI));
+        }
+
+        int[] retries = new int[instances.size()];
+        List<Integer> pendingIndexes = new ArrayList<>(instances.size());
+        for (int i = 0; i < instances.size(); i++) {
+            pendingIndexes.add(i);
+        }
+
+        while (!pendingIndexes.isEmpty()) {
+            // candidate URIs by key, with the index of their instance
+            Map<String, Integer> candidates = new LinkedHashMap<>();
+            Map<String, URI> candidateURIs = new HashMap<>();
+            List<Integer> collisions = new ArrayList<>();
+            for (int i : pendingIndexes) {
+                T instance = instances.get(i);
+                URI uri = generator.generateURI(instance, retries[i]);
+                uriSetter.accept(instance, uri);
+
+                String key = uriKey.apply(uri);
+                if (reservedKeys.contains(key) || candidates.putIfAbsent(key, i) != null) {
+                    collisions.add(i);
+                } else {
+                    candidateURIs.put(key, uri);
+                }
+            }
+
+            List<URI> urisToCheck = new ArrayList<>(candidateURIs.values());
+            for (int start = 0; start < urisToCheck.size(); start += batchSize) {
+                List<URI> batch = urisToCheck.subList(start, Math.min(start + batchSize, urisToCheck.size()));
+                for (URI existingURI : existingURIsLookup.apply(batch)) {
+                    Integer index = candidates.remove(uriKey.apply(existingURI));
+                    if (index != null) {
+                        collisions.add(index);
+                    }
+                }
+            }
+
+            reservedKeys.addAll(candidates.keySet());
+            for (int i : collisions) {
+                retries[i]++;
+            }
+            pendingIndexes = collisions;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+//******************************************************************************
+//                          CountMode.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.utils;
+
+/**
+ * Total count computation of a paginated search.
+ *
+ * @see ListWithPagination#getTotal()
+ */
+public enum CountMode {
+
+    /**
+     * Count matching elements on each request
+     */
+    EXACT,
+
+    /**
+     * Use a count which may be slightly out of date (store metadata or count cached by filter)
+     */
+    ESTIMATED,
+
+    /**
+     * Don't count elements, total is unknown (-1)
+     */
+    NONE
+}
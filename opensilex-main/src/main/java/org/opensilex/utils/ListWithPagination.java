@@ -37,6 +37,11 @@ public class ListWithPagination<T> {
      */
     private final Integer pageSize;
 
+    /**
+     * Token to get next page in cursor pagination mode, null if there is no next page or in offset pagination mode.
+     */
+    private final String continuationToken;
+
     /**
      * Constructor for a complete list witout pagination.
      *
@@ -55,7 +60,21 @@ public class ListWithPagination<T> {
      * @param total total elements count
      */
     public ListWithPagination(List<T> list, Integer page, Integer pageSize, Integer total) {
+        this(list, page, pageSize, total, null);
+    }
+
+    /**
+     * Constructor for a page list in cursor pagination mode.
+     *
+     * @param list list of element for the current page.
+     * @param page current page
+     * @param pageSize page size
+     * @param total total elements count, -1 if unknown
+     * @param continuationToken token to get next page, null if there is no next page
+     */
+    public ListWithPagination(List<T> list, Integer page, Integer pageSize, Integer total, String continuationToken) {
         this.list = list;
+        this.continuationToken = continuationToken;
         this.total = total;
 
         if (page == null || page < 0) {
@@ -107,6 +126,15 @@ public class ListWithPagination<T> {
         return pageSize;
     }
 
+    /**
+     * Get token of next page in cursor pagination mode.
+     *
+     * @return continuation token or null
+     */
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
     /**
      * Method to convert a paginated list into another.
      *
@@ -122,7 +150,7 @@ public class ListWithPagination<T> {
             resultList.add(converter.apply(element));
         });
 
-        return new ListWithPagination<U>(resultList, this.page, this.pageSize, this.total);
+        return new ListWithPagination<U>(resultList, this.page, this.pageSize, this.total, this.continuationToken);
     }
 
 }
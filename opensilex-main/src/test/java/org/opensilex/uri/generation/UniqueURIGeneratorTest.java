@@ -0,0 +1,125 @@
+//******************************************************************************
+//                          UniqueURIGeneratorTest.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.uri.generation;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class UniqueURIGeneratorTest {
+
+    private static final String PREFIX = "http://opensilex.test/id";
+
+    private static class Instance {
+
+        private final String name;
+
+        private URI uri;
+
+        private Instance(String name) {
+            this.name = name;
+        }
+    }
+
+    private final DefaultURIGenerator<String> uriGenerator = new DefaultURIGenerator<>();
+
+    private final Set<URI> existingURIs = new HashSet<>();
+
+    private final List<List<URI>> lookups = new ArrayList<>();
+
+    private UniqueURIGenerator newGenerator(int batchSize) {
+        return new UniqueURIGenerator(uris -> {
+            lookups.add(new ArrayList<>(uris));
+            return uris.stream().filter(existingURIs::contains).collect(Collectors.toList());
+        }, URI::toString, batchSize);
+    }
+
+    private List<Instance> generate(UniqueURIGenerator generator, Collection<URI> reservedURIs, String... names) throws Exception {
+        List<Instance> instances = Arrays.stream(names).map(Instance::new).collect(Collectors.toList());
+        generator.generate(instances,
+                (instance, retry) -> uriGenerator.generateURI(PREFIX, instance.name, retry),
+                (instance, uri) -> instance.uri = uri,
+                reservedURIs);
+        return instances;
+    }
+
+    private static List<String> getURIs(List<Instance> instances) {
+        return instances.stream().map(instance -> instance.uri.toString()).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testGenerateWithoutCollision() throws Exception {
+        List<Instance> instances = generate(newGenerator(UniqueURIGenerator.DEFAULT_BATCH_SIZE), Collections.emptyList(), "a", "b", "c");
+
+        Assert.assertEquals(Arrays.asList(PREFIX + "/a", PREFIX + "/b", PREFIX + "/c"), getURIs(instances));
+        Assert.assertEquals("All URIs should be checked by one lookup", 1, lookups.size());
+    }
+
+    @Test
+    public void testRetryOnExistingURIs() throws Exception {
+        existingURIs.add(new URI(PREFIX + "/a"));
+        existingURIs.add(new URI(PREFIX + "/a/1"));
+
+        List<Instance> instances = generate(newGenerator(UniqueURIGenerator.DEFAULT_BATCH_SIZE), Collections.emptyList(), "a", "b");
+
+        Assert.assertEquals(Arrays.asList(PREFIX + "/a/2", PREFIX + "/b"), getURIs(instances));
+        Assert.assertEquals(3, lookups.size());
+        Assert.assertEquals("Only the colliding URI should be checked again", Collections.singletonList(new URI(PREFIX + "/a/2")), lookups.get(2));
+    }
+
+    @Test
+    public void testRetryOnDuplicatedURIs() throws Exception {
+        List<Instance> instances = generate(newGenerator(UniqueURIGenerator.DEFAULT_BATCH_SIZE), Collections.emptyList(), "a", "a", "a");
+
+        Assert.assertEquals(Arrays.asList(PREFIX + "/a", PREFIX + "/a/1", PREFIX + "/a/2"), getURIs(instances));
+    }
+
+    @Test
+    public void testRetryOnReservedURIs() throws Exception {
+        List<Instance> instances = generate(newGenerator(UniqueURIGenerator.DEFAULT_BATCH_SIZE), Collections.singletonList(new URI(PREFIX + "/a")), "a");
+
+        Assert.assertEquals(Collections.singletonList(PREFIX + "/a/1"), getURIs(instances));
+        for (List<URI> lookup : lookups) {
+            Assert.assertFalse("Reserved URI should not be checked", lookup.contains(new URI(PREFIX + "/a")));
+        }
+    }
+
+    @Test
+    public void testLookupBatchSize() throws Exception {
+        existingURIs.add(new URI(PREFIX + "/e"));
+
+        List<Instance> instances = generate(newGenerator(2), Collections.emptyList(), "a", "b", "c", "d", "e");
+
+        Assert.assertEquals(Arrays.asList(PREFIX + "/a", PREFIX + "/b", PREFIX + "/c", PREFIX + "/d", PREFIX + "/e/1"), getURIs(instances));
+        Assert.assertEquals(4, lookups.size());
+        for (List<URI> lookup : lookups) {
+            Assert.assertTrue(lookup.size() <= 2);
+        }
+    }
+
+    @Test
+    public void testGetFirstExistingURI() throws Exception {
+        UniqueURIGenerator generator = newGenerator(1);
+        URI a = new URI(PREFIX + "/a");
+        URI b = new URI(PREFIX + "/b");
+
+        Assert.assertNull(generator.getFirstExistingURI(Arrays.asList(a, b)));
+
+        existingURIs.add(b);
+        Assert.assertEquals(b, generator.getFirstExistingURI(Arrays.asList(a, b)));
+        Assert.assertNull(generator.getFirstExistingURI(Collections.emptyList()));
+    }
+}
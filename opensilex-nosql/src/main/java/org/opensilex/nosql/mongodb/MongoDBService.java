@@ -18,16 +18,23 @@ import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
 import static com.mongodb.client.model.Filters.eq;
 
+import com.mongodb.client.model.CountOptions;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.geojson.codecs.GeoJsonCodecProvider;
 import com.mongodb.client.result.DeleteResult;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.jena.arq.querybuilder.Order;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
 import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
 import org.bson.codecs.configuration.CodecRegistries;
 import org.bson.codecs.configuration.CodecRegistry;
 import org.bson.codecs.pojo.PojoCodecProvider;
@@ -41,6 +48,9 @@ import org.opensilex.nosql.mongodb.codec.URICodec;
 import org.opensilex.service.BaseService;
 import org.opensilex.service.ServiceDefaultDefinition;
 import org.opensilex.sparql.SPARQLModule;
+import org.opensilex.sparql.deserializer.SPARQLDeserializers;
+import org.opensilex.uri.generation.UniqueURIGenerator;
+import org.opensilex.utils.CountMode;
 import org.opensilex.utils.ListWithPagination;
 import org.opensilex.utils.OrderBy;
 import org.slf4j.Logger;
@@ -58,7 +68,6 @@ public class MongoDBService extends BaseService {
 
     private final String dbName;
     private MongoClient mongoClient;
-    private ClientSession session = null;
     private MongoDatabase db;
     public final static int SIZE_MAX = 10000;
     private URI generationPrefixURI;
@@ -100,78 +109,130 @@ public class MongoDBService extends BaseService {
         return this.db;
     }
 
-    public ClientSession getSession() {
-        return this.session;
+    /**
+     * Transaction of the current thread, so that concurrent requests use their own session
+     */
+    private final ThreadLocal<TransactionContext> transaction = new ThreadLocal<>();
+
+    private final static class TransactionContext {
+
+        private final ClientSession session;
+
+        private int level = 0;
+
+        private TransactionContext(ClientSession session) {
+            this.session = session;
+        }
     }
 
-    private int transactionLevel = 0;
+    /**
+     * @return session of the transaction started by the current thread, or null if there is no transaction
+     */
+    public ClientSession getSession() {
+        TransactionContext context = transaction.get();
+        return context == null ? null : context.session;
+    }
 
+    /**
+     * Start a transaction bound to the current thread, or enter the current one if a transaction was already started by this thread
+     */
     public void startTransaction() {
-        if (transactionLevel == 0) {
+        TransactionContext context = transaction.get();
+        if (context == null) {
             LOGGER.debug("MONGO TRANSACTION START");
-            session = mongoClient.startSession();
+            ClientSession session = mongoClient.startSession();
             session.startTransaction();
+            context = new TransactionContext(session);
+            transaction.set(context);
         }
-        transactionLevel++;
+        context.level++;
     }
 
     public void commitTransaction() {
-        transactionLevel--;
-        if (transactionLevel == 0) {
+        TransactionContext context = transaction.get();
+        if (context == null) {
+            return;
+        }
+        context.level--;
+        if (context.level == 0) {
             LOGGER.debug("MONGO TRANSACTION COMMIT");
-            session.commitTransaction();
-            session.close();
-            session = null;
+            transaction.remove();
+            try {
+                context.session.commitTransaction();
+            } finally {
+                context.session.close();
+            }
         }
     }
 
     public void rollbackTransaction() throws Exception {
-        if (transactionLevel != 0) {
+        TransactionContext context = transaction.get();
+        if (context != null) {
             LOGGER.error("MONGO TRANSACTION ROLLBACK");
-            transactionLevel = 0;
-            session.abortTransaction();
-            session.close();
-            session = null;
+            transaction.remove();
+            try {
+                context.session.abortTransaction();
+            } finally {
+                context.session.close();
+            }
         }
 
     }
 
     public <T extends MongoModel> void create(T instance, Class<T> instanceClass, String collectionName, String uriGenerationPrefix) throws Exception {
+        create(getSession(), instance, instanceClass, collectionName, uriGenerationPrefix);
+    }
+
+    /**
+     * @param session session to use, or null to create instance without session
+     * @see #create(MongoModel, Class, String, String)
+     */
+    public <T extends MongoModel> void create(ClientSession session, T instance, Class<T> instanceClass, String collectionName, String uriGenerationPrefix) throws Exception {
         LOGGER.debug("MONGO CREATE - Collection : " + collectionName);
         if (instance.getUri() == null) {
             generateUniqueUriIfNullOrValidateCurrent(instance, true,uriGenerationPrefix, collectionName);
         }
         MongoCollection<T> collection = db.getCollection(collectionName, instanceClass);
-        try {
-            if (session != null) {
-                collection.insertOne(session, instance);
-            } else {
-                collection.insertOne(instance);
-            }
-        } catch (Exception error) {
-            throw error;
+        if (session != null) {
+            collection.insertOne(session, instance);
+        } else {
+            collection.insertOne(instance);
         }
     }
 
+    /**
+     * Create instances in one transaction. URIs of instances without URI are generated with {@link #generateUniqueUris(List, boolean, String, String)},
+     * URIs already set on instances are not checked.
+     *
+     * @param checkUriExist indicate if generated URIs must be checked
+     */
     public <T extends MongoModel> void createAll(List<T> instances, Class<T> instanceClass, String collectionName, String prefix, boolean checkUriExist) throws Exception {
-        LOGGER.debug("MONGO CREATE - Collection : " + collectionName);
-        for (T instance : instances) {
-            if (instance.getUri() == null) {
-                generateUniqueUriIfNullOrValidateCurrent(instance, checkUriExist,prefix, collectionName);
-            }
-        }
-
         startTransaction();
-        MongoCollection<T> collection = db.getCollection(collectionName, instanceClass);
-
         try {
-            collection.insertMany(session, instances);
+            createAll(getSession(), instances, instanceClass, collectionName, prefix, checkUriExist);
             commitTransaction();
         } catch (Exception exception) {
             rollbackTransaction();
             throw exception;
         }
+    }
 
+    /**
+     * Create instances with the given session, the caller is responsible for the session transaction.
+     *
+     * @param session session to use
+     * @see #createAll(List, Class, String, String, boolean)
+     */
+    public <T extends MongoModel> void createAll(ClientSession session, List<T> instances, Class<T> instanceClass, String collectionName, String prefix, boolean checkUriExist) throws Exception {
+        LOGGER.debug("MONGO CREATE - Collection : " + collectionName);
+        generateUniqueUris(instances, checkUriExist, prefix, collectionName);
+
+        MongoCollection<T> collection = db.getCollection(collectionName, instanceClass);
+        if (session != null) {
+            collection.insertMany(session, instances);
+        } else {
+            collection.insertMany(instances);
+        }
     }
 
     /**
@@ -245,12 +306,8 @@ public class MongoDBService extends BaseService {
      */
     public <T> boolean uriExists(Class<T> instanceClass, String collectionName, URI uri) {
         LOGGER.debug("MONGO URI EXISTS - Collection : " + collectionName + " - uri : "  + uri );
-        try {
-            T instance = findByURI(instanceClass, collectionName, uri);
-            return true;
-        } catch (NoSQLInvalidURIException ex) {
-            return false;
-        }
+        MongoCollection<T> collection = db.getCollection(collectionName, instanceClass);
+        return uriExists(collection, uri, URI_FIELD);
     }
 
     /**
@@ -262,12 +319,22 @@ public class MongoDBService extends BaseService {
      * @return if an instance with the given uri exists
      */
     public <T> boolean uriExists(MongoCollection<T> collection, URI uri, String uriField) {
-        try {
-            T instance = findByURI(collection, uri, uriField);
-            return true;
-        } catch (NoSQLInvalidURIException ex) {
-            return false;
-        }
+        // count with limit instead of find, so that no document is decoded
+        return collection.countDocuments(eq(uriField, uri), new CountOptions().limit(1)) > 0;
+    }
+
+    /**
+     * Maximum number of URIs checked by one query during URI generation
+     */
+    public final static int URI_EXISTS_BATCH_SIZE = UniqueURIGenerator.DEFAULT_BATCH_SIZE;
+
+    /**
+     * @param collectionName the name of collection on which check URIs
+     * @param uris URIs to check
+     * @return URIs which exist in collection
+     */
+    private Set<URI> getExistingUris(String collectionName, Collection<URI> uris) {
+        return db.getCollection(collectionName).distinct(URI_FIELD, Filters.in(URI_FIELD, uris), URI.class).into(new HashSet<>());
     }
 
 
@@ -305,15 +372,31 @@ public class MongoDBService extends BaseService {
             List<OrderBy> orderByList,
             Integer page,
             Integer pageSize) {
+        return searchWithPagination(instanceClass, collectionName, filter, orderByList, page, pageSize, CountMode.EXACT);
+    }
+
+    /**
+     * Search with offset pagination and the given total count computation.
+     *
+     * @see #searchWithCursor for deep pages
+     */
+    public <T> ListWithPagination<T> searchWithPagination(
+            Class<T> instanceClass,
+            String collectionName,
+            Document filter,
+            List<OrderBy> orderByList,
+            Integer page,
+            Integer pageSize,
+            CountMode countMode) {
 
         List<T> results = new ArrayList<T>();
         MongoCollection<T> collection = db.getCollection(collectionName, instanceClass);
-        long resultsNumber = collection.countDocuments(filter);
-        int total = (int) resultsNumber;
+        int total = countWithMode(collection, collectionName, filter, countMode);
 
         LOGGER.debug("MONGO SEARCH WITH PAGINATION - Collection : " + collectionName + " - Order : " + LogOrderList(orderByList) + " - Filter : " + filter.toString());
 
-        if (total > 0) {
+        // total is negative if unknown
+        if (total != 0) {
             Document sort = buildSort(orderByList);
 
             FindIterable<T> queryResult = collection.find(filter).sort(sort).skip(page * pageSize).limit(pageSize);
@@ -327,6 +410,104 @@ public class MongoDBService extends BaseService {
 
     }
     
+    /**
+     * Search with keyset (seek) pagination : each page is selected with a range predicate on the sort key values
+     * of the last document of the previous page, so deep pages cost the same as the first one.
+     *
+     * @param instanceClass the instance class
+     * @param collectionName the name of collection on which search
+     * @param filter search filter
+     * @param orderByList sort, "_id" is added as last sort key
+     * @param pageToken continuation token returned with the previous page, null or empty for the first page
+     * @param page page index, only used in returned pagination
+     * @param pageSize page size, required
+     * @param countMode total count computation
+     * @param <T> the instance class
+     * @return page with the continuation token of the next page, or a null token if it is the last page
+     * @throws IllegalArgumentException if page size is not strictly positive, or if page token is invalid or was built with another sort
+     */
+    public <T> ListWithPagination<T> searchWithCursor(
+            Class<T> instanceClass,
+            String collectionName,
+            Document filter,
+            List<OrderBy> orderByList,
+            String pageToken,
+            Integer page,
+            Integer pageSize,
+            CountMode countMode) {
+
+        LOGGER.debug("MONGO SEARCH WITH CURSOR - Collection : " + collectionName + " - Order : " + LogOrderList(orderByList) + " - Filter : " + filter.toString());
+
+        if (pageSize == null || pageSize <= 0) {
+            throw new IllegalArgumentException("A strictly positive page size is required with a page token");
+        }
+
+        Document sort = MongoPageToken.keysetSort(buildSort(orderByList));
+        Bson pageFilter = filter;
+        if (!StringUtils.isEmpty(pageToken)) {
+            pageFilter = Filters.and(filter, MongoPageToken.rangeFilter(sort, pageToken));
+        }
+
+        MongoCollection<T> collection = db.getCollection(collectionName, instanceClass);
+        int total = countWithMode(collection, collectionName, filter, countMode);
+
+        // Fetch raw documents in order to read sort key values of the last one, one more document tells if there is a next page
+        FindIterable<BsonDocument> queryResult = collection.withDocumentClass(BsonDocument.class).find(pageFilter).sort(sort).limit(pageSize + 1);
+
+        Codec<T> codec = collection.getCodecRegistry().get(instanceClass);
+        DecoderContext decoderContext = DecoderContext.builder().build();
+        List<T> results = new ArrayList<>();
+        BsonDocument lastDocument = null;
+        String nextPageToken = null;
+        for (BsonDocument document : queryResult) {
+            if (results.size() == pageSize) {
+                nextPageToken = MongoPageToken.encode(sort, lastDocument);
+                break;
+            }
+            results.add(codec.decode(new BsonDocumentReader(document), decoderContext));
+            lastDocument = document;
+        }
+
+        return new ListWithPagination<>(results, page, pageSize, total, nextPageToken);
+    }
+
+    /**
+     * Maximum age of counts cached by filter in {@link CountMode#ESTIMATED} mode
+     */
+    public final static long COUNT_CACHE_TTL_MS = 60_000;
+
+    private final static int COUNT_CACHE_MAX_SIZE = 1000;
+
+    private final static Map<String, long[]> COUNT_CACHE = new ConcurrentHashMap<>();
+
+    private <T> int countWithMode(MongoCollection<T> collection, String collectionName, Document filter, CountMode countMode) {
+        if (countMode == null || countMode == CountMode.EXACT) {
+            return (int) collection.countDocuments(filter);
+        }
+        if (countMode == CountMode.NONE) {
+            return -1;
+        }
+
+        if (filter.isEmpty()) {
+            return (int) collection.estimatedDocumentCount();
+        }
+
+        // cached entries are {count, creation time}, filters are indexed by digest since they can hold large URI lists
+        String key = collectionName + "|" + UUID.nameUUIDFromBytes(filter.toString().getBytes(StandardCharsets.UTF_8));
+        long now = System.currentTimeMillis();
+        long[] cached = COUNT_CACHE.get(key);
+        if (cached != null && now - cached[1] < COUNT_CACHE_TTL_MS) {
+            return (int) cached[0];
+        }
+
+        long resultsNumber = collection.countDocuments(filter);
+        if (COUNT_CACHE.size() >= COUNT_CACHE_MAX_SIZE) {
+            COUNT_CACHE.clear();
+        }
+        COUNT_CACHE.put(key, new long[]{resultsNumber, now});
+        return (int) resultsNumber;
+    }
+
     public <T> int count( 
             Class<T> instanceClass,
             String collectionName,
@@ -363,6 +544,32 @@ public class MongoDBService extends BaseService {
 
     }
 
+    /**
+     * Search without loading results in memory. Documents are fetched from the server by batches of the given size
+     * while the returned iterable is consumed, the caller must close the cursor obtained from {@link FindIterable#iterator()}.
+     *
+     * @param instanceClass the instance class
+     * @param collectionName the name of collection on which search
+     * @param filter search filter
+     * @param orderByList sort
+     * @param batchSize number of documents fetched per server round trip
+     * @param <T> the instance class
+     * @return a lazy iterable over the results
+     */
+    public <T> FindIterable<T> searchAsIterable(
+            Class<T> instanceClass,
+            String collectionName,
+            Document filter,
+            List<OrderBy> orderByList,
+            int batchSize) {
+
+        LOGGER.debug("MONGO SEARCH AS ITERABLE - Collection : " + collectionName + " - Order : " + LogOrderList(orderByList) + " - Filter : " + filter.toString());
+
+        MongoCollection<T> collection = db.getCollection(collectionName, instanceClass);
+        Document sort = buildSort(orderByList);
+        return collection.find(filter).sort(sort).batchSize(batchSize);
+    }
+
     public <T> Set<T> distinct(
             String field,
             Class<T> resultClass,
@@ -400,7 +607,7 @@ public class MongoDBService extends BaseService {
     public <T extends MongoModel> void delete(Class<T> instanceClass, String collectionName, URI uri) throws NoSQLInvalidURIException {
         LOGGER.debug("MONGO DELETE - Collection : " + collectionName + " - uri : "  + uri);
         MongoCollection<T> collection = db.getCollection(collectionName, instanceClass);
-        this.delete(collection,uri,"uri");
+        this.delete(getSession(), collection, uri, "uri");
     }
 
 
@@ -413,15 +620,21 @@ public class MongoDBService extends BaseService {
      * @throws NoSQLInvalidURIException if no instance is found
      */
     public <T extends MongoModel> void delete(MongoCollection<T> collection , URI uri, String uriField) throws NoSQLInvalidURIException {
-        T instance = findByURI(collection,uri,uriField);
-        if (instance == null) {
+        delete(getSession(), collection, uri, uriField);
+    }
+
+    /**
+     * @param session session to use, or null to delete instance without session
+     * @see #delete(MongoCollection, URI, String)
+     */
+    public <T extends MongoModel> void delete(ClientSession session, MongoCollection<T> collection , URI uri, String uriField) throws NoSQLInvalidURIException {
+        if (!uriExists(collection, uri, uriField)) {
             throw new NoSQLInvalidURIException(uri);
+        }
+        if (session != null) {
+            collection.deleteOne(session, eq(URI_FIELD, uri));
         } else {
-            if (session != null) {
-                collection.deleteOne(session, eq(URI_FIELD, uri));
-            } else {
-                collection.deleteOne(eq(URI_FIELD, uri));
-            }
+            collection.deleteOne(eq(URI_FIELD, uri));
         }
     }
 
@@ -432,18 +645,15 @@ public class MongoDBService extends BaseService {
         if (notFoundedURIs.isEmpty()) {
             startTransaction();
             MongoCollection<T> collection = db.getCollection(collectionName, instanceClass);
-            for (URI uri : uris) {
-                try {
+            try {
+                ClientSession session = getSession();
+                for (URI uri : uris) {
                     collection.deleteOne(session, eq(URI_FIELD, uri));
-                    commitTransaction();
-                } catch (Exception exception) {
-                    rollbackTransaction();
-                    throw exception;
-                } finally {
-                    session.close();
-                    session = null;
                 }
-
+                commitTransaction();
+            } catch (Exception exception) {
+                rollbackTransaction();
+                throw exception;
             }
         } else {
             throw new NoSQLInvalidUriListException(uris);
@@ -460,11 +670,22 @@ public class MongoDBService extends BaseService {
      * @throws NoSQLInvalidURIException if no instance is found
      */
     public <T extends MongoModel> void update(T newInstance,MongoCollection<T> collection, String uriField) throws NoSQLInvalidURIException {
-        T instance = findByURI(collection, newInstance.getUri(),uriField);
-        if (instance == null) {
+        update(getSession(), newInstance, collection, uriField);
+    }
+
+    /**
+     * @param session session to use, or null to update instance without session
+     * @see #update(MongoModel, MongoCollection, String)
+     */
+    public <T extends MongoModel> void update(ClientSession session, T newInstance, MongoCollection<T> collection, String uriField) throws NoSQLInvalidURIException {
+        if (!uriExists(collection, newInstance.getUri(), uriField)) {
             throw new NoSQLInvalidURIException(newInstance.getUri());
         }
-        collection.findOneAndReplace(eq(uriField, newInstance.getUri()), newInstance);
+        if (session != null) {
+            collection.findOneAndReplace(session, eq(uriField, newInstance.getUri()), newInstance);
+        } else {
+            collection.findOneAndReplace(eq(uriField, newInstance.getUri()), newInstance);
+        }
     }
 
     public <T extends MongoModel> void update(T newInstance, Class<T> instanceClass, String collectionName) throws NoSQLInvalidURIException {
@@ -553,6 +774,46 @@ public class MongoDBService extends BaseService {
         }
     }
 
+    /**
+     * Generate URIs of instances without URI. If checkUriExist is true, generated URIs are checked with one query by
+     * {@link #URI_EXISTS_BATCH_SIZE} URIs, and only URIs which already exist or are duplicated in instances are generated again.
+     * URIs already set on instances are not checked, they are only never generated for other instances.
+     *
+     * @param instances instances, will be updated with generated URIs
+     * @param checkUriExist indicate if URIs must be checked
+     * @param instanceClassPrefix prefix of generated URIs
+     * @param collectionName the name of collection on which check URIs
+     * @param <T> the instance class
+     */
+    public <T extends MongoModel> void generateUniqueUris(List<T> instances, boolean checkUriExist, String instanceClassPrefix, String collectionName) throws Exception {
+        String prefix = UriBuilder.fromUri(generationPrefixURI).path(instanceClassPrefix).toString();
+
+        List<T> instancesToGenerate = new ArrayList<>();
+        List<URI> currentUris = new ArrayList<>();
+        for (T instance : instances) {
+            if (instance.getUri() == null) {
+                instancesToGenerate.add(instance);
+            } else {
+                currentUris.add(instance.getUri());
+            }
+        }
+
+        UniqueURIGenerator.InstanceURIGenerator<T> generator = (instance, retry) -> instance.generateURI(prefix, instance, retry);
+        if (!checkUriExist) {
+            for (T instance : instancesToGenerate) {
+                instance.setUri(generator.generateURI(instance, 0));
+            }
+            return;
+        }
+
+        UniqueURIGenerator uniqueUriGenerator = new UniqueURIGenerator(
+                uris -> getExistingUris(collectionName, uris),
+                SPARQLDeserializers::getExpandedURI,
+                URI_EXISTS_BATCH_SIZE
+        );
+        uniqueUriGenerator.generate(instancesToGenerate, generator, T::setUri, currentUris);
+    }
+
     private <T extends MongoModel> Set<URI> checkUriListExists(Class<T> instanceClass, String collectionName, Set<URI> uris) {
         Set foundedURIs = new HashSet<>();
         MongoCollection<T> collection = db.getCollection(collectionName, instanceClass);
@@ -569,7 +830,7 @@ public class MongoDBService extends BaseService {
         MongoCollection<T> collection = db.getCollection(collectionName, instanceClass);
         startTransaction();
         try {
-            DeleteResult result = collection.deleteMany(session, filter);
+            DeleteResult result = collection.deleteMany(getSession(), filter);
             commitTransaction();
             return result;
         } catch (Exception exception) {
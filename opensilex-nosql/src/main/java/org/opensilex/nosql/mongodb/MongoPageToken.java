@@ -0,0 +1,152 @@
+//******************************************************************************
+//                          MongoPageToken.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.nosql.mongodb;
+
+import com.mongodb.client.model.Filters;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonInvalidOperationException;
+import org.bson.BsonNull;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonParseException;
+import org.bson.json.JsonWriterSettings;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <pre>
+ * Continuation token of a keyset (seek) paginated search.
+ *
+ * The token holds the sort specification and the sort key values of the last returned document, with its "_id"
+ * as tie-breaker. The next page is selected with a range predicate on these values instead of skipping previous documents,
+ * so its cost does not depend on the page depth.
+ *
+ * Sort fields should exist in all documents. Null or missing values are handled as the lowest values, like MongoDB sort does.
+ * </pre>
+ */
+final class MongoPageToken {
+
+    private static final String ID_FIELD = "_id";
+
+    private static final String SORT_KEY = "s";
+
+    private static final String VALUES_KEY = "v";
+
+    private static final JsonWriterSettings JSON_SETTINGS = JsonWriterSettings.builder().outputMode(JsonMode.EXTENDED).build();
+
+    private MongoPageToken() {
+    }
+
+    /**
+     * @param sort search sort
+     * @return sort with "_id" as last key, so that documents order is total
+     */
+    static Document keysetSort(Document sort) {
+        Document keysetSort = new Document(sort);
+        keysetSort.putIfAbsent(ID_FIELD, 1);
+        return keysetSort;
+    }
+
+    /**
+     * @param keysetSort sort returned by {@link #keysetSort(Document)}
+     * @param lastDocument last document of the current page
+     * @return token of the next page
+     */
+    static String encode(Document keysetSort, BsonDocument lastDocument) {
+        BsonArray values = new BsonArray();
+        for (String field : keysetSort.keySet()) {
+            values.add(getValue(lastDocument, field));
+        }
+
+        BsonDocument token = new BsonDocument()
+                .append(SORT_KEY, new BsonString(keysetSort.toJson()))
+                .append(VALUES_KEY, values);
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.toJson(JSON_SETTINGS).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param keysetSort sort returned by {@link #keysetSort(Document)}
+     * @param token continuation token returned with previous page
+     * @return filter selecting documents after the last document of previous page
+     * @throws IllegalArgumentException if token is invalid or was built with another sort
+     */
+    static Bson rangeFilter(Document keysetSort, String token) {
+        BsonDocument tokenDocument;
+        try {
+            tokenDocument = BsonDocument.parse(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException | JsonParseException ex) {
+            throw new IllegalArgumentException("Invalid page token", ex);
+        }
+
+        BsonArray values;
+        try {
+            if (!keysetSort.toJson().equals(tokenDocument.getString(SORT_KEY).getValue())) {
+                throw new IllegalArgumentException("Page token was built with another sort");
+            }
+            values = tokenDocument.getArray(VALUES_KEY);
+        } catch (BsonInvalidOperationException ex) {
+            throw new IllegalArgumentException("Invalid page token", ex);
+        }
+        if (values.size() != keysetSort.size()) {
+            throw new IllegalArgumentException("Invalid page token");
+        }
+
+        // (f1 > v1) OR (f1 = v1 AND f2 > v2) OR ... with > or < depending on sort direction
+        List<Bson> clauses = new ArrayList<>(values.size());
+        List<Bson> previousEquals = new ArrayList<>(values.size());
+        int i = 0;
+        for (Map.Entry<String, Object> sortEntry : keysetSort.entrySet()) {
+            String field = sortEntry.getKey();
+            BsonValue value = values.get(i++);
+            boolean ascending = ((Number) sortEntry.getValue()).intValue() >= 0;
+
+            Bson after = after(field, value, ascending);
+            if (after != null) {
+                List<Bson> clause = new ArrayList<>(previousEquals);
+                clause.add(after);
+                clauses.add(clause.size() == 1 ? after : Filters.and(clause));
+            }
+            previousEquals.add(Filters.eq(field, value.isNull() ? null : value));
+        }
+
+        return clauses.isEmpty() ? Filters.in(ID_FIELD) : Filters.or(clauses);
+    }
+
+    /**
+     * @return filter on values after the given one in sort order, or null if there is no such value
+     */
+    private static Bson after(String field, BsonValue value, boolean ascending) {
+        if (value.isNull()) {
+            // null and missing values are sorted first
+            return ascending ? Filters.ne(field, null) : null;
+        }
+        return ascending ? Filters.gt(field, value) : Filters.lt(field, value);
+    }
+
+    /**
+     * @return value of a dotted field path, or null value if missing
+     */
+    private static BsonValue getValue(BsonDocument document, String field) {
+        BsonValue value = document;
+        for (String part : field.split("\\.")) {
+            if (!value.isDocument() || !value.asDocument().containsKey(part)) {
+                return BsonNull.VALUE;
+            }
+            value = value.asDocument().get(part);
+        }
+        return value;
+    }
+}
@@ -11,11 +11,11 @@ import org.bson.codecs.Codec;
 import org.bson.codecs.DecoderContext;
 import org.bson.codecs.EncoderContext;
 import org.opensilex.sparql.deserializer.SPARQLDeserializers;
+import org.opensilex.sparql.deserializer.URIDeserializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.URI;
-import java.net.URISyntaxException;
 
 /**
  * @author jpvert
@@ -36,16 +36,17 @@ public class URICodec implements Codec<URI> {
 
     @Override
     public URI decode(BsonReader reader, DecoderContext decoderContext) {
-        try {
-            String strURI = reader.readString();
-            if (strURI != null && !strURI.isEmpty()) {
-                return SPARQLDeserializers.formatURI(new URI(strURI));
-            }
-        } catch (URISyntaxException ex) {
-            LOGGER.warn("Exception while decoding mongodb URI (should never append", ex);
+        String strURI = reader.readString();
+        if (strURI == null || strURI.isEmpty()) {
+            return null;
         }
 
-        return null;
+        // interned by URIDeserializer cache, so that the same URI is not parsed again for each document
+        URI uri = URIDeserializer.formatURI(strURI);
+        if (uri == null) {
+            LOGGER.warn("Invalid URI while decoding mongodb URI (should never append): " + strURI);
+        }
+        return uri;
     }
 
 }
@@ -0,0 +1,50 @@
+//******************************************************************************
+//                          MongoPageTokenTest.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.nosql.mongodb;
+
+import com.mongodb.MongoClientSettings;
+import org.bson.BsonDateTime;
+import org.bson.BsonDocument;
+import org.bson.BsonObjectId;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MongoPageTokenTest {
+
+    private static BsonDocument lastDocument() {
+        return new BsonDocument()
+                .append("_id", new BsonObjectId(new ObjectId()))
+                .append("date", new BsonDateTime(1000));
+    }
+
+    @Test
+    public void testRangeFilterFromToken() {
+        Document sort = MongoPageToken.keysetSort(new Document("date", -1));
+        assertEquals(new Document("date", -1).append("_id", 1), sort);
+
+        String token = MongoPageToken.encode(sort, lastDocument());
+        Bson filter = MongoPageToken.rangeFilter(sort, token);
+        String json = filter.toBsonDocument(Document.class, MongoClientSettings.getDefaultCodecRegistry()).toJson();
+        assertTrue(json.contains("$lt"));
+        assertTrue(json.contains("$gt"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidToken() {
+        MongoPageToken.rangeFilter(MongoPageToken.keysetSort(new Document("date", -1)), "not a token");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTokenWithAnotherSort() {
+        String token = MongoPageToken.encode(MongoPageToken.keysetSort(new Document("date", -1)), lastDocument());
+        MongoPageToken.rangeFilter(MongoPageToken.keysetSort(new Document("date", 1)), token);
+    }
+}
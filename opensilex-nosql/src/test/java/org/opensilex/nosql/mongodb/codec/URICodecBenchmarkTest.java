@@ -0,0 +1,144 @@
+//******************************************************************************
+//                          URICodecBenchmarkTest.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.nosql.mongodb.codec;
+
+import org.apache.jena.shared.PrefixMapping;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonReader;
+import org.bson.BsonString;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.junit.After;
+import org.junit.Test;
+import org.opensilex.sparql.deserializer.URIDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compare decoding throughput and allocation rate of {@link URICodec} with and without URI interning.
+ */
+public class URICodecBenchmarkTest {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(URICodecBenchmarkTest.class);
+
+    private static final String NAMESPACE = "http://test.opensilex.org/id/";
+
+    private static final int DOCUMENT_COUNT = 100_000;
+
+    private static final int DISTINCT_URI_COUNT = 100;
+
+    private static final int WARMUP_COUNT = 3;
+
+    @After
+    public void clearPrefixes() {
+        URIDeserializer.clearPrefixes();
+    }
+
+    @Test
+    public void testDecodedURIsAreInterned() {
+        URIDeserializer.setPrefixes(getPrefixes(), true);
+        URICodec codec = new URICodec();
+
+        URI expanded = codec.decode(readerOf(NAMESPACE + "variable/1"), DecoderContext.builder().build());
+        URI prefixed = codec.decode(readerOf("test:variable/1"), DecoderContext.builder().build());
+        assertEquals(URI.create("test:variable/1"), expanded);
+        assertSame(expanded, prefixed);
+
+        BsonDocument document = new BsonDocument();
+        BsonDocumentWriter writer = new BsonDocumentWriter(document);
+        writer.writeStartDocument();
+        writer.writeName("uri");
+        codec.encode(writer, prefixed, EncoderContext.builder().build());
+        writer.writeEndDocument();
+        assertEquals(NAMESPACE + "variable/1", document.getString("uri").getValue());
+    }
+
+    @Test
+    public void testDecodeThroughput() {
+        URIDeserializer.setPrefixes(getPrefixes(), true);
+        URICodec codec = new URICodec();
+        PrefixMapping prefixes = getPrefixes();
+
+        List<String> storedURIs = new ArrayList<>(DOCUMENT_COUNT);
+        for (int i = 0; i < DOCUMENT_COUNT; i++) {
+            storedURIs.add(NAMESPACE + "variable/" + (i % DISTINCT_URI_COUNT));
+        }
+
+        // decoding without interning, as done before the URI cache
+        Runnable uncached = () -> {
+            for (String storedURI : storedURIs) {
+                URI uri = URI.create(prefixes.shortForm(URI.create(storedURI).toString()));
+                assertNotNull(uri);
+            }
+        };
+        Runnable cached = () -> {
+            DecoderContext context = DecoderContext.builder().build();
+            for (String storedURI : storedURIs) {
+                assertNotNull(codec.decode(readerOf(storedURI), context));
+            }
+        };
+        // readers are built in both measures, so that only decoding differs
+        Runnable readersOnly = () -> {
+            for (String storedURI : storedURIs) {
+                assertNotNull(readerOf(storedURI).readString());
+            }
+        };
+
+        measure("Uncached URI decoding", uncached);
+        long readerBytes = measure("BSON readers only", readersOnly);
+        long cachedBytes = measure("Cached URI decoding", cached);
+        LOGGER.info("Cached URI decoding: " + Math.max(cachedBytes - readerBytes, 0) / DOCUMENT_COUNT + " bytes allocated by decoded URI, excluding readers");
+    }
+
+    /**
+     * @return bytes allocated by the current thread during last run, or -1 if not supported by JVM
+     */
+    private static long measure(String name, Runnable run) {
+        for (int i = 0; i < WARMUP_COUNT; i++) {
+            run.run();
+        }
+
+        long startBytes = allocatedBytes();
+        long start = System.nanoTime();
+        run.run();
+        long duration = System.nanoTime() - start;
+        long bytes = startBytes < 0 ? -1 : allocatedBytes() - startBytes;
+
+        LOGGER.info(name + ": " + DOCUMENT_COUNT * 1_000_000_000L / Math.max(duration, 1) + " URIs/s, "
+                + (bytes < 0 ? "unknown" : bytes / DOCUMENT_COUNT) + " bytes allocated by URI");
+        return bytes;
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static BsonReader readerOf(String value) {
+        BsonReader reader = new BsonDocumentReader(new BsonDocument("uri", new BsonString(value)));
+        reader.readStartDocument();
+        reader.readName();
+        return reader;
+    }
+
+    private static PrefixMapping getPrefixes() {
+        return PrefixMapping.Factory.create().setNsPrefix("test", NAMESPACE).lock();
+    }
+}
@@ -11,6 +11,7 @@ import com.auth0.jwt.JWT;
 import com.auth0.jwt.JWTCreator;
 import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTDecodeException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.impl.PublicClaims;
 import com.auth0.jwt.interfaces.DecodedJWT;
@@ -83,7 +84,7 @@ import org.opensilex.service.BaseService;
  * For details see: https://github.com/patrickfav/bcrypt
  *
  * Logged in users are registred in a concurrent map with their token
- * and automatically unregistred after token expiration.
+ * and automatically unregistred after token expiration by a single expiration thread.
  *
  * For existing claim ids, see: https://www.iana.org/assignments/jwt/jwt.xhtml#claims
  * </pre>
@@ -194,20 +195,29 @@ public class AuthenticationService extends BaseService implements Service {
     private ConcurrentHashMap<URI, UserModel> userRegistry = new ConcurrentHashMap<>();
 
     /**
-     * Auto-logout thread map by users
+     * Auto-logout scheduler for registred users
      */
-    private ConcurrentHashMap<URI, Thread> schedulerRegistry = new ConcurrentHashMap<>();
+    private final ExpirationScheduler<URI> userExpirationScheduler = new ExpirationScheduler<>("opensilex-user-expiration", userURI -> {
+        LOGGER.debug("User connection timeout: " + userURI);
+        try {
+            removeUserByURI(userURI);
+        } catch (Exception ex) {
+            LOGGER.warn("Error while removing user: " + userURI + " - ", ex);
+        }
+    });
 
-    
     /**
      * Map of forgot users URI by uuid URI
      */
     private ConcurrentHashMap<URI, URI> forgotPasswordUserRegistry = new ConcurrentHashMap<>();
 
     /**
-     * Forgot password thread map by users
+     * Forgot password renew token expiration scheduler
      */
-    private ConcurrentHashMap<URI, Thread> schedulerForgotUserPasswordRegistry = new ConcurrentHashMap<>();
+    private final ExpirationScheduler<URI> forgotPasswordExpirationScheduler = new ExpirationScheduler<>("opensilex-renew-token-expiration", uuidURI -> {
+        LOGGER.debug("Renew token UUID expires: " + uuidURI);
+        forgotPasswordUserRegistry.remove(uuidURI);
+    });
 
     public static final String DEFAULT_SUPER_ADMIN_EMAIL = "admin@opensilex.org";
     
@@ -216,6 +226,16 @@ public class AuthenticationService extends BaseService implements Service {
      */
     private final Algorithm algoRSA;
 
+    /**
+     * JWT token verifier for the RSA key pair, thread-safe and reusable
+     */
+    private final JWTVerifier verifier;
+
+    /**
+     * Already verified tokens, to check each token signature only once
+     */
+    private final VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache();
+
     
     /**
      * reset password uuid validity duration in days
@@ -235,6 +255,15 @@ public class AuthenticationService extends BaseService implements Service {
         RSAPublicKey publicKey = (RSAPublicKey) kp.getPublic();
         RSAPrivateKey privateKey = (RSAPrivateKey) kp.getPrivate();
         algoRSA = Algorithm.RSA512(publicKey, privateKey);
+        verifier = JWT.require(algoRSA)
+                .withIssuer(TOKEN_ISSUER)
+                .build();
+    }
+
+    @Override
+    public void shutdown() throws Exception {
+        userExpirationScheduler.shutdown();
+        forgotPasswordExpirationScheduler.shutdown();
     }
 
     /**
@@ -319,9 +348,6 @@ public class AuthenticationService extends BaseService implements Service {
         if (user.getToken() != null) {
 
             // Check and decode current user token
-            JWTVerifier verifier = JWT.require(algoRSA)
-                    .withIssuer(TOKEN_ISSUER)
-                    .build();
             DecodedJWT jwt = verifier.verify(user.getToken());
 
             // Create a new token
@@ -379,13 +405,7 @@ public class AuthenticationService extends BaseService implements Service {
      * @throws URISyntaxException In case of invalid user URI in token (should never happend)
      */
     public URI decodeTokenUserURI(String tokenValue) throws JWTVerificationException, URISyntaxException {
-        JWTVerifier verifier = JWT.require(algoRSA)
-                .withIssuer(TOKEN_ISSUER)
-                .build();
-
-        DecodedJWT jwt = verifier.verify(tokenValue);
-
-        return new URI(jwt.getSubject());
+        return verifyToken(tokenValue).getUserURI();
     }
 
     /**
@@ -395,24 +415,41 @@ public class AuthenticationService extends BaseService implements Service {
      * @return credentials id list
      */
     public String[] decodeTokenCredentialsList(String tokenValue) {
-        JWTVerifier verifier = JWT.require(algoRSA)
-                .withIssuer(TOKEN_ISSUER)
-                .build();
-
-        DecodedJWT jwt = verifier.verify(tokenValue);
-
-        return jwt.getClaim(CLAIM_CREDENTIALS_LIST).asArray(String.class);
+        try {
+            return verifyToken(tokenValue).getCredentialsList();
+        } catch (URISyntaxException ex) {
+            throw new JWTDecodeException("Invalid token subject", ex);
+        }
     }
 
     public String[] decodeStringArrayClaim(String token, String key) {
 
-        return JWT.require(algoRSA)
-                .withIssuer(TOKEN_ISSUER)
-                .build()
-                .verify(token)
+        return verifier.verify(token)
                 .getClaim(key).asArray(String.class);
     }
 
+    /**
+     * Verify token signature and expiration, or get it from the verified tokens cache
+     *
+     * @param tokenValue JWT token string
+     * @return verified token claims
+     * @throws JWTVerificationException In case of token validation error
+     * @throws URISyntaxException In case of invalid user URI in token (should never happend)
+     */
+    private VerifiedTokenCache.VerifiedToken verifyToken(String tokenValue) throws JWTVerificationException, URISyntaxException {
+        VerifiedTokenCache.VerifiedToken verifiedToken = verifiedTokenCache.get(tokenValue);
+        if (verifiedToken == null) {
+            DecodedJWT jwt = verifier.verify(tokenValue);
+            verifiedToken = new VerifiedTokenCache.VerifiedToken(
+                    new URI(jwt.getSubject()),
+                    jwt.getClaim(CLAIM_CREDENTIALS_LIST).asArray(String.class),
+                    jwt.getExpiresAt()
+            );
+            verifiedTokenCache.put(tokenValue, verifiedToken);
+        }
+        return verifiedToken;
+    }
+
     /**
      * Return authentication expiration delay in seconds
      *
@@ -447,18 +484,19 @@ public class AuthenticationService extends BaseService implements Service {
      * @param user User to check
      * @return true if user is authenticated, false otherwise
      */
-    public synchronized boolean hasUser(UserModel user) {
+    public boolean hasUser(UserModel user) {
         return hasUserURI(user.getUri());
     }
 
     /**
-     * Add a user with an authentication delay. Create a thread per user which just sleep until delay is expired.
+     * Add a user with an authentication delay. User expiration is scheduled on the shared expiration thread,
+     * registering an already registred user renew its expiration.
      *
      * @param user Userto add
      * @param expireMs authentication delay in milliseconds
      * @throws Exception in case previous user connection can't be cleared
      */
-    public synchronized void addUser(UserModel user, long expireMs) throws Exception {
+    public void addUser(UserModel user, long expireMs) throws Exception {
         URI userURI = user.getUri();
 
         // If user already registred remove it
@@ -466,25 +504,9 @@ public class AuthenticationService extends BaseService implements Service {
             removeUserByURI(userURI);
         }
 
-        // Create thread to remove user after expire time
-        Thread t = new Thread(() -> {
-            try {
-                Thread.sleep(expireMs);
-                LOGGER.debug("User connection timeout: " + userURI);
-                removeUser(user);
-            } catch (InterruptedException ex) {
-                LOGGER.debug("Revoke user: " + userURI + " - " + ex.getMessage());
-            } catch (Exception ex) {
-                LOGGER.warn("Error while removing user: " + userURI + " - ", ex);
-            }
-        });
-
-        // Start thread
-        t.start();
-
-        // Add user and logout thread into concurrent map registry
+        // Add user into concurrent map registry and schedule its logout
         userRegistry.put(userURI, user);
-        schedulerRegistry.put(userURI, t);
+        userExpirationScheduler.schedule(userURI, expireMs);
 
         LOGGER.debug("User registered: " + userURI);
     }
@@ -496,7 +518,7 @@ public class AuthenticationService extends BaseService implements Service {
      * @return removed user or null
      * @throws Exception in case user connection can't be cleared
      */
-    public synchronized UserModel removeUser(UserModel user) throws Exception {
+    public UserModel removeUser(UserModel user) throws Exception {
         return removeUserByURI(user.getUri());
     }
 
@@ -507,21 +529,24 @@ public class AuthenticationService extends BaseService implements Service {
      * @return removed user or null if not found
      * @throws Exception in case user connection can't be cleared
      */
-    public synchronized UserModel removeUserByURI(URI userURI) throws Exception {
-        boolean allowMultiConnection = getOpenSilex().getModuleConfig(SecurityModule.class, SecurityConfig.class).allowMultiConnection();
-        if (!allowMultiConnection && hasUserURI(userURI)) {
-            LOGGER.debug("Unregister user: " + userURI);
-            schedulerRegistry.get(userURI).interrupt();
-            schedulerRegistry.remove(userURI);
+    public UserModel removeUserByURI(URI userURI) throws Exception {
+        verifiedTokenCache.invalidateUser(userURI);
 
+        boolean allowMultiConnection = getOpenSilex().getModuleConfig(SecurityModule.class, SecurityConfig.class).allowMultiConnection();
+        if (!allowMultiConnection) {
+            // Only the thread which actually removes the user calls logout extensions
             UserModel user = userRegistry.remove(userURI);
+            if (user != null) {
+                LOGGER.debug("Unregister user: " + userURI);
+                userExpirationScheduler.cancel(userURI);
 
-            // Allow any module implementing LoginExtension to do something on logout
-            for (LoginExtension module : getOpenSilex().getModulesImplementingInterface(LoginExtension.class)) {
-                module.logout(user);
-            }
+                // Allow any module implementing LoginExtension to do something on logout
+                for (LoginExtension module : getOpenSilex().getModulesImplementingInterface(LoginExtension.class)) {
+                    module.logout(user);
+                }
 
-            return user;
+                return user;
+            }
         }
 
         return null;
@@ -533,7 +558,7 @@ public class AuthenticationService extends BaseService implements Service {
      * @param userURI User URI to check
      * @return true if user is registred false otherwise
      */
-    public synchronized boolean hasUserURI(URI userURI) {
+    public boolean hasUserURI(URI userURI) {
         return userRegistry.containsKey(userURI);
     }
 
@@ -543,10 +568,31 @@ public class AuthenticationService extends BaseService implements Service {
      * @param userURI User URI to get
      * @return registred user or null
      */
-    public synchronized UserModel getUserByUri(URI userURI) {
+    public UserModel getUserByUri(URI userURI) {
         return userRegistry.get(userURI);
     }
 
+    /**
+     * @return number of registred users
+     */
+    public int getActiveSessionCount() {
+        return userRegistry.size();
+    }
+
+    /**
+     * @return number of user connections which expired during the last minute
+     */
+    public long getSessionExpirationsPerMinute() {
+        return userExpirationScheduler.getExpirationsLastMinute();
+    }
+
+    /**
+     * @return number of user connections which expired since service start
+     */
+    public long getSessionExpiredCount() {
+        return userExpirationScheduler.getExpiredCount();
+    }
+
     public boolean authenticate(UserModel user, String password, List<String> accessList) throws Exception {
         if ((user != null && checkPassword(password, user.getPasswordHash()))) {
             generateToken(user, accessList);
@@ -697,59 +743,36 @@ public class AuthenticationService extends BaseService implements Service {
      * @return URI token generated renew token uri
      * @throws Exception in case previous uuid connection can't be cleared
      */
-    public synchronized URI addForgotPasswordId(URI userUri) throws Exception {
+    public URI addForgotPasswordId(URI userUri) throws Exception {
         UUID uuid = UUID.randomUUID();
         URI uuidURI = new URI("os-reset-pwd:"+ uuid.toString().replaceAll("-", ""));
 
-        // If uuid already registred remove it
-        if (schedulerForgotUserPasswordRegistry.containsKey(uuidURI)) {
-            schedulerForgotUserPasswordRegistry.get(uuidURI).interrupt();
-            schedulerForgotUserPasswordRegistry.remove(uuidURI);
-        }
         LOGGER.debug("Renew token expires in :" + getRenewTokenExpiresInSec());
-        // Create thread to remove user after expire time
-        Thread t = new Thread(() -> {
-            try {
-                Thread.sleep(getRenewTokenExpiresInSec());
-                LOGGER.debug("Renew token UUID expires: " + uuidURI);
-                schedulerForgotUserPasswordRegistry.remove(uuidURI);
-            } catch (InterruptedException ex) {
-                LOGGER.debug("Revoke renew token UUID: " + uuidURI + " - " + ex.getMessage());
-            } catch (Exception ex) {
-                LOGGER.warn("Error while removing user fogotten password: " + uuidURI + " - ", ex);
-            }
-        });
-
-        // Start thread
-        t.start();
 
-        // Add user and logout thread into concurrent map registry
+        // Add user into concurrent map registry and schedule renew token expiration (replace any previous one for this uuid)
         forgotPasswordUserRegistry.put(uuidURI, userUri);
-        schedulerForgotUserPasswordRegistry.put(uuidURI, t);
+        forgotPasswordExpirationScheduler.schedule(uuidURI, getRenewTokenExpiresInSec() * 1000);
         LOGGER.debug("Renew token UUID registered: " + uuidURI + "for user : " + userUri);
         
         return uuidURI;
     }
     
     public URI getForgottenPasswordUserURIFromRenewToken(URI uuidURI) throws Exception {    
-        // If uuid already registred remove it
-        if (!schedulerForgotUserPasswordRegistry.containsKey(uuidURI)) {
+        URI userURI = forgotPasswordUserRegistry.get(uuidURI);
+        if (userURI == null) {
             LOGGER.debug("Unknown Renew token UUID: " + uuidURI);
-            return null;
-        }       
-        
-        return forgotPasswordUserRegistry.get(uuidURI);
+        }
+
+        return userURI;
     }
     
     public boolean removeForgottenPasswordUserFromRenewToken(URI uuidURI) throws Exception {    
 
         // If uuid already registred remove it
-        if (!schedulerForgotUserPasswordRegistry.containsKey(uuidURI)) {
+        if (forgotPasswordUserRegistry.remove(uuidURI) == null) {
             LOGGER.debug("Unknown Renew token UUID: " + uuidURI);
-         }else{
-            schedulerForgotUserPasswordRegistry.get(uuidURI).interrupt();
-            schedulerForgotUserPasswordRegistry.remove(uuidURI);
-            forgotPasswordUserRegistry.remove(uuidURI);
+        } else {
+            forgotPasswordExpirationScheduler.cancel(uuidURI);
         }
         return true;
     }
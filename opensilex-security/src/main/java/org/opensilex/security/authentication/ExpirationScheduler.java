@@ -0,0 +1,192 @@
+//******************************************************************************
+//                      ExpirationScheduler.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.security.authentication;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <pre>
+ * Expire keys after a delay with a single thread for all keys.
+ *
+ * Scheduled expirations are stored in a {@link DelayQueue} drained by one daemon thread.
+ * The current expiration of each key is indexed in a concurrent map, so renew and cancel operations
+ * only replace or remove the map entry : outdated queue entries are just ignored when they are drained.
+ *
+ * Keep count of expirations over the last minute for monitoring purpose.
+ * </pre>
+ *
+ * @param <K> expired key type
+ */
+public class ExpirationScheduler<K> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExpirationScheduler.class);
+
+    /**
+     * Number of one second buckets used to count expirations over the last minute
+     */
+    private static final int EXPIRATION_BUCKETS = 60;
+
+    private final DelayQueue<Expiration<K>> queue = new DelayQueue<>();
+
+    private final ConcurrentHashMap<K, Expiration<K>> expirations = new ConcurrentHashMap<>();
+
+    private final Consumer<K> expirationHandler;
+
+    private final Thread worker;
+
+    private final LongAdder expiredCount = new LongAdder();
+
+    private final long[] bucketSeconds = new long[EXPIRATION_BUCKETS];
+
+    private final long[] bucketCounts = new long[EXPIRATION_BUCKETS];
+
+    /**
+     * Create a scheduler and start its expiration thread
+     *
+     * @param name expiration thread name
+     * @param expirationHandler function called with each expired key, from the expiration thread
+     */
+    public ExpirationScheduler(String name, Consumer<K> expirationHandler) {
+        this.expirationHandler = expirationHandler;
+        this.worker = new Thread(this::drain, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Schedule key expiration, replace any previous expiration of this key.
+     *
+     * @param key key to expire
+     * @param delayMs expiration delay in milliseconds
+     */
+    public void schedule(K key, long delayMs) {
+        Expiration<K> expiration = new Expiration<>(key, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs));
+        expirations.put(key, expiration);
+        queue.add(expiration);
+    }
+
+    /**
+     * Cancel key expiration
+     *
+     * @param key key to cancel
+     * @return true if an expiration was scheduled for this key
+     */
+    public boolean cancel(K key) {
+        return expirations.remove(key) != null;
+    }
+
+    /**
+     * @param key key to check
+     * @return true if an expiration is scheduled for this key
+     */
+    public boolean isScheduled(K key) {
+        return expirations.containsKey(key);
+    }
+
+    /**
+     * @return number of keys waiting for expiration
+     */
+    public int getScheduledCount() {
+        return expirations.size();
+    }
+
+    /**
+     * @return number of keys expired since scheduler creation
+     */
+    public long getExpiredCount() {
+        return expiredCount.sum();
+    }
+
+    /**
+     * @return number of keys expired during the last minute
+     */
+    public synchronized long getExpirationsLastMinute() {
+        long nowSec = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+        long count = 0;
+        for (int i = 0; i < EXPIRATION_BUCKETS; i++) {
+            if (nowSec - bucketSeconds[i] < EXPIRATION_BUCKETS) {
+                count += bucketCounts[i];
+            }
+        }
+        return count;
+    }
+
+    private synchronized void recordExpiration() {
+        expiredCount.increment();
+        long nowSec = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+        int bucket = (int) Math.floorMod(nowSec, (long) EXPIRATION_BUCKETS);
+        if (bucketSeconds[bucket] != nowSec) {
+            bucketSeconds[bucket] = nowSec;
+            bucketCounts[bucket] = 0;
+        }
+        bucketCounts[bucket]++;
+    }
+
+    /**
+     * Stop expiration thread, scheduled keys will never expire.
+     */
+    public void shutdown() {
+        worker.interrupt();
+        expirations.clear();
+        queue.clear();
+    }
+
+    private void drain() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Expiration<K> expiration;
+            try {
+                expiration = queue.take();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            // Ignore expirations which were renewed or cancelled since their scheduling
+            if (expirations.remove(expiration.key, expiration)) {
+                recordExpiration();
+                try {
+                    expirationHandler.accept(expiration.key);
+                } catch (Exception ex) {
+                    LOGGER.warn("Error while expiring: " + expiration.key + " - ", ex);
+                }
+            }
+        }
+        LOGGER.debug("Expiration thread stopped: " + worker.getName());
+    }
+
+    private static class Expiration<K> implements Delayed {
+
+        private final K key;
+
+        private final long deadlineNanos;
+
+        private Expiration(K key, long deadlineNanos) {
+            this.key = key;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            if (other instanceof Expiration) {
+                return Long.compare(deadlineNanos, ((Expiration<?>) other).deadlineNanos);
+            }
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+}
@@ -0,0 +1,168 @@
+//******************************************************************************
+//                      VerifiedTokenCache.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.security.authentication;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <pre>
+ * Bounded cache of already verified JWT tokens, in order to check each token signature only once.
+ *
+ * Tokens are indexed by their SHA-256 digest, cached entries are ignored and removed once the token is expired
+ * and all entries of a user can be invalidated on logout.
+ * </pre>
+ */
+public class VerifiedTokenCache {
+
+    /**
+     * Default maximum number of cached tokens
+     */
+    public static final int DEFAULT_MAX_SIZE = 10000;
+
+    private final int maxSize;
+
+    private final ConcurrentHashMap<String, VerifiedToken> tokens = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<URI, Set<String>> digestsByUser = new ConcurrentHashMap<>();
+
+    public VerifiedTokenCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public VerifiedTokenCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param token JWT token string
+     * @return verified token or null if token is not cached or expired
+     */
+    public VerifiedToken get(String token) {
+        String digest = digest(token);
+        VerifiedToken verifiedToken = tokens.get(digest);
+        if (verifiedToken == null) {
+            return null;
+        }
+        if (verifiedToken.isExpired(System.currentTimeMillis())) {
+            remove(digest, verifiedToken);
+            return null;
+        }
+        return verifiedToken;
+    }
+
+    /**
+     * Register a token which signature was verified
+     *
+     * @param token JWT token string
+     * @param verifiedToken decoded token
+     */
+    public void put(String token, VerifiedToken verifiedToken) {
+        if (tokens.size() >= maxSize) {
+            evict();
+        }
+        String digest = digest(token);
+        tokens.put(digest, verifiedToken);
+        digestsByUser.computeIfAbsent(verifiedToken.getUserURI(), key -> ConcurrentHashMap.newKeySet()).add(digest);
+    }
+
+    /**
+     * Remove all cached tokens of a user
+     *
+     * @param userURI user URI
+     */
+    public void invalidateUser(URI userURI) {
+        Set<String> digests = digestsByUser.remove(userURI);
+        if (digests != null) {
+            for (String digest : digests) {
+                tokens.remove(digest);
+            }
+        }
+    }
+
+    /**
+     * @return number of cached tokens
+     */
+    public int size() {
+        return tokens.size();
+    }
+
+    /**
+     * Remove expired tokens, then remove arbitrary tokens if cache is still full
+     */
+    private void evict() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, VerifiedToken> entry : tokens.entrySet()) {
+            if (entry.getValue().isExpired(now)) {
+                remove(entry.getKey(), entry.getValue());
+            }
+        }
+
+        Iterator<Map.Entry<String, VerifiedToken>> it = tokens.entrySet().iterator();
+        while (tokens.size() >= maxSize && it.hasNext()) {
+            Map.Entry<String, VerifiedToken> entry = it.next();
+            remove(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void remove(String digest, VerifiedToken verifiedToken) {
+        if (tokens.remove(digest, verifiedToken)) {
+            Set<String> digests = digestsByUser.get(verifiedToken.getUserURI());
+            if (digests != null) {
+                digests.remove(digest);
+            }
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(md.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            // SHA-256 is available on every Java platform
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Claims of a verified token used by authentication filters
+     */
+    public static class VerifiedToken {
+
+        private final URI userURI;
+
+        private final String[] credentialsList;
+
+        private final long expiresAt;
+
+        public VerifiedToken(URI userURI, String[] credentialsList, Date expiresAt) {
+            this.userURI = userURI;
+            this.credentialsList = credentialsList;
+            this.expiresAt = expiresAt == null ? Long.MAX_VALUE : expiresAt.getTime();
+        }
+
+        public URI getUserURI() {
+            return userURI;
+        }
+
+        public String[] getCredentialsList() {
+            return credentialsList == null ? null : credentialsList.clone();
+        }
+
+        public boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
@@ -43,6 +43,7 @@ import org.opensilex.server.exceptions.UnexpectedErrorException;
 import org.opensilex.security.authentication.ApiProtected;
 import org.opensilex.security.authentication.SecurityContextProxy;
 import org.opensilex.security.user.dal.UserModel;
+import org.opensilex.server.rest.cache.ApiCacheFilter;
 import org.opensilex.server.rest.serialization.ObjectMapperContextResolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -202,6 +203,7 @@ public class AuthenticationFilter implements ContainerRequestFilter, ContainerRe
         if (locale != null && !locale.toString().equals("*")) {
             user.setLocale(locale);
         }
+        requestContext.setProperty(ApiCacheFilter.USER_LANGUAGE_PROPERTY, user.getLanguage());
 
         // Define user to be accessed through SecurityContext
         SecurityContext originalContext = requestContext.getSecurityContext();
@@ -28,6 +28,11 @@ import org.opensilex.utils.ListWithPagination;
  */
 public final class GroupDAO {
 
+    /**
+     * API cache tag invalidated on each group modification, responses depending on user groups must use it
+     */
+    public static final String CACHE_TAG = "groups";
+
     private final SPARQLService sparql;
 
     public GroupDAO(SPARQLService sparql) {
@@ -36,6 +41,7 @@ public final class GroupDAO {
 
     public GroupModel create(GroupModel group) throws Exception {
         sparql.create(group);
+        sparql.invalidateApiCacheTags(CACHE_TAG);
         return group;
     }
 
@@ -45,10 +51,12 @@ public final class GroupDAO {
 
     public void delete(URI groupURI) throws Exception {
         sparql.delete(GroupModel.class, groupURI);
+        sparql.invalidateApiCacheTags(CACHE_TAG);
     }
 
     public GroupModel update(GroupModel group) throws Exception {
         sparql.update(group);
+        sparql.invalidateApiCacheTags(CACHE_TAG);
         return group;
     }
 
@@ -25,6 +25,11 @@ import org.opensilex.utils.ListWithPagination;
  */
 public final class UserDAO {
 
+    /**
+     * Cache tag invalidated on each user modification or deletion, caches depending on user rights must use it
+     */
+    public static final String CACHE_TAG = "users";
+
     private final SPARQLService sparql;
 
     public UserDAO(SPARQLService sparql) {
@@ -82,6 +87,7 @@ public final class UserDAO {
 
     public void delete(URI instanceURI) throws Exception {
         sparql.delete(UserModel.class, instanceURI);
+        sparql.invalidateApiCacheTags(CACHE_TAG);
     }
 
     public UserModel update(
@@ -106,6 +112,7 @@ public final class UserDAO {
         }
 
         sparql.update(user);
+        sparql.invalidateApiCacheTags(CACHE_TAG);
 
         return user;
     }
@@ -66,4 +66,10 @@ public interface SPARQLConfig {
             defaultBoolean = true
     )
     boolean enableOntologyStore();
+
+    @ConfigDescription(
+            value = "Enable in-memory index of resource names, used instead of REGEX filters by name searches",
+            defaultBoolean = true
+    )
+    boolean enableTextIndex();
 }
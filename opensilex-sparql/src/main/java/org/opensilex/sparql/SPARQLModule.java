@@ -13,6 +13,9 @@ import org.opensilex.sparql.ontology.store.DefaultOntologyStore;
 import org.opensilex.sparql.ontology.store.NoOntologyStore;
 import org.opensilex.sparql.ontology.store.OntologyStore;
 import org.opensilex.sparql.service.SPARQLService;
+import org.opensilex.sparql.text.DefaultTextIndex;
+import org.opensilex.sparql.text.NoTextIndex;
+import org.opensilex.sparql.text.TextIndex;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.time.Duration;
@@ -50,6 +53,8 @@ public class SPARQLModule extends OpenSilexModule {
 
     private static OntologyStore ontologyStore;
 
+    private static TextIndex textIndex;
+
     @Override
     public Class<?> getConfigClass() {
         return SPARQLConfig.class;
@@ -206,6 +211,22 @@ public class SPARQLModule extends OpenSilexModule {
         return ontologyStore;
     }
 
+    private static void initTextIndex(OpenSilex openSilex) throws OpenSilexModuleNotFoundException {
+        SPARQLConfig sparqlConfig = openSilex.getModuleConfig(SPARQLModule.class, SPARQLConfig.class);
+
+        // same restrictions as the OntologyStore, names are loaded lazily on first search
+        boolean useIndex = (! openSilex.isReservedProfile() && ! openSilex.isTest() ) && sparqlConfig.enableTextIndex();
+        textIndex = useIndex ? new DefaultTextIndex() : new NoTextIndex();
+        LOGGER.debug("Using {} TextIndex implementation", textIndex.getClass().getSimpleName());
+    }
+
+    /**
+     * @return the text index, or null if the module is not started
+     */
+    public static TextIndex getTextIndexInstance(){
+        return textIndex;
+    }
+
     @Override
     public void startup() throws Exception {
         SPARQLServiceFactory factory = getOpenSilex().getServiceInstance(SPARQLService.DEFAULT_SPARQL_SERVICE, SPARQLServiceFactory.class);
@@ -217,6 +238,7 @@ public class SPARQLModule extends OpenSilexModule {
 
         SPARQLService sparql = factory.provide();
         SPARQLModule.initOntologyStore(getOpenSilex(),sparql);
+        SPARQLModule.initTextIndex(getOpenSilex());
     }
 
 }
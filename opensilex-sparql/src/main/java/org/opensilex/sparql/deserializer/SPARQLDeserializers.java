@@ -214,11 +214,8 @@ public class SPARQLDeserializers {
     }
 
     public static String formatURI(String value) {
-        try {
-            return URIDeserializer.formatURI(new URI(value)).toString();
-        } catch (URISyntaxException ex) {
-            return value;
-        }
+        URI uri = URIDeserializer.formatURI(value);
+        return uri == null ? value : uri.toString();
     }
 
     public static Node[] nodeListURIAsArray(Collection<URI> uris) throws Exception {
@@ -0,0 +1,113 @@
+//******************************************************************************
+//                          URICache.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.deserializer;
+
+import org.apache.jena.shared.PrefixMapping;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <pre>
+ * Bounded concurrent interning cache of URIs, used by {@link URIDeserializer}.
+ *
+ * Each entry holds the prefixed and expanded forms of an URI, as strings and as canonical {@link URI} instances.
+ * The entry is registered under both forms, so that decoding the same URI stored in any form returns the same instance.
+ *
+ * The cache is built for one prefix mapping, a new cache must be used when prefixes change.
+ * Once its maximum size is reached, the cache is cleared : frequently used URIs are cached again by next calls.
+ * </pre>
+ */
+public class URICache {
+
+    public static final int DEFAULT_MAX_SIZE = 100_000;
+
+    /**
+     * Prefixed and expanded forms of an URI, URI instances are null if the value is not a valid URI
+     */
+    static final class Entry {
+
+        final String shortForm;
+
+        final String expandedForm;
+
+        final URI shortURI;
+
+        final URI expandedURI;
+
+        private Entry(String shortForm, String expandedForm) {
+            this.shortForm = shortForm;
+            this.expandedForm = expandedForm;
+            this.expandedURI = parse(expandedForm);
+            this.shortURI = shortForm.equals(expandedForm) ? expandedURI : parse(shortForm);
+        }
+
+        private static URI parse(String value) {
+            try {
+                return new URI(value);
+            } catch (URISyntaxException ex) {
+                return null;
+            }
+        }
+    }
+
+    private final PrefixMapping prefixes;
+
+    private final int maxSize;
+
+    private final ConcurrentHashMap<String, Entry> entries;
+
+    /**
+     * @param prefixes prefix mapping used to compute prefixed and expanded forms, must not be modified once given
+     * @param maxSize maximum number of cached strings
+     */
+    public URICache(PrefixMapping prefixes, int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("URI cache max size must be strictly positive");
+        }
+        this.prefixes = prefixes;
+        this.maxSize = maxSize;
+        this.entries = new ConcurrentHashMap<>(Math.min(maxSize, 1024));
+    }
+
+    /**
+     * @param value prefixed or expanded URI, must not be null
+     * @return cached forms of the URI
+     */
+    Entry get(String value) {
+        Entry entry = entries.get(value);
+        if (entry != null) {
+            return entry;
+        }
+
+        // computed outside of the map to avoid locking a bin while expanding prefixes
+        entry = new Entry(prefixes.shortForm(value), prefixes.expandPrefix(value));
+
+        if (entries.size() >= maxSize) {
+            entries.clear();
+        }
+        Entry existing = entries.putIfAbsent(value, entry);
+        if (existing != null) {
+            return existing;
+        }
+        entries.putIfAbsent(entry.shortForm, entry);
+        entries.putIfAbsent(entry.expandedForm, entry);
+        return entry;
+    }
+
+    /**
+     * @return number of cached strings
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+}
@@ -26,7 +26,12 @@ public class URIDeserializer implements SPARQLDeserializer<URI> {
             return new URI(value);
         }
 
-        return formatURI(new URI(value));
+        URI uri = formatURI(value);
+        if (uri == null) {
+            // throw the parsing error
+            return new URI(value);
+        }
+        return uri;
     }
 
     @Override
@@ -35,52 +40,46 @@ public class URIDeserializer implements SPARQLDeserializer<URI> {
     }
 
     public static URI formatURI(URI uri) {
-        if (uri == null || prefixes == null) {
+        URICache uriCache = cache;
+        if (uri == null || uriCache == null) {
             return uri;
         }
-        try {
-            if (usePrefixes) {
-                return new URI(prefixes.shortForm(uri.toString()));
-            } else {
-                return new URI(prefixes.expandPrefix(uri.toString()));
-            }
-        } catch (URISyntaxException ex) {
-            // TODO log error
-        }
-
-        return null;
+        return getFormattedURI(uriCache.get(uri.toString()));
     }
 
     public static URI formatURI(String uri) {
         if (StringUtils.isEmpty(uri)) {
             return null;
         }
-        try {
-            if (usePrefixes) {
-                return new URI(prefixes.shortForm(uri));
-            } else {
-                return new URI(prefixes.expandPrefix(uri));
+        URICache uriCache = cache;
+        if (uriCache == null) {
+            try {
+                return new URI(uri);
+            } catch (URISyntaxException ex) {
+                return null;
             }
-        } catch (URISyntaxException ex) {
-            // TODO log error
         }
-
-        return null;
+        return getFormattedURI(uriCache.get(uri));
     }
 
     public static String formatURIAsStr(String uri){
         if (StringUtils.isEmpty(uri)) {
             return null;
         }
-
-        return usePrefixes ? prefixes.shortForm(uri) : prefixes.expandPrefix(uri);
+        URICache uriCache = cache;
+        if (uriCache == null) {
+            return uri;
+        }
+        URICache.Entry entry = uriCache.get(uri);
+        return usePrefixes ? entry.shortForm : entry.expandedForm;
     }
 
     public static String getShortURI(String value) {
-        if (value == null || value.isEmpty() || prefixes == null) {
+        URICache uriCache = cache;
+        if (value == null || value.isEmpty() || uriCache == null) {
             return value;
         }
-        return prefixes.shortForm(value);
+        return uriCache.get(value).shortForm;
     }
 
     public static String getExpandedURI(URI value) {
@@ -91,10 +90,15 @@ public class URIDeserializer implements SPARQLDeserializer<URI> {
     }
 
     public static String getExpandedURI(String value) {
-        if (prefixes == null || value == null) {
+        URICache uriCache = cache;
+        if (uriCache == null || value == null) {
             return value;
         }
-        return prefixes.expandPrefix(value);
+        return uriCache.get(value).expandedForm;
+    }
+
+    private static URI getFormattedURI(URICache.Entry entry) {
+        return usePrefixes ? entry.shortURI : entry.expandedURI;
     }
 
     @Override
@@ -107,13 +111,17 @@ public class URIDeserializer implements SPARQLDeserializer<URI> {
 
     private static PrefixMapping prefixes = null;
     private static boolean usePrefixes = false;
+    private static volatile URICache cache = null;
 
     public static void setPrefixes(PrefixMapping prefixesMap, boolean usePrefixes) {
         URIDeserializer.prefixes = prefixesMap;
         URIDeserializer.usePrefixes = usePrefixes;
+        // set last, so that prefixes are visible to threads reading the cache
+        URIDeserializer.cache = prefixesMap == null ? null : new URICache(prefixesMap, URICache.DEFAULT_MAX_SIZE);
     }
 
     public static void clearPrefixes() {
+        cache = null;
         prefixes = null;
         usePrefixes = false;
     }
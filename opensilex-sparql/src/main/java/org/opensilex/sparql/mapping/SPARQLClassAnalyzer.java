@@ -25,6 +25,7 @@ import java.lang.reflect.*;
 import java.net.URI;
 import java.util.*;
 import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 /**
  *
@@ -74,6 +75,10 @@ public final class SPARQLClassAnalyzer {
 
     private final BiMap<Method, String> fieldsBySetter;
 
+    private final Map<String, Function<Object, Object>> gettersByField = new HashMap<>();
+
+    private final Map<String, BiConsumer<Object, Object>> settersByField = new HashMap<>();
+
     private final Map<Class<? extends SPARQLResourceModel>, Set<String>> relatedModelsFields;
 
     private final Map<String, SPARQLProperty> annotationsByField = new HashMap<>();
@@ -263,6 +268,10 @@ public final class SPARQLClassAnalyzer {
                 throw new SPARQLInvalidClassDefinitionException(objectClass, "no setter found for the field: " + field.getName());
             }
         }
+
+        LOGGER.debug("Generate fields accessors for: " + objectClass.getName());
+        fieldsByGetter.forEach((getter, fieldName) -> gettersByField.put(fieldName, SPARQLFieldAccessors.getter(getter)));
+        fieldsBySetter.forEach((setter, fieldName) -> settersByField.put(fieldName, SPARQLFieldAccessors.setter(setter)));
     }
 
     public boolean hasValidation() {
@@ -559,12 +568,38 @@ public final class SPARQLClassAnalyzer {
 
     public Object getFieldValue(Field field, Object instance) {
         try {
-            return instance.getClass().getMethod(fieldsByGetter.inverse().get(field.getName()).getName()).invoke(instance);
+            return gettersByField.get(field.getName()).apply(instance);
+        } catch (ClassCastException ex) {
+            // instance is not an instance of the analyzed class, look for a getter with the same name
+            try {
+                return instance.getClass().getMethod(getGetterFromField(field).getName()).invoke(instance);
+            } catch (Exception e) {
+                return null;
+            }
         } catch (Exception ex) {
             return null;
         }
     }
 
+    /**
+     * Set field value with the generated setter accessor
+     *
+     * @param field field to set
+     * @param instance instance of the analyzed class
+     * @param value field value
+     */
+    public void setFieldValue(Field field, Object instance, Object value) {
+        settersByField.get(field.getName()).accept(instance, value);
+    }
+
+    /**
+     * @param field field to set
+     * @return generated setter accessor of the field
+     */
+    BiConsumer<Object, Object> getSetterAccessor(Field field) {
+        return settersByField.get(field.getName());
+    }
+
     public Method getSetterFromField(Field field) {
         return fieldsBySetter.inverse().get(field.getName());
     }
@@ -696,8 +731,8 @@ public final class SPARQLClassAnalyzer {
 
     public void setURI(Object instance, URI uri) throws Exception {
         try {
-            getSetterFromField(getURIField()).invoke(instance, uri);
-        } catch (IllegalArgumentException | IllegalAccessException ex) {
+            setFieldValue(getURIField(), instance, uri);
+        } catch (ClassCastException | IllegalStateException ex) {
             LOGGER.error("Error while setting object uri", ex);
             throw ex;
         }
@@ -43,13 +43,13 @@ import org.opensilex.utils.ThrowingConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.net.URI;
 import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
 import static org.opensilex.sparql.service.SPARQLQueryHelper.makeVar;
 
@@ -67,7 +67,7 @@ public class SPARQLClassObjectMapper<T extends SPARQLResourceModel> {
     private URI baseGraphURI;
     private URI generationPrefixURI;
 
-    private Constructor<T> constructor;
+    private Supplier<T> constructor;
     protected SPARQLClassQueryBuilder classQueryBuilder;
     protected SPARQLClassAnalyzer classAnalizer;
 
@@ -96,7 +96,7 @@ public class SPARQLClassObjectMapper<T extends SPARQLResourceModel> {
     protected void init() throws SPARQLInvalidClassDefinitionException {
         LOGGER.debug("Look for object constructor with no arguments for class: " + objectClass.getName());
         try {
-            constructor = objectClass.getConstructor();
+            constructor = SPARQLFieldAccessors.constructor(objectClass.getConstructor());
         } catch (NoSuchMethodException | SecurityException ex) {
             throw new SPARQLInvalidClassDefinitionException(objectClass, "Impossible to find constructor with no parameters", ex);
         }
@@ -185,14 +185,12 @@ public class SPARQLClassObjectMapper<T extends SPARQLResourceModel> {
         instance.setTypeLabel(proxyLabel.getInstance());
 
         for (Field field : classAnalizer.getDataPropertyFields()) {
-            Method setter = classAnalizer.getSetterFromField(field);
-
             String strValue = result.getStringValue(field.getName());
 
             if (strValue != null) {
                 if (SPARQLDeserializers.existsForClass(field.getType())) {
                     Object objValue = SPARQLDeserializers.getForClass(field.getType()).fromString(strValue);
-                    setter.invoke(instance, objValue);
+                    classAnalizer.setFieldValue(field, instance, objValue);
                 } else {
                     //TODO change exception type
                     throw new Exception("No deserializer for field: " + field.getName());
@@ -202,7 +200,6 @@ public class SPARQLClassObjectMapper<T extends SPARQLResourceModel> {
         }
 
         for (Field field : classAnalizer.getObjectPropertyFields()) {
-            Method setter = classAnalizer.getSetterFromField(field);
             if (result.getStringValue(field.getName()) != null) {
                 URI objURI = uriDeserializer.fromString(result.getStringValue(field.getName()));
 
@@ -236,39 +233,33 @@ public class SPARQLClassObjectMapper<T extends SPARQLResourceModel> {
                     }
                 // InstantModel optimization : build InstantModel with result without proxy (no additional SPARQL query for  InstantModel#getDateTimeStamp() retrieval)
                 } else if(InstantModel.class.isAssignableFrom(fieldType)) {
-                    buildInstantModelWithoutProxy(instance, field, result, objURI, setter);
+                    buildInstantModelWithoutProxy(instance, field, result, objURI);
                 }else {
                     proxy = new SPARQLProxyResource<>(mapperIndex, propertyGraph, objURI, fieldType, lang, useDefaultGraph, service);
                 }
 
                 if(proxy != null){
-                    setter.invoke(instance, proxy.getInstance());
+                    classAnalizer.setFieldValue(field, instance, proxy.getInstance());
                 }
             }
         }
 
         for (Field field : classAnalizer.getLabelPropertyFields()) {
-            Method setter = classAnalizer.getSetterFromField(field);
-
             String strValue = result.getStringValue(field.getName());
 
             if (strValue != null) {
                 SPARQLProxyLabel proxy = new SPARQLProxyLabel(mapperIndex, graph, strValue, uri, classAnalizer.getLabelPropertyByField(field), classAnalizer.isReverseRelation(field), lang, service);
-                setter.invoke(instance, proxy.getInstance());
+                classAnalizer.setFieldValue(field, instance, proxy.getInstance());
             }
 
         }
 
         for (Field field : classAnalizer.getDataListPropertyFields()) {
-            Method setter = classAnalizer.getSetterFromField(field);
-
             SPARQLProxyListData<?> proxy = new SPARQLProxyListData<>(mapperIndex, graph, uri, classAnalizer.getDataListPropertyByField(field), ClassUtils.getGenericTypeFromField(field), classAnalizer.isReverseRelation(field), lang, service);
-            setter.invoke(instance, proxy.getInstance());
+            classAnalizer.setFieldValue(field, instance, proxy.getInstance());
         }
 
         for (Field field : classAnalizer.getObjectListPropertyFields()) {
-            Method setter = classAnalizer.getSetterFromField(field);
-
             Class<? extends SPARQLResourceModel> model = (Class<? extends SPARQLResourceModel>) ClassUtils.getGenericTypeFromField(field);
             Node propertyGraph = graph;
             boolean useDefaultGraph = classAnalizer.useDefaultGraph(field);
@@ -276,7 +267,7 @@ public class SPARQLClassObjectMapper<T extends SPARQLResourceModel> {
                 propertyGraph = mapperIndex.getForClass(model).getDefaultGraph();
             }
             SPARQLProxyListObject<? extends SPARQLResourceModel> proxy = new SPARQLProxyListObject<>(mapperIndex, propertyGraph, uri, graph, classAnalizer.getObjectListPropertyByField(field), model, classAnalizer.isReverseRelation(field), lang, service);
-            setter.invoke(instance, proxy.getInstance());
+            classAnalizer.setFieldValue(field, instance, proxy.getInstance());
         }
 
         Set<Property> properties = classAnalizer.getManagedProperties();
@@ -290,10 +281,9 @@ public class SPARQLClassObjectMapper<T extends SPARQLResourceModel> {
      * @param field the instance {@link Class} field, which is a sub-type of {@link InstantModel}
      * @param result the {@link SPARQLResult} which contains value associated to {@link InstantModel#getUri()} and {@link InstantModel#getDateTimeStamp()}
      * @param objURI URI of the {@link InstantModel}
-     * @param setter setter from instance {@link Class}, used to set value for field
      * @throws Exception
      */
-    private void buildInstantModelWithoutProxy(T instance, Field field, SPARQLResult result, URI objURI, Method setter) throws Exception {
+    private void buildInstantModelWithoutProxy(T instance, Field field, SPARQLResult result, URI objURI) throws Exception {
 
         String timeStampVarName = getTimeStampVarName(field.getName());
         String timestamp = result.getStringValue(timeStampVarName);
@@ -305,17 +295,16 @@ public class SPARQLClassObjectMapper<T extends SPARQLResourceModel> {
             instant.setDateTimeStamp(timeDeserializer.fromString(timestamp));
             instant.setType(Time.InstantURI);
 
-            // invoke setter with created InstantModel instead of using proxy
-            setter.invoke(instance,instant);
+            // set field with created InstantModel instead of using proxy
+            classAnalizer.setFieldValue(field, instance, instant);
         }
     }
 
     public T createInstance(URI uri) throws Exception {
-        T instance = constructor.newInstance();
+        T instance = constructor.get();
 
         if (uri != null) {
-            Method uriSetter = classAnalizer.getSetterFromField(classAnalizer.getURIField());
-            uriSetter.invoke(instance, uri);
+            classAnalizer.setFieldValue(classAnalizer.getURIField(), instance, uri);
         }
 
         return instance;
@@ -748,7 +737,7 @@ public class SPARQLClassObjectMapper<T extends SPARQLResourceModel> {
             Object newFieldValue = classAnalizer.getFieldValue(field, newInstance);
 
             if (newFieldValue == null && classAnalizer.isNullIgnorableUpdateField(field)) {
-                classAnalizer.getSetterFromField(field).invoke(newInstance, oldFieldValue);
+                classAnalizer.setFieldValue(field, newInstance, oldFieldValue);
             }
         }
 
@@ -757,7 +746,7 @@ public class SPARQLClassObjectMapper<T extends SPARQLResourceModel> {
             Object newFieldValue = classAnalizer.getFieldValue(field, newInstance);
 
             if (newFieldValue == null && classAnalizer.isNullIgnorableUpdateField(field)) {
-                classAnalizer.getSetterFromField(field).invoke(newInstance, oldFieldValue);
+                classAnalizer.setFieldValue(field, newInstance, oldFieldValue);
             }
         }
 
@@ -766,7 +755,7 @@ public class SPARQLClassObjectMapper<T extends SPARQLResourceModel> {
             Object newFieldValue = classAnalizer.getFieldValue(field, newInstance);
 
             if (newFieldValue == null && classAnalizer.isNullIgnorableUpdateField(field)) {
-                classAnalizer.getSetterFromField(field).invoke(newInstance, oldFieldValue);
+                classAnalizer.setFieldValue(field, newInstance, oldFieldValue);
             }
         }
 
@@ -775,7 +764,7 @@ public class SPARQLClassObjectMapper<T extends SPARQLResourceModel> {
             Object newFieldValue = classAnalizer.getFieldValue(field, newInstance);
 
             if (newFieldValue == null && classAnalizer.isNullIgnorableUpdateField(field)) {
-                classAnalizer.getSetterFromField(field).invoke(newInstance, oldFieldValue);
+                classAnalizer.setFieldValue(field, newInstance, oldFieldValue);
             }
         }
 
@@ -784,7 +773,7 @@ public class SPARQLClassObjectMapper<T extends SPARQLResourceModel> {
             Object newFieldValue = classAnalizer.getFieldValue(field, newInstance);
 
             if (newFieldValue == null && classAnalizer.isNullIgnorableUpdateField(field)) {
-                classAnalizer.getSetterFromField(field).invoke(newInstance, oldFieldValue);
+                classAnalizer.setFieldValue(field, newInstance, oldFieldValue);
             }
         }
     }
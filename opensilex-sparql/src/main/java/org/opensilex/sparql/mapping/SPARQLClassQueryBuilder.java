@@ -35,7 +35,10 @@ import org.slf4j.LoggerFactory;
 import java.lang.reflect.Field;
 import java.net.URI;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.apache.jena.datatypes.xsd.XSDDatatype;
 import org.apache.jena.graph.Node;
@@ -66,6 +69,19 @@ class SPARQLClassQueryBuilder {
 
     private final SPARQLClassObjectMapperIndex mapperIndex;
 
+    /**
+     * Maximum number of query templates kept by class, all templates are dropped once reached
+     */
+    static final int MAX_QUERY_TEMPLATES = 256;
+
+    private static volatile boolean queryTemplatesEnabled = true;
+
+    /**
+     * SELECT, COUNT and ASK queries by graph and lang, before any filter. A copy is returned for each query.
+     */
+    private final Map<String, SelectBuilder> selectTemplates = new ConcurrentHashMap<>();
+    private final Map<String, AskBuilder> askTemplates = new ConcurrentHashMap<>();
+
     public SPARQLClassQueryBuilder(SPARQLClassObjectMapperIndex mapperIndex, SPARQLClassAnalyzer analyzer) {
         this.analyzer = analyzer;
         this.mapperIndex = mapperIndex;
@@ -99,7 +115,61 @@ class SPARQLClassQueryBuilder {
     }
 
 
+    /**
+     * Enable or disable query templates, used to compare performances
+     *
+     * @param enabled true to reuse templates, false to build each query from scratch
+     */
+    static void setQueryTemplatesEnabled(boolean enabled) {
+        queryTemplatesEnabled = enabled;
+    }
+
+    /**
+     * @param templates templates of the query type
+     * @param key template key
+     * @param customHandlerByFields custom handlers of the query, a query with custom handlers is always built from scratch
+     * @param builder function which build the query without filter
+     * @param copier function which copy a template
+     * @return a new query, copied from the template if any
+     */
+    private <B extends AbstractQueryBuilder<?>> B getFromTemplate(Map<String, B> templates, String key, Map<String, WhereHandler> customHandlerByFields, Supplier<B> builder, Function<B, B> copier) {
+        if (!queryTemplatesEnabled || (customHandlerByFields != null && !customHandlerByFields.isEmpty())) {
+            return builder.get();
+        }
+
+        B template = templates.get(key);
+        if (template == null) {
+            if (templates.size() >= MAX_QUERY_TEMPLATES) {
+                templates.clear();
+            }
+            template = builder.get();
+            templates.put(key, template);
+        }
+        return copier.apply(template);
+    }
+
+    private static String getTemplateKey(Node graph, String lang) {
+        return graph + " " + lang;
+    }
+
     public SelectBuilder getSelectBuilder(Node graph, String lang, ThrowingConsumer<SelectBuilder,Exception> filterHandler, Map<String,WhereHandler> customHandlerByFields) throws Exception {
+        SelectBuilder selectBuilder = getFromTemplate(
+                selectTemplates,
+                getTemplateKey(graph, lang),
+                customHandlerByFields,
+                () -> createSelectBuilder(graph, lang, customHandlerByFields),
+                SelectBuilder::clone
+        );
+
+        if(filterHandler != null){
+            filterHandler.accept(selectBuilder);
+        }
+        appendBlankNodeFilter(selectBuilder);
+
+        return selectBuilder;
+    }
+
+    private SelectBuilder createSelectBuilder(Node graph, String lang, Map<String,WhereHandler> customHandlerByFields) {
         SelectBuilder selectBuilder = new SelectBuilder();
         selectBuilder.setDistinct(true);
 
@@ -121,11 +191,6 @@ class SPARQLClassQueryBuilder {
         });
 
         initializeQueryBuilder(selectBuilder, graph, lang,customHandlerByFields);
-        if(filterHandler != null){
-            filterHandler.accept(selectBuilder);
-        }
-        appendBlankNodeFilter(selectBuilder);
-
         return selectBuilder;
     }
 
@@ -135,9 +200,17 @@ class SPARQLClassQueryBuilder {
     }
 
     public AskBuilder getAskBuilder(Node graph, String lang, ThrowingConsumer<AskBuilder,Exception> filterHandler, Map<String,WhereHandler> customHandlerByFields) throws Exception {
-        AskBuilder askBuilder = new AskBuilder();
-
-        initializeQueryBuilder(askBuilder, graph, lang, customHandlerByFields);
+        AskBuilder askBuilder = getFromTemplate(
+                askTemplates,
+                getTemplateKey(graph, lang),
+                customHandlerByFields,
+                () -> {
+                    AskBuilder newAskBuilder = new AskBuilder();
+                    initializeQueryBuilder(newAskBuilder, graph, lang, customHandlerByFields);
+                    return newAskBuilder;
+                },
+                AskBuilder::clone
+        );
         if(filterHandler != null){
             filterHandler.accept(askBuilder);
         }
@@ -252,6 +325,23 @@ class SPARQLClassQueryBuilder {
     }
 
     public SelectBuilder getCountBuilder(Node graph, String countFieldName, String lang, ThrowingConsumer<SelectBuilder,Exception> filterHandler, Map<String, WhereHandler> customHandlerByFields) throws Exception {
+        SelectBuilder countBuilder = getFromTemplate(
+                selectTemplates,
+                "COUNT " + countFieldName + " " + getTemplateKey(graph, lang),
+                customHandlerByFields,
+                () -> createCountBuilder(graph, countFieldName, lang, customHandlerByFields),
+                SelectBuilder::clone
+        );
+
+        if(filterHandler != null){
+            filterHandler.accept(countBuilder);
+        }
+        appendBlankNodeFilter(countBuilder);
+
+        return countBuilder;
+    }
+
+    private SelectBuilder createCountBuilder(Node graph, String countFieldName, String lang, Map<String, WhereHandler> customHandlerByFields) {
         String uriFieldName = analyzer.getURIFieldName();
 
         SelectBuilder countBuilder = new SelectBuilder();
@@ -264,12 +354,6 @@ class SPARQLClassQueryBuilder {
         }
 
         initializeQueryBuilder(countBuilder, graph, lang,customHandlerByFields);
-
-        if(filterHandler != null){
-            filterHandler.accept(countBuilder);
-        }
-        appendBlankNodeFilter(countBuilder);
-
         return countBuilder;
     }
 
@@ -0,0 +1,187 @@
+//******************************************************************************
+//                          SPARQLFieldAccessors.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.mapping;
+
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.implementation.Implementation;
+import net.bytebuddy.implementation.MethodCall;
+import net.bytebuddy.implementation.bytecode.assign.Assigner;
+import net.bytebuddy.matcher.ElementMatchers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * <pre>
+ * Build getter, setter and constructor accessors used by SPARQL mapping.
+ *
+ * Accessors are classes generated once per method with ByteBuddy, so each call is a direct method call
+ * which can be inlined by the JIT instead of a reflective {@link Method#invoke(Object, Object...)}
+ * (no arguments array, no access check, no exception wrapping).
+ * Generated classes are loaded by a child of the class loader of the accessed class, which can be a module class loader.
+ *
+ * Only public methods of public classes can be called by generated classes,
+ * a reflective accessor is returned for other methods or if generation fails.
+ *
+ * Accessors are cached by method, since mappers and fetchers can be created for each request
+ * and generating a class costs much more than a reflective call.
+ * </pre>
+ */
+final class SPARQLFieldAccessors {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(SPARQLFieldAccessors.class);
+
+    private final static String ACCESSOR_SUFFIX = "$SPARQLAccessor$";
+
+    /**
+     * Accessors of each class, by accessed method or constructor
+     */
+    private final static ClassValue<Map<Executable, Object>> ACCESSORS = new ClassValue<Map<Executable, Object>>() {
+        @Override
+        protected Map<Executable, Object> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private SPARQLFieldAccessors() {
+    }
+
+    private static Object getAccessor(Executable accessed, Function<Executable, Object> accessorFactory) {
+        return ACCESSORS.get(accessed.getDeclaringClass()).computeIfAbsent(accessed, accessorFactory);
+    }
+
+    /**
+     * @param getter getter method with no parameter
+     * @return function calling getter on its argument
+     */
+    @SuppressWarnings("unchecked")
+    static Function<Object, Object> getter(Method getter) {
+        return (Function<Object, Object>) getAccessor(getter, key -> createGetter(getter));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> createGetter(Method getter) {
+        try {
+            return (Function<Object, Object>) generate(getter, Function.class, "apply", MethodCall.invoke(getter).onArgument(0));
+        } catch (Exception ex) {
+            LOGGER.warn("Use reflective getter for method: " + getter, ex);
+            return instance -> invoke(getter, instance);
+        }
+    }
+
+    /**
+     * @param setter setter method with one parameter
+     * @return consumer calling setter on its first argument with the second one
+     */
+    @SuppressWarnings("unchecked")
+    static BiConsumer<Object, Object> setter(Method setter) {
+        return (BiConsumer<Object, Object>) getAccessor(setter, key -> createSetter(setter));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> createSetter(Method setter) {
+        try {
+            return (BiConsumer<Object, Object>) generate(setter, BiConsumer.class, "accept", MethodCall.invoke(setter).onArgument(0).withArgument(1));
+        } catch (Exception ex) {
+            LOGGER.warn("Use reflective setter for method: " + setter, ex);
+            return (instance, value) -> invoke(setter, instance, value);
+        }
+    }
+
+    /**
+     * @param constructor public constructor with no parameter
+     * @param <T> instantiated class
+     * @return supplier of new instances
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Supplier<T> constructor(Constructor<? extends T> constructor) {
+        return (Supplier<T>) getAccessor(constructor, key -> createConstructor(constructor));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Supplier<T> createConstructor(Constructor<? extends T> constructor) {
+        try {
+            // abstract classes are mapped too, but never instantiated
+            if (!Modifier.isAbstract(constructor.getDeclaringClass().getModifiers())) {
+                return (Supplier<T>) generate(constructor, Supplier.class, "get", MethodCall.construct(constructor));
+            }
+        } catch (Exception ex) {
+            LOGGER.warn("Use reflective constructor for class: " + constructor.getDeclaringClass().getName(), ex);
+        }
+        return () -> {
+            try {
+                return constructor.newInstance();
+            } catch (InvocationTargetException ex) {
+                throw rethrow(ex.getCause());
+            } catch (ReflectiveOperationException ex) {
+                throw new IllegalStateException(ex);
+            }
+        };
+    }
+
+    /**
+     * Generate a class implementing accessorInterface, which only method calls the accessed method.
+     * Arguments and return values are cast and (un)boxed, and the return value of the accessed method is dropped
+     * if the interface method returns void.
+     *
+     * @param accessed accessed method or constructor
+     * @param accessorInterface functional interface implemented by the accessor
+     * @param methodName name of the interface method
+     * @param call call of accessed, with its arguments
+     * @return new accessor instance
+     * @throws ReflectiveOperationException if accessed can't be called from another class loader or accessor can't be instantiated
+     */
+    private static Object generate(Executable accessed, Class<?> accessorInterface, String methodName, MethodCall call) throws ReflectiveOperationException {
+        Class<?> accessedClass = accessed.getDeclaringClass();
+        if (!Modifier.isPublic(accessedClass.getModifiers()) || !Modifier.isPublic(accessed.getModifiers())) {
+            throw new IllegalAccessException("Not a public method of a public class: " + accessed);
+        }
+
+        Implementation implementation = call.withAssigner(Assigner.DEFAULT, Assigner.Typing.DYNAMIC);
+        Class<?> accessorClass = new ByteBuddy()
+                .subclass(accessorInterface)
+                .name(accessedClass.getName() + ACCESSOR_SUFFIX + (accessed instanceof Constructor ? "new" : accessed.getName()))
+                .method(ElementMatchers.named(methodName))
+                .intercept(implementation)
+                .make()
+                .load(accessedClass.getClassLoader(), ClassLoadingStrategy.Default.WRAPPER)
+                .getLoaded();
+
+        return accessorClass.getConstructor().newInstance();
+    }
+
+    private static Object invoke(Method method, Object instance, Object... args) {
+        try {
+            return method.invoke(instance, args);
+        } catch (InvocationTargetException ex) {
+            throw rethrow(ex.getCause());
+        } catch (IllegalAccessException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new IllegalStateException(cause);
+    }
+}
@@ -31,9 +31,9 @@ import org.opensilex.sparql.service.SPARQLService;
 import org.opensilex.utils.ClassUtils;
 
 import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.net.URI;
 import java.util.*;
+import java.util.function.BiConsumer;
 
 import static org.opensilex.sparql.service.SPARQLQueryHelper.makeVar;
 import static org.opensilex.sparql.service.SPARQLQueryHelper.regexFilterOnURI;
@@ -96,9 +96,9 @@ public class SPARQLListFetcher<T extends SPARQLResourceModel> {
     private final LinkedHashMap<Field, String> concatVarNameByFields;
 
     /**
-     * List of setters, in the same order as concatVarNameByFields
+     * List of setter accessors, in the same order as concatVarNameByFields
      */
-    private final List<Method> listSetters;
+    private final List<BiConsumer<Object, Object>> listSetters;
 
     /**
      * Associate to each concat var name, the corresponding {@link SPARQLDeserializer}
@@ -177,7 +177,7 @@ public class SPARQLListFetcher<T extends SPARQLResourceModel> {
             Field field = entry.getKey();
             String concatFieldName = entry.getValue();
 
-            listSetters.add(mapper.classAnalizer.getSetterFromField(field));
+            listSetters.add(mapper.classAnalizer.getSetterAccessor(field));
             Class<?> listGenericType = ClassUtils.getGenericTypeFromField(field);
 
             try {
@@ -412,8 +412,7 @@ public class SPARQLListFetcher<T extends SPARQLResourceModel> {
                 }
 
                 // update model
-                Method setter = listSetters.get(fieldIndex);
-                setter.invoke(initialModel, listPropertyValues);
+                listSetters.get(fieldIndex).accept(initialModel, listPropertyValues);
                 fieldIndex++;
             }
 
@@ -7,7 +7,12 @@ package org.opensilex.sparql.mapping;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.modifier.Visibility;
+import net.bytebuddy.implementation.FieldAccessor;
 import net.bytebuddy.implementation.InvocationHandlerAdapter;
 import net.bytebuddy.matcher.ElementMatchers;
 import org.apache.jena.graph.*;
@@ -24,6 +29,39 @@ abstract class SPARQLProxy<T> implements InvocationHandler {
 
     private final static Logger LOGGER = LoggerFactory.getLogger(SPARQLProxy.class);
 
+    /**
+     * Name of the field holding the handler in generated proxy classes
+     */
+    private final static String HANDLER_FIELD = "sparqlProxyHandler";
+
+    /**
+     * Generated proxy classes constructors, by proxied type and by proxy kind. Constructors are attached to the proxied
+     * type, so they are released with its class loader.
+     */
+    private final static ClassValue<Map<Class<?>, Supplier<?>>> PROXY_CONSTRUCTORS = new ClassValue<Map<Class<?>, Supplier<?>>>() {
+        @Override
+        protected Map<Class<?>, Supplier<?>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * Handler of the proxy being constructed by the current thread, used for methods called by proxied type constructor
+     * since the handler field is set after construction.
+     */
+    private final static ThreadLocal<InvocationHandler> CONSTRUCTING_HANDLER = new ThreadLocal<>();
+
+    /**
+     * Handler shared by all generated proxy classes, dispatching calls to the handler of each proxy instance
+     */
+    private final static InvocationHandler DISPATCHER = (proxy, method, args) -> {
+        InvocationHandler handler = ((SPARQLProxyMarker) proxy).sparqlProxyHandler();
+        if (handler == null) {
+            handler = CONSTRUCTING_HANDLER.get();
+        }
+        return handler.invoke(proxy, method, args);
+    };
+
     public SPARQLProxy(SPARQLClassObjectMapperIndex mapperIndex, Node graph, Class<T> type, String lang, SPARQLService service) {
         this.mapperIndex = mapperIndex;
         this.type = type;
@@ -40,22 +78,54 @@ abstract class SPARQLProxy<T> implements InvocationHandler {
     protected T instance;
 
     public T getInstance() {
-        Class<? extends T> proxy = new ByteBuddy()
+        InvocationHandler previousHandler = CONSTRUCTING_HANDLER.get();
+        CONSTRUCTING_HANDLER.set(this);
+        try {
+            T proxy = getProxyConstructor().get();
+            ((SPARQLProxyMarker) proxy).sparqlProxyHandler(this);
+            return proxy;
+        } catch (Exception ex) {
+            LOGGER.error("Error while creating SPARQL proxy class (should never happend)", ex);
+        } finally {
+            if (previousHandler == null) {
+                CONSTRUCTING_HANDLER.remove();
+            } else {
+                CONSTRUCTING_HANDLER.set(previousHandler);
+            }
+        }
+
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Supplier<T> getProxyConstructor() {
+        return (Supplier<T>) PROXY_CONSTRUCTORS.get(type)
+                .computeIfAbsent(getClass(), key -> generateProxyConstructor());
+    }
+
+    /**
+     * Generate a proxy class of type, calls on proxy instances are delegated to the handler stored in their
+     * {@link #HANDLER_FIELD} field.
+     */
+    private Supplier<T> generateProxyConstructor() {
+        LOGGER.debug("Generate SPARQL proxy class for: " + type.getName() + " (" + getClass().getSimpleName() + ")");
+        Class<? extends T> proxyClass = new ByteBuddy()
                 .subclass(type)
                 .implement(SPARQLProxyMarker.class)
+                .defineField(HANDLER_FIELD, InvocationHandler.class, Visibility.PRIVATE)
                 .method(ElementMatchers.any())
-                .intercept(InvocationHandlerAdapter.of(this))
+                .intercept(InvocationHandlerAdapter.of(DISPATCHER))
+                .method(ElementMatchers.isDeclaredBy(SPARQLProxyMarker.class))
+                .intercept(FieldAccessor.ofField(HANDLER_FIELD))
                 .make()
                 .load(OpenSilex.getClassLoader())
                 .getLoaded();
 
         try {
-            return proxy.getConstructor().newInstance();
-        } catch (Exception ex) {
-            LOGGER.error("Error while creating SPARQL proxy class (should never happend)", ex);
+            return SPARQLFieldAccessors.constructor(proxyClass.getConstructor());
+        } catch (NoSuchMethodException ex) {
+            throw new IllegalStateException(ex);
         }
-
-        return null;
     }
 
     private boolean loaded = false;
@@ -0,0 +1,278 @@
+//******************************************************************************
+//                          SPARQLProxyBatchLoader.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.mapping;
+
+import org.apache.commons.collections4.ListUtils;
+import org.apache.jena.graph.Node;
+import org.opensilex.sparql.deserializer.SPARQLDeserializers;
+import org.opensilex.sparql.exceptions.SPARQLInvalidUriListException;
+import org.opensilex.sparql.exceptions.SPARQLMultipleObjectException;
+import org.opensilex.sparql.model.SPARQLResourceModel;
+import org.opensilex.sparql.service.SPARQLService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <pre>
+ * Batch loading of lazy resource references, in order to avoid one query per proxy when the same relation
+ * is read on each item of a list.
+ *
+ * Unloaded {@link SPARQLProxyResource} register their URIs by service, type, graph and lang.
+ * The first access to one of these proxies loads its URI with at most {@link #MAX_PENDING_URIS} pending URIs of the same
+ * key with {@link SPARQLService#loadListByURIs}, and other proxies then get their instance from the last loaded batch.
+ * {@link SPARQLProxyResourceList} only load their own URIs, but their instances are shared with the other proxies.
+ *
+ * A batch loader belongs to a {@link SPARQLService} instance, so it has the same scope (one per request for injected services).
+ * Loaded instances are dropped when the service starts or ends a transaction, and after any update made
+ * through any service : a service which lives longer than a request never reads a batch loaded before another service update.
+ * Proxies referencing the same URI in a batch share the same loaded instance.
+ * </pre>
+ */
+public final class SPARQLProxyBatchLoader {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(SPARQLProxyBatchLoader.class);
+
+    /**
+     * Maximum number of URIs loaded by one query
+     */
+    public final static int BATCH_SIZE = 1000;
+
+    /**
+     * Maximum number of pending URIs by key, loaded with the first accessed proxy of the same key
+     */
+    public final static int MAX_PENDING_URIS = 100;
+
+    /**
+     * Incremented after any update through any service, a batch loaded with another generation is outdated
+     */
+    private final static AtomicLong DATA_GENERATION = new AtomicLong();
+
+    private final SPARQLService service;
+
+    private final Map<BatchKey, Set<URI>> pendingURIs = new HashMap<>();
+
+    private final Map<BatchKey, Batch> loadedBatches = new HashMap<>();
+
+    private long loadedGeneration = DATA_GENERATION.get();
+
+    public SPARQLProxyBatchLoader(SPARQLService service) {
+        this.service = service;
+    }
+
+    /**
+     * Register URIs to load with the next batch of the same type, graph and lang
+     *
+     * @param graph graph to query
+     * @param type resource type
+     * @param uri URI to load
+     * @param lang lang, the default lang of the service if null
+     */
+    synchronized void register(Node graph, Class<? extends SPARQLResourceModel> type, URI uri, String lang) {
+        Set<URI> pending = pendingURIs.computeIfAbsent(getKey(graph, type, lang), key -> new LinkedHashSet<>());
+        if (pending.size() < MAX_PENDING_URIS) {
+            pending.add(uri);
+        }
+    }
+
+    /**
+     * @param graph graph to query
+     * @param type resource type
+     * @param uri URI to load
+     * @param lang lang, the default lang of the service if null
+     * @param <T> resource type
+     * @return loaded instance, or null if no resource exists with this URI
+     * @throws SPARQLMultipleObjectException if several resources are loaded with this URI
+     * @throws Exception if query fail
+     */
+    synchronized <T extends SPARQLResourceModel> T load(Node graph, Class<T> type, URI uri, String lang) throws Exception {
+        BatchKey key = getKey(graph, type, lang);
+        Batch batch = loadAll(key, Collections.singleton(uri), true);
+
+        String expandedURI = SPARQLDeserializers.getExpandedURI(uri);
+        if (batch.duplicatedURIs.contains(expandedURI)) {
+            throw new SPARQLMultipleObjectException(uri, "batch load of " + type.getSimpleName() + " in graph " + key.graph);
+        }
+        return type.cast(batch.instances.get(expandedURI));
+    }
+
+    /**
+     * @param graph graph to query
+     * @param type resource type
+     * @param uris URIs to load
+     * @param lang lang, the default lang of the service if null
+     * @param <T> resource type
+     * @return loaded instances, in the same order as uris without duplicates
+     * @throws SPARQLInvalidUriListException if any URI from uris could not be loaded
+     * @throws Exception if query fail
+     */
+    synchronized <T extends SPARQLResourceModel> List<T> loadList(Node graph, Class<T> type, Collection<URI> uris, String lang) throws Exception {
+        Map<String, SPARQLResourceModel> loaded = loadAll(getKey(graph, type, lang), uris, false).instances;
+
+        Map<String, T> results = new LinkedHashMap<>(uris.size());
+        List<URI> unknownUris = new ArrayList<>();
+        for (URI uri : uris) {
+            String expandedURI = SPARQLDeserializers.getExpandedURI(uri);
+            SPARQLResourceModel instance = loaded.get(expandedURI);
+            if (instance == null) {
+                unknownUris.add(uri);
+            } else {
+                results.putIfAbsent(expandedURI, type.cast(instance));
+            }
+        }
+
+        if (!unknownUris.isEmpty()) {
+            throw new SPARQLInvalidUriListException("[" + type.getSimpleName() + "] URIs not found: ", unknownUris);
+        }
+        return new ArrayList<>(results.values());
+    }
+
+    /**
+     * Drop loaded instances of all services, must be called after any update since they may be outdated
+     */
+    public synchronized void invalidate() {
+        DATA_GENERATION.incrementAndGet();
+        loadedBatches.clear();
+    }
+
+    /**
+     * Batch keys are normalized the same way for all proxies, so that proxies of the same resources share their batches
+     */
+    private BatchKey getKey(Node graph, Class<? extends SPARQLResourceModel> type, String lang) {
+        return new BatchKey(service, graph, type, lang != null ? lang : service.getDefaultLang());
+    }
+
+    /**
+     * Get instances from the last loaded batch, or load a new batch with missing URIs.
+     *
+     * @param withPending also load pending URIs of the same key
+     * @return loaded instances by expanded URI, missing URIs have no entry
+     */
+    private Batch loadAll(BatchKey key, Collection<URI> uris, boolean withPending) throws Exception {
+        long generation = DATA_GENERATION.get();
+        if (generation != loadedGeneration) {
+            loadedBatches.clear();
+            loadedGeneration = generation;
+        }
+
+        Batch lastBatch = loadedBatches.getOrDefault(key, EMPTY_BATCH);
+
+        Set<URI> missingURIs = new LinkedHashSet<>();
+        for (URI uri : uris) {
+            if (!lastBatch.instances.containsKey(SPARQLDeserializers.getExpandedURI(uri))) {
+                missingURIs.add(uri);
+            }
+        }
+        if (missingURIs.isEmpty()) {
+            return lastBatch;
+        }
+
+        Set<URI> batchURIs = new LinkedHashSet<>(missingURIs);
+        Set<URI> pending = pendingURIs.get(key);
+        if (pending != null) {
+            if (withPending) {
+                batchURIs.addAll(pending);
+                pendingURIs.remove(key);
+            } else {
+                pending.removeAll(missingURIs);
+            }
+        }
+
+        Batch batch = new Batch(new HashMap<>(batchURIs.size()), new HashSet<>());
+        long start = System.currentTimeMillis();
+        for (List<URI> batchPart : ListUtils.partition(new ArrayList<>(batchURIs), BATCH_SIZE)) {
+            loadBatch(key, batchPart, batch);
+        }
+        LOGGER.debug("Batch load of " + batchURIs.size() + " " + key.type.getSimpleName() + " proxies in " + (System.currentTimeMillis() - start) + " milliseconds elapsed");
+
+        Batch results = new Batch(new HashMap<>(batch.instances), new HashSet<>(batch.duplicatedURIs));
+        for (URI uri : uris) {
+            String expandedURI = SPARQLDeserializers.getExpandedURI(uri);
+            if (!results.instances.containsKey(expandedURI) && lastBatch.instances.containsKey(expandedURI)) {
+                results.instances.put(expandedURI, lastBatch.instances.get(expandedURI));
+                if (lastBatch.duplicatedURIs.contains(expandedURI)) {
+                    results.duplicatedURIs.add(expandedURI);
+                }
+            }
+        }
+
+        // only keep last batch, so that loaded instances not used by any proxy are not kept
+        loadedBatches.put(key, batch);
+        return results;
+    }
+
+    private <T extends SPARQLResourceModel> void loadBatch(BatchKey key, List<URI> uris, Batch batch) throws Exception {
+        @SuppressWarnings("unchecked")
+        Class<T> type = (Class<T>) key.type;
+        SPARQLClassObjectMapper<T> mapper = key.service.getMapperIndex().getForClass(type);
+        try {
+            key.service.loadListByURIs(key.graph, type, uris, key.lang, result -> {
+                T instance = mapper.createInstance(key.graph, result, key.lang, key.service);
+                String expandedURI = SPARQLDeserializers.getExpandedURI(instance.getUri());
+                if (batch.instances.put(expandedURI, instance) != null) {
+                    batch.duplicatedURIs.add(expandedURI);
+                }
+                return instance;
+            }, null);
+        } catch (SPARQLInvalidUriListException ex) {
+            // a pending proxy may reference an unknown resource, loaded instances are still collected in batch
+            LOGGER.debug("Unknown URIs in proxies batch: " + ex.getStrUris());
+        }
+    }
+
+    private final static Batch EMPTY_BATCH = new Batch(Collections.emptyMap(), Collections.emptySet());
+
+    private final static class Batch {
+
+        private final Map<String, SPARQLResourceModel> instances;
+
+        /**
+         * URIs with several results, a single resource load with one of these URIs fails
+         */
+        private final Set<String> duplicatedURIs;
+
+        private Batch(Map<String, SPARQLResourceModel> instances, Set<String> duplicatedURIs) {
+            this.instances = instances;
+            this.duplicatedURIs = duplicatedURIs;
+        }
+    }
+
+    private final static class BatchKey {
+
+        private final SPARQLService service;
+        private final Node graph;
+        private final Class<? extends SPARQLResourceModel> type;
+        private final String lang;
+
+        private BatchKey(SPARQLService service, Node graph, Class<? extends SPARQLResourceModel> type, String lang) {
+            this.service = service;
+            this.graph = graph;
+            this.type = type;
+            this.lang = lang;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof BatchKey)) {
+                return false;
+            }
+            BatchKey other = (BatchKey) o;
+            return service == other.service && type.equals(other.type) && Objects.equals(graph, other.graph) && Objects.equals(lang, other.lang);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(service), graph, type, lang);
+        }
+    }
+}
@@ -5,10 +5,22 @@
 //******************************************************************************
 package org.opensilex.sparql.mapping;
 
+import java.lang.reflect.InvocationHandler;
+
 /**
+ * Interface implemented by generated proxy classes, which hold their handler in an instance field.
  *
  * @author vidalmor
  */
 public interface SPARQLProxyMarker {
-    
+
+    /**
+     * @return handler of this proxy instance
+     */
+    InvocationHandler sparqlProxyHandler();
+
+    /**
+     * @param handler handler of this proxy instance
+     */
+    void sparqlProxyHandler(InvocationHandler handler);
 }
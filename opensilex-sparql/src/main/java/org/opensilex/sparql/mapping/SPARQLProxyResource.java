@@ -22,22 +22,20 @@ class SPARQLProxyResource<T extends SPARQLResourceModel> extends SPARQLProxy<T>
         this.uri = uri;
         this.mapper = repository.getForClass(type);
         this.useDefaultGraph = useDefaultGraph;
+
+        // register URI, so that it will be loaded with other proxies of the same type
+        this.loadGraph = (graph != null && !useDefaultGraph) ? graph : service.getDefaultGraph(type);
+        service.getProxyBatchLoader().register(loadGraph, type, uri, lang);
     }
 
     protected final SPARQLClassObjectMapper<T> mapper;
     protected final URI uri;
     protected final boolean useDefaultGraph;
+    private final Node loadGraph;
 
     @Override
     protected T loadData() throws Exception {
-        T data = null;
-        if (graph != null && !this.useDefaultGraph) {
-            data = service.loadByURI(graph, type, uri, lang);
-        } else {
-            data = service.loadByURI(type, uri, lang,null);
-        }
-
-        return data;
+        return service.getProxyBatchLoader().load(loadGraph, type, uri, lang);
     }
 
     @Override
@@ -12,7 +12,9 @@ import org.opensilex.sparql.service.SPARQLService;
 
 import java.net.URI;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import org.apache.commons.collections4.CollectionUtils;
 import org.apache.jena.graph.Node;
 import org.opensilex.sparql.exceptions.SPARQLInvalidUriListException;
 import org.opensilex.sparql.service.SPARQLService;
@@ -39,7 +41,10 @@ class SPARQLProxyResourceList<T extends SPARQLResourceModel> extends SPARQLProxy
      */
     @Override
     protected List<T> loadData() throws Exception {
-        return service.loadListByURIs(graph, genericType, uris, lang,null,null);
+        if (CollectionUtils.isEmpty(uris)) {
+            return Collections.emptyList();
+        }
+        return service.getProxyBatchLoader().loadList(graph, genericType, uris, lang);
     }
 
     @Override
@@ -3,14 +3,14 @@ package org.opensilex.sparql.mapping;
 import org.opensilex.sparql.model.SPARQLResourceModel;
 import org.opensilex.sparql.service.SPARQLResult;
 
-import java.lang.reflect.Constructor;
 import java.net.URI;
+import java.util.function.Supplier;
 
 public interface SparqlMapper<T extends SPARQLResourceModel> {
 
     default T getInstance(SPARQLResult result, String lang) throws Exception{
 
-        T instance = getConstructor().newInstance();
+        T instance = getConstructor().get();
 
         instance.setUri(URI.create(result.getStringValue(SPARQLResourceModel.URI_FIELD)));
         instance.setType(URI.create(result.getStringValue(SPARQLResourceModel.TYPE_FIELD)));
@@ -37,6 +37,6 @@ public interface SparqlMapper<T extends SPARQLResourceModel> {
 
     void setObjectListProperties(T model, SPARQLResult result, String lang) throws Exception;
 
-    Constructor<T> getConstructor();
+    Supplier<T> getConstructor();
 
 }
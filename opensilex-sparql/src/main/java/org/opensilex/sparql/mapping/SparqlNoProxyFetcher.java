@@ -12,11 +12,10 @@ import org.opensilex.sparql.ontology.dal.ClassModel;
 import org.opensilex.sparql.service.SPARQLResult;
 import org.opensilex.sparql.service.SPARQLService;
 
-import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.net.URI;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * @author rcolin
@@ -38,13 +37,13 @@ import java.util.Map;
  */
 public class SparqlNoProxyFetcher<T extends SPARQLResourceModel> implements SparqlMapper<T> {
 
-    private final Constructor<T> constructor;
+    private final Supplier<T> constructor;
     private final SPARQLClassObjectMapperIndex mapperIndex;
     private final SPARQLClassAnalyzer classAnalyzer;
     private Map<String,ClassModel> classesCache;
 
     public SparqlNoProxyFetcher(Class<T> objectClass, SPARQLService sparql) throws Exception {
-        this.constructor = objectClass.getConstructor();
+        this.constructor = SPARQLFieldAccessors.constructor(objectClass.getConstructor());
         this.mapperIndex = sparql.getMapperIndex();
         this.classAnalyzer = mapperIndex.getForClass(objectClass).getClassAnalizer();
         classesCache = new PatriciaTrie<>();
@@ -78,8 +77,7 @@ public class SparqlNoProxyFetcher<T extends SPARQLResourceModel> implements Spar
 
             if (!StringUtils.isEmpty(value)) {
                 SPARQLLabel label = new SPARQLLabel(value,lang);
-                Method setter = classAnalyzer.getSetterFromField(field);
-                setter.invoke(instance, label);
+                classAnalyzer.setFieldValue(field, instance, label);
             }
 
         }
@@ -94,8 +92,7 @@ public class SparqlNoProxyFetcher<T extends SPARQLResourceModel> implements Spar
             if (!StringUtils.isEmpty(value)) {
                 if (SPARQLDeserializers.existsForClass(field.getType())) {
                     Object objValue = SPARQLDeserializers.getForClass(field.getType()).fromString(value);
-                    Method setter = classAnalyzer.getSetterFromField(field);
-                    setter.invoke(instance, objValue);
+                    classAnalyzer.setFieldValue(field, instance, objValue);
                 } else {
                     throw new IllegalArgumentException("No deserializer for field: " + field.getName());
                 }
@@ -114,8 +111,7 @@ public class SparqlNoProxyFetcher<T extends SPARQLResourceModel> implements Spar
             }
             SPARQLResourceModel nested = getNestedObject(result, field, value);
             if (nested != null) {
-                Method setter = classAnalyzer.getSetterFromField(field);
-                setter.invoke(model, nested);
+                classAnalyzer.setFieldValue(field, model, nested);
             }
         }
     }
@@ -127,8 +123,7 @@ public class SparqlNoProxyFetcher<T extends SPARQLResourceModel> implements Spar
         Class<? extends SPARQLResourceModel> fieldType = (Class<? extends SPARQLResourceModel>) objectField.getType();
 
         // create nested object and set uri
-        SPARQLResourceModel nestedObject = fieldType.getConstructor().newInstance();
-        nestedObject.setUri(objectURI);
+        SPARQLResourceModel nestedObject = mapperIndex.getForClass(fieldType).createInstance(objectURI);
 
         // set nested object name
         if (SPARQLNamedResourceModel.class.isAssignableFrom(fieldType)) {
@@ -160,7 +155,7 @@ public class SparqlNoProxyFetcher<T extends SPARQLResourceModel> implements Spar
     }
 
     @Override
-    public Constructor<T> getConstructor() {
+    public Supplier<T> getConstructor() {
         return constructor;
     }
 }
@@ -44,6 +44,7 @@ import org.opensilex.sparql.service.SPARQLQueryHelper;
 import org.opensilex.sparql.service.SPARQLResult;
 import org.opensilex.sparql.service.SPARQLService;
 import org.opensilex.sparql.utils.Ontology;
+import org.opensilex.utils.ThrowingConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -69,6 +70,11 @@ public final class OntologyDAO {
      */
     public static final String CUSTOM_TYPES_AND_PROPERTIES_GRAPH = "properties";
 
+    /**
+     * API cache tag invalidated on each class, property or restriction modification
+     */
+    public static final String CACHE_TAG = "ontology";
+
     private final Node customGraph;
 
     public OntologyDAO(SPARQLService sparql) {
@@ -98,10 +104,12 @@ public final class OntologyDAO {
 
     public void create(ClassModel model) throws Exception {
         sparql.create(customGraph, model);
+        sparql.invalidateApiCacheTags(CACHE_TAG);
     }
 
     public void update(ClassModel model) throws Exception {
         sparql.update(customGraph, model);
+        sparql.invalidateApiCacheTags(CACHE_TAG);
     }
 
     private static final String CLASS_DELETION_KEY_PARAMETER = "class";
@@ -173,6 +181,7 @@ public final class OntologyDAO {
 
             sparql.executeUpdateQuery(deleteRestrictionOnClass);
             sparql.commitTransaction();
+            sparql.invalidateApiCacheTags(CACHE_TAG);
         }catch (Exception e){
             sparql.rollbackTransaction();
         }
@@ -517,10 +526,12 @@ public final class OntologyDAO {
 
     public void createDataProperty(DatatypePropertyModel dataProperty) throws Exception {
         sparql.create(customGraph, dataProperty);
+        sparql.invalidateApiCacheTags(CACHE_TAG);
     }
 
     public void createObjectProperty(ObjectPropertyModel objectProperty) throws Exception {
         sparql.create(customGraph, objectProperty);
+        sparql.invalidateApiCacheTags(CACHE_TAG);
     }
 
     public DatatypePropertyModel getDataProperty(URI propertyURI, URI domain, String lang) throws Exception {
@@ -587,6 +598,7 @@ public final class OntologyDAO {
             sparql.update(customGraph, property);
             updateRestrictionRangeOnProperty(property.getUri(), property.getRange(), true);
             sparql.commitTransaction();
+            sparql.invalidateApiCacheTags(CACHE_TAG);
         } catch (Exception e) {
             sparql.rollbackTransaction(e);
         }
@@ -599,6 +611,7 @@ public final class OntologyDAO {
             sparql.update(customGraph, property);
             updateRestrictionRangeOnProperty(property.getUri(), property.getRange().getUri(), false);
             sparql.commitTransaction();
+            sparql.invalidateApiCacheTags(CACHE_TAG);
         } catch (Exception e) {
             sparql.rollbackTransaction(e);
         }
@@ -616,6 +629,7 @@ public final class OntologyDAO {
         }
 
         sparql.delete(customGraph, DatatypePropertyModel.class, uri);
+        sparql.invalidateApiCacheTags(CACHE_TAG);
     }
 
     public void deleteObjectProperty(URI uri) throws Exception {
@@ -630,6 +644,7 @@ public final class OntologyDAO {
             throw new IllegalArgumentException("The property "+uri+" has child properties. You must delete them thirst");
         }
         sparql.delete(customGraph, ObjectPropertyModel.class, uri);
+        sparql.invalidateApiCacheTags(CACHE_TAG);
     }
 
     public boolean addClassPropertyRestriction(URI classURI, OwlRestrictionModel restriction, String lang) throws Exception {
@@ -639,6 +654,7 @@ public final class OntologyDAO {
             sparql.create(customGraph, restriction, false, true, (create, node) -> {
                 create.addInsert(customGraph, SPARQLDeserializers.nodeURI(classURI), RDFS.subClassOf, node);
             });
+            sparql.invalidateApiCacheTags(CACHE_TAG);
             return true;
         } else {
             return false;
@@ -675,6 +691,7 @@ public final class OntologyDAO {
             delete.addWhere("?s", OWL2.onProperty, SPARQLDeserializers.nodeURI(propertyURI));
             delete.addWhere("?s", "?p", "?o");
             sparql.executeDeleteQuery(delete);
+            sparql.invalidateApiCacheTags(CACHE_TAG);
         }
     }
 
@@ -862,5 +879,69 @@ public final class OntologyDAO {
         return resultList;
     }
 
+    /**
+     * Batch version of {@link #getByName(String)} : resolve all names with one query using a VALUES clause.
+     *
+     * @param names labels to resolve
+     * @return for each name which was found, the list of resources which have this exact rdfs:label
+     * @throws Exception if the SPARQL query fail
+     */
+    public Map<String, List<SPARQLNamedResourceModel>> getByNames(Collection<String> names) throws Exception {
+        Map<String, List<SPARQLNamedResourceModel>> resultMap = new HashMap<>();
+        if (names.isEmpty()) {
+            return resultMap;
+        }
+
+        SelectBuilder select = new SelectBuilder();
+        select.setDistinct(true);
+        String uriField = "uri";
+        String nameField = "name";
+        Var uriVar = makeVar(uriField);
+        Var nameVar = makeVar(nameField);
+        select.addVar(uriVar);
+        select.addVar(nameVar);
+        select.addWhere(uriVar, RDFS.label, nameVar);
+        select.addWhereValueVar(nameVar, names.stream().map(NodeFactory::createLiteral).toArray());
+
+        SPARQLDeserializer<URI> uriDeserializer = SPARQLDeserializers.getForClass(URI.class);
+        sparql.executeSelectQuery(select, ThrowingConsumer.wrap((SPARQLResult result) -> {
+            String name = result.getStringValue(nameField);
+            SPARQLNamedResourceModel model = new SPARQLNamedResourceModel();
+            model.setName(name);
+            model.setUri(uriDeserializer.fromString(result.getStringValue(uriField)));
+            resultMap.computeIfAbsent(name, key -> new ArrayList<>()).add(model);
+        }, Exception.class));
+
+        return resultMap;
+    }
+
+    /**
+     * Batch check used to validate resources given by URI : resolve with one query all URIs which have at least one rdfs:label.
+     *
+     * @param uris URIs to check
+     * @return the subset of URIs which have a label
+     * @throws Exception if the SPARQL query fail
+     */
+    public Set<URI> getURIsWithLabel(Collection<URI> uris) throws Exception {
+        Set<URI> resultSet = new HashSet<>();
+        if (uris.isEmpty()) {
+            return resultSet;
+        }
+
+        SelectBuilder select = new SelectBuilder();
+        select.setDistinct(true);
+        String uriField = "uri";
+        Var uriVar = makeVar(uriField);
+        select.addVar(uriVar);
+        select.addWhere(uriVar, RDFS.label, makeVar("label"));
+        SPARQLQueryHelper.addWhereUriValues(select, uriField, uris);
+
+        SPARQLDeserializer<URI> uriDeserializer = SPARQLDeserializers.getForClass(URI.class);
+        sparql.executeSelectQuery(select, ThrowingConsumer.wrap((SPARQLResult result) -> {
+            resultSet.add(uriDeserializer.fromString(result.getStringValue(uriField)));
+        }, Exception.class));
+
+        return resultSet;
+    }
 
 }
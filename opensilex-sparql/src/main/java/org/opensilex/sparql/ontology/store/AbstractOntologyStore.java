@@ -8,7 +8,6 @@
 
 package org.opensilex.sparql.ontology.store;
 
-import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.jena.vocabulary.OWL2;
 import org.apache.jena.vocabulary.RDF;
@@ -20,16 +19,16 @@ import org.opensilex.OpenSilex;
 import org.opensilex.OpenSilexModuleNotFoundException;
 import org.opensilex.server.ServerConfig;
 import org.opensilex.server.ServerModule;
+import org.opensilex.server.rest.cache.ApiCacheTags;
 import org.opensilex.sparql.deserializer.SPARQLDeserializers;
 import org.opensilex.sparql.deserializer.URIDeserializer;
 import org.opensilex.sparql.exceptions.SPARQLException;
-import org.opensilex.sparql.exceptions.SPARQLInvalidURIException;
 import org.opensilex.sparql.model.SPARQLLabel;
 import org.opensilex.sparql.model.SPARQLTreeListModel;
 import org.opensilex.sparql.model.VocabularyModel;
 import org.opensilex.sparql.ontology.dal.*;
 import org.opensilex.sparql.service.SPARQLService;
-import org.opensilex.sparql.utils.JgraphtUtils;
+import org.opensilex.utils.ThrowingFunction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.net.URI;
@@ -38,6 +37,7 @@ import java.time.Instant;
 import java.util.*;
 import java.util.function.BiPredicate;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 /**
@@ -49,8 +49,19 @@ public abstract class AbstractOntologyStore implements OntologyStore {
 
     private final SPARQLService sparql;
     private final OntologyDAO ontologyDAO;
-    private final Map<String, VocabularyModel<?>> modelsByUris;
-    private final Graph<String, DefaultEdge> modelsGraph;
+    private final Supplier<Map<String, VocabularyModel<?>>> modelsByUrisSupplier;
+    private final Supplier<Graph<String, DefaultEdge>> modelsGraphSupplier;
+
+    /**
+     * Current snapshot of the store, replaced as a whole on each load or update and never modified once published.
+     * Readers must read this field only once by operation to get a consistent view.
+     */
+    private volatile OntologyStoreIndex index;
+
+    /**
+     * Definitions of the current snapshot, only used by writers (guarded by this)
+     */
+    private OntologyStoreDefinitions definitions;
 
     static final int MAX_GRAPH_PATH_LENGTH = 20;
 
@@ -65,12 +76,16 @@ public abstract class AbstractOntologyStore implements OntologyStore {
     public static final ObjectPropertyModel OWL_OBJECT_PROPERTY_MODEL = getRootObjectPropertyModel();
     public static final OwlRestrictionModel OWL_ROOT_RESTRICTION_MODEL = getRootRestrictionModel();
 
-    protected AbstractOntologyStore(SPARQLService sparql, OpenSilex openSilex, Map<String, VocabularyModel<?>> modelsByUris, Graph<String, DefaultEdge> modelsGraph) throws OpenSilexModuleNotFoundException {
+    /**
+     * @param modelsByUrisSupplier supplier of empty map used to index models of each snapshot
+     * @param modelsGraphSupplier supplier of empty graph used to store hierarchy of each snapshot
+     */
+    protected AbstractOntologyStore(SPARQLService sparql, OpenSilex openSilex, Supplier<Map<String, VocabularyModel<?>>> modelsByUrisSupplier, Supplier<Graph<String, DefaultEdge>> modelsGraphSupplier) throws OpenSilexModuleNotFoundException {
 
         Objects.requireNonNull(sparql);
         Objects.requireNonNull(openSilex);
-        Objects.requireNonNull(modelsByUris);
-        Objects.requireNonNull(modelsGraph);
+        Objects.requireNonNull(modelsByUrisSupplier);
+        Objects.requireNonNull(modelsGraphSupplier);
 
         this.sparql = sparql;
         ontologyDAO = new OntologyDAO(sparql);
@@ -81,8 +96,10 @@ public abstract class AbstractOntologyStore implements OntologyStore {
         this.languages = serverConfig.availableLanguages();
         this.languages.add(NO_LANG);
 
-        this.modelsByUris = modelsByUris;
-        this.modelsGraph = modelsGraph;
+        this.modelsByUrisSupplier = modelsByUrisSupplier;
+        this.modelsGraphSupplier = modelsGraphSupplier;
+        this.definitions = OntologyStoreDefinitions.EMPTY;
+        this.index = new OntologyStoreIndex(modelsByUrisSupplier.get(), modelsGraphSupplier.get());
     }
 
     private static ClassModel getRootClassModel() {
@@ -120,253 +137,121 @@ public abstract class AbstractOntologyStore implements OntologyStore {
         return model;
     }
 
-    public void load() throws SPARQLException {
+    public synchronized void load() throws SPARQLException {
 
         try {
             OntologyStoreLoader storeLoader = new OntologyStoreLoader(sparql, languages);
-            clear();
 
             String loadingMsg = "{} {} loaded [OK] time: {} ms";
 
             // Initial classes loading
             Instant begin = Instant.now();
-            addAll(storeLoader.getClasses());
+            List<ClassModel> classes = storeLoader.getClasses();
             long elapsedMs = Duration.between(begin, Instant.now()).toMillis();
-
-            int nbInserted = modelsByUris.size();
-            LOGGER.info(loadingMsg, nbInserted, "classes", elapsedMs);
+            LOGGER.info(loadingMsg, classes.size(), "classes", elapsedMs);
 
             // Initial properties loading
             begin = Instant.now();
             List<AbstractPropertyModel> properties = storeLoader.getProperties();
-            addAll(properties);
-            linkPropertiesWithClasses(properties);
             elapsedMs = Duration.between(begin, Instant.now()).toMillis();
-
-            nbInserted = modelsByUris.size() - nbInserted;
-            LOGGER.info(loadingMsg, nbInserted, "properties", elapsedMs);
+            LOGGER.info(loadingMsg, properties.size(), "properties", elapsedMs);
 
             // Initial OWL restrictions loading
             begin = Instant.now();
             List<OwlRestrictionModel> restrictions = storeLoader.getRestrictions();
-            linkRestrictions(restrictions);
             elapsedMs = Duration.between(begin, Instant.now()).toMillis();
             LOGGER.info(loadingMsg, restrictions.size(), "restrictions", elapsedMs);
 
+            // link classes, properties and restrictions, the previous snapshot is still readable until then
+            begin = Instant.now();
+            publish(new OntologyStoreDefinitions(classes, properties, restrictions));
+            elapsedMs = Duration.between(begin, Instant.now()).toMillis();
+            LOGGER.info("{} models linked [OK] time: {} ms", index.size(), elapsedMs);
+
         } catch (Exception e) {
             throw new SPARQLException(e);
         }
 
     }
 
-    public void clear() {
-        modelsByUris.clear();
-
-        if (!modelsGraph.vertexSet().isEmpty()) {
-            Set<String> vertexesCopy = new HashSet<>(modelsGraph.vertexSet());
-            modelsGraph.removeAllVertices(vertexesCopy);
-        }
+    /**
+     * Load the store, the current content stays readable while loading
+     * @throws SPARQLException if some Error is encountered during SPARQL query evaluation
+     */
+    @Override
+    public void reload() throws SPARQLException {
+        load();
     }
 
-    private String formatURI(URI uri) {
-        return SPARQLDeserializers.formatURI(uri.toString());
+    public synchronized void clear() {
+        definitions = OntologyStoreDefinitions.EMPTY;
+        index = new OntologyStoreIndex(modelsByUrisSupplier.get(), modelsGraphSupplier.get());
+        ApiCacheTags.invalidate(OntologyDAO.CACHE_TAG);
     }
 
-    public <T extends VocabularyModel<T>> void addAll(Collection<T> models) {
-
-        Objects.requireNonNull(models);
-
-        // compute map of Class URI <-> Class
-        Map<String, T> localModelsByUri = new HashMap<>();
-        for (T model : models) {
-            String uri = formatURI(model.getUri());
-            if (localModelsByUri.containsKey(uri)) {
-                throw new IllegalArgumentException("Duplicate URI " + uri);
-            }
-            localModelsByUri.put(uri, model);
-        }
-
-        for (T model : models) {
-            String uri = formatURI(model.getUri());
-            if (modelsByUris.containsKey(uri)) {
-                throw new IllegalArgumentException("URI already exist : " + uri);
-            }
-
-            linkWithParent(localModelsByUri, model, uri);
-            modelsByUris.put(uri, model);
-        }
-    }
-
-    private <T extends VocabularyModel<T>> void linkWithParent(Map<String, T> localClassesByUris, T classModel, String classURI) {
-
-        if (CollectionUtils.isEmpty(classModel.getParents())) {
-            return;
-        }
-
-        Set<T> newParents = new HashSet<>(classModel.getParents().size());
-
-        // iterate over incomplete parent and build a list of parent full-filled class parent
-        for (T parentClass : classModel.getParents()) {
-            String parentURI = formatURI(parentClass.getUri());
-            T resolvedParent = localClassesByUris.get(parentURI);
-
-            // try to resolve locally or from already existing parents
-            if (resolvedParent == null) {
+    @Override
+    public synchronized void reloadClasses(Collection<URI> classURIs) throws SPARQLException {
+        update("classes " + classURIs, storeLoader -> {
+            OntologyStoreDefinitions updatedDefinitions = definitions.withClasses(classURIs, storeLoader.getClasses(classURIs));
 
-                if (!modelsByUris.containsKey(parentURI)) {
-                    throw new IllegalArgumentException("Parent URI is unknown : " + parentURI);
-                }
-                VocabularyModel<?> modelFromIndex = this.modelsByUris.get(parentURI);
-                resolvedParent = (T) modelFromIndex;
+            // restrictions are created/deleted with classes
+            for (URI classURI : classURIs) {
+                updatedDefinitions = updatedDefinitions.withRestrictions(classURI, storeLoader.getRestrictions(classURI));
             }
-
-            addEdgeBetweenParentAndClass(parentURI, classURI);
-            newParents.add(resolvedParent);
-            resolvedParent.getChildren().add(classModel);
-        }
-
-        classModel.setParents(newParents);
-        classModel.setParent(classModel.getParents().iterator().next());
-    }
-
-    void addEdgeBetweenParentAndClass(String parentURI, String classURI) {
-
-        modelsGraph.addVertex(classURI);
-        modelsGraph.addVertex(parentURI);
-
-        if (!modelsGraph.containsEdge(parentURI, classURI)) {
-            modelsGraph.addEdge(parentURI, classURI);
-        }
+            return updatedDefinitions;
+        });
     }
 
-    private void linkPropertiesWithClasses(Collection<AbstractPropertyModel> properties) throws SPARQLInvalidURIException {
-
-        for (AbstractPropertyModel<?> property : properties) {
-
-            // replace partial domain ClassModel by full ClassModel
-            ClassModel domain = property.getDomain();
-            if (domain == null || domain.getUri() == null) {
-                LOGGER.warn("NULL rdfs:domain for property {}", property.getUri());
-            } else {
-
-                ClassModel existingDomain = getClassModel(domain.getUri());
-                property.setDomain(existingDomain);
-
-                // update ClassModel data/object properties
-                if (property instanceof DatatypePropertyModel) {
-                    existingDomain.getDatatypeProperties().put(property.getUri(), (DatatypePropertyModel) property);
-
-                } else if (property instanceof ObjectPropertyModel) {
-                    existingDomain.getObjectProperties().put(property.getUri(), (ObjectPropertyModel) property);
-                }
-            }
-
-            URI rangeURI = property.getRangeURI();
-            if (rangeURI == null) {
-                LOGGER.warn("NULL range for property {}", property.getUri());
-            } else if (property instanceof ObjectPropertyModel) {
-
-                // replace partial range ClassModel by full ClassModel
-                ClassModel existingRange = getClassModel(rangeURI);
-                ((ObjectPropertyModel) property).setRange(existingRange);
-            }
-        }
+    @Override
+    public synchronized void reloadProperties(Collection<URI> propertyURIs) throws SPARQLException {
+        update("properties " + propertyURIs, storeLoader ->
+                definitions.withProperties(propertyURIs, storeLoader.getProperties(propertyURIs))
+        );
     }
 
-    private void linkDataProperty(OwlRestrictionModel restriction, ClassModel restrictedClass, DatatypePropertyModel property) {
-
-        if (restriction.getOnDataRange() == null) {
-            LOGGER.warn("NULL owl:onDataRange for restriction {} on property {}", restriction.getUri(), property.getUri());
-        } else {
-            restrictedClass.getRestrictionsByProperties().put(restriction.getOnProperty(), restriction);
-        }
+    @Override
+    public synchronized void reloadRestrictions(URI classURI) throws SPARQLException {
+        update("restrictions of " + classURI, storeLoader ->
+                definitions.withRestrictions(classURI, storeLoader.getRestrictions(classURI))
+        );
     }
 
-    private void linkObjectProperty(OwlRestrictionModel restriction, ClassModel restrictedClass, ObjectPropertyModel property)  {
-        if (restriction.getOnClass() == null) {
-            LOGGER.warn("NULL owl:onClass for restriction {} on property {}", restriction.getUri(), property.getUri());
-        } else {
-            restrictedClass.getRestrictionsByProperties().put(restriction.getOnProperty(), restriction);
+    /**
+     * Read updated resources from the SPARQL repository, then link a new snapshot in memory and publish it.
+     * If updated definitions can't be linked (ex : a deleted class is still the domain of a property), the whole store is loaded.
+     *
+     * @param updatedResources description of updated resources, for logs
+     * @param update function which read updated resources and return updated definitions
+     */
+    private void update(String updatedResources, ThrowingFunction<OntologyStoreLoader, OntologyStoreDefinitions, Exception> update) throws SPARQLException {
+        Instant begin = Instant.now();
+        try {
+            publish(update.apply(new OntologyStoreLoader(sparql, languages)));
+            LOGGER.debug("Ontology store updated with {} : {} milliseconds elapsed", updatedResources, Duration.between(begin, Instant.now()).toMillis());
+        } catch (Exception e) {
+            LOGGER.warn("Can't update ontology store with {}, loading the whole store", updatedResources, e);
+            load();
         }
     }
 
-    private void linkRestrictions(Collection<OwlRestrictionModel> restrictions) throws SPARQLException {
-
-        for (OwlRestrictionModel restriction : restrictions) {
-
-            Objects.requireNonNull(restriction.getDomain());
-
-            // update domainCLass with complete ClassModel from store
-            ClassModel domainClass = getClassModel(restriction.getDomain().getUri());
-            restriction.setDomain(domainClass);
-
-            // update onClass with complete ClassModel from store
-            URI onClass = restriction.getOnClass();
-            if (onClass != null) {
-                restriction.setOnClass(onClass);
-            }
-
-            URI property = restriction.getOnProperty();
-            if (property == null) {
-                throw new IllegalArgumentException("Null property URI for restriction : " + restriction.getUri());
-            }
-
-            AbstractPropertyModel<?> propertyModel = getProperty(restriction.getOnProperty(), null, null,null);
-            if (propertyModel instanceof DatatypePropertyModel) {
-                linkDataProperty(restriction, domainClass, (DatatypePropertyModel) propertyModel);
-            } else if (propertyModel instanceof ObjectPropertyModel) {
-                linkObjectProperty(restriction, domainClass, (ObjectPropertyModel) propertyModel);
-            }
-        }
+    private void publish(OntologyStoreDefinitions newDefinitions) throws SPARQLException {
+        OntologyStoreIndex newIndex = new OntologyStoreIndex(modelsByUrisSupplier.get(), modelsGraphSupplier.get(), newDefinitions);
+        definitions = newDefinitions;
+        index = newIndex;
 
+        // API responses read from the store must be computed again
+        ApiCacheTags.invalidate(OntologyDAO.CACHE_TAG);
     }
 
-    private void inheritFromSuperClasses(URI ancestorURI, ClassModel classModel, boolean addRestrictions, boolean addDataProperties, boolean addObjectProperties) throws SPARQLInvalidURIException {
-
-        if (ancestorURI == null) {
-            return;
-        }
-
-        String formattedAncestorURI = URIDeserializer.formatURI(ancestorURI).toString();
-        String classURI = classModel.getUri().toString();
-        if (classURI.equals(formattedAncestorURI)) {
-            return;
-        }
-
-        if (!modelsByUris.containsKey(formattedAncestorURI)) {
-            throw new SPARQLInvalidURIException("Unknown ancestor " + ancestorURI + " for class " + classURI, ancestorURI);
-        }
-
-        // check if ancestor exist and if it's an ancestor of the given class
-        Set<String> ancestors = JgraphtUtils.getVertexesFromAncestor(modelsGraph, formattedAncestorURI, classURI, MAX_GRAPH_PATH_LENGTH);
-        if (ancestors.isEmpty()) {
-            throw new SPARQLInvalidURIException(ancestorURI + " is not a " + classURI + " parent or ancestor . ", ancestorURI);
-        }
-
-        // append inherited OWL restrictions
-        for (String ancestor : ancestors) {
-            ClassModel ancestorModel = (ClassModel) modelsByUris.get(ancestor);
-
-            // add inherited data/object properties
-            if(addDataProperties){
-                ancestorModel.getDatatypeProperties().values().forEach(property -> {
-                    classModel.getDatatypeProperties().put(property.getUri(),property);
-                });
-            }
-            if(addObjectProperties){
-                ancestorModel.getObjectProperties().values().forEach(property -> {
-                    classModel.getObjectProperties().put(property.getUri(),property);
-                });
-            }
-
-            // add inherited restrictions
-            if(addRestrictions){
-                ancestorModel.getRestrictionsByProperties().values().forEach(ancestorRestriction ->
-                        classModel.getRestrictionsByProperties().put(ancestorRestriction.getOnProperty(), ancestorRestriction)
-                );
-            }
-
-        }
+    /**
+     * @return a copy of the class model which can be updated without changing the store
+     */
+    private static ClassModel copyForRead(ClassModel model) {
+        ClassModel copy = new ClassModel(model);
+        copy.setDatatypeProperties(new HashMap<>(model.getDatatypeProperties()));
+        copy.setObjectProperties(new HashMap<>(model.getObjectProperties()));
+        copy.setRestrictionsByProperties(new HashMap<>(model.getRestrictionsByProperties()));
+        return copy;
     }
 
     private void handleLang(String lang, VocabularyModel<?> model) {
@@ -394,31 +279,17 @@ public abstract class AbstractOntologyStore implements OntologyStore {
         }
     }
 
-    private ClassModel getClassModel(URI uri) throws SPARQLInvalidURIException {
-
-        URI formattedURI = URIDeserializer.formatURI(uri);
-
-        VocabularyModel<?> genericModel = modelsByUris.get(formattedURI.toString());
-        if (genericModel == null) {
-            throw new SPARQLInvalidURIException("owl:Class URI not found : ", formattedURI);
-        }
-        if (!(genericModel instanceof ClassModel)) {
-            throw new SPARQLInvalidURIException("URI is not a Class URI : ", formattedURI);
-        }
-        return (ClassModel) genericModel;
-    }
-
-
     @Override
     public ClassModel getClassModel(URI classURI, URI ancestorURI, String lang) throws SPARQLException {
 
         Objects.requireNonNull(classURI);
-        ClassModel model = getClassModel(classURI);
+        OntologyStoreIndex currentIndex = index;
+        ClassModel model = currentIndex.getClassModel(classURI);
 
         // compute a ClassModel which take care of parent and lang
-        ClassModel finalModel = new ClassModel(model);
+        ClassModel finalModel = copyForRead(model);
 
-        inheritFromSuperClasses(ancestorURI, finalModel,true,true,true);
+        currentIndex.inheritFromSuperClasses(ancestorURI, finalModel,true,true,true);
         handleLang(lang, finalModel);
         model.visit(descendant -> handleLang(lang, descendant));
         return finalModel;
@@ -433,24 +304,9 @@ public abstract class AbstractOntologyStore implements OntologyStore {
         return new SPARQLTreeListModel<>(classModel, excludeRoot, true);
     }
 
-    private AbstractPropertyModel<?> getProperty(URI uri,URI domain) throws SPARQLInvalidURIException {
-
-        URI formattedURI = URIDeserializer.formatURI(uri);
-
-        VocabularyModel<?> genericModel = modelsByUris.get(formattedURI.toString());
-        if (genericModel == null) {
-            throw new SPARQLInvalidURIException("owl:property URI not found : ", formattedURI);
-        }
-
-        if (!(AbstractPropertyModel.class.isAssignableFrom(genericModel.getClass()))) {
-            throw new SPARQLInvalidURIException("URI is not a property URI : ", formattedURI);
-        }
-
-//        if (type != null && !SPARQLDeserializers.compareURIs(model.getType(), type)) {
-//            throw new SPARQLInvalidURIException(String.format("Property (%s) type (%s) don't match with the given type : %s. ", uri, model.getType(), type), uri);
-//        }
-
-        return (AbstractPropertyModel<?>) genericModel;
+    @Override
+    public Set<String> getSubClassesURIs(URI classURI) throws SPARQLException {
+        return index.getSubClassesURIs(classURI);
     }
 
     private <PT extends AbstractPropertyModel<PT>> Set<PT> computeProperties(
@@ -494,7 +350,7 @@ public abstract class AbstractOntologyStore implements OntologyStore {
         Set<DatatypePropertyModel> properties = computeProperties(
                 true,
                 new HashSet<>(),
-                getClassModel(domain),
+                index.getClassModel(domain),
                 (classModel -> classModel.getDatatypeProperties().values().stream()),
                 includeSubClasses,
                 filter,
@@ -514,7 +370,7 @@ public abstract class AbstractOntologyStore implements OntologyStore {
         Set<ObjectPropertyModel> properties = computeProperties(
                 true,
                 new HashSet<>(),
-                getClassModel(domain),
+                index.getClassModel(domain),
                 (classModel -> classModel.getObjectProperties().values().stream()),
                 includeSubClasses,
                 filter,
@@ -527,9 +383,10 @@ public abstract class AbstractOntologyStore implements OntologyStore {
     public Set<DatatypePropertyModel> getLinkableDataProperties(URI domain, URI ancestor, String lang) throws SPARQLException {
 
         // compute set of inherited data properties and inherited properties
-        ClassModel domainClass = new ClassModel(getClassModel(domain));
+        OntologyStoreIndex currentIndex = index;
+        ClassModel domainClass = copyForRead(currentIndex.getClassModel(domain));
         if(ancestor != null){
-            inheritFromSuperClasses(ancestor, domainClass, true, true, false);
+            currentIndex.inheritFromSuperClasses(ancestor, domainClass, true, true, false);
         }
 
         // return properties on domain MINUS properties already associated to domain with a restriction
@@ -552,9 +409,10 @@ public abstract class AbstractOntologyStore implements OntologyStore {
     public Set<ObjectPropertyModel> getLinkableObjectProperties(URI domain, URI ancestor, String lang) throws SPARQLException {
 
         // compute set of inherited object properties
-        ClassModel domainClass = new ClassModel(getClassModel(domain));
+        OntologyStoreIndex currentIndex = index;
+        ClassModel domainClass = copyForRead(currentIndex.getClassModel(domain));
         if(ancestor != null){
-            inheritFromSuperClasses(ancestor, domainClass, true, false, true);
+            currentIndex.inheritFromSuperClasses(ancestor, domainClass, true, false, true);
         }
 
         // return properties on domain MINUS properties already associated to domain with a restriction
@@ -577,7 +435,7 @@ public abstract class AbstractOntologyStore implements OntologyStore {
     @Override
     public AbstractPropertyModel<?> getProperty(URI propertyURI, URI type, URI domain, String lang) throws SPARQLException {
 
-        AbstractPropertyModel<?> model = getProperty(propertyURI, domain);
+        AbstractPropertyModel<?> model = index.getProperty(propertyURI);
         handleLang(lang, model);
         model.visit(descendant -> handleLang(lang, descendant));
 
@@ -596,26 +454,6 @@ public abstract class AbstractOntologyStore implements OntologyStore {
 
     @Override
     public boolean classExist(URI rdfClass, URI ancestorClass) {
-        String classURI = formatURI(rdfClass);
-
-        if (!modelsByUris.containsKey(classURI)) {
-            return false;
-        }
-        if (ancestorClass == null) {
-            return true;
-        }
-
-        String ancestorURI = formatURI(ancestorClass);
-
-        if (ancestorURI.equals(classURI)) {
-            return true;
-        }
-
-        if (!modelsByUris.containsKey(ancestorURI)) {
-            return false;
-        }
-
-        Set<String> ancestors = JgraphtUtils.getVertexesFromAncestor(modelsGraph, ancestorURI, classURI, MAX_GRAPH_PATH_LENGTH);
-        return !ancestors.isEmpty();
+        return index.classExist(rdfClass, ancestorClass);
     }
 }
@@ -23,6 +23,6 @@ import org.opensilex.sparql.service.SPARQLService;
 public class DefaultOntologyStore extends AbstractOntologyStore {
 
     public DefaultOntologyStore(SPARQLService sparql, OpenSilex openSilex) throws OpenSilexModuleNotFoundException, SPARQLException {
-        super(sparql, openSilex, new PatriciaTrie<>(), new SimpleDirectedGraph<>(DefaultEdge.class));
+        super(sparql, openSilex, PatriciaTrie::new, () -> new SimpleDirectedGraph<>(DefaultEdge.class));
     }
 }
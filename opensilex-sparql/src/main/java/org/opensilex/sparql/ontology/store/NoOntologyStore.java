@@ -9,6 +9,8 @@ import org.opensilex.sparql.model.SPARQLTreeListModel;
 import org.opensilex.sparql.ontology.dal.*;
 
 import java.net.URI;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.BiPredicate;
@@ -77,6 +79,16 @@ public class NoOntologyStore implements OntologyStore {
         }
     }
 
+    @Override
+    public Set<String> getSubClassesURIs(URI classURI) throws SPARQLException {
+        Set<String> subClassesURIs = new HashSet<>();
+        subClassesURIs.add(SPARQLDeserializers.getExpandedURI(classURI));
+        searchSubClasses(classURI, null, null, true).traverse(classModel ->
+                subClassesURIs.add(SPARQLDeserializers.getExpandedURI(classModel.getUri()))
+        );
+        return Collections.unmodifiableSet(subClassesURIs);
+    }
+
     @Override
     public SPARQLTreeListModel<DatatypePropertyModel> searchDataProperties(URI domain, String namePattern, String lang, boolean includeSubClasses, BiPredicate<DatatypePropertyModel,ClassModel> filter) throws SPARQLException {
         try {
@@ -15,6 +15,7 @@ import org.opensilex.sparql.model.SPARQLTreeListModel;
 import org.opensilex.sparql.ontology.dal.*;
 
 import java.net.URI;
+import java.util.Collection;
 import java.util.Set;
 import java.util.function.BiPredicate;
 
@@ -45,6 +46,33 @@ public interface OntologyStore {
         load();
     }
 
+    /**
+     * Update the store with classes created, updated or deleted in the SPARQL repository, and with their restrictions
+     * @param classURIs URIs of the created, updated or deleted classes
+     * @throws SPARQLException if some Error is encountered during SPARQL query evaluation
+     */
+    default void reloadClasses(Collection<URI> classURIs) throws SPARQLException {
+        reload();
+    }
+
+    /**
+     * Update the store with properties created, updated or deleted in the SPARQL repository
+     * @param propertyURIs URIs of the created, updated or deleted properties
+     * @throws SPARQLException if some Error is encountered during SPARQL query evaluation
+     */
+    default void reloadProperties(Collection<URI> propertyURIs) throws SPARQLException {
+        reload();
+    }
+
+    /**
+     * Update the store with restrictions of a class created, updated or deleted in the SPARQL repository
+     * @param classURI URI of the restricted class
+     * @throws SPARQLException if some Error is encountered during SPARQL query evaluation
+     */
+    default void reloadRestrictions(URI classURI) throws SPARQLException {
+        reload();
+    }
+
     /**
      *
      * @param classURI URI of a {@link ClassModel} (required)
@@ -71,6 +99,13 @@ public interface OntologyStore {
      */
     SPARQLTreeListModel<ClassModel> searchSubClasses(URI classURI, String namePattern, String lang, boolean excludeRoot) throws SPARQLException;
 
+    /**
+     * @param classURI URI of a {@link ClassModel} (required)
+     * @return an immutable set with the expanded URIs of the class and of all its descendants (rdfs:subClassOf*)
+     * @throws SPARQLException if the class is unknown or if some Error is encountered during SPARQL query evaluation
+     */
+    Set<String> getSubClassesURIs(URI classURI) throws SPARQLException;
+
     /**
      *
      * @param propertyURI property URI
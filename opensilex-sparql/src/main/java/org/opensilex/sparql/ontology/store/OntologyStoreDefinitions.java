@@ -0,0 +1,201 @@
+//******************************************************************************
+//                          OntologyStoreDefinitions.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.ontology.store;
+
+import org.opensilex.sparql.deserializer.SPARQLDeserializers;
+import org.opensilex.sparql.model.VocabularyModel;
+import org.opensilex.sparql.ontology.dal.*;
+
+import java.net.URI;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * <pre>
+ * Classes, properties and restrictions as read by the {@link OntologyStoreLoader}, before any link between them.
+ *
+ * Linking updates models (parents, children, domain and range, properties and restrictions by class), so definitions
+ * are never linked : each {@link OntologyStoreIndex} links its own copy. Definitions are immutable, an update returns new definitions.
+ * </pre>
+ */
+final class OntologyStoreDefinitions {
+
+    static final OntologyStoreDefinitions EMPTY = new OntologyStoreDefinitions(
+            Collections.emptyMap(),
+            Collections.emptyMap(),
+            Collections.emptyMap()
+    );
+
+    private final Map<String, ClassModel> classes;
+    private final Map<String, AbstractPropertyModel<?>> properties;
+    private final Map<String, List<OwlRestrictionModel>> restrictionsByDomain;
+
+    OntologyStoreDefinitions(List<ClassModel> classes, List<AbstractPropertyModel> properties, List<OwlRestrictionModel> restrictions) {
+        this.classes = new LinkedHashMap<>();
+        classes.forEach(classModel -> this.classes.put(formatURI(classModel.getUri()), classModel));
+
+        this.properties = new LinkedHashMap<>();
+        properties.forEach(property -> this.properties.put(formatURI(property.getUri()), property));
+
+        this.restrictionsByDomain = new LinkedHashMap<>();
+        restrictions.forEach(restriction -> this.restrictionsByDomain
+                .computeIfAbsent(formatURI(restriction.getDomain().getUri()), domain -> new ArrayList<>())
+                .add(restriction)
+        );
+    }
+
+    private OntologyStoreDefinitions(Map<String, ClassModel> classes, Map<String, AbstractPropertyModel<?>> properties, Map<String, List<OwlRestrictionModel>> restrictionsByDomain) {
+        this.classes = classes;
+        this.properties = properties;
+        this.restrictionsByDomain = restrictionsByDomain;
+    }
+
+    private static String formatURI(URI uri) {
+        return SPARQLDeserializers.formatURI(uri.toString());
+    }
+
+    /**
+     * @param classURIs URIs of updated classes, a class which is not in classes is removed
+     * @param classes updated classes
+     * @return new definitions with updated classes
+     */
+    OntologyStoreDefinitions withClasses(Collection<URI> classURIs, List<ClassModel> classes) {
+        Map<String, ClassModel> newClasses = new LinkedHashMap<>(this.classes);
+        classURIs.forEach(uri -> newClasses.remove(formatURI(uri)));
+        classes.forEach(classModel -> newClasses.put(formatURI(classModel.getUri()), classModel));
+        return new OntologyStoreDefinitions(newClasses, properties, restrictionsByDomain);
+    }
+
+    /**
+     * @param propertyURIs URIs of updated properties, a property which is not in properties is removed
+     * @param properties updated properties
+     * @return new definitions with updated properties
+     */
+    OntologyStoreDefinitions withProperties(Collection<URI> propertyURIs, List<AbstractPropertyModel> properties) {
+        Map<String, AbstractPropertyModel<?>> newProperties = new LinkedHashMap<>(this.properties);
+        propertyURIs.forEach(uri -> newProperties.remove(formatURI(uri)));
+        properties.forEach(property -> newProperties.put(formatURI(property.getUri()), property));
+        return new OntologyStoreDefinitions(classes, newProperties, restrictionsByDomain);
+    }
+
+    /**
+     * @param domain URI of the restricted class
+     * @param restrictions all restrictions of the class
+     * @return new definitions with updated restrictions of the class
+     */
+    OntologyStoreDefinitions withRestrictions(URI domain, List<OwlRestrictionModel> restrictions) {
+        Map<String, List<OwlRestrictionModel>> newRestrictions = new LinkedHashMap<>(this.restrictionsByDomain);
+        if (restrictions.isEmpty()) {
+            newRestrictions.remove(formatURI(domain));
+        } else {
+            newRestrictions.put(formatURI(domain), new ArrayList<>(restrictions));
+        }
+        return new OntologyStoreDefinitions(classes, properties, newRestrictions);
+    }
+
+    /**
+     * @return new unlinked copy of classes
+     */
+    List<ClassModel> copyClasses() {
+        List<ClassModel> copies = new ArrayList<>(classes.size());
+        for (ClassModel definition : classes.values()) {
+            ClassModel copy = new ClassModel();
+            copyDefinition(definition, copy, ClassModel::new);
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    /**
+     * @return new unlinked copy of properties
+     */
+    List<AbstractPropertyModel> copyProperties() {
+        List<AbstractPropertyModel> copies = new ArrayList<>(properties.size());
+        for (AbstractPropertyModel<?> definition : properties.values()) {
+            AbstractPropertyModel<?> copy;
+
+            if (definition instanceof DatatypePropertyModel) {
+                DatatypePropertyModel dataProperty = new DatatypePropertyModel();
+                copyDefinition((DatatypePropertyModel) definition, dataProperty, DatatypePropertyModel::new);
+                dataProperty.setRange(((DatatypePropertyModel) definition).getRange());
+                copy = dataProperty;
+            } else {
+                ObjectPropertyModel objectProperty = new ObjectPropertyModel();
+                copyDefinition((ObjectPropertyModel) definition, objectProperty, ObjectPropertyModel::new);
+                objectProperty.setRange(copyClassURI(((ObjectPropertyModel) definition).getRange()));
+                copy = objectProperty;
+            }
+            copy.setDomain(copyClassURI(definition.getDomain()));
+            copy.setTypeRestriction(definition.getTypeRestriction());
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    /**
+     * @return new unlinked copy of restrictions
+     */
+    List<OwlRestrictionModel> copyRestrictions() {
+        List<OwlRestrictionModel> copies = new ArrayList<>();
+        for (List<OwlRestrictionModel> restrictions : restrictionsByDomain.values()) {
+            for (OwlRestrictionModel definition : restrictions) {
+                OwlRestrictionModel copy = new OwlRestrictionModel();
+                copy.setUri(definition.getUri());
+                copy.setType(definition.getType());
+                copy.setTypeLabel(definition.getTypeLabel());
+                copy.setDomain(copyClassURI(definition.getDomain()));
+                copy.setOnProperty(definition.getOnProperty());
+                copy.setOnDataRange(definition.getOnDataRange());
+                copy.setOnClass(definition.getOnClass());
+                copy.setMinQualifiedCardinality(definition.getMinQualifiedCardinality());
+                copy.setMaxQualifiedCardinality(definition.getMaxQualifiedCardinality());
+                copy.setQualifiedCardinality(definition.getQualifiedCardinality());
+                copy.setSomeValuesFrom(definition.getSomeValuesFrom());
+                copies.add(copy);
+            }
+        }
+        return copies;
+    }
+
+    int getClassesCount() {
+        return classes.size();
+    }
+
+    int getPropertiesCount() {
+        return properties.size();
+    }
+
+    int getRestrictionsCount() {
+        return restrictionsByDomain.values().stream().mapToInt(List::size).sum();
+    }
+
+    private static <T extends VocabularyModel<T>> void copyDefinition(T definition, T copy, Supplier<T> parentConstructor) {
+        copy.setUri(definition.getUri());
+        copy.setType(definition.getType());
+        copy.setTypeLabel(definition.getTypeLabel());
+        copy.setLabel(definition.getLabel());
+        copy.setComment(definition.getComment());
+
+        // parents are only known by URI until linked
+        Set<T> parents = new HashSet<>();
+        for (T parent : definition.getParents()) {
+            T parentCopy = parentConstructor.get();
+            parentCopy.setUri(parent.getUri());
+            parents.add(parentCopy);
+        }
+        copy.setParents(parents);
+    }
+
+    private static ClassModel copyClassURI(ClassModel classModel) {
+        if (classModel == null) {
+            return null;
+        }
+        ClassModel copy = new ClassModel();
+        copy.setUri(classModel.getUri());
+        return copy;
+    }
+}
@@ -0,0 +1,345 @@
+//******************************************************************************
+//                          OntologyStoreIndex.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.ontology.store;
+
+import org.apache.commons.collections4.CollectionUtils;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultEdge;
+import org.opensilex.sparql.deserializer.SPARQLDeserializers;
+import org.opensilex.sparql.deserializer.URIDeserializer;
+import org.opensilex.sparql.exceptions.SPARQLException;
+import org.opensilex.sparql.exceptions.SPARQLInvalidURIException;
+import org.opensilex.sparql.model.VocabularyModel;
+import org.opensilex.sparql.ontology.dal.*;
+import org.opensilex.sparql.utils.JgraphtUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <pre>
+ * Snapshot of an {@link AbstractOntologyStore} : classes and properties indexed by URI, and the class/property hierarchy graph.
+ *
+ * An index is fully linked by its constructor and is never updated once built,
+ * so it can be read without lock while a new index is built for the next version of the ontology.
+ * </pre>
+ */
+final class OntologyStoreIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OntologyStoreIndex.class);
+
+    private final Map<String, VocabularyModel<?>> modelsByUris;
+    private final Graph<String, DefaultEdge> modelsGraph;
+
+    /**
+     * Transitive sub-classes by class URI, computed on first use
+     */
+    private final Map<String, Set<String>> subClassesURIs = new ConcurrentHashMap<>();
+
+    /**
+     * Build an empty index
+     */
+    OntologyStoreIndex(Map<String, VocabularyModel<?>> modelsByUris, Graph<String, DefaultEdge> modelsGraph) {
+        this.modelsByUris = modelsByUris;
+        this.modelsGraph = modelsGraph;
+    }
+
+    /**
+     * Build an index with a linked copy of the given definitions
+     *
+     * @param modelsByUris empty map used to index models
+     * @param modelsGraph empty graph used to store hierarchy
+     * @param definitions classes, properties and restrictions definitions
+     * @throws SPARQLException if a property or a restriction refers to an unknown class or property
+     */
+    OntologyStoreIndex(Map<String, VocabularyModel<?>> modelsByUris, Graph<String, DefaultEdge> modelsGraph, OntologyStoreDefinitions definitions) throws SPARQLException {
+        this(modelsByUris, modelsGraph);
+
+        addAll(definitions.copyClasses());
+
+        List<AbstractPropertyModel> properties = definitions.copyProperties();
+        addAll(properties);
+        linkPropertiesWithClasses(properties);
+
+        linkRestrictions(definitions.copyRestrictions());
+    }
+
+    int size() {
+        return modelsByUris.size();
+    }
+
+    private static String formatURI(URI uri) {
+        return SPARQLDeserializers.formatURI(uri.toString());
+    }
+
+    private <T extends VocabularyModel<T>> void addAll(Collection<T> models) {
+
+        Objects.requireNonNull(models);
+
+        // compute map of Class URI <-> Class
+        Map<String, T> localModelsByUri = new HashMap<>();
+        for (T model : models) {
+            String uri = formatURI(model.getUri());
+            if (localModelsByUri.containsKey(uri)) {
+                throw new IllegalArgumentException("Duplicate URI " + uri);
+            }
+            localModelsByUri.put(uri, model);
+        }
+
+        for (T model : models) {
+            String uri = formatURI(model.getUri());
+            if (modelsByUris.containsKey(uri)) {
+                throw new IllegalArgumentException("URI already exist : " + uri);
+            }
+
+            linkWithParent(localModelsByUri, model, uri);
+            modelsByUris.put(uri, model);
+        }
+    }
+
+    private <T extends VocabularyModel<T>> void linkWithParent(Map<String, T> localClassesByUris, T classModel, String classURI) {
+
+        if (CollectionUtils.isEmpty(classModel.getParents())) {
+            return;
+        }
+
+        Set<T> newParents = new HashSet<>(classModel.getParents().size());
+
+        // iterate over incomplete parent and build a list of parent full-filled class parent
+        for (T parentClass : classModel.getParents()) {
+            String parentURI = formatURI(parentClass.getUri());
+            T resolvedParent = localClassesByUris.get(parentURI);
+
+            // try to resolve locally or from already existing parents
+            if (resolvedParent == null) {
+
+                if (!modelsByUris.containsKey(parentURI)) {
+                    throw new IllegalArgumentException("Parent URI is unknown : " + parentURI);
+                }
+                VocabularyModel<?> modelFromIndex = this.modelsByUris.get(parentURI);
+                resolvedParent = (T) modelFromIndex;
+            }
+
+            addEdgeBetweenParentAndClass(parentURI, classURI);
+            newParents.add(resolvedParent);
+            resolvedParent.getChildren().add(classModel);
+        }
+
+        classModel.setParents(newParents);
+        classModel.setParent(classModel.getParents().iterator().next());
+    }
+
+    private void addEdgeBetweenParentAndClass(String parentURI, String classURI) {
+
+        modelsGraph.addVertex(classURI);
+        modelsGraph.addVertex(parentURI);
+
+        if (!modelsGraph.containsEdge(parentURI, classURI)) {
+            modelsGraph.addEdge(parentURI, classURI);
+        }
+    }
+
+    private void linkPropertiesWithClasses(Collection<AbstractPropertyModel> properties) throws SPARQLInvalidURIException {
+
+        for (AbstractPropertyModel<?> property : properties) {
+
+            // replace partial domain ClassModel by full ClassModel
+            ClassModel domain = property.getDomain();
+            if (domain == null || domain.getUri() == null) {
+                LOGGER.warn("NULL rdfs:domain for property {}", property.getUri());
+            } else {
+
+                ClassModel existingDomain = getClassModel(domain.getUri());
+                property.setDomain(existingDomain);
+
+                // update ClassModel data/object properties
+                if (property instanceof DatatypePropertyModel) {
+                    existingDomain.getDatatypeProperties().put(property.getUri(), (DatatypePropertyModel) property);
+
+                } else if (property instanceof ObjectPropertyModel) {
+                    existingDomain.getObjectProperties().put(property.getUri(), (ObjectPropertyModel) property);
+                }
+            }
+
+            URI rangeURI = property.getRangeURI();
+            if (rangeURI == null) {
+                LOGGER.warn("NULL range for property {}", property.getUri());
+            } else if (property instanceof ObjectPropertyModel) {
+
+                // replace partial range ClassModel by full ClassModel
+                ClassModel existingRange = getClassModel(rangeURI);
+                ((ObjectPropertyModel) property).setRange(existingRange);
+            }
+        }
+    }
+
+    private void linkDataProperty(OwlRestrictionModel restriction, ClassModel restrictedClass, DatatypePropertyModel property) {
+
+        if (restriction.getOnDataRange() == null) {
+            LOGGER.warn("NULL owl:onDataRange for restriction {} on property {}", restriction.getUri(), property.getUri());
+        } else {
+            restrictedClass.getRestrictionsByProperties().put(restriction.getOnProperty(), restriction);
+        }
+    }
+
+    private void linkObjectProperty(OwlRestrictionModel restriction, ClassModel restrictedClass, ObjectPropertyModel property)  {
+        if (restriction.getOnClass() == null) {
+            LOGGER.warn("NULL owl:onClass for restriction {} on property {}", restriction.getUri(), property.getUri());
+        } else {
+            restrictedClass.getRestrictionsByProperties().put(restriction.getOnProperty(), restriction);
+        }
+    }
+
+    private void linkRestrictions(Collection<OwlRestrictionModel> restrictions) throws SPARQLException {
+
+        for (OwlRestrictionModel restriction : restrictions) {
+
+            Objects.requireNonNull(restriction.getDomain());
+
+            // update domainCLass with complete ClassModel from store
+            ClassModel domainClass = getClassModel(restriction.getDomain().getUri());
+            restriction.setDomain(domainClass);
+
+            URI property = restriction.getOnProperty();
+            if (property == null) {
+                throw new IllegalArgumentException("Null property URI for restriction : " + restriction.getUri());
+            }
+
+            AbstractPropertyModel<?> propertyModel = getProperty(property);
+            if (propertyModel instanceof DatatypePropertyModel) {
+                linkDataProperty(restriction, domainClass, (DatatypePropertyModel) propertyModel);
+            } else if (propertyModel instanceof ObjectPropertyModel) {
+                linkObjectProperty(restriction, domainClass, (ObjectPropertyModel) propertyModel);
+            }
+        }
+
+    }
+
+    /**
+     * Add properties and restrictions of the ancestors of a class to the given class model.
+     * The given model must not be a model of the index, since its maps are updated.
+     */
+    void inheritFromSuperClasses(URI ancestorURI, ClassModel classModel, boolean addRestrictions, boolean addDataProperties, boolean addObjectProperties) throws SPARQLInvalidURIException {
+
+        if (ancestorURI == null) {
+            return;
+        }
+
+        String formattedAncestorURI = URIDeserializer.formatURI(ancestorURI).toString();
+        String classURI = classModel.getUri().toString();
+        if (classURI.equals(formattedAncestorURI)) {
+            return;
+        }
+
+        if (!modelsByUris.containsKey(formattedAncestorURI)) {
+            throw new SPARQLInvalidURIException("Unknown ancestor " + ancestorURI + " for class " + classURI, ancestorURI);
+        }
+
+        // check if ancestor exist and if it's an ancestor of the given class
+        Set<String> ancestors = JgraphtUtils.getVertexesFromAncestor(modelsGraph, formattedAncestorURI, classURI, AbstractOntologyStore.MAX_GRAPH_PATH_LENGTH);
+        if (ancestors.isEmpty()) {
+            throw new SPARQLInvalidURIException(ancestorURI + " is not a " + classURI + " parent or ancestor . ", ancestorURI);
+        }
+
+        // append inherited OWL restrictions
+        for (String ancestor : ancestors) {
+            ClassModel ancestorModel = (ClassModel) modelsByUris.get(ancestor);
+
+            // add inherited data/object properties
+            if(addDataProperties){
+                ancestorModel.getDatatypeProperties().values().forEach(property -> {
+                    classModel.getDatatypeProperties().put(property.getUri(),property);
+                });
+            }
+            if(addObjectProperties){
+                ancestorModel.getObjectProperties().values().forEach(property -> {
+                    classModel.getObjectProperties().put(property.getUri(),property);
+                });
+            }
+
+            // add inherited restrictions
+            if(addRestrictions){
+                ancestorModel.getRestrictionsByProperties().values().forEach(ancestorRestriction ->
+                        classModel.getRestrictionsByProperties().put(ancestorRestriction.getOnProperty(), ancestorRestriction)
+                );
+            }
+
+        }
+    }
+
+    ClassModel getClassModel(URI uri) throws SPARQLInvalidURIException {
+
+        URI formattedURI = URIDeserializer.formatURI(uri);
+
+        VocabularyModel<?> genericModel = modelsByUris.get(formattedURI.toString());
+        if (genericModel == null) {
+            throw new SPARQLInvalidURIException("owl:Class URI not found : ", formattedURI);
+        }
+        if (!(genericModel instanceof ClassModel)) {
+            throw new SPARQLInvalidURIException("URI is not a Class URI : ", formattedURI);
+        }
+        return (ClassModel) genericModel;
+    }
+
+    AbstractPropertyModel<?> getProperty(URI uri) throws SPARQLInvalidURIException {
+
+        URI formattedURI = URIDeserializer.formatURI(uri);
+
+        VocabularyModel<?> genericModel = modelsByUris.get(formattedURI.toString());
+        if (genericModel == null) {
+            throw new SPARQLInvalidURIException("owl:property URI not found : ", formattedURI);
+        }
+
+        if (!(AbstractPropertyModel.class.isAssignableFrom(genericModel.getClass()))) {
+            throw new SPARQLInvalidURIException("URI is not a property URI : ", formattedURI);
+        }
+
+        return (AbstractPropertyModel<?>) genericModel;
+    }
+
+    Set<String> getSubClassesURIs(URI classURI) throws SPARQLInvalidURIException {
+        String formattedURI = formatURI(classURI);
+        Set<String> classSubClassesURIs = subClassesURIs.get(formattedURI);
+        if (classSubClassesURIs != null) {
+            return classSubClassesURIs;
+        }
+
+        Set<String> descendants = new HashSet<>();
+        getClassModel(classURI).visit(descendant -> descendants.add(SPARQLDeserializers.getExpandedURI(descendant.getUri())));
+        classSubClassesURIs = Collections.unmodifiableSet(descendants);
+
+        subClassesURIs.putIfAbsent(formattedURI, classSubClassesURIs);
+        return classSubClassesURIs;
+    }
+
+    boolean classExist(URI rdfClass, URI ancestorClass) {
+        String classURI = formatURI(rdfClass);
+
+        if (!modelsByUris.containsKey(classURI)) {
+            return false;
+        }
+        if (ancestorClass == null) {
+            return true;
+        }
+
+        String ancestorURI = formatURI(ancestorClass);
+
+        if (ancestorURI.equals(classURI)) {
+            return true;
+        }
+
+        if (!modelsByUris.containsKey(ancestorURI)) {
+            return false;
+        }
+
+        Set<String> ancestors = JgraphtUtils.getVertexesFromAncestor(modelsGraph, ancestorURI, classURI, AbstractOntologyStore.MAX_GRAPH_PATH_LENGTH);
+        return !ancestors.isEmpty();
+    }
+}
@@ -15,6 +15,7 @@ import org.apache.jena.arq.querybuilder.WhereBuilder;
 import org.apache.jena.graph.Node;
 import org.apache.jena.graph.NodeFactory;
 import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.expr.Expr;
 import org.apache.jena.vocabulary.OWL2;
 import org.apache.jena.vocabulary.RDF;
 import org.apache.jena.vocabulary.RDFS;
@@ -29,6 +30,7 @@ import org.opensilex.sparql.service.SPARQLService;
 
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
@@ -227,8 +229,25 @@ class OntologyStoreLoader {
     }
 
     List<ClassModel> getClasses() throws SPARQLException {
+        return getClasses(ALL_CLASSES_QUERY);
+    }
+
+    /**
+     * @param uris URIs of the classes to load
+     * @return the classes which still exist in the repository, among the given URIs
+     */
+    List<ClassModel> getClasses(Collection<URI> uris) throws SPARQLException {
+        if (uris.isEmpty()) {
+            return Collections.emptyList();
+        }
+        SelectBuilder select = ALL_CLASSES_QUERY.clone();
+        SPARQLQueryHelper.addWhereUriValues(select, URI_VAR.getVarName(), uris);
+        return getClasses(select);
+    }
+
+    private List<ClassModel> getClasses(SelectBuilder select) throws SPARQLException {
         return getModels(
-                ALL_CLASSES_QUERY,
+                select,
                 result -> new ClassModel(),
                 (result, model) -> {
                     model.setType(AbstractOntologyStore.OWL_CLASS_MODEL.getUri());
@@ -237,9 +256,27 @@ class OntologyStoreLoader {
     }
 
     List<AbstractPropertyModel> getProperties() throws SPARQLException {
+        return getProperties(ALL_PROPERTIES_QUERY);
+    }
+
+    /**
+     * @param uris URIs of the properties to load
+     * @return the properties which still exist in the repository, among the given URIs
+     */
+    List<AbstractPropertyModel> getProperties(Collection<URI> uris) throws SPARQLException {
+        if (uris.isEmpty()) {
+            return Collections.emptyList();
+        }
+        // the query already has VALUES on property types, so URIs are filtered with an IN expression
+        SelectBuilder select = ALL_PROPERTIES_QUERY.clone();
+        select.addFilter(SPARQLQueryHelper.inURIFilter(URI_VAR, uris));
+        return getProperties(select);
+    }
+
+    private List<AbstractPropertyModel> getProperties(SelectBuilder select) throws SPARQLException {
 
         return getModels(
-                ALL_PROPERTIES_QUERY,
+                select,
                 result -> {
                     String typeUri = result.getStringValue(ROOT_PROPERTY_TYPE_VAR.getVarName());
 
@@ -264,6 +301,18 @@ class OntologyStoreLoader {
     }
 
     List<OwlRestrictionModel> getRestrictions() throws Exception {
+        return getRestrictions(exprFactory.isIRI(DOMAIN_VAR));
+    }
+
+    /**
+     * @param domain URI of the restricted class
+     * @return restrictions of the given class
+     */
+    List<OwlRestrictionModel> getRestrictions(URI domain) throws Exception {
+        return getRestrictions(exprFactory.eq(DOMAIN_VAR, NodeFactory.createURI(URIDeserializer.getExpandedURI(domain))));
+    }
+
+    private List<OwlRestrictionModel> getRestrictions(Expr domainFilter) throws Exception {
 
         return sparql.searchAsStream(
                 null,
@@ -272,7 +321,7 @@ class OntologyStoreLoader {
                 select -> {
                     select.addFilter(exprFactory.and(
                             exprFactory.isIRI(makeVar(OwlRestrictionModel.ON_PROPERTY_FIELD)),
-                            exprFactory.isIRI(DOMAIN_VAR)
+                            domainFilter
                     ));
                 },
                 Collections.emptyMap(),
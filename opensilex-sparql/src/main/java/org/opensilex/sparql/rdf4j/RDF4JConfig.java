@@ -41,4 +41,34 @@ public interface RDF4JConfig extends ServiceConfig {
     )
     Integer timeout();
 
+    @ConfigDescription(
+            value = "Maximum number of HTTP connections to the RDF4J server",
+            defaultInt = 20
+    )
+    Integer maxConnections();
+
+    @ConfigDescription(
+            value = "Maximum number of HTTP connections to the same RDF4J server host",
+            defaultInt = 20
+    )
+    Integer maxConnectionsPerRoute();
+
+    @ConfigDescription(
+            value = "Maximum time in milliseconds to wait for a free HTTP connection, 0 to wait indefinitely",
+            defaultInt = 0
+    )
+    Integer connectionLeaseTimeout();
+
+    @ConfigDescription(
+            value = "Time in milliseconds after which an idle HTTP connection is closed, 0 to keep idle connections",
+            defaultInt = 60000
+    )
+    Integer idleConnectionTimeout();
+
+    @ConfigDescription(
+            value = "Inactivity time in milliseconds after which an HTTP connection is checked before being reused, negative to disable",
+            defaultInt = 2000
+    )
+    Integer validateConnectionAfterInactivity();
+
 }
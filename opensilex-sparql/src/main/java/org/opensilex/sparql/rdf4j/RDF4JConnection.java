@@ -5,11 +5,17 @@
 //******************************************************************************
 package org.opensilex.sparql.rdf4j;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.jena.arq.querybuilder.*;
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.core.Quad;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Model;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.eclipse.rdf4j.model.vocabulary.RDF4J;
 import org.eclipse.rdf4j.query.*;
@@ -32,6 +38,7 @@ import org.slf4j.LoggerFactory;
 import java.io.StringReader;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -198,6 +205,57 @@ public class RDF4JConnection extends BaseService implements SPARQLConnection {
         }
     }
 
+    /**
+     * Convert quads to RDF4J statements and add them through the repository connection API. For a remote repository,
+     * statements are sent in binary RDF with the transaction instead of a SPARQL UPDATE query parsed by the server.
+     */
+    @Override
+    public void insertQuads(Collection<Quad> quads) throws SPARQLException {
+        ValueFactory valueFactory = rdf4JConnection.getValueFactory();
+        Model model = new LinkedHashModel(quads.size());
+        for (Quad quad : quads) {
+            Resource subject = (Resource) toValue(valueFactory, quad.getSubject());
+            IRI predicate = (IRI) toValue(valueFactory, quad.getPredicate());
+            Value object = toValue(valueFactory, quad.getObject());
+            if (quad.isDefaultGraph()) {
+                model.add(subject, predicate, object);
+            } else {
+                model.add(subject, predicate, object, (Resource) toValue(valueFactory, quad.getGraph()));
+            }
+        }
+
+        try {
+            rdf4JConnection.add(model);
+        } catch (RepositoryException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof ShaclSailValidationException) {
+                throw convertRDF4JSHACLException((ShaclSailValidationException) cause);
+            } else {
+                throw new SPARQLException(ex.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNativeQuadsInsertion() {
+        return true;
+    }
+
+    private static Value toValue(ValueFactory valueFactory, Node node) {
+        if (node.isURI()) {
+            return valueFactory.createIRI(node.getURI());
+        } else if (node.isBlank()) {
+            return valueFactory.createBNode(node.getBlankNodeLabel());
+        } else if (node.isLiteral()) {
+            String lang = node.getLiteralLanguage();
+            if (!StringUtils.isEmpty(lang)) {
+                return valueFactory.createLiteral(node.getLiteralLexicalForm(), lang);
+            }
+            return valueFactory.createLiteral(node.getLiteralLexicalForm(), valueFactory.createIRI(node.getLiteralDatatypeURI()));
+        }
+        throw new IllegalArgumentException("Can't insert a non ground node: " + node);
+    }
+
     @Override
     public void executeDeleteQuery(UpdateBuilder update) throws SPARQLException {
         try {
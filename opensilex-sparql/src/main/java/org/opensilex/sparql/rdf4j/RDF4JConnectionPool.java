@@ -0,0 +1,93 @@
+//******************************************************************************
+//                          RDF4JConnectionPool.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.rdf4j;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <pre>
+ * HTTP connection pool of an RDF4J server repository, which records the time spent by requests waiting for a connection.
+ *
+ * Pool size, lease timeout, idle eviction and validation are defined by the {@link RDF4JConfig}.
+ * </pre>
+ */
+public class RDF4JConnectionPool extends PoolingHttpClientConnectionManager {
+
+    private final LongAdder leaseCount = new LongAdder();
+    private final LongAdder leaseTimeoutCount = new LongAdder();
+    private final LongAdder totalLeaseWaitNanos = new LongAdder();
+    private final AtomicLong maxLeaseWaitNanos = new AtomicLong();
+
+    /**
+     * @param maxTotal maximum number of connections
+     * @param maxPerRoute maximum number of connections to the same server
+     * @param validateAfterInactivityMs inactivity period after which a connection is validated before use, no validation if negative
+     */
+    public RDF4JConnectionPool(int maxTotal, int maxPerRoute, int validateAfterInactivityMs) {
+        super();
+        setMaxTotal(maxTotal);
+        setDefaultMaxPerRoute(maxPerRoute);
+        setValidateAfterInactivity(validateAfterInactivityMs);
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+        ConnectionRequest request = super.requestConnection(route, state);
+
+        return new ConnectionRequest() {
+            @Override
+            public HttpClientConnection get(long timeout, TimeUnit timeUnit) throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                long start = System.nanoTime();
+                try {
+                    return request.get(timeout, timeUnit);
+                } catch (ConnectionPoolTimeoutException e) {
+                    leaseTimeoutCount.increment();
+                    throw e;
+                } finally {
+                    long waitNanos = System.nanoTime() - start;
+                    leaseCount.increment();
+                    totalLeaseWaitNanos.add(waitNanos);
+                    maxLeaseWaitNanos.accumulateAndGet(waitNanos, Math::max);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+        };
+    }
+
+    /**
+     * @return current state of the pool and lease wait times since the pool creation
+     */
+    public RDF4JConnectionPoolStatistics getStatistics() {
+        PoolStats stats = getTotalStats();
+        long leases = leaseCount.sum();
+        return new RDF4JConnectionPoolStatistics(
+                stats.getLeased(),
+                stats.getPending(),
+                stats.getAvailable(),
+                stats.getMax(),
+                getDefaultMaxPerRoute(),
+                leases,
+                leaseTimeoutCount.sum(),
+                leases == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalLeaseWaitNanos.sum() / leases),
+                TimeUnit.NANOSECONDS.toMillis(maxLeaseWaitNanos.get())
+        );
+    }
+}
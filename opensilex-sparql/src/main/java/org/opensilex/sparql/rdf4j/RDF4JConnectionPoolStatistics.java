@@ -0,0 +1,95 @@
+//******************************************************************************
+//                          RDF4JConnectionPoolStatistics.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.rdf4j;
+
+/**
+ * State of a {@link RDF4JConnectionPool} at a given time
+ */
+public class RDF4JConnectionPoolStatistics {
+
+    private final int leased;
+    private final int pending;
+    private final int available;
+    private final int maxTotal;
+    private final int maxPerRoute;
+    private final long leaseCount;
+    private final long leaseTimeoutCount;
+    private final long averageLeaseWaitMs;
+    private final long maxLeaseWaitMs;
+
+    public RDF4JConnectionPoolStatistics(int leased, int pending, int available, int maxTotal, int maxPerRoute, long leaseCount, long leaseTimeoutCount, long averageLeaseWaitMs, long maxLeaseWaitMs) {
+        this.leased = leased;
+        this.pending = pending;
+        this.available = available;
+        this.maxTotal = maxTotal;
+        this.maxPerRoute = maxPerRoute;
+        this.leaseCount = leaseCount;
+        this.leaseTimeoutCount = leaseTimeoutCount;
+        this.averageLeaseWaitMs = averageLeaseWaitMs;
+        this.maxLeaseWaitMs = maxLeaseWaitMs;
+    }
+
+    /**
+     * @return number of connections in use
+     */
+    public int getLeased() {
+        return leased;
+    }
+
+    /**
+     * @return number of requests waiting for a connection
+     */
+    public int getPending() {
+        return pending;
+    }
+
+    /**
+     * @return number of idle connections
+     */
+    public int getAvailable() {
+        return available;
+    }
+
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    public int getMaxPerRoute() {
+        return maxPerRoute;
+    }
+
+    /**
+     * @return number of connection requests since the pool creation
+     */
+    public long getLeaseCount() {
+        return leaseCount;
+    }
+
+    /**
+     * @return number of connection requests which failed after the lease timeout
+     */
+    public long getLeaseTimeoutCount() {
+        return leaseTimeoutCount;
+    }
+
+    public long getAverageLeaseWaitMs() {
+        return averageLeaseWaitMs;
+    }
+
+    public long getMaxLeaseWaitMs() {
+        return maxLeaseWaitMs;
+    }
+
+    @Override
+    public String toString() {
+        return "In use    -> " + leased + "\n"
+                + "Pending   -> " + pending + "\n"
+                + "Available -> " + available + "\n"
+                + "Max       -> " + maxTotal + "\n"
+                + "Lease wait (avg/max) -> " + averageLeaseWaitMs + "/" + maxLeaseWaitMs + " ms\n";
+    }
+}
@@ -10,10 +10,11 @@ import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.ServiceLoader;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
-import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
-import org.apache.http.pool.PoolStats;
 import org.eclipse.rdf4j.common.io.IOUtil;
 import org.eclipse.rdf4j.model.Model;
 import org.eclipse.rdf4j.model.impl.LinkedHashModel;
@@ -55,18 +56,35 @@ public class RDF4JServiceFactory extends SPARQLServiceFactory {
     private final static Logger LOGGER = LoggerFactory.getLogger(RDF4JServiceFactory.class);
 
     private final Repository repository;
-    private PoolingHttpClientConnectionManager cm;
+    private final RDF4JConnectionPool connectionPool;
+
+    /**
+     * HTTP client of the repository, which owns the connection pool and the idle connections evictor thread
+     */
+    private final CloseableHttpClient httpClient;
 
     public RDF4JServiceFactory(RDF4JConfig config) {
         super(config);
         LOGGER.debug("Build RDF4JServiceFactory from config");
         synchronized (this) {
             HTTPRepository repo = new HTTPRepository(config.serverURI(), config.repository());
-            cm = new PoolingHttpClientConnectionManager();
-            cm.setDefaultMaxPerRoute(20);
-            CloseableHttpClient httpClient = HttpClients.custom()
-                    .setConnectionManager(cm)
-                    .build();
+            connectionPool = new RDF4JConnectionPool(
+                    config.maxConnections(),
+                    config.maxConnectionsPerRoute(),
+                    config.validateConnectionAfterInactivity()
+            );
+
+            HttpClientBuilder httpClientBuilder = HttpClients.custom()
+                    .setConnectionManager(connectionPool)
+                    .setDefaultRequestConfig(RequestConfig.custom()
+                            .setConnectionRequestTimeout(config.connectionLeaseTimeout())
+                            .build()
+                    );
+            if (config.idleConnectionTimeout() > 0) {
+                httpClientBuilder.evictExpiredConnections()
+                        .evictIdleConnections(config.idleConnectionTimeout(), TimeUnit.MILLISECONDS);
+            }
+            httpClient = httpClientBuilder.build();
 
             repo.setHttpClient(httpClient);
             repo.init();
@@ -81,6 +99,8 @@ public class RDF4JServiceFactory extends SPARQLServiceFactory {
         synchronized (this) {
             this.repository = repository;
             this.repository.init();
+            this.connectionPool = null;
+            this.httpClient = null;
         }
     }
 
@@ -96,17 +116,18 @@ public class RDF4JServiceFactory extends SPARQLServiceFactory {
         return getImplementedConfig().timeout();
     }
 
-    protected synchronized SPARQLService getNewService() throws Exception {
+    /**
+     * @return HTTP connection pool statistics, or null if the repository is not accessed through HTTP
+     */
+    public RDF4JConnectionPoolStatistics getConnectionPoolStatistics() {
+        return connectionPool == null ? null : connectionPool.getStatistics();
+    }
+
+    // no lock : the repository and the connection pool are thread-safe, each service has its own connection
+    protected SPARQLService getNewService() throws Exception {
         RepositoryConnection connection = repository.getConnection();
-        if (cm != null && LOGGER.isDebugEnabled()) {
-            PoolStats stats = cm.getTotalStats();
-            LOGGER.debug(
-                    "Connection pool stats: \n"
-                    + "In use    -> " + stats.getLeased() + "\n"
-                    + "Pending   -> " + stats.getPending() + "\n"
-                    + "Available -> " + stats.getAvailable() + "\n"
-                    + "Max       -> " + stats.getMax() + "\n"
-            );
+        if (connectionPool != null && LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Connection pool stats: \n" + connectionPool.getStatistics());
         }
 
         RDF4JConnection rdf4jConnection = new RDF4JConnection(connection);
@@ -119,7 +140,7 @@ public class RDF4JServiceFactory extends SPARQLServiceFactory {
         return sparql;
     }
 
-    private synchronized void closeService(SPARQLService sparql) throws Exception {
+    private void closeService(SPARQLService sparql) throws Exception {
         if (sparql != null) {
             sparql.shutdown();
         }
@@ -145,6 +166,23 @@ public class RDF4JServiceFactory extends SPARQLServiceFactory {
 
     }
 
+    /**
+     * Shut down the HTTP repository built from the config and close its HTTP client, which stops the idle connections
+     * evictor and closes the connection pool. A repository given to the constructor is shut down by its owner.
+     */
+    @Override
+    public void shutdown() {
+        super.shutdown();
+        if (httpClient != null) {
+            repository.shutDown();
+            try {
+                httpClient.close();
+            } catch (IOException ex) {
+                LOGGER.error("Error while closing RDF4J HTTP client", ex);
+            }
+        }
+    }
+
     /**
      * @return the rdf4j repository creation template file
      * @throws IOException if the file can't be read
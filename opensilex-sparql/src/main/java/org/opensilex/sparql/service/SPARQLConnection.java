@@ -13,6 +13,7 @@ import org.apache.jena.rdf.model.ModelFactory;
 import org.apache.jena.rdf.model.Statement;
 import org.apache.jena.rdf.model.StmtIterator;
 import org.apache.jena.riot.Lang;
+import org.apache.jena.sparql.core.Quad;
 import org.opensilex.service.Service;
 import org.opensilex.sparql.exceptions.SPARQLException;
 import org.opensilex.sparql.mapping.SPARQLClassObjectMapperIndex;
@@ -20,6 +21,7 @@ import org.opensilex.sparql.mapping.SPARQLClassObjectMapperIndex;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.net.URI;
+import java.util.Collection;
 import java.util.List;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
@@ -50,6 +52,32 @@ public interface SPARQLConnection extends Service {
 
     void executeUpdateQuery(String update) throws SPARQLException;
 
+    /**
+     * Insert ground quads. Connections which can load statements directly should override this method
+     * in order to avoid building and parsing a SPARQL UPDATE query.
+     *
+     * @param quads quads to insert, see {@link Quad#isDefaultGraph()}
+     * @throws SPARQLException if insertion fail
+     */
+    public default void insertQuads(Collection<Quad> quads) throws SPARQLException {
+        UpdateBuilder insertQuery = new UpdateBuilder();
+        for (Quad quad : quads) {
+            if (quad.isDefaultGraph()) {
+                insertQuery.addInsert(quad.asTriple());
+            } else {
+                insertQuery.addInsert(quad);
+            }
+        }
+        executeUpdateQuery(insertQuery);
+    }
+
+    /**
+     * @return true if {@link #insertQuads(Collection)} loads statements without a SPARQL UPDATE query
+     */
+    public default boolean hasNativeQuadsInsertion() {
+        return false;
+    }
+
     public void executeDeleteQuery(UpdateBuilder update) throws SPARQLException;
 
     public List<SPARQLStatement> getGraphStatement(URI graph) throws SPARQLException;
@@ -0,0 +1,106 @@
+//******************************************************************************
+//                          SPARQLCountCache.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.service;
+
+import org.opensilex.utils.CountMode;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <pre>
+ * Results of COUNT queries shared by all {@link SPARQLService}, used by {@link CountMode#ESTIMATED} searches.
+ *
+ * All counts are invalidated by any modification made through a {@link SPARQLService} of this server.
+ * Modifications made by another process are only visible after {@link #TTL_MS}.
+ * </pre>
+ */
+final class SPARQLCountCache {
+
+    /**
+     * Maximum age of a cached count
+     */
+    static final long TTL_MS = 60_000;
+
+    private static final int MAX_SIZE = 1000;
+
+    /**
+     * Incremented on each modification, a count computed before a modification is never cached after it
+     */
+    private static final AtomicLong generation = new AtomicLong();
+
+    private static final Map<String, CachedCount> counts = new ConcurrentHashMap<>();
+
+    private SPARQLCountCache() {
+    }
+
+    /**
+     * @return current generation, to read before running the COUNT query
+     */
+    static long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * @param query COUNT query
+     * @return key of the query, queries are indexed by digest since they can hold large URI lists
+     */
+    static String getKey(String query) {
+        return UUID.nameUUIDFromBytes(query.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    /**
+     * @param key query key
+     * @return cached count, or null if missing or out of date
+     */
+    static Integer get(String key) {
+        CachedCount cached = counts.get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.generation != generation.get() || System.currentTimeMillis() - cached.time >= TTL_MS) {
+            counts.remove(key, cached);
+            return null;
+        }
+        return cached.count;
+    }
+
+    /**
+     * @param key query key
+     * @param count count result
+     * @param queryGeneration generation read before running the query
+     */
+    static void put(String key, int count, long queryGeneration) {
+        if (queryGeneration != generation.get()) {
+            return;
+        }
+        if (counts.size() >= MAX_SIZE) {
+            counts.clear();
+        }
+        counts.put(key, new CachedCount(count, queryGeneration));
+    }
+
+    static void invalidate() {
+        generation.incrementAndGet();
+        counts.clear();
+    }
+
+    private static final class CachedCount {
+
+        private final int count;
+        private final long generation;
+        private final long time = System.currentTimeMillis();
+
+        private CachedCount(int count, long generation) {
+            this.count = count;
+            this.generation = generation;
+        }
+    }
+}
@@ -12,6 +12,7 @@ import org.apache.jena.arq.querybuilder.clauses.WhereClause;
 import org.apache.jena.datatypes.xsd.XSDDatatype;
 import org.apache.jena.graph.Node;
 import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.sparql.core.Quad;
 import org.apache.jena.sparql.core.Var;
 import org.apache.jena.sparql.core.mem.TupleSlot;
 import org.apache.jena.sparql.expr.*;
@@ -23,9 +24,18 @@ import org.apache.jena.sparql.lang.sparql_11.ParseException;
 import org.apache.jena.sparql.syntax.Element;
 import org.apache.jena.sparql.syntax.ElementGroup;
 import org.apache.jena.sparql.syntax.ElementNamedGraph;
+import org.apache.jena.sparql.modify.request.UpdateDataInsert;
+import org.apache.jena.sparql.modify.request.UpdateModify;
+import org.apache.jena.update.Update;
+import org.apache.jena.vocabulary.RDFS;
 import org.opensilex.server.exceptions.displayable.DisplayableBadRequestException;
 import org.opensilex.server.exceptions.displayable.DisplayableResponseException;
+import org.opensilex.sparql.SPARQLModule;
 import org.opensilex.sparql.deserializer.*;
+import org.opensilex.sparql.exceptions.SPARQLException;
+import org.opensilex.sparql.exceptions.SPARQLInvalidURIException;
+import org.opensilex.sparql.model.SPARQLResourceModel;
+import org.opensilex.sparql.text.TextIndex;
 
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
@@ -115,6 +125,52 @@ public class SPARQLQueryHelper {
         return regexFilter(name, regexPattern, regexFlag);
     }
 
+    /**
+     * @param sparql connection used to load the text index if needed
+     * @param graph graph of resources, all graphs if null
+     * @param objectClass class of resources
+     * @param nameProperties properties which contains resource names
+     * @param namePattern name REGEX pattern
+     * @return URIs of resources with a name matching the pattern according to the {@link TextIndex},
+     * or null if the index can't answer and a REGEX filter must be used
+     * @throws Exception if the index loading fails
+     */
+    public static Set<URI> searchURIsByName(SPARQLService sparql, Node graph, Class<? extends SPARQLResourceModel> objectClass, List<Property> nameProperties, String namePattern) throws Exception {
+        TextIndex textIndex = SPARQLModule.getTextIndexInstance();
+        if (textIndex == null || StringUtils.isEmpty(namePattern)) {
+            return null;
+        }
+        return textIndex.search(sparql, graph, objectClass, nameProperties, namePattern);
+    }
+
+    /**
+     * Filter resources on their rdfs:label : a VALUES clause with the URIs found by the {@link TextIndex},
+     * or a REGEX filter on nameField if the index can't answer. Nothing is added if the pattern is empty.
+     *
+     * @param sparql connection used to load the text index if needed
+     * @param select query on resources, with resource URI in {@link SPARQLResourceModel#URI_FIELD}
+     * @param graph graph of resources, all graphs if null
+     * @param objectClass class of resources
+     * @param nameField name variable, used by the REGEX filter
+     * @param namePattern name REGEX pattern
+     * @throws Exception if the index loading fails
+     */
+    public static void addNameFilter(SPARQLService sparql, SelectBuilder select, Node graph, Class<? extends SPARQLResourceModel> objectClass, String nameField, String namePattern) throws Exception {
+        if (StringUtils.isEmpty(namePattern)) {
+            return;
+        }
+
+        Set<URI> uris = searchURIsByName(sparql, graph, objectClass, Collections.singletonList(RDFS.label), namePattern);
+        if (uris == null) {
+            select.addFilter(regexFilter(nameField, namePattern));
+        } else if (uris.isEmpty()) {
+            // an empty VALUES clause is ignored, IN () is always false
+            select.addFilter(exprFactory.in(makeVar(SPARQLResourceModel.URI_FIELD)));
+        } else {
+            addWhereUriValues(select, SPARQLResourceModel.URI_FIELD, uris);
+        }
+    }
+
     public static Expr regexFilterOnURI(String varName, String regexPattern, String regexFlag) {
         ExprVar name = new ExprVar(varName);
         return regexFilter(new E_Str(name), regexPattern, regexFlag);
@@ -252,6 +308,27 @@ public class SPARQLQueryHelper {
         return null;
     }
 
+    /**
+     * Filter on a class and all of its sub-classes, read from the ontology store instead of a rdfs:subClassOf* property path.
+     *
+     * @param var the variable bound to a class
+     * @param classURI the class URI
+     * @return an IN expression with the class and its sub-classes, which matches nothing if the class is unknown
+     * @throws SPARQLException if the ontology store fails to read sub-classes
+     * @see org.opensilex.sparql.ontology.store.OntologyStore#getSubClassesURIs(URI)
+     */
+    public static Expr subClassesFilter(Var var, URI classURI) throws SPARQLException {
+        Set<String> subClassesURIs;
+        try {
+            subClassesURIs = SPARQLModule.getOntologyStoreInstance().getSubClassesURIs(classURI);
+        } catch (SPARQLInvalidURIException e) {
+            subClassesURIs = Collections.emptySet();
+        }
+        return exprFactory.in(var, subClassesURIs.stream()
+                .map(NodeFactory::createURI)
+                .toArray());
+    }
+
     public static void inURI(AbstractQueryBuilder<?> select, String uriField, Collection<URI> uris) {
         Expr filter = inURIFilter(uriField, uris);
         if (filter != null) {
@@ -845,4 +922,39 @@ public class SPARQLQueryHelper {
         Var concatVar = makeVar(getConcatVarName(var.getVarName()));
         select.addVar(groupConcat.toString(), concatVar);
     }
+
+    /**
+     * Get quads inserted by an update which only contains ground INSERT statements, like the one built by
+     * {@link org.opensilex.sparql.mapping.SPARQLClassQueryBuilder#addCreateBuilder}.
+     *
+     * @param update update
+     * @return inserted quads (see {@link Quad#isDefaultGraph()}), or null if update has a DELETE or WHERE clause or a variable
+     */
+    public static List<Quad> getInsertDataQuads(UpdateBuilder update) {
+        Update built = update.build();
+
+        List<Quad> quads;
+        if (built instanceof UpdateDataInsert) {
+            quads = ((UpdateDataInsert) built).getQuads();
+        } else if (built instanceof UpdateModify) {
+            UpdateModify modify = (UpdateModify) built;
+            Element where = modify.getWherePattern();
+            if (modify.hasDeleteClause()
+                    || !modify.getUsing().isEmpty()
+                    || !modify.getUsingNamed().isEmpty()
+                    || (where != null && !(where instanceof ElementGroup && ((ElementGroup) where).isEmpty()))) {
+                return null;
+            }
+            quads = modify.getInsertQuads();
+        } else {
+            return null;
+        }
+
+        for (Quad quad : quads) {
+            if (!quad.asTriple().isConcrete() || quad.getGraph().isVariable()) {
+                return null;
+            }
+        }
+        return quads;
+    }
 }
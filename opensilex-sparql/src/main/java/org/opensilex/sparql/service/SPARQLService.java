@@ -35,6 +35,7 @@ import org.eclipse.rdf4j.model.vocabulary.XSD;
 import org.eclipse.rdf4j.repository.RepositoryConnection;
 import org.opensilex.OpenSilex;
 import org.opensilex.OpenSilexModuleNotFoundException;
+import org.opensilex.server.rest.cache.ApiCacheTags;
 import org.opensilex.service.BaseService;
 import org.opensilex.service.Service;
 import org.opensilex.service.ServiceDefaultDefinition;
@@ -47,6 +48,7 @@ import org.opensilex.sparql.mapping.SPARQLClassAnalyzer;
 import org.opensilex.sparql.mapping.SPARQLClassObjectMapper;
 import org.opensilex.sparql.mapping.SPARQLClassObjectMapperIndex;
 import org.opensilex.sparql.mapping.SPARQLListFetcher;
+import org.opensilex.sparql.mapping.SPARQLProxyBatchLoader;
 import org.opensilex.sparql.model.SPARQLPartialTreeListModel;
 import org.opensilex.sparql.model.SPARQLResourceModel;
 import org.opensilex.sparql.model.SPARQLTreeListModel;
@@ -55,8 +57,11 @@ import org.opensilex.sparql.ontology.dal.ClassModel;
 import org.opensilex.sparql.ontology.dal.OntologyDAO;
 import org.opensilex.sparql.ontology.dal.OwlRestrictionModel;
 import org.opensilex.sparql.rdf4j.RDF4JConnection;
+import org.opensilex.sparql.text.TextIndex;
 import org.opensilex.sparql.utils.Ontology;
 import org.opensilex.uri.generation.URIGenerator;
+import org.opensilex.uri.generation.UniqueURIGenerator;
+import org.opensilex.utils.CountMode;
 import org.opensilex.utils.ListWithPagination;
 import org.opensilex.utils.OrderBy;
 import org.opensilex.utils.ThrowingConsumer;
@@ -99,6 +104,15 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
         this.connection = connection;
     }
 
+    /**
+     * Batch loader of lazy resource references created by this service
+     */
+    private final SPARQLProxyBatchLoader proxyBatchLoader = new SPARQLProxyBatchLoader(this);
+
+    public SPARQLProxyBatchLoader getProxyBatchLoader() {
+        return proxyBatchLoader;
+    }
+
 
     private String defaultLang = OpenSilex.DEFAULT_LANGUAGE;
 
@@ -245,11 +259,43 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
             LOGGER.debug("SPARQL UPDATE\n" + update.buildRequest().toString());
         }
         connection.executeUpdateQuery(update);
+        invalidateCaches();
     }
 
     @Override
     public void executeUpdateQuery(String update) throws SPARQLException {
         connection.executeUpdateQuery(update);
+        invalidateCaches();
+    }
+
+    @Override
+    public void insertQuads(Collection<Quad> quads) throws SPARQLException {
+        connection.insertQuads(quads);
+        invalidateCaches();
+    }
+
+    @Override
+    public boolean hasNativeQuadsInsertion() {
+        return connection.hasNativeQuadsInsertion();
+    }
+
+    /**
+     * Execute an INSERT query built by instance mappers. If the connection supports it and the query only inserts ground quads,
+     * quads are inserted directly instead of serializing the query.
+     *
+     * @param insert insert query
+     * @throws SPARQLException if insertion fail
+     */
+    public void executeInsertQuery(UpdateBuilder insert) throws SPARQLException {
+        List<Quad> quads = hasNativeQuadsInsertion() ? SPARQLQueryHelper.getInsertDataQuads(insert) : null;
+        if (quads == null) {
+            executeUpdateQuery(insert);
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        insertQuads(quads);
+        LOGGER.debug("Insert of " + quads.size() + " quads in " + (System.currentTimeMillis() - start) + " milliseconds elapsed");
     }
 
     @Override
@@ -259,15 +305,84 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
 //            LOGGER.debug("SPARQL DELETE\n" + delete.buildRequest().toString());
 //        }
         connection.executeDeleteQuery(delete);
+        invalidateCaches();
+    }
+
+    /**
+     * Invalidate data cached from the triplestore after a modification
+     */
+    private void invalidateCaches() {
+        proxyBatchLoader.invalidate();
+        SPARQLCountCache.invalidate();
     }
 
     private int transactionLevel = 0;
 
+    /**
+     * Resources changed in the current transaction, the {@link TextIndex} is notified on commit
+     */
+    private final Map<Class<? extends SPARQLResourceModel>, Set<URI>> textIndexChanges = new HashMap<>();
+
+    private void textIndexChanged(Class<? extends SPARQLResourceModel> objectClass, URI uri) {
+        resourcesChanged(objectClass, Collections.singleton(uri));
+    }
+
+    /**
+     * Report resources written without this service CRUD methods (ex : raw update queries), so the {@link TextIndex} reads their names again.
+     * In a transaction, the {@link TextIndex} is notified on commit.
+     *
+     * @param objectClass class of the changed resources
+     * @param uris URIs of the changed resources
+     */
+    public void resourcesChanged(Class<? extends SPARQLResourceModel> objectClass, Collection<URI> uris) {
+        if (SPARQLModule.getTextIndexInstance() == null) {
+            return;
+        }
+        Set<URI> changedURIs = textIndexChanges.computeIfAbsent(objectClass, key -> new HashSet<>());
+        uris.stream().filter(Objects::nonNull).forEach(changedURIs::add);
+        if (transactionLevel == 0) {
+            notifyTextIndexChanges();
+        }
+    }
+
+    private void notifyTextIndexChanges() {
+        TextIndex textIndex = SPARQLModule.getTextIndexInstance();
+        if (textIndex != null) {
+            textIndexChanges.forEach(textIndex::resourcesChanged);
+        }
+        textIndexChanges.clear();
+    }
+
+    /**
+     * API cache tags invalidated in the current transaction, they are invalidated on commit
+     */
+    private final Set<String> apiCacheTagChanges = new HashSet<>();
+
+    /**
+     * Invalidate API cache entries depending on the given tags, once the current transaction is committed.
+     * A response computed before the commit is never cached with the new tags versions.
+     *
+     * @param tags modified resource types
+     * @see ApiCacheTags#invalidate(String...)
+     */
+    public void invalidateApiCacheTags(String... tags) {
+        Collections.addAll(apiCacheTagChanges, tags);
+        if (transactionLevel == 0) {
+            notifyApiCacheTagChanges();
+        }
+    }
+
+    private void notifyApiCacheTagChanges() {
+        ApiCacheTags.invalidate(apiCacheTagChanges.toArray(new String[0]));
+        apiCacheTagChanges.clear();
+    }
+
     @Override
     public void startTransaction() throws SPARQLException {
         if (transactionLevel == 0) {
             LOGGER.debug("SPARQL TRANSACTION START");
             connection.startTransaction();
+            proxyBatchLoader.invalidate();
         }
         transactionLevel++;
     }
@@ -278,6 +393,9 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
         if (transactionLevel == 0) {
             LOGGER.debug("SPARQL TRANSACTION COMMIT");
             connection.commitTransaction();
+            invalidateCaches();
+            notifyTextIndexChanges();
+            notifyApiCacheTagChanges();
         }
     }
 
@@ -287,6 +405,9 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
             LOGGER.error("SPARQL TRANSACTION ROLLBACK: ", ex);
             transactionLevel = 0;
             connection.rollbackTransaction(ex);
+            invalidateCaches();
+            textIndexChanges.clear();
+            apiCacheTagChanges.clear();
         }
     }
 
@@ -298,11 +419,13 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
     public void clearGraph(URI graph) throws SPARQLException {
         LOGGER.debug("SPARQL CLEAR GRAPH: " + graph);
         connection.clearGraph(graph);
+        invalidateCaches();
     }
 
     public void clearGraph(String graph) throws SPARQLException, URISyntaxException {
         LOGGER.debug("SPARQL CLEAR GRAPH: " + graph);
         connection.clearGraph(new URI(graph));
+        invalidateCaches();
     }
 
     @Override
@@ -327,6 +450,7 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
         }
         LOGGER.debug("MOVE GRAPH " + fullOldURI + " TO " + fullNewURI);
         connection.renameGraph(fullOldURI, fullNewURI);
+        invalidateCaches();
         if (isShaclEnabled) {
             enableSHACL();
         }
@@ -336,6 +460,7 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
     public void clear() throws SPARQLException {
         LOGGER.debug("SPARQL CLEAR REPOSITORY");
         connection.clear();
+        invalidateCaches();
     }
 
     public void loadOntology(URI graph, InputStream ontology, Lang format) throws SPARQLException {
@@ -345,6 +470,7 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
             LOGGER.debug("SPARQL LOAD " + format.getName() + " FILE INTO DEFAULT GRAPH");
         }
         connection.loadOntology(graph, ontology, format);
+        invalidateCaches();
     }
 
     public <T extends SPARQLResourceModel> T getByURI(Class<T> objectClass, URI uri, String lang) throws Exception {
@@ -907,6 +1033,48 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
     }
 
     public <T extends SPARQLResourceModel> int count(Node graph, Class<T> objectClass, String lang, ThrowingConsumer<SelectBuilder, Exception> filterHandler, Map<String, WhereHandler> customHandlerByFields) throws Exception {
+        return executeCountQuery(getCountQuery(graph, objectClass, lang, filterHandler, customHandlerByFields));
+    }
+
+    /**
+     * @param countMode total count computation
+     * @return count of resources matching the filter, or -1 with {@link CountMode#NONE}
+     * @see SPARQLCountCache
+     */
+    public <T extends SPARQLResourceModel> int count(Node graph, Class<T> objectClass, String lang, ThrowingConsumer<SelectBuilder, Exception> filterHandler, Map<String, WhereHandler> customHandlerByFields, CountMode countMode) throws Exception {
+        if (countMode == CountMode.NONE) {
+            return -1;
+        }
+        return executeCountQuery(getCountQuery(graph, objectClass, lang, filterHandler, customHandlerByFields), countMode);
+    }
+
+    /**
+     * @param selectCount COUNT query with a "count" variable
+     * @param countMode total count computation
+     * @return count result, or -1 with {@link CountMode#NONE}
+     * @see SPARQLCountCache
+     */
+    public int executeCountQuery(SelectBuilder selectCount, CountMode countMode) throws Exception {
+        if (countMode == CountMode.NONE) {
+            return -1;
+        }
+        if (countMode != CountMode.ESTIMATED) {
+            return executeCountQuery(selectCount);
+        }
+
+        String key = SPARQLCountCache.getKey(selectCount.buildString());
+        Integer cachedCount = SPARQLCountCache.get(key);
+        if (cachedCount != null) {
+            return cachedCount;
+        }
+
+        long generation = SPARQLCountCache.getGeneration();
+        int count = executeCountQuery(selectCount);
+        SPARQLCountCache.put(key, count, generation);
+        return count;
+    }
+
+    private <T extends SPARQLResourceModel> SelectBuilder getCountQuery(Node graph, Class<T> objectClass, String lang, ThrowingConsumer<SelectBuilder, Exception> filterHandler, Map<String, WhereHandler> customHandlerByFields) throws Exception {
         SPARQLClassObjectMapperIndex mapperIndex = getMapperIndex();
         if (lang == null) {
             lang = getDefaultLang();
@@ -933,6 +1101,10 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
 
         }
 
+        return selectCount;
+    }
+
+    private int executeCountQuery(SelectBuilder selectCount) throws Exception {
         List<SPARQLResult> resultSet = executeSelectQuery(selectCount);
 
         if (resultSet.size() == 1) {
@@ -953,31 +1125,74 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
                                                                                       Map<String, WhereHandler> customHandlerByFields,
                                                                                       ThrowingFunction<SPARQLResult, T, Exception> resultHandler,
                                                                                       Collection<OrderBy> orderByList, Integer page, Integer pageSize) throws Exception {
+        return searchWithPagination(graph, objectClass, lang, filterHandler, customHandlerByFields, resultHandler, orderByList, page, pageSize, CountMode.EXACT);
+    }
+
+    /**
+     * <pre>
+     * Search a page of resources. The page is fetched first and the COUNT query is only executed if the total can't
+     * be deduced from the page : the total is only deduced from a first page which is not full and has one row by
+     * resource (see {@link #hasOneRowByResource(List)}).
+     *
+     * On next pages, a resource with several rows could be split between two pages, so rows before the page can't be
+     * used to count resources and the COUNT query is executed.
+     * </pre>
+     *
+     * @param countMode total count computation, when a COUNT query is needed
+     * @see #count(Node, Class, String, ThrowingConsumer, Map, CountMode)
+     */
+    public <T extends SPARQLResourceModel> ListWithPagination<T> searchWithPagination(Node graph,
+                                                                                      Class<T> objectClass,
+                                                                                      String lang,
+                                                                                      ThrowingConsumer<SelectBuilder, Exception> filterHandler,
+                                                                                      Map<String, WhereHandler> customHandlerByFields,
+                                                                                      ThrowingFunction<SPARQLResult, T, Exception> resultHandler,
+                                                                                      Collection<OrderBy> orderByList, Integer page, Integer pageSize,
+                                                                                      CountMode countMode) throws Exception {
         if (lang == null) {
             lang = getDefaultLang();
         }
-        int total = count(graph, objectClass, lang, filterHandler, customHandlerByFields);
 
-        List<T> list;
-        if (pageSize == null || pageSize == 0) {
-            list = search(graph, objectClass, lang, filterHandler, customHandlerByFields, resultHandler, orderByList, null, null);
-        } else if (total > 0 && (page * pageSize) < total) {
-            Integer offset = null;
-            Integer limit = null;
-            if (page < 0) {
-                page = 0;
-            }
-            if (pageSize > 0) {
-                offset = page * pageSize;
-                limit = pageSize;
-            }
-            list = search(graph, objectClass, lang, filterHandler, customHandlerByFields, resultHandler, orderByList, offset, limit);
+        if (pageSize == null || pageSize <= 0) {
+            List<T> list = search(graph, objectClass, lang, filterHandler, customHandlerByFields, resultHandler, orderByList, null, null);
+            return new ListWithPagination<>(list, page, pageSize, list.size());
+        }
+
+        if (page == null || page < 0) {
+            page = 0;
+        }
+        int offset = page * pageSize;
+        List<T> list = search(graph, objectClass, lang, filterHandler, customHandlerByFields, resultHandler, orderByList, offset, pageSize);
+
+        int total;
+        if (offset == 0 && list.size() < pageSize && hasOneRowByResource(list)) {
+            // single page
+            total = list.size();
         } else {
-            list = new ArrayList<>();
+            total = count(graph, objectClass, lang, filterHandler, customHandlerByFields, countMode);
+            if (countMode == CountMode.ESTIMATED) {
+                // a page can't be after the end of the list
+                total = Math.max(total, offset + list.size());
+            }
         }
 
         return new ListWithPagination<>(list, page, pageSize, total);
+    }
 
+    /**
+     * The total can only be deduced from the last page if each resource has one row : the COUNT query counts distinct
+     * URIs, while OFFSET and LIMIT apply to rows, which are repeated when a single-valued field has several values.
+     *
+     * @return true if no URI is repeated in the page
+     */
+    private static <T extends SPARQLResourceModel> boolean hasOneRowByResource(List<T> list) {
+        Set<String> uris = new HashSet<>(list.size());
+        for (T instance : list) {
+            if (instance.getUri() == null || !uris.add(SPARQLDeserializers.getExpandedURI(instance.getUri()))) {
+                return false;
+            }
+        }
+        return true;
     }
 
     public <T extends SPARQLResourceModel> void create(T instance) throws Exception {
@@ -1028,6 +1243,7 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
 
         if (useNewBuilder) {
             executeUpdateQuery(create);
+            textIndexChanged(mapper.getObjectClass(), instance.getUri());
         }
 
     }
@@ -1049,6 +1265,22 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
             UpdateBuilder subInstanceUpdateBuilder,
             boolean checkUriExist,
             boolean blankNode) throws Exception {
+        prepareInstanceCreation(graph, instance, parent, mapper, subInstanceUpdateBuilder, checkUriExist, blankNode, false);
+    }
+
+    /**
+     * @param uriReserved indicate if the instance URI was already generated or validated by {@link #generateUniqueURIs}
+     * @see #prepareInstanceCreation(Node, SPARQLResourceModel, SPARQLResourceModel, SPARQLClassObjectMapper, UpdateBuilder, boolean, boolean)
+     */
+    private <T extends SPARQLResourceModel> void prepareInstanceCreation(
+            Node graph,
+            T instance,
+            SPARQLResourceModel parent,
+            SPARQLClassObjectMapper<T> mapper,
+            UpdateBuilder subInstanceUpdateBuilder,
+            boolean checkUriExist,
+            boolean blankNode,
+            boolean uriReserved) throws Exception {
 
         URI rdfType = instance.getType();
         if (rdfType == null) {
@@ -1057,7 +1289,7 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
             instance.setType(rdfType);
         }
 
-        if (!blankNode) {
+        if (!blankNode && !uriReserved) {
             generateUniqueUriIfNullOrValidateCurrent(graph, mapper, instance, checkUriExist);
         }
 
@@ -1118,14 +1350,17 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
 
                 startTransaction();
 
+                // check all instance URIs at once instead of one query per instance
+                generateUniqueURIs(graph, instances, checkUriExist);
+
                 for (T instance : instances) {
                     SPARQLClassObjectMapper<T> mapper = mapperIndex.getForClass(instance.getClass());
-                    prepareInstanceCreation(graph, instance, null, mapper, subInstanceUpdateBuilder, checkUriExist, false);
+                    prepareInstanceCreation(graph, instance, null, mapper, subInstanceUpdateBuilder, checkUriExist, false, true);
                     mapper.addCreateBuilder(graph, instance, updateBuilder, false, null);
 
                     // if query limit is reached, then insert query and reset builder
                     if (reuseSameQuery && insertedInstanceNb++ == maxInstancePerQuery) {
-                        executeUpdateQuery(updateBuilder);
+                        executeInsertQuery(updateBuilder);
                         insertedInstanceNb = 0;
                         updateBuilder = new UpdateBuilder();
                         subInstanceUpdateBuilder = updateBuilder;
@@ -1134,10 +1369,14 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
 
                 if (reuseSameQuery) {
                     if (insertedInstanceNb > 0) {
-                        executeUpdateQuery(updateBuilder);
+                        executeInsertQuery(updateBuilder);
                     }
                 } else {
-                    executeUpdateQuery(updateBuilder);
+                    executeInsertQuery(updateBuilder);
+                }
+
+                for (T instance : instances) {
+                    textIndexChanged(instance.getClass(), instance.getUri());
                 }
 
                 commitTransaction();
@@ -1176,6 +1415,111 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
         }
     }
 
+    /**
+     * Maximum number of URIs checked by one query during URI generation
+     */
+    public static final int URI_EXISTS_BATCH_SIZE = UniqueURIGenerator.DEFAULT_BATCH_SIZE;
+
+    /**
+     * Generate URIs of instances without URI with their mapper URI generator.
+     * If checkUriExist is true, generated URIs are checked with one query by {@link #URI_EXISTS_BATCH_SIZE} URIs,
+     * and only URIs which already exist inside graph or are duplicated in instances are generated again.
+     * URIs already set on instances are also checked.
+     *
+     * @param graph graph in which we check if URIs exist or not
+     * @param instances models for which we generate new URIs
+     * @param checkUriExist indicate if we must check the existence of URIs
+     * @param <T> type of SPARQLResourceModel
+     * @throws SPARQLAlreadyExistingUriException if an URI set on an instance already exists
+     */
+    public <T extends SPARQLResourceModel> void generateUniqueURIs(Node graph, Collection<T> instances, boolean checkUriExist) throws Exception {
+        SPARQLClassObjectMapperIndex mapperIndex = getMapperIndex();
+
+        List<T> instancesToGenerate = new ArrayList<>();
+        Map<T, URIGenerator<T>> uriGenerators = new IdentityHashMap<>();
+        Map<T, String> prefixes = new IdentityHashMap<>();
+        List<URI> currentURIs = new ArrayList<>();
+
+        for (T instance : instances) {
+            if (instance.getUri() == null) {
+                SPARQLClassObjectMapper<T> mapper = mapperIndex.getForClass(instance.getClass());
+                if (instance.getType() == null) {
+                    instance.setType(new URI(mapper.getRDFType().getURI()));
+                }
+                instancesToGenerate.add(instance);
+                uriGenerators.put(instance, mapper.getUriGenerator(instance));
+                prefixes.put(instance, getDefaultGenerationURI(instance.getClass()).toString());
+            } else {
+                currentURIs.add(instance.getUri());
+            }
+        }
+
+        UniqueURIGenerator.InstanceURIGenerator<T> generator = (instance, retry) -> uriGenerators.get(instance).generateURI(prefixes.get(instance), instance, retry);
+        if (!checkUriExist) {
+            for (T instance : instancesToGenerate) {
+                instance.setUri(generator.generateURI(instance, 0));
+            }
+            return;
+        }
+
+        UniqueURIGenerator uniqueURIGenerator = new UniqueURIGenerator(
+                uris -> selectExistingURIs(graph, uris),
+                SPARQLDeserializers::getExpandedURI,
+                URI_EXISTS_BATCH_SIZE
+        );
+
+        URI existingURI = uniqueURIGenerator.getFirstExistingURI(currentURIs);
+        if (existingURI != null) {
+            throw new SPARQLAlreadyExistingUriException(existingURI);
+        }
+        uniqueURIGenerator.generate(instancesToGenerate, generator, T::setUri, currentURIs);
+    }
+
+    /**
+     * @param graph graph in which we check if URIs exist or not, all graphs if null
+     * @param uris URIs to check
+     * @return URIs which are used as subject or object inside graph, checked with one query by {@link #URI_EXISTS_BATCH_SIZE} URIs
+     * @see #uriExists(Node, URI)
+     */
+    public Set<URI> getExistingURIs(Node graph, Collection<URI> uris) throws SPARQLException {
+        List<URI> urisToCheck = new ArrayList<>(uris);
+        Set<URI> existingURIs = new HashSet<>();
+        for (int start = 0; start < urisToCheck.size(); start += URI_EXISTS_BATCH_SIZE) {
+            existingURIs.addAll(selectExistingURIs(graph, urisToCheck.subList(start, Math.min(start + URI_EXISTS_BATCH_SIZE, urisToCheck.size()))));
+        }
+        return existingURIs;
+    }
+
+    /**
+     * @param graph graph in which we check if URIs exist or not, all graphs if null
+     * @param uris URIs to check, in one query
+     * @return URIs which are used as subject or object inside graph
+     */
+    private Set<URI> selectExistingURIs(Node graph, Collection<URI> uris) throws SPARQLException {
+        Var uriVar = makeVar(SPARQLResourceModel.URI_FIELD);
+        Var s = makeVar("s");
+        Var p = makeVar("p");
+        Var o = makeVar("o");
+
+        SelectBuilder select = new SelectBuilder().setDistinct(true).addVar(uriVar);
+        WhereBuilder reverseWhere = new WhereBuilder();
+        if (graph == null) {
+            select.addWhere(uriVar, p, o);
+            reverseWhere.addWhere(s, p, uriVar);
+        } else {
+            select.addGraph(graph, new Triple(uriVar, p, o));
+            reverseWhere.addGraph(graph, new Triple(s, p, uriVar));
+        }
+        select.addUnion(reverseWhere);
+        SPARQLQueryHelper.addWhereUriValues(select, uriVar.getVarName(), uris);
+
+        Set<URI> existingURIs = new HashSet<>();
+        for (SPARQLResult result : executeSelectQuery(select)) {
+            existingURIs.add(URI.create(result.getStringValue(SPARQLResourceModel.URI_FIELD)));
+        }
+        return existingURIs;
+    }
+
     public  <T extends SPARQLResourceModel> void generateUniqueUriIfNullOrValidateCurrent(Node graph, SPARQLClassObjectMapper<T> mapper, T instance, boolean checkUriExist) throws Exception {
         URIGenerator<T> uriGenerator = mapper.getUriGenerator(instance);
         URI uri = instance.getUri();
@@ -1432,6 +1776,7 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
             for (Map.Entry<Class<? extends SPARQLResourceModel>, List<URI>> relationToDelete : relationsToDelete.entrySet()) {
                 delete(relationToDelete.getKey(), relationToDelete.getValue());
             }
+            textIndexChanged(objectClass, uri);
             commitTransaction();
         } catch (Exception ex) {
             rollbackTransaction(ex);
@@ -3,6 +3,7 @@ package org.opensilex.sparql.service;
 import io.swagger.annotations.ApiModelProperty;
 import net.minidev.json.annotate.JsonIgnore;
 import org.opensilex.OpenSilex;
+import org.opensilex.utils.CountMode;
 import org.opensilex.utils.OrderBy;
 
 import java.net.URI;
@@ -20,6 +21,7 @@ public abstract class SparqlSearchFilter {
     protected List<OrderBy> orderByList;
     protected Integer page;
     protected Integer pageSize;
+    protected CountMode countMode;
 
     @JsonIgnore
     protected String lang;
@@ -28,6 +30,7 @@ public abstract class SparqlSearchFilter {
         this.lang = OpenSilex.DEFAULT_LANGUAGE;
         this.page = 0;
         this.pageSize = 20;
+        this.countMode = CountMode.EXACT;
         this.orderByList = Collections.emptyList();
         this.includedUris = Collections.emptyList();
     }
@@ -71,6 +74,16 @@ public abstract class SparqlSearchFilter {
         return this;
     }
 
+    @ApiModelProperty(name = "count", value = "Total count computation : EXACT, ESTIMATED or NONE (total count is -1)", example = "EXACT")
+    public CountMode getCountMode() {
+        return countMode;
+    }
+
+    public SparqlSearchFilter setCountMode(CountMode countMode) {
+        this.countMode = countMode;
+        return this;
+    }
+
     public String getLang() {
         return lang;
     }
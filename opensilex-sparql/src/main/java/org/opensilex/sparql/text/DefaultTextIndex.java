@@ -0,0 +1,196 @@
+//******************************************************************************
+//                          DefaultTextIndex.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.text;
+
+import org.apache.jena.arq.querybuilder.SelectBuilder;
+import org.apache.jena.arq.querybuilder.WhereBuilder;
+import org.apache.jena.graph.Node;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.vocabulary.RDF;
+import org.opensilex.sparql.deserializer.URIDeserializer;
+import org.opensilex.sparql.model.SPARQLResourceModel;
+import org.opensilex.sparql.service.SPARQLQueryHelper;
+import org.opensilex.sparql.service.SPARQLService;
+import org.opensilex.sparql.utils.Ontology;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * <pre>
+ * In-memory {@link TextIndex}, with one {@link NameIndex} by graph, class and name properties.
+ *
+ * A name index is loaded from the triplestore on first search. Resources changed since, as notified by {@link SPARQLService}
+ * create, update and delete, are read again before the next search. Modifications made without these methods are only
+ * visible after a {@link #rebuild()}.
+ *
+ * Searches with too many results return null, a REGEX filter is cheaper than a huge VALUES clause.
+ * </pre>
+ */
+public class DefaultTextIndex implements TextIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DefaultTextIndex.class);
+
+    /**
+     * Maximum number of name indexes kept in memory, the least recently used is removed first
+     */
+    public static final int MAX_INDEX_COUNT = 64;
+
+    /**
+     * Maximum number of URIs returned by a search
+     */
+    public static final int MAX_SEARCH_RESULTS = 10000;
+
+    /**
+     * Maximum number of changed resources read again before a search, a name index with more changes is loaded again
+     */
+    public static final int MAX_PENDING_CHANGES = 10000;
+
+    private static final Var URI_VAR = SPARQLQueryHelper.makeVar(SPARQLResourceModel.URI_FIELD);
+    private static final Var NAME_VAR = SPARQLQueryHelper.makeVar("name");
+    private static final Var RDF_TYPE_VAR = SPARQLQueryHelper.makeVar("_rdfType");
+    private static final Var NAME_PROPERTY_VAR = SPARQLQueryHelper.makeVar("_nameProperty");
+
+    private final Map<String, IndexEntry> entries = new LinkedHashMap<String, IndexEntry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, IndexEntry> eldest) {
+            return size() > MAX_INDEX_COUNT;
+        }
+    };
+
+    @Override
+    public Set<URI> search(SPARQLService sparql, Node graph, Class<? extends SPARQLResourceModel> objectClass, List<Property> nameProperties, String pattern) throws Exception {
+        TextPattern textPattern = TextPattern.parse(pattern);
+        if (textPattern == null) {
+            return null;
+        }
+
+        IndexEntry entry = getEntry(graph, objectClass, nameProperties);
+        return entry.getIndex(sparql).search(textPattern, MAX_SEARCH_RESULTS);
+    }
+
+    @Override
+    public void resourcesChanged(Class<? extends SPARQLResourceModel> objectClass, Collection<URI> uris) {
+        List<IndexEntry> changedEntries;
+        synchronized (entries) {
+            changedEntries = entries.values().stream()
+                    .filter(entry -> entry.objectClass.isAssignableFrom(objectClass))
+                    .collect(Collectors.toList());
+        }
+        changedEntries.forEach(entry -> entry.addChanges(uris));
+    }
+
+    @Override
+    public void rebuild() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private IndexEntry getEntry(Node graph, Class<? extends SPARQLResourceModel> objectClass, List<Property> nameProperties) {
+        String key = (graph == null ? "" : graph.getURI()) + " " + objectClass.getName() + " " + nameProperties;
+        synchronized (entries) {
+            return entries.computeIfAbsent(key, k -> new IndexEntry(graph, objectClass, nameProperties));
+        }
+    }
+
+    /**
+     * Name index of a graph, class and name properties, with resources changed since last search
+     */
+    private static final class IndexEntry {
+
+        private final Node graph;
+        private final Class<? extends SPARQLResourceModel> objectClass;
+        private final List<Property> nameProperties;
+
+        private final Set<URI> changes = ConcurrentHashMap.newKeySet();
+        private volatile boolean tooManyChanges;
+
+        private NameIndex index;
+
+        private IndexEntry(Node graph, Class<? extends SPARQLResourceModel> objectClass, List<Property> nameProperties) {
+            this.graph = graph;
+            this.objectClass = objectClass;
+            this.nameProperties = new ArrayList<>(nameProperties);
+        }
+
+        private void addChanges(Collection<URI> uris) {
+            if (tooManyChanges) {
+                return;
+            }
+            uris.forEach(uri -> changes.add(URIDeserializer.formatURI(uri)));
+            if (changes.size() > MAX_PENDING_CHANGES) {
+                tooManyChanges = true;
+                changes.clear();
+            }
+        }
+
+        private synchronized NameIndex getIndex(SPARQLService sparql) throws Exception {
+            if (index == null || tooManyChanges) {
+                // forget changes before loading, so that a change during the loading is read again on next search
+                tooManyChanges = false;
+                changes.clear();
+
+                long start = System.currentTimeMillis();
+                NameIndex newIndex = new NameIndex();
+                loadNames(sparql, null).forEach(newIndex::put);
+                index = newIndex;
+
+                LOGGER.debug("Text index of " + objectClass.getSimpleName() + " in graph " + graph + " loaded with " + index.size() + " resources: " + (System.currentTimeMillis() - start) + " milliseconds elapsed");
+            } else if (!changes.isEmpty()) {
+                List<URI> changedURIs = new ArrayList<>(changes);
+                changes.removeAll(changedURIs);
+
+                Map<URI, List<String>> changedNames = loadNames(sparql, changedURIs);
+                changedURIs.forEach(uri -> index.put(uri, changedNames.getOrDefault(uri, Collections.emptyList())));
+            }
+            return index;
+        }
+
+        /**
+         * @param uris resources to read, all resources if null
+         * @return names by resource URI
+         */
+        private Map<URI, List<String>> loadNames(SPARQLService sparql, Collection<URI> uris) throws Exception {
+            SelectBuilder select = new SelectBuilder()
+                    .setDistinct(true)
+                    .addVar(URI_VAR)
+                    .addVar(NAME_VAR)
+                    .addWhere(RDF_TYPE_VAR, Ontology.subClassAny, sparql.getMapperIndex().getForClass(objectClass).getRDFType());
+
+            if (graph != null) {
+                select.addGraph(graph, new WhereBuilder()
+                        .addWhere(URI_VAR, RDF.type, RDF_TYPE_VAR)
+                        .addWhere(URI_VAR, NAME_PROPERTY_VAR, NAME_VAR)
+                );
+            } else {
+                select.addWhere(URI_VAR, RDF.type, RDF_TYPE_VAR)
+                        .addWhere(URI_VAR, NAME_PROPERTY_VAR, NAME_VAR);
+            }
+            select.addWhereValueVar(NAME_PROPERTY_VAR, nameProperties.stream().map(Property::asNode).toArray());
+
+            if (uris != null) {
+                SPARQLQueryHelper.addWhereUriValues(select, URI_VAR.getVarName(), uris);
+            }
+
+            Map<URI, List<String>> names = new HashMap<>();
+            sparql.executeSelectQueryAsStream(select).forEach(result -> {
+                String name = result.getStringValue(NAME_VAR.getVarName());
+                if (name != null) {
+                    URI uri = URIDeserializer.formatURI(result.getStringValue(URI_VAR.getVarName()));
+                    names.computeIfAbsent(uri, key -> new ArrayList<>()).add(name);
+                }
+            });
+            return names;
+        }
+    }
+}
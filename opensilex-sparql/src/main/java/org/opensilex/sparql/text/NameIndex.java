@@ -0,0 +1,221 @@
+//******************************************************************************
+//                          NameIndex.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.text;
+
+import java.net.URI;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * <pre>
+ * Trigram index of resource names.
+ *
+ * Names are normalized (lower case, without accents). Each resource gets an integer id and each trigram of its names
+ * references the ids of resources containing it. A search reads the shortest list of ids among the trigrams of the
+ * searched text, then checks the names of these resources. Texts shorter than a trigram are checked against all names.
+ *
+ * Removed resources keep their id until too many ids are unused, then the index is compacted.
+ * </pre>
+ */
+final class NameIndex {
+
+    private static final int TRIGRAM_LENGTH = 3;
+
+    private static final int MIN_COMPACTED_SIZE = 1024;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private List<URI> uris = new ArrayList<>();
+    private List<String[]> names = new ArrayList<>();
+    private Map<URI, Integer> ids = new HashMap<>();
+    private Map<String, IntList> idsByTrigram = new HashMap<>();
+    private int removedCount;
+
+    /**
+     * @param value text
+     * @return text in lower case, without accents
+     */
+    static String normalize(String value) {
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Set the names of a resource, replacing the previous ones
+     *
+     * @param uri resource URI
+     * @param resourceNames resource names, the resource is removed if empty
+     */
+    void put(URI uri, Collection<String> resourceNames) {
+        lock.writeLock().lock();
+        try {
+            removeId(uri);
+            if (!resourceNames.isEmpty()) {
+                addId(uri, resourceNames.stream().map(NameIndex::normalize).distinct().toArray(String[]::new));
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param uri resource URI
+     */
+    void remove(URI uri) {
+        lock.writeLock().lock();
+        try {
+            removeId(uri);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return ids.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param pattern searched pattern
+     * @param maxResults maximum number of results
+     * @return URIs of resources with a matching name, or null if there are more than maxResults resources
+     */
+    Set<URI> search(TextPattern pattern, int maxResults) {
+        lock.readLock().lock();
+        try {
+            Set<URI> results = new HashSet<>();
+            IntList candidates = getCandidates(pattern.getText());
+            if (candidates == null) {
+                for (int id = 0; id < names.size(); id++) {
+                    if (!addIfMatches(pattern, id, results, maxResults)) {
+                        return null;
+                    }
+                }
+            } else {
+                for (int i = 0; i < candidates.size; i++) {
+                    if (!addIfMatches(pattern, candidates.values[i], results, maxResults)) {
+                        return null;
+                    }
+                }
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return ids of the shortest list among the text trigrams, an empty list if one of them is unknown, or null if the text is too short
+     */
+    private IntList getCandidates(String text) {
+        if (text.length() < TRIGRAM_LENGTH) {
+            return null;
+        }
+
+        IntList candidates = null;
+        for (String trigram : getTrigrams(text)) {
+            IntList trigramIds = idsByTrigram.get(trigram);
+            if (trigramIds == null) {
+                return new IntList();
+            }
+            if (candidates == null || trigramIds.size < candidates.size) {
+                candidates = trigramIds;
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * @return false if the number of results is over maxResults
+     */
+    private boolean addIfMatches(TextPattern pattern, int id, Set<URI> results, int maxResults) {
+        String[] resourceNames = names.get(id);
+        if (resourceNames != null && pattern.matches(resourceNames) && results.add(uris.get(id))) {
+            return results.size() <= maxResults;
+        }
+        return true;
+    }
+
+    private void addId(URI uri, String[] resourceNames) {
+        int id = uris.size();
+        uris.add(uri);
+        names.add(resourceNames);
+        ids.put(uri, id);
+
+        Set<String> trigrams = new HashSet<>();
+        for (String name : resourceNames) {
+            trigrams.addAll(getTrigrams(name));
+        }
+        for (String trigram : trigrams) {
+            idsByTrigram.computeIfAbsent(trigram, key -> new IntList()).add(id);
+        }
+    }
+
+    private void removeId(URI uri) {
+        Integer id = ids.remove(uri);
+        if (id != null) {
+            // trigram lists still reference the id, but the resource has no more names
+            names.set(id, null);
+            removedCount++;
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (removedCount < MIN_COMPACTED_SIZE || removedCount < uris.size() / 2) {
+            return;
+        }
+
+        List<URI> oldURIs = uris;
+        List<String[]> oldNames = names;
+        uris = new ArrayList<>(ids.size());
+        names = new ArrayList<>(ids.size());
+        ids = new HashMap<>();
+        idsByTrigram = new HashMap<>();
+        removedCount = 0;
+
+        for (int id = 0; id < oldURIs.size(); id++) {
+            if (oldNames.get(id) != null) {
+                addId(oldURIs.get(id), oldNames.get(id));
+            }
+        }
+    }
+
+    private static Set<String> getTrigrams(String text) {
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + TRIGRAM_LENGTH <= text.length(); i++) {
+            trigrams.add(text.substring(i, i + TRIGRAM_LENGTH));
+        }
+        return trigrams;
+    }
+
+    /**
+     * Growable list of int, ids are added in increasing order
+     */
+    private static final class IntList {
+
+        private int[] values = new int[4];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+//******************************************************************************
+//                          NoTextIndex.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.text;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.rdf.model.Property;
+import org.opensilex.sparql.model.SPARQLResourceModel;
+import org.opensilex.sparql.service.SPARQLService;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Implementation without index, all name searches use a REGEX filter
+ */
+public class NoTextIndex implements TextIndex {
+
+    @Override
+    public Set<URI> search(SPARQLService sparql, Node graph, Class<? extends SPARQLResourceModel> objectClass, List<Property> nameProperties, String pattern) {
+        return null;
+    }
+
+    @Override
+    public void resourcesChanged(Class<? extends SPARQLResourceModel> objectClass, Collection<URI> uris) {
+        // no-index impl
+    }
+
+    @Override
+    public void rebuild() {
+        // no-index impl
+    }
+}
@@ -0,0 +1,52 @@
+//******************************************************************************
+//                          TextIndex.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.text;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.rdf.model.Property;
+import org.opensilex.sparql.model.SPARQLResourceModel;
+import org.opensilex.sparql.service.SPARQLService;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <pre>
+ * Index of resource names (labels, synonyms...), used to resolve a name pattern into candidate URIs
+ * instead of evaluating a REGEX filter on every name of a graph.
+ *
+ * An index is not required to answer every search : a null result means that the caller must use a REGEX filter.
+ * </pre>
+ */
+public interface TextIndex {
+
+    /**
+     * @param sparql connection used to load the index if needed
+     * @param graph graph of resources, all graphs if null
+     * @param objectClass class of resources
+     * @param nameProperties properties which contains resource names
+     * @param pattern name REGEX pattern
+     * @return URIs of resources with a name matching the pattern, or null if the index can't answer this search
+     * @throws Exception if the index loading fails
+     */
+    Set<URI> search(SPARQLService sparql, Node graph, Class<? extends SPARQLResourceModel> objectClass, List<Property> nameProperties, String pattern) throws Exception;
+
+    /**
+     * Called once resources of a class were created, updated or deleted
+     *
+     * @param objectClass class of resources
+     * @param uris URIs of resources
+     */
+    void resourcesChanged(Class<? extends SPARQLResourceModel> objectClass, Collection<URI> uris);
+
+    /**
+     * Drop all indexed names, indexes are loaded again on next search
+     */
+    void rebuild();
+}
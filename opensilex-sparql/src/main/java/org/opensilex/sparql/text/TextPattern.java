@@ -0,0 +1,75 @@
+//******************************************************************************
+//                          TextPattern.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.text;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * <pre>
+ * Name pattern which can be answered by a {@link NameIndex}.
+ *
+ * Name filters are case-insensitive REGEX patterns. Only plain texts, optionally anchored with ^ and $, are supported :
+ * - "text" : substring
+ * - "^text" : prefix
+ * - "text$" : suffix
+ * - "^text$" : whole name
+ * Matching is case and accent insensitive.
+ * </pre>
+ */
+final class TextPattern {
+
+    private static final String REGEX_CHARACTERS = ".*+?()[]{}|\\^$";
+
+    private final String text;
+    private final boolean prefix;
+    private final boolean suffix;
+
+    private TextPattern(String text, boolean prefix, boolean suffix) {
+        this.text = text;
+        this.prefix = prefix;
+        this.suffix = suffix;
+    }
+
+    /**
+     * @param pattern REGEX pattern
+     * @return the pattern, or null if it is empty or uses other REGEX features
+     */
+    static TextPattern parse(String pattern) {
+        if (StringUtils.isEmpty(pattern)) {
+            return null;
+        }
+
+        boolean prefix = pattern.startsWith("^");
+        boolean suffix = pattern.length() > 1 && pattern.endsWith("$") && !pattern.endsWith("\\$");
+        String text = pattern.substring(prefix ? 1 : 0, suffix ? pattern.length() - 1 : pattern.length());
+
+        if (text.isEmpty() || StringUtils.containsAny(text, REGEX_CHARACTERS)) {
+            return null;
+        }
+        return new TextPattern(NameIndex.normalize(text), prefix, suffix);
+    }
+
+    String getText() {
+        return text;
+    }
+
+    /**
+     * @param names normalized names
+     * @return true if one of the names matches
+     */
+    boolean matches(String[] names) {
+        for (String name : names) {
+            if (prefix && suffix ? name.equals(text)
+                    : prefix ? name.startsWith(text)
+                    : suffix ? name.endsWith(text)
+                    : name.contains(text)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
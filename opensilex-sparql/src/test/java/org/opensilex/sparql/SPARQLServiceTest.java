@@ -21,16 +21,24 @@ import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.opensilex.OpenSilex;
+import org.opensilex.server.rest.cache.ApiCacheTags;
 import org.opensilex.sparql.deserializer.SPARQLDeserializers;
+import org.opensilex.sparql.exceptions.SPARQLAlreadyExistingUriException;
 import org.opensilex.sparql.exceptions.SPARQLException;
 import org.opensilex.sparql.exceptions.SPARQLInvalidUriListException;
+import org.opensilex.sparql.exceptions.SPARQLMultipleObjectException;
+import org.opensilex.sparql.mapping.SPARQLProxyBatchLoader;
 import org.opensilex.sparql.model.*;
 import org.opensilex.sparql.ontology.dal.ClassModel;
 import org.opensilex.sparql.service.SPARQLQueryHelper;
+import org.opensilex.sparql.service.SPARQLResult;
 import org.opensilex.sparql.service.SPARQLService;
 import org.opensilex.unit.test.AbstractUnitTest;
 import org.opensilex.uri.generation.URIGeneratorTest;
+import org.opensilex.utils.CountMode;
+import org.opensilex.utils.ListWithPagination;
 import org.opensilex.utils.OrderBy;
+import org.opensilex.utils.ThrowingFunction;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
@@ -259,6 +267,38 @@ public abstract class SPARQLServiceTest extends AbstractUnitTest {
         }
     }
 
+    @Test
+    public void testCreateAllWithGeneratedURIs() throws Exception {
+        int n = 5;
+
+        A existingA = new A();
+        existingA.setUri(new URI("http://test.opensilex.org/a/testCreateAllWithGeneratedURIs"));
+        sparql.create(existingA);
+
+        List<A> aList = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            aList.add(new A());
+        }
+        sparql.create(null, aList, null, true);
+
+        Set<String> uris = new HashSet<>();
+        for (A createdA : aList) {
+            assertNotNull(createdA.getUri());
+            assertTrue("Generated URIs must be unique", uris.add(SPARQLDeserializers.getExpandedURI(createdA.getUri())));
+            assertTrue(sparql.uriExists(A.class, createdA.getUri()));
+        }
+
+        // an URI set on an instance is checked with the generated ones
+        A duplicatedA = new A();
+        duplicatedA.setUri(existingA.getUri());
+        try {
+            sparql.create(null, Arrays.asList(new A(), duplicatedA), null, true);
+            fail("An existing URI should not be created again");
+        } catch (SPARQLAlreadyExistingUriException e) {
+            assertEquals(SPARQLDeserializers.getExpandedURI(existingA.getUri()), SPARQLDeserializers.getExpandedURI(e.getUri()));
+        }
+    }
+
     @Test
     public void testDeleteQuery() throws Exception {
         A a = new A();
@@ -712,4 +752,280 @@ public abstract class SPARQLServiceTest extends AbstractUnitTest {
             assertEquals(initialModel,modelFromDB);
         }
     }
+
+    @Test
+    public void testSearchWithPaginationTotal() throws Exception {
+        int n = 15;
+        Node graph = NodeFactory.createURI(TEST_ONTOLOGY.NAMESPACE + "testSearchWithPaginationTotal");
+
+        List<A> models = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            A a = new A();
+            a.setUri(URI.create("test:testSearchWithPaginationTotal_" + (10 + i)));
+            models.add(a);
+        }
+        sparql.create(graph, models);
+
+        // full page, total is counted
+        ListWithPagination<A> firstPage = sparql.searchWithPagination(graph, A.class, null, null, null, null, null, 0, 10);
+        assertEquals(10, firstPage.getList().size());
+        assertEquals(n, firstPage.getTotal());
+
+        // single page, total is deduced from the page
+        ListWithPagination<A> singlePage = sparql.searchWithPagination(graph, A.class, null, null, null, null, null, 0, 20);
+        assertEquals(n, singlePage.getList().size());
+        assertEquals(n, singlePage.getTotal());
+
+        // last page, total is counted since a resource could be split between two pages
+        ListWithPagination<A> lastPage = sparql.searchWithPagination(graph, A.class, null, null, null, null, null, 1, 10);
+        assertEquals(5, lastPage.getList().size());
+        assertEquals(n, lastPage.getTotal());
+
+        // no total
+        ListWithPagination<A> noTotalPage = sparql.searchWithPagination(graph, A.class, null, null, null, null, null, 0, 10, CountMode.NONE);
+        assertEquals(10, noTotalPage.getList().size());
+        assertEquals(-1, noTotalPage.getTotal());
+
+        // estimated total is cached until the next modification
+        assertEquals(n, sparql.searchWithPagination(graph, A.class, null, null, null, null, null, 0, 10, CountMode.ESTIMATED).getTotal());
+        A created = new A();
+        created.setUri(URI.create("test:testSearchWithPaginationTotal_" + (10 + n)));
+        sparql.create(graph, created);
+        assertEquals(n + 1, sparql.searchWithPagination(graph, A.class, null, null, null, null, null, 0, 10, CountMode.ESTIMATED).getTotal());
+        sparql.delete(graph, A.class, created.getUri());
+        assertEquals(n, sparql.searchWithPagination(graph, A.class, null, null, null, null, null, 0, 10, CountMode.ESTIMATED).getTotal());
+
+        // page after the last one
+        ListWithPagination<A> afterLastPage = sparql.searchWithPagination(graph, A.class, null, null, null, null, null, 2, 10);
+        assertTrue(afterLastPage.getList().isEmpty());
+        assertEquals(n, afterLastPage.getTotal());
+
+        // two values of a single-valued field give two rows for the last resource, total is counted
+        String lastUri = SPARQLDeserializers.getExpandedURI(models.get(n - 1).getUri());
+        sparql.executeUpdateQuery("INSERT DATA { GRAPH <" + graph.getURI() + "> { <" + lastUri + "> <" + TEST_ONTOLOGY.hasString.getURI() + "> \"a\", \"b\" } }");
+        List<OrderBy> orderByList = Collections.singletonList(new OrderBy("uri", Order.ASCENDING));
+        ListWithPagination<A> duplicatedLastPage = sparql.searchWithPagination(graph, A.class, null, null, null, null, orderByList, 1, 10);
+        assertEquals(6, duplicatedLastPage.getList().size());
+        assertEquals(n, duplicatedLastPage.getTotal());
+    }
+
+    @Test
+    public void testApiCacheTagsInvalidatedOnCommit() throws Exception {
+        String tag = "testApiCacheTagsInvalidatedOnCommit";
+        HashMap<String, Long> versions = ApiCacheTags.getVersions(tag);
+
+        sparql.startTransaction();
+        sparql.invalidateApiCacheTags(tag);
+        assertTrue("Tag must not be invalidated before commit", ApiCacheTags.isUpToDate(versions));
+        sparql.commitTransaction();
+        assertFalse(ApiCacheTags.isUpToDate(versions));
+
+        versions = ApiCacheTags.getVersions(tag);
+        sparql.startTransaction();
+        sparql.invalidateApiCacheTags(tag);
+        sparql.rollbackTransaction();
+        assertTrue("Tag must not be invalidated by a rolled back transaction", ApiCacheTags.isUpToDate(versions));
+
+        sparql.invalidateApiCacheTags(tag);
+        assertFalse(ApiCacheTags.isUpToDate(versions));
+    }
+
+    /**
+     * Service reading data through the test service, which records the {@link SPARQLService#loadListByURIs} round trips
+     * by type. Proxies of the loaded instances are batch loaded with this service.
+     */
+    private static class LoadCountingService extends SPARQLService {
+
+        private final Map<Class<?>, List<Integer>> loadSizes = new HashMap<>();
+
+        LoadCountingService(SPARQLService sparql) {
+            super(sparql);
+            setOpenSilex(sparql.getOpenSilex());
+            setDefaultLang(sparql.getDefaultLang());
+        }
+
+        @Override
+        public <T extends SPARQLResourceModel> List<T> loadListByURIs(Node graph, Class<T> objectClass, Collection<URI> uris, String lang, ThrowingFunction<SPARQLResult, T, Exception> resultHandler, Map<String, Boolean> listFieldsToFetch) throws Exception {
+            loadSizes.computeIfAbsent(objectClass, key -> new ArrayList<>()).add(uris.size());
+            return super.loadListByURIs(graph, objectClass, uris, lang, resultHandler, listFieldsToFetch);
+        }
+
+        int getLoadCount(Class<?> objectClass) {
+            return getLoadSizes(objectClass).size();
+        }
+
+        /**
+         * @return number of URIs loaded by each round trip
+         */
+        List<Integer> getLoadSizes(Class<?> objectClass) {
+            return loadSizes.getOrDefault(objectClass, Collections.emptyList());
+        }
+    }
+
+    private static B newB(URI uri, float floatVar) {
+        B b = new B();
+        b.setUri(uri);
+        b.setFloatVar(floatVar);
+        b.setDoubleVar(0d);
+        b.setCharVar('Z');
+        b.setShortVar((short) 0);
+        return b;
+    }
+
+    /**
+     * Create n instances of A, each one with a relation to its own B and to another A
+     *
+     * @return created instances of B, by index
+     */
+    private static List<B> createProxyBatchData(String prefix, int n) throws Exception {
+        List<B> bList = new ArrayList<>(n);
+        List<A> targets = new ArrayList<>(n);
+        List<A> aList = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            B b = newB(new URI("http://test.opensilex.org/" + prefix + "/b/" + i), i);
+            bList.add(b);
+
+            A target = new A();
+            target.setUri(new URI("http://test.opensilex.org/" + prefix + "/target/" + i));
+            target.setString("target " + i);
+            targets.add(target);
+
+            A a = new A();
+            a.setUri(getProxyBatchURI(prefix, i));
+            a.setB(b);
+            a.setA(target);
+            aList.add(a);
+        }
+        sparql.create(B.class, bList);
+        sparql.create(A.class, targets);
+        sparql.create(A.class, aList);
+        return bList;
+    }
+
+    private static URI getProxyBatchURI(String prefix, int i) throws URISyntaxException {
+        return new URI("http://test.opensilex.org/" + prefix + "/a/" + i);
+    }
+
+    private static List<URI> getProxyBatchURIs(String prefix, int n) throws URISyntaxException {
+        List<URI> uris = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            uris.add(getProxyBatchURI(prefix, i));
+        }
+        return uris;
+    }
+
+    /**
+     * @return float value of the B related to the first A, all relations are read through proxies
+     */
+    private static Float readProxies(SPARQLService service, List<URI> aURIs) throws Exception {
+        Float firstValue = null;
+        for (A a : service.loadListByURIs(A.class, aURIs, service.getDefaultLang())) {
+            Float value = a.getB().getFloatVar();
+            if (SPARQLDeserializers.compareURIs(a.getUri(), aURIs.get(0))) {
+                firstValue = value;
+            }
+        }
+        return firstValue;
+    }
+
+    @Test
+    public void testProxiesBatchLoading() throws Exception {
+        int n = 10;
+        createProxyBatchData("proxy-batch", n);
+        List<URI> aURIs = getProxyBatchURIs("proxy-batch", n);
+
+        LoadCountingService service = new LoadCountingService(sparql);
+        List<A> aList = service.loadListByURIs(A.class, aURIs, service.getDefaultLang());
+        assertEquals(n, aList.size());
+        assertEquals(1, service.getLoadCount(A.class));
+        assertEquals(0, service.getLoadCount(B.class));
+
+        // all relations of the same type are loaded with the first accessed one, each type has its own batch
+        for (A a : aList) {
+            int i = Integer.parseInt(StringUtils.substringAfterLast(a.getUri().toString(), "/"));
+            assertEquals(Float.valueOf(i), a.getB().getFloatVar());
+            assertEquals("target " + i, a.getA().getString());
+        }
+        assertEquals(1, service.getLoadCount(B.class));
+        assertEquals(2, service.getLoadCount(A.class));
+
+        // proxies of the same resources get their instances from the last batch
+        readProxies(service, aURIs);
+        assertEquals(1, service.getLoadCount(B.class));
+    }
+
+    @Test
+    public void testProxiesBatchReloadedAfterUpdate() throws Exception {
+        int n = 10;
+        List<B> bList = createProxyBatchData("proxy-batch-update", n);
+        List<URI> aURIs = getProxyBatchURIs("proxy-batch-update", n);
+
+        LoadCountingService service = new LoadCountingService(sparql);
+        assertEquals(Float.valueOf(0), readProxies(service, aURIs));
+        assertEquals(1, service.getLoadCount(B.class));
+
+        // update through another service
+        B updatedB = bList.get(0);
+        updatedB.setFloatVar(100f);
+        sparql.update(updatedB);
+        assertEquals(Float.valueOf(100), readProxies(service, aURIs));
+        assertEquals(2, service.getLoadCount(B.class));
+
+        // a batch loaded in a rolled back transaction is dropped
+        sparql.startTransaction();
+        updatedB.setFloatVar(200f);
+        sparql.update(updatedB);
+        assertEquals(Float.valueOf(200), readProxies(service, aURIs));
+        assertEquals(3, service.getLoadCount(B.class));
+        sparql.rollbackTransaction();
+        assertEquals(Float.valueOf(100), readProxies(service, aURIs));
+        assertEquals(4, service.getLoadCount(B.class));
+
+        // delete
+        sparql.delete(B.class, bList.get(n - 1).getUri());
+        readProxies(service, aURIs.subList(0, n - 1));
+        assertEquals(5, service.getLoadCount(B.class));
+    }
+
+    @Test
+    public void testProxiesBatchSize() throws Exception {
+        int n = SPARQLProxyBatchLoader.MAX_PENDING_URIS + 10;
+        createProxyBatchData("proxy-batch-size", n);
+        List<URI> aURIs = getProxyBatchURIs("proxy-batch-size", n);
+
+        LoadCountingService service = new LoadCountingService(sparql);
+        List<A> aList = service.loadListByURIs(A.class, aURIs, service.getDefaultLang());
+
+        // proxies are registered in creation order, the first ones are loaded with the first accessed one
+        for (A a : aList.subList(0, SPARQLProxyBatchLoader.MAX_PENDING_URIS)) {
+            assertNotNull(a.getB().getFloatVar());
+        }
+        assertEquals(Collections.singletonList(SPARQLProxyBatchLoader.MAX_PENDING_URIS), service.getLoadSizes(B.class));
+
+        for (A a : aList) {
+            int i = Integer.parseInt(StringUtils.substringAfterLast(a.getUri().toString(), "/"));
+            assertEquals(Float.valueOf(i), a.getB().getFloatVar());
+        }
+        assertTrue(service.getLoadSizes(B.class).stream().allMatch(size -> size <= SPARQLProxyBatchLoader.MAX_PENDING_URIS));
+    }
+
+    @Test
+    public void testProxiesBatchWithDuplicates() throws Exception {
+        int n = 3;
+        List<B> bList = createProxyBatchData("proxy-batch-duplicates", n);
+        List<URI> aURIs = getProxyBatchURIs("proxy-batch-duplicates", n);
+
+        // a second value of a single valued property gives two results for the same resource
+        sparql.executeUpdateQuery("INSERT DATA { GRAPH <" + sparql.getDefaultGraphURI(B.class) + "> { <"
+                + bList.get(1).getUri() + "> <" + TEST_ONTOLOGY.hasFloat.getURI() + "> \"50.0\"^^<http://www.w3.org/2001/XMLSchema#float> } }");
+
+        LoadCountingService service = new LoadCountingService(sparql);
+        List<A> aList = service.loadListByURIs(A.class, aURIs, service.getDefaultLang());
+        aList.sort(Comparator.comparing(a -> a.getUri().toString()));
+
+        assertEquals(Float.valueOf(0), aList.get(0).getB().getFloatVar());
+        assertThrows(SPARQLMultipleObjectException.class, () -> aList.get(1).getB().getFloatVar());
+        assertEquals(Float.valueOf(2), aList.get(2).getB().getFloatVar());
+        assertEquals(1, service.getLoadCount(B.class));
+    }
 }
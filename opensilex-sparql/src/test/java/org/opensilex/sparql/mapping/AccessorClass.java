@@ -0,0 +1,34 @@
+//******************************************************************************
+//                          AccessorClass.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.mapping;
+
+/**
+ * Class without any dependency, so that it can be loaded by a class loader which only knows test classes.
+ */
+public class AccessorClass {
+
+    private String name;
+
+    private int count;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public AccessorClass setCount(int count) {
+        this.count = count;
+        return this;
+    }
+}
@@ -0,0 +1,92 @@
+//******************************************************************************
+//                          SPARQLClassQueryBuilderTest.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.mapping;
+
+import org.apache.jena.arq.querybuilder.SelectBuilder;
+import org.apache.jena.graph.Node;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opensilex.sparql.model.A;
+import org.opensilex.sparql.service.SPARQLQueryHelper;
+import org.opensilex.sparql.utils.OpenSilexTestEnvironment;
+import org.opensilex.utils.ThrowingConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Check that queries built from templates are the same as queries built from scratch.
+ */
+public class SPARQLClassQueryBuilderTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SPARQLClassQueryBuilderTest.class);
+
+    private static SPARQLClassObjectMapper<A> mapper;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        mapper = OpenSilexTestEnvironment.getInstance().getSparql().getMapperIndex().getForClass(A.class);
+    }
+
+    @After
+    public void after() {
+        SPARQLClassQueryBuilder.setQueryTemplatesEnabled(true);
+    }
+
+    private static ThrowingConsumer<SelectBuilder, Exception> uriFilter(String uri) {
+        return select -> SPARQLQueryHelper.addWhereUriValues(select, mapper.getURIFieldName(), Collections.singletonList(URI.create(uri)));
+    }
+
+    private String[] getQueries(boolean templatesEnabled) throws Exception {
+        SPARQLClassQueryBuilder.setQueryTemplatesEnabled(templatesEnabled);
+        Node graph = mapper.getDefaultGraph();
+        return new String[]{
+                mapper.getSelectBuilder(graph, "en", uriFilter("http://opensilex.test/a1"), null).buildString(),
+                mapper.getSelectBuilder(graph, "fr").buildString(),
+                mapper.getCountBuilder(graph, "count", "en").buildString(),
+                mapper.getAskBuilder(graph, "en").buildString()
+        };
+    }
+
+    @Test
+    public void testTemplatesEqualsScratchQueries() throws Exception {
+        String[] scratchQueries = getQueries(false);
+
+        // first call creates the templates, second call copy them
+        assertArrayEquals(scratchQueries, getQueries(true));
+        assertArrayEquals(scratchQueries, getQueries(true));
+    }
+
+    @Test
+    public void testFilterDoesNotChangeTemplate() throws Exception {
+        Node graph = mapper.getDefaultGraph();
+        String first = mapper.getSelectBuilder(graph, "en", uriFilter("http://opensilex.test/a1"), null).buildString();
+        String second = mapper.getSelectBuilder(graph, "en", uriFilter("http://opensilex.test/a2"), null).buildString();
+
+        assertTrue(first.contains("http://opensilex.test/a1"));
+        assertFalse(second.contains("http://opensilex.test/a1"));
+        assertTrue(second.contains("http://opensilex.test/a2"));
+    }
+
+    @Test
+    public void testBuildDuration() throws Exception {
+        int iterations = 2000;
+        for (boolean templatesEnabled : new boolean[]{false, true}) {
+            getQueries(templatesEnabled);
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                getQueries(templatesEnabled);
+            }
+            LOGGER.debug("Query build with templates " + (templatesEnabled ? "enabled" : "disabled") + ": " + (System.nanoTime() - start) / iterations / 1000 + " microseconds by iteration");
+        }
+    }
+}
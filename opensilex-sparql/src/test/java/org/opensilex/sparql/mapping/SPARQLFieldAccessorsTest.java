@@ -0,0 +1,97 @@
+//******************************************************************************
+//                          SPARQLFieldAccessorsTest.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.mapping;
+
+import org.junit.Test;
+import org.opensilex.sparql.model.A;
+import org.opensilex.sparql.service.SPARQLService;
+import org.opensilex.sparql.utils.OpenSilexTestEnvironment;
+
+import java.lang.reflect.Field;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+/**
+ * Check generated accessors, for a class of the test class loader and for a class of another class loader
+ * like module classes.
+ */
+public class SPARQLFieldAccessorsTest {
+
+    private void assertGenerated(Object accessor, Class<?> accessedClass) {
+        assertTrue("Accessor must be generated, not reflective: " + accessor.getClass().getName(),
+                accessor.getClass().getName().startsWith(accessedClass.getName() + "$SPARQLAccessor$"));
+        assertSame(accessedClass.getClassLoader(), accessor.getClass().getClassLoader().getParent());
+    }
+
+    private void checkAccessors(Class<?> accessedClass) throws Exception {
+        Supplier<Object> constructor = SPARQLFieldAccessors.constructor(accessedClass.getConstructor());
+        Function<Object, Object> nameGetter = SPARQLFieldAccessors.getter(accessedClass.getMethod("getName"));
+        BiConsumer<Object, Object> nameSetter = SPARQLFieldAccessors.setter(accessedClass.getMethod("setName", String.class));
+        Function<Object, Object> countGetter = SPARQLFieldAccessors.getter(accessedClass.getMethod("getCount"));
+        BiConsumer<Object, Object> countSetter = SPARQLFieldAccessors.setter(accessedClass.getMethod("setCount", int.class));
+
+        for (Object accessor : new Object[]{constructor, nameGetter, nameSetter, countGetter, countSetter}) {
+            assertGenerated(accessor, accessedClass);
+        }
+
+        Object instance = constructor.get();
+        assertSame(accessedClass, instance.getClass());
+
+        nameSetter.accept(instance, "name");
+        countSetter.accept(instance, 42);
+        assertEquals("name", nameGetter.apply(instance));
+        assertEquals(42, countGetter.apply(instance));
+    }
+
+    @Test
+    public void testAccessors() throws Exception {
+        checkAccessors(AccessorClass.class);
+    }
+
+    @Test
+    public void testAccessorsFromOtherClassLoader() throws Exception {
+        URL testClasses = AccessorClass.class.getProtectionDomain().getCodeSource().getLocation();
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{testClasses}, null)) {
+            Class<?> accessedClass = classLoader.loadClass(AccessorClass.class.getName());
+            assertNotSame(AccessorClass.class, accessedClass);
+
+            checkAccessors(accessedClass);
+        }
+    }
+
+    @Test
+    public void testAccessorsGeneratedOnce() throws Exception {
+        assertSame(SPARQLFieldAccessors.getter(AccessorClass.class.getMethod("getName")),
+                SPARQLFieldAccessors.getter(AccessorClass.class.getMethod("getName")));
+        assertSame(SPARQLFieldAccessors.setter(AccessorClass.class.getMethod("setName", String.class)),
+                SPARQLFieldAccessors.setter(AccessorClass.class.getMethod("setName", String.class)));
+        assertSame(SPARQLFieldAccessors.constructor(AccessorClass.class.getConstructor()),
+                SPARQLFieldAccessors.constructor(AccessorClass.class.getConstructor()));
+    }
+
+    @Test
+    public void testFetchersShareGeneratedConstructor() throws Exception {
+        SPARQLService sparql = OpenSilexTestEnvironment.getInstance().getSparql();
+        Field constructorField = SparqlNoProxyFetcher.class.getDeclaredField("constructor");
+        constructorField.setAccessible(true);
+
+        Object constructor = constructorField.get(new SparqlNoProxyFetcher<>(A.class, sparql));
+        assertGenerated(constructor, A.class);
+        assertSame(constructor, constructorField.get(new SparqlNoProxyFetcher<>(A.class, sparql)));
+    }
+
+    @Test(expected = ClassCastException.class)
+    public void testWrongInstance() throws Exception {
+        Function<Object, Object> getter = SPARQLFieldAccessors.getter(AccessorClass.class.getMethod("getName"));
+        getter.apply(new Object());
+    }
+}
@@ -0,0 +1,78 @@
+//******************************************************************************
+//                          SPARQLProxyTest.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.mapping;
+
+import org.junit.Test;
+import org.opensilex.sparql.model.SPARQLLabel;
+
+import static org.junit.Assert.*;
+
+public class SPARQLProxyTest {
+
+    private static final int PROXY_COUNT = 2000;
+
+    /**
+     * Proxy kind returning a label with its own value
+     */
+    private static class LabelProxy extends SPARQLProxy<SPARQLLabel> {
+
+        private final String value;
+
+        private int loadCount = 0;
+
+        LabelProxy(String value) {
+            super(null, null, SPARQLLabel.class, "en", null);
+            this.value = value;
+        }
+
+        @Override
+        protected SPARQLLabel loadData() {
+            loadCount++;
+            return new SPARQLLabel(value, "en");
+        }
+    }
+
+    /**
+     * Other proxy kind for the same type
+     */
+    private static class OtherLabelProxy extends LabelProxy {
+
+        OtherLabelProxy(String value) {
+            super(value);
+        }
+    }
+
+    @Test
+    public void testProxyClassIsReused() {
+        LabelProxy handler1 = new LabelProxy("first");
+        LabelProxy handler2 = new LabelProxy("second");
+        SPARQLLabel proxy1 = handler1.getInstance();
+        SPARQLLabel proxy2 = handler2.getInstance();
+
+        assertSame(proxy1.getClass(), proxy2.getClass());
+        assertTrue(proxy1 instanceof SPARQLProxyMarker);
+        assertNotSame(proxy1.getClass(), new OtherLabelProxy("other").getInstance().getClass());
+
+        // each proxy instance must delegate to its own handler, and load data only once
+        assertEquals(0, handler1.loadCount);
+        assertEquals("first", proxy1.getDefaultValue());
+        assertEquals("first", proxy1.getDefaultValue());
+        assertEquals("second", proxy2.getDefaultValue());
+        assertEquals(1, handler1.loadCount);
+        assertEquals(1, handler2.loadCount);
+    }
+
+    @Test
+    public void testProxyClassIsGeneratedOnce() {
+        Class<?> proxyClass = new LabelProxy("first").getInstance().getClass();
+        for (int i = 0; i < PROXY_COUNT; i++) {
+            SPARQLLabel proxy = new LabelProxy("value" + i).getInstance();
+            assertSame(proxyClass, proxy.getClass());
+            assertEquals("value" + i, proxy.getDefaultValue());
+        }
+    }
+}
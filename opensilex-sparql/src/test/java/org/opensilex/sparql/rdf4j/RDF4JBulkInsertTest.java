@@ -0,0 +1,95 @@
+//******************************************************************************
+//                          RDF4JBulkInsertTest.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.rdf4j;
+
+import org.apache.jena.arq.querybuilder.UpdateBuilder;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+import org.junit.After;
+import org.junit.Test;
+import org.opensilex.sparql.service.SPARQLQueryHelper;
+import org.opensilex.sparql.service.SPARQLService;
+import org.opensilex.sparql.service.SPARQLStatement;
+import org.opensilex.sparql.utils.OpenSilexTestEnvironment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compare insertion throughput of SPARQL UPDATE queries and direct quads insertion on an in-memory repository.
+ */
+public class RDF4JBulkInsertTest {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(RDF4JBulkInsertTest.class);
+
+    private static final int INSTANCE_COUNT = 20_000;
+
+    private static final URI UPDATE_GRAPH = URI.create("http://test.opensilex.org/bulk/update");
+
+    private static final URI BULK_GRAPH = URI.create("http://test.opensilex.org/bulk/insert");
+
+    @After
+    public void clearGraphs() throws Exception {
+        SPARQLService sparql = OpenSilexTestEnvironment.getInstance().getSparql();
+        sparql.clearGraph(UPDATE_GRAPH);
+        sparql.clearGraph(BULK_GRAPH);
+    }
+
+    @Test
+    public void testBulkInsertThroughput() throws Exception {
+        SPARQLService sparql = OpenSilexTestEnvironment.getInstance().getSparql();
+        assertTrue(sparql.hasNativeQuadsInsertion());
+
+        UpdateBuilder update = buildInsert(UPDATE_GRAPH);
+        long start = System.nanoTime();
+        sparql.executeUpdateQuery(update);
+        long updateDuration = System.nanoTime() - start;
+
+        UpdateBuilder insert = buildInsert(BULK_GRAPH);
+        assertNotNull(SPARQLQueryHelper.getInsertDataQuads(insert));
+        start = System.nanoTime();
+        sparql.executeInsertQuery(insert);
+        long bulkDuration = System.nanoTime() - start;
+
+        List<SPARQLStatement> updateStatements = sparql.getGraphStatement(UPDATE_GRAPH);
+        List<SPARQLStatement> bulkStatements = sparql.getGraphStatement(BULK_GRAPH);
+        assertEquals(INSTANCE_COUNT * 3, updateStatements.size());
+        assertEquals(updateStatements.size(), bulkStatements.size());
+
+        LOGGER.info("SPARQL UPDATE: " + triplesPerSecond(updateStatements.size(), updateDuration) + " triples/s");
+        LOGGER.info("Quads insertion: " + triplesPerSecond(bulkStatements.size(), bulkDuration) + " triples/s");
+    }
+
+    @Test
+    public void testInsertWithWhereIsNotBulkLoaded() throws Exception {
+        UpdateBuilder update = buildInsert(BULK_GRAPH);
+        update.addWhere("?s", RDF.type, RDFS.Class);
+        assertNull(SPARQLQueryHelper.getInsertDataQuads(update));
+    }
+
+    private static UpdateBuilder buildInsert(URI graph) {
+        Node graphNode = NodeFactory.createURI(graph.toString());
+        UpdateBuilder insert = new UpdateBuilder();
+        for (int i = 0; i < INSTANCE_COUNT; i++) {
+            Node subject = NodeFactory.createURI("http://test.opensilex.org/bulk/" + i);
+            insert.addInsert(graphNode, subject, RDF.type, RDFS.Resource);
+            insert.addInsert(graphNode, subject, RDFS.label, NodeFactory.createLiteral("instance " + i, "en"));
+            insert.addInsert(graphNode, subject, RDFS.comment, "comment " + i);
+        }
+        return insert;
+    }
+
+    private static long triplesPerSecond(int triples, long durationNanos) {
+        return triples * 1_000_000_000L / Math.max(durationNanos, 1);
+    }
+}
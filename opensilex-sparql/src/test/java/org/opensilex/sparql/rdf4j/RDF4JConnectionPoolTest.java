@@ -0,0 +1,100 @@
+//******************************************************************************
+//                          RDF4JConnectionPoolTest.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.rdf4j;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.routing.HttpRoute;
+import org.junit.Test;
+import org.opensilex.config.ConfigManager;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Check the pool limits taken from the {@link RDF4JConfig} and the lease statistics of {@link RDF4JConnectionPool}.
+ * Connections are leased without being opened, no RDF4J server is needed.
+ */
+public class RDF4JConnectionPoolTest {
+
+    private static final HttpRoute ROUTE = new HttpRoute(new HttpHost("localhost", 8080));
+
+    @Test
+    public void testPoolLimitsFromConfig() throws Exception {
+        ConfigManager configManager = new ConfigManager();
+        configManager.addLines(
+                "rdf4j:",
+                "    serverURI: http://localhost:8080/rdf4j-server/",
+                "    repository: test",
+                "    maxConnections: 5",
+                "    maxConnectionsPerRoute: 3",
+                "    idleConnectionTimeout: 0"
+        );
+        RDF4JConfig config = configManager.loadConfig("rdf4j", RDF4JConfig.class);
+
+        RDF4JServiceFactory factory = new RDF4JServiceFactory(config);
+        try {
+            RDF4JConnectionPoolStatistics statistics = factory.getConnectionPoolStatistics();
+            assertNotNull(statistics);
+            assertEquals(5, statistics.getMaxTotal());
+            assertEquals(3, statistics.getMaxPerRoute());
+            assertEquals(0, statistics.getLeased());
+            assertEquals(0, statistics.getLeaseCount());
+            assertEquals(0, statistics.getLeaseTimeoutCount());
+        } finally {
+            factory.getRepository().shutDown();
+        }
+    }
+
+    @Test
+    public void testNoStatisticsWithoutHttpRepository() {
+        RDF4JServiceFactory factory = new RDF4JInMemoryServiceFactory();
+        try {
+            assertNull(factory.getConnectionPoolStatistics());
+        } finally {
+            factory.getRepository().shutDown();
+        }
+    }
+
+    @Test
+    public void testLeaseCounters() throws Exception {
+        RDF4JConnectionPool pool = new RDF4JConnectionPool(1, 1, -1);
+        try {
+            HttpClientConnection connection = pool.requestConnection(ROUTE, null).get(1, TimeUnit.SECONDS);
+
+            RDF4JConnectionPoolStatistics statistics = pool.getStatistics();
+            assertEquals(1, statistics.getLeased());
+            assertEquals(1, statistics.getLeaseCount());
+            assertEquals(0, statistics.getLeaseTimeoutCount());
+
+            // the only connection is leased, next request wait until the lease timeout
+            assertThrows(ConnectionPoolTimeoutException.class, () -> pool.requestConnection(ROUTE, null).get(100, TimeUnit.MILLISECONDS));
+
+            statistics = pool.getStatistics();
+            assertEquals(1, statistics.getLeased());
+            assertEquals(2, statistics.getLeaseCount());
+            assertEquals(1, statistics.getLeaseTimeoutCount());
+            // the pool deadline has a millisecond precision
+            assertTrue(statistics.getMaxLeaseWaitMs() >= 90);
+            assertTrue(statistics.getAverageLeaseWaitMs() <= statistics.getMaxLeaseWaitMs());
+
+            // the connection is available again once released
+            pool.releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS);
+            assertEquals(0, pool.getStatistics().getLeased());
+            connection = pool.requestConnection(ROUTE, null).get(1, TimeUnit.SECONDS);
+            assertNotNull(connection);
+
+            statistics = pool.getStatistics();
+            assertEquals(3, statistics.getLeaseCount());
+            assertEquals(1, statistics.getLeaseTimeoutCount());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
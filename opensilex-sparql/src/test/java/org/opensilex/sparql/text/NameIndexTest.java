@@ -0,0 +1,75 @@
+//******************************************************************************
+//                          NameIndexTest.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2021
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.text;
+
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Check pattern parsing and substring, prefix and accent-insensitive matching of the name index.
+ */
+public class NameIndexTest {
+
+    private static final URI FIRST = URI.create("test:first");
+    private static final URI SECOND = URI.create("test:second");
+
+    private static Set<URI> search(NameIndex index, String pattern) {
+        return index.search(TextPattern.parse(pattern), 100);
+    }
+
+    @Test
+    public void testSearch() {
+        NameIndex index = new NameIndex();
+        index.put(FIRST, Arrays.asList("Blé tendre", "Apache"));
+        index.put(SECOND, Collections.singletonList("Maïs"));
+
+        assertEquals(Collections.singleton(FIRST), search(index, "ble"));
+        assertEquals(Collections.singleton(FIRST), search(index, "TENDRE"));
+        assertEquals(Collections.singleton(SECOND), search(index, "^mais$"));
+        assertEquals(Collections.singleton(SECOND), search(index, "^ma"));
+        assertEquals(Collections.singleton(FIRST), search(index, "ache$"));
+        assertTrue(search(index, "^tendre").isEmpty());
+        assertTrue(search(index, "unknown").isEmpty());
+        assertEquals(2, search(index, "a").size());
+    }
+
+    @Test
+    public void testUpdate() {
+        NameIndex index = new NameIndex();
+        index.put(FIRST, Collections.singletonList("first name"));
+        index.put(FIRST, Collections.singletonList("new name"));
+        assertTrue(search(index, "first").isEmpty());
+        assertEquals(Collections.singleton(FIRST), search(index, "new"));
+
+        index.put(FIRST, Collections.emptyList());
+        assertTrue(search(index, "name").isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testMaxResults() {
+        NameIndex index = new NameIndex();
+        index.put(FIRST, Collections.singletonList("name"));
+        index.put(SECOND, Collections.singletonList("name"));
+        assertNull(index.search(TextPattern.parse("name"), 1));
+    }
+
+    @Test
+    public void testUnsupportedPattern() {
+        assertNull(TextPattern.parse(""));
+        assertNull(TextPattern.parse("^"));
+        assertNull(TextPattern.parse("na.e"));
+        assertNull(TextPattern.parse("(a|b)"));
+        assertNotNull(TextPattern.parse("^name$"));
+    }
+}